@@ -2,8 +2,8 @@
 
 import { useEffect, useState, useMemo } from "react";
 import { useRouter } from 'next/navigation';
-import { Disponibilidad, ReservaTutoriaRequest } from "@/models/sesion.models";
-import { getDisponibilidadTutor } from "@/services/sesion.service";
+import { HorarioLibre, ReservaTutoriaRequest } from "@/models/sesion.models";
+import { getHorariosLibresTutor } from "@/services/sesion.service";
 import { iniciarProcesoDePago } from "@/services/reserva.service"; 
 
 // Componentes UI de shadcn/ui
@@ -16,59 +16,57 @@ import { Calendar, Clock, CreditCard, Minus, Plus, AlertCircle, Loader2 } from "
 
 export function ReservaTutoria({ tutorId, tarifaHora }: { tutorId: number, tarifaHora: number }) {
   const router = useRouter();
-  const [disponibilidad, setDisponibilidad] = useState<Disponibilidad[]>([]);
+  const [horarios, setHorarios] = useState<HorarioLibre[]>([]);
   const [loading, setLoading] = useState(true);
-  const [selectedBlock, setSelectedBlock] = useState<Disponibilidad | null>(null);
+  const [selectedFecha, setSelectedFecha] = useState<string | null>(null);
   const [horaInicio, setHoraInicio] = useState("");
   const [duracion, setDuracion] = useState(1);
   const [error, setError] = useState<string | null>(null);
   const [isReserving, setIsReserving] = useState(false);
 
+  // Los horarios dependen de la duración: se piden de nuevo cada vez que cambia
   useEffect(() => {
-    getDisponibilidadTutor(tutorId)
-      .then(data => setDisponibilidad(data))
+    setLoading(true);
+    getHorariosLibresTutor(tutorId, duracion * 60)
+      .then(data => setHorarios(data))
       .catch((err) => setError(err.message || "No se pudo cargar la disponibilidad. Intenta recargar."))
       .finally(() => setLoading(false));
-  }, [tutorId]);
+  }, [tutorId, duracion]);
 
-  const opcionesHoraInicio = useMemo(() => {
-    if (!selectedBlock) return [];
-    const opciones = [];
-    let horaActual = new Date(selectedBlock.horaInicial);
-    const horaFinalBloque = new Date(selectedBlock.horaFinal);
-    while (horaActual < horaFinalBloque) {
-      opciones.push(horaActual.toTimeString().split(' ')[0]);
-      horaActual.setHours(horaActual.getHours() + 1);
-    }
-    return opciones;
-  }, [selectedBlock]);
+  const fechas = useMemo(() => Array.from(new Set(horarios.map(h => h.fecha))), [horarios]);
+
+  const opcionesHoraInicio = useMemo(
+    () => horarios.filter(h => h.fecha === selectedFecha).map(h => h.horaInicial.split(' ')[1]),
+    [horarios, selectedFecha]
+  );
 
   const precioTotal = useMemo(() => (tarifaHora || 0) * duracion, [tarifaHora, duracion]);
 
-  const handleBlockSelect = (block: Disponibilidad) => {
-    setSelectedBlock(block);
+  const handleFechaSelect = (fecha: string) => {
+    setSelectedFecha(fecha);
     setHoraInicio('');
-    setDuracion(1);
     setError(null);
   };
 
+  const handleDuracionChange = (nueva: number) => {
+    setDuracion(nueva);
+    setHoraInicio('');
+  };
+
   const handleReserve = async () => {
-    if (!selectedBlock || !horaInicio) {
+    const horario = horarios.find(h => h.fecha === selectedFecha && h.horaInicial.split(' ')[1] === horaInicio);
+    if (!horario) {
         setError("Por favor, selecciona una hora de inicio.");
         return;
     }
     setIsReserving(true);
     setError(null);
 
-    const fecha = selectedBlock.fecha;
-    const horaFinal = new Date(fecha + 'T' + horaInicio);
-    horaFinal.setHours(horaFinal.getHours() + duracion);
-
     const reservaData: ReservaTutoriaRequest = {
       tutorId,
-      fecha,
+      fecha: horario.fecha,
       horaInicio,
-      horaFinal: horaFinal.toTimeString().split(' ')[0],
+      horaFinal: horario.horaFinal.split(' ')[1],
     };
 
     try {
@@ -81,7 +79,6 @@ export function ReservaTutoria({ tutorId, tarifaHora }: { tutorId: number, tarif
   };
   
   const formatDate = (dateString: string) => new Date(dateString + 'T00:00:00').toLocaleDateString('es-ES', { weekday: 'long', day: 'numeric', month: 'long' });
-  const formatTime = (dateTimeString: string) => new Date(dateTimeString).toLocaleTimeString('es-ES', { hour: '2-digit', minute: '2-digit' });
 
   return (
     <Card className="shadow-lg">
@@ -89,18 +86,18 @@ export function ReservaTutoria({ tutorId, tarifaHora }: { tutorId: number, tarif
         <CardTitle className="flex items-center gap-2"><Calendar className="h-5 w-5 text-primary" />Reserva tu Tutoría</CardTitle>
       </CardHeader>
       <CardContent className="space-y-6">
-        {loading ? (
+        {loading && fechas.length === 0 ? (
           <div className="flex items-center justify-center py-8"><Loader2 className="h-6 w-6 animate-spin" /></div>
         ) : (
           <>
             <div>
               <Label className="font-semibold text-card-foreground">1. Elige un día disponible</Label>
               <div className="space-y-2 mt-2">
-                {disponibilidad.length > 0 ? (
-                  disponibilidad.map(block => (
-                    <div key={block.id} onClick={() => handleBlockSelect(block)} className={`p-3 border rounded-lg cursor-pointer transition-all ${selectedBlock?.id === block.id ? 'bg-primary text-primary-foreground shadow-md' : 'bg-secondary/50 hover:bg-secondary'}`}>
-                      <p className="font-semibold">{formatDate(block.fecha)}</p>
-                      <p className="text-sm opacity-90">{formatTime(block.horaInicial)} - {formatTime(block.horaFinal)}</p>
+                {fechas.length > 0 ? (
+                  fechas.map(fecha => (
+                    <div key={fecha} onClick={() => handleFechaSelect(fecha)} className={`p-3 border rounded-lg cursor-pointer transition-all ${selectedFecha === fecha ? 'bg-primary text-primary-foreground shadow-md' : 'bg-secondary/50 hover:bg-secondary'}`}>
+                      <p className="font-semibold">{formatDate(fecha)}</p>
+                      <p className="text-sm opacity-90">{horarios.filter(h => h.fecha === fecha).length} horarios libres</p>
                     </div>
                   ))
                 ) : (
@@ -109,7 +106,7 @@ export function ReservaTutoria({ tutorId, tarifaHora }: { tutorId: number, tarif
               </div>
             </div>
 
-            {selectedBlock && (
+            {selectedFecha && (
               <div className="space-y-4 pt-4 border-t animate-in fade-in-50">
                 <Label className="font-semibold text-card-foreground">2. Configura tu sesión</Label>
                 <div className="grid grid-cols-1 gap-4">
@@ -123,9 +120,9 @@ export function ReservaTutoria({ tutorId, tarifaHora }: { tutorId: number, tarif
                   <div>
                     <Label className="text-sm">Duración</Label>
                     <div className="flex items-center gap-3 mt-1">
-                      <Button type="button" variant="outline" size="icon" className="h-8 w-8" onClick={() => setDuracion(d => Math.max(1, d - 1))} disabled={duracion <= 1}><Minus className="h-4 w-4" /></Button>
+                      <Button type="button" variant="outline" size="icon" className="h-8 w-8" onClick={() => handleDuracionChange(Math.max(1, duracion - 1))} disabled={duracion <= 1}><Minus className="h-4 w-4" /></Button>
                       <span className="font-bold text-center w-20">{duracion} {duracion > 1 ? "horas" : "hora"}</span>
-                      <Button type="button" variant="outline" size="icon" className="h-8 w-8" onClick={() => setDuracion(d => d + 1)}><Plus className="h-4 w-4" /></Button>
+                      <Button type="button" variant="outline" size="icon" className="h-8 w-8" onClick={() => handleDuracionChange(duracion + 1)} disabled={duracion >= 8}><Plus className="h-4 w-4" /></Button>
                     </div>
                   </div>
                 </div>
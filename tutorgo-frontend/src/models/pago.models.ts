@@ -14,6 +14,14 @@ export interface PagoResponse {
   descripcion: string;
 }
 
+// Página de GET /pagos/historial/pagina: nextCursor es null en la última
+export interface HistorialPagosPagina {
+  content: PagoResponse[];
+  pageSize: number;
+  last: boolean;
+  nextCursor: string | null;
+}
+
 export interface MetodoPagoGuardado {
   id: string; // Usaremos un ID aleatorio o un timestamp
   tipo: 'Visa' | 'Mastercard' | 'Otro';
@@ -21,3 +29,21 @@ export interface MetodoPagoGuardado {
   expiracion: string; // "MM/AA"
 }
 
+
+export interface IngresoDiario {
+  fecha: string; // "YYYY-MM-DD"
+  montoBruto: number;
+  comisionPlataforma: number;
+  montoNeto: number;
+  cantidadPagos: number;
+}
+
+export interface IngresosResponse {
+  desde: string;
+  hasta: string;
+  montoBruto: number;
+  comisionPlataforma: number;
+  montoNeto: number;
+  cantidadPagos: number;
+  dias: IngresoDiario[]; // solo los días con pagos
+}
@@ -8,6 +8,12 @@ export interface ReservaTutoriaRequest {
   horaFinal: string;  // Formato "HH:mm:ss"
 }
 
+// POST /sesiones/paquete: varias sesiones con el mismo tutor, se reservan todas o ninguna
+export interface ReservaPaqueteRequest {
+  tutorId: number;
+  sesiones: Omit<ReservaTutoriaRequest, 'tutorId'>[];
+}
+
 // Basado en tu SesionResponse del backend
 export interface SesionResponse {
   id: number;
@@ -18,7 +24,8 @@ export interface SesionResponse {
   fecha: string;           // "YYYY-MM-DD"
   horaInicial: string;     // "YYYY-MM-DD HH:mm:ss"
   horaFinal: string;       // "YYYY-MM-DD HH:mm:ss"
-  tipoEstado: 'PENDIENTE' | 'CONFIRMADO';
+  tipoEstado: 'PENDIENTE' | 'CONFIRMADO' | 'VENCIDO';
+  reservadaHasta?: string | null; // "YYYY-MM-DD HH:mm:ss": si no se paga antes, el horario se libera
   enlaces: EnlaceSesionResponse[];
   fueCalificada: boolean; // ***** CAMPO AÑADIDO *****
 }
@@ -26,11 +33,19 @@ export interface SesionResponse {
 // Para simular la disponibilidad del tutor
 export interface Disponibilidad {
     id: number;
+    reglaId?: number | null; // Ocurrencia de una regla semanal (GET /tutores/{id}/disponibilidades): llega sin id
     fecha: string;      // "YYYY-MM-DD"
     horaInicial: string; // "YYYY-MM-DD HH:mm:ss"
     horaFinal: string;   // "YYYY-MM-DD HH:mm:ss"
 }
 
+// GET /tutores/{id}/slots
+export interface HorarioLibre {
+    fecha: string;       // "YYYY-MM-DD"
+    horaInicial: string; // "YYYY-MM-DD HH:mm:ss"
+    horaFinal: string;   // "YYYY-MM-DD HH:mm:ss"
+}
+
 export interface ConfirmarPagoRequest {
   sesionId: number;
   metodoPago: 'TARJETA_CREDITO' | 'PAYPAL' | 'TRANSFERENCIA'; // Usamos tipos literales
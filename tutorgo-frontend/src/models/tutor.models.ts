@@ -15,9 +15,29 @@ export interface PagedResponse<T> {
   content: T[];
   pageNumber: number;
   pageSize: number;
+  // -1 en las páginas pedidas con cursor: solo la primera cuenta
   totalElements: number;
   totalPages: number;
   last: boolean;
+  nextCursor?: string | null;
+}
+
+// Basado en FacetaResponse / TutorFacetasResponse (GET /tutores?facetas=true)
+export interface Faceta {
+  valor: string;
+  desde: number | null;
+  hasta: number | null;
+  cantidad: number;
+}
+
+export interface TutorFacetas {
+  precios: Faceta[];
+  estrellas: Faceta[];
+  rubros: Faceta[];
+}
+
+export interface TutorCatalogo extends PagedResponse<TutorSummary> {
+  facetas?: TutorFacetas;
 }
 
 export interface TutorProfile {
@@ -45,12 +45,42 @@ export const getMisTutorias = async (): Promise<SesionResponse[]> => {
     }
 };
 
-export const confirmarPago = async (pagoData: ConfirmarPagoRequest): Promise<string> => {
+// idempotencyKey: la misma en todos los reintentos de un pago (p. ej. crypto.randomUUID() al abrir el checkout),
+// así un reintento tras un timeout devuelve el pago ya hecho en lugar de intentarlo de nuevo
+export const confirmarPago = async (pagoData: ConfirmarPagoRequest, idempotencyKey?: string): Promise<string> => {
     try {
         // Tu backend devuelve un ApiResponse, extraemos el mensaje de éxito.
-        const response = await api.post(`/sesiones/${pagoData.sesionId}/pagos`, pagoData);
+        const response = await api.post(`/sesiones/${pagoData.sesionId}/pagos`, pagoData,
+            idempotencyKey ? { headers: { 'Idempotency-Key': idempotencyKey } } : undefined);
         return response.data.message || "Pago procesado exitosamente.";
     } catch (error: any) {
         throw new Error(error.response?.data?.message || "No se pudo procesar el pago.");
     }
-};
\ No newline at end of file
+};
+// Reglas semanales: "lunes y miércoles de 18:00 a 21:00 entre dos fechas", sin una fila por fecha
+export interface ReglaDisponibilidadRequest {
+    diasSemana: string[];   // "MONDAY", "WEDNESDAY", ...
+    horaInicio: string;     // "HH:mm:ss"
+    horaFinal: string;
+    fechaInicio: string;    // "YYYY-MM-DD"
+    fechaFin: string;
+    excepciones?: string[];
+}
+
+export const addReglaDisponibilidad = async (data: ReglaDisponibilidadRequest) => {
+    try {
+        const response = await api.post('/tutores/me/reglas-disponibilidad', data);
+        return response.data;
+    } catch (error: any) {
+        throw new Error(error.response?.data?.message || "No se pudo crear la regla de disponibilidad.");
+    }
+};
+
+export const excluirFechaDeRegla = async (reglaId: number, fecha: string) => {
+    try {
+        const response = await api.put(`/tutores/me/reglas-disponibilidad/${reglaId}/excepciones/${fecha}`);
+        return response.data;
+    } catch (error: any) {
+        throw new Error(error.response?.data?.message || "No se pudo excluir la fecha de la regla.");
+    }
+};
@@ -1,5 +1,5 @@
 import api from '@/lib/api';
-import { PagoResponse } from '@/models/pago.models';
+import { HistorialPagosPagina, IngresosResponse, PagoResponse } from '@/models/pago.models';
 
 export const getHistorialPagos = async (query?: string, estado?: string): Promise<PagoResponse[]> => {
   try {
@@ -15,6 +15,27 @@ export const getHistorialPagos = async (query?: string, estado?: string): Promis
   }
 };
 
+export const getHistorialPagosPagina = async (cursor?: string | null, size = 20): Promise<HistorialPagosPagina> => {
+  try {
+    const params = new URLSearchParams({ size: String(size) });
+    if (cursor) params.append('cursor', cursor);
+    const response = await api.get<HistorialPagosPagina>(`/pagos/historial/pagina?${params.toString()}`);
+    return response.data;
+  } catch (error: any) {
+    throw new Error(error.response?.data?.message || "No se pudo cargar tu historial de pagos.");
+  }
+};
+
+// Descarga el historial completo (csv o ndjson) como archivo
+export const exportarHistorialPagos = async (formato: 'csv' | 'ndjson' = 'csv'): Promise<Blob> => {
+  try {
+    const response = await api.get(`/pagos/historial/exportar?formato=${formato}`, { responseType: 'blob' });
+    return response.data;
+  } catch (error: any) {
+    throw new Error("No se pudo exportar tu historial de pagos.");
+  }
+};
+
 export const getPagoDetails = async (pagoId: number): Promise<PagoResponse> => {
     try {
         const response = await api.get<PagoResponse>(`/pagos/${pagoId}/details`);
@@ -22,4 +43,16 @@ export const getPagoDetails = async (pagoId: number): Promise<PagoResponse> => {
     } catch (error: any) {
         throw new Error(error.response?.data?.message || 'No se pudieron obtener los detalles del pago.');
     }
-};
\ No newline at end of file
+};
+
+export const getMisIngresos = async (desde?: string, hasta?: string): Promise<IngresosResponse> => {
+    try {
+        const params = new URLSearchParams();
+        if (desde) params.append('desde', desde);
+        if (hasta) params.append('hasta', hasta);
+        const response = await api.get<IngresosResponse>(`/pagos/ingresos?${params.toString()}`);
+        return response.data;
+    } catch (error: any) {
+        throw new Error(error.response?.data?.message || 'No se pudieron cargar tus ingresos.');
+    }
+};
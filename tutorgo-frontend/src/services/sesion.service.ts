@@ -1,6 +1,7 @@
 // src/services/sesion.service.ts
 import api from '@/lib/api';
-import { SesionResponse, Disponibilidad } from '@/models/sesion.models';
+import { SesionResponse, Disponibilidad, HorarioLibre, ReservaPaqueteRequest } from '@/models/sesion.models';
+import { PagedResponse } from '@/models/tutor.models';
 
 export const getMisTutorias = async (): Promise<SesionResponse[]> => {
     try {
@@ -12,12 +13,33 @@ export const getMisTutorias = async (): Promise<SesionResponse[]> => {
     }
 };
 
-export const getDisponibilidadTutor = async (tutorId: number): Promise<Disponibilidad[]> => {
+// Una página de la ventana pedida (por defecto, las próximas 4 semanas)
+export const getDisponibilidadTutor = async (tutorId: number, page = 0, size = 20): Promise<Disponibilidad[]> => {
   try {
-    const response = await api.get<Disponibilidad[]>(`/tutores/${tutorId}/disponibilidades`);
-    return response.data || [];
+    const response = await api.get<PagedResponse<Disponibilidad>>(`/tutores/${tutorId}/disponibilidades`, { params: { page, size } });
+    return response.data?.content || [];
   } catch (error: any) {
     if (error.response?.status === 204) return [];
     throw new Error(error.response?.data?.message || "No se pudo cargar la disponibilidad del tutor.");
   }
-};
\ No newline at end of file
+};
+
+// Horarios que se pueden reservar tal cual; el backend ya descontó las sesiones ocupadas
+export const getHorariosLibresTutor = async (tutorId: number, duracionMinutos: number): Promise<HorarioLibre[]> => {
+  try {
+    const response = await api.get<HorarioLibre[]>(`/tutores/${tutorId}/slots`, { params: { duracion: duracionMinutos } });
+    return response.data || [];
+  } catch (error: any) {
+    throw new Error(error.response?.data?.message || "No se pudieron cargar los horarios del tutor.");
+  }
+};
+
+// Si algún horario no se puede reservar, el mensaje del backend los lista todos y no se crea ninguna sesión
+export const reservarPaquete = async (data: ReservaPaqueteRequest): Promise<SesionResponse[]> => {
+  try {
+    const response = await api.post('/sesiones/paquete', data);
+    return response.data?.data || [];
+  } catch (error: any) {
+    throw new Error(error.response?.data?.message || "No se pudo reservar el paquete de sesiones.");
+  }
+};
@@ -25,6 +25,18 @@ export const getTutorProfileById = async (tutorId: number): Promise<TutorProfile
   }
 };
 
+// Un solo request para todos los tutores de una lista (sesiones, pagos, notificaciones)
+export const getTutorProfilesByIds = async (tutorIds: number[]): Promise<TutorProfile[]> => {
+  const ids = Array.from(new Set(tutorIds));
+  if (ids.length === 0) return [];
+  try {
+    const response = await api.get<TutorProfile[]>(`/tutores?ids=${ids.join(',')}`);
+    return response.data;
+  } catch (error: any) {
+    throw new Error(error.response?.data?.message || 'No se pudieron cargar los perfiles de los tutores.');
+  }
+};
+
 export const getFeaturedTutors = async (): Promise<TutorSummary[]> => {
   try {
     const params = new URLSearchParams({ sortBy: 'estrellasPromedio', sortDir: 'desc', size: '4' });
@@ -0,0 +1,194 @@
+package tutorgo.com.carga;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tutorgo.com.dto.request.ConfirmarPagoRequest;
+import tutorgo.com.dto.request.ReservaTutoriaRequest;
+import tutorgo.com.enums.MetodoPagoEnum;
+import tutorgo.com.exception.BadRequestException;
+import tutorgo.com.exception.ServicioSaturadoException;
+import tutorgo.com.service.PagoService;
+import tutorgo.com.service.SesionService;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// Prueba de carga del camino de reserva: muchos alumnos reservando (reservarTutoria) y pagando
+// (procesarPagoYConfirmarSesion) a la vez sobre pocos tutores. Arranca la aplicación entera contra
+// un PostgreSQL local, siembra tutores, disponibilidad y alumnos sintéticos, dispara los flujos y
+// al final informa throughput, latencias, desenlaces y las violaciones que encuentra en la base
+// (dos sesiones activas del mismo tutor que se pisan, o más pagos que sesiones confirmadas).
+//
+// Llama a los servicios directamente, sin HTTP ni JWT: mide el motor de reservas, no el transporte.
+// Con la misma semilla cada alumno pide los mismos horarios en cada corrida, así que dos corridas
+// (antes y después de un cambio) se pueden comparar. Se ejecuta con el perfil "carga" del pom.
+public final class CargaReservas {
+
+    // Disponibilidad sembrada: de 08:00 a 20:00 cada día; los alumnos piden horas enteras
+    private static final int PRIMERA_HORA = 8;
+    private static final int ULTIMA_HORA = 20;
+
+    record Parametros(int alumnos, int tutores, int hilos, int reservasPorAlumno, int dias,
+                      double probabilidadPago, long semilla, int pool,
+                      String jdbcUrl, String jdbcUsuario, String jdbcClave, Path esquema) {
+
+        static Parametros desdeSistema() {
+            return new Parametros(
+                    Integer.getInteger("carga.alumnos", 500),
+                    Integer.getInteger("carga.tutores", 20),
+                    Integer.getInteger("carga.hilos", 100),
+                    Integer.getInteger("carga.reservas-por-alumno", 3),
+                    Integer.getInteger("carga.dias", 5),
+                    Double.parseDouble(System.getProperty("carga.probabilidad-pago", "0.8")),
+                    Long.getLong("carga.semilla", 42L),
+                    Integer.getInteger("carga.pool", 20),
+                    System.getProperty("carga.jdbc-url", ""),
+                    System.getProperty("carga.jdbc-usuario", "postgres"),
+                    System.getProperty("carga.jdbc-clave", "postgres"),
+                    Path.of(System.getProperty("carga.esquema", "../b2.sql")));
+        }
+    }
+
+    private final Parametros parametros;
+    private final SesionService sesionService;
+    private final PagoService pagoService;
+    private final Medicion reservas = new Medicion("reserva");
+    private final Medicion pagos = new Medicion("pago");
+    private final AtomicBoolean errorMostrado = new AtomicBoolean();
+
+    private CargaReservas(Parametros parametros, SesionService sesionService, PagoService pagoService) {
+        this.parametros = parametros;
+        this.sesionService = sesionService;
+        this.pagoService = pagoService;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Parametros parametros = Parametros.desdeSistema();
+        System.out.println("Parámetros: " + parametros);
+
+        try (PostgresLocal base = parametros.jdbcUrl().isBlank()
+                ? PostgresLocal.embebido(parametros.esquema())
+                : PostgresLocal.externo(parametros.jdbcUrl(), parametros.jdbcUsuario(), parametros.jdbcClave());
+             ConfigurableApplicationContext contexto = base.arrancarAplicacion(parametros.pool())) {
+
+            JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+            DatosSinteticos datos = DatosSinteticos.sembrar(jdbc, parametros.tutores(), parametros.alumnos(),
+                    LocalDate.now().plusDays(1), parametros.dias(), LocalTime.of(PRIMERA_HORA, 0), LocalTime.of(ULTIMA_HORA, 0));
+            System.out.printf("Sembrados %d tutores, %d alumnos y %d días de disponibilidad (prefijo %s)%n",
+                    datos.tutorIds().size(), datos.alumnoEmails().size(), parametros.dias(), datos.prefijo());
+
+            CargaReservas carga = new CargaReservas(parametros,
+                    contexto.getBean(SesionService.class), contexto.getBean(PagoService.class));
+            double segundos = carga.correr(datos);
+
+            System.out.println();
+            System.out.printf("Duración: %.2f s con %d hilos%n", segundos, parametros.hilos());
+            System.out.print(carga.reservas.resumen(segundos));
+            System.out.print(carga.pagos.resumen(segundos));
+            long conflictos = carga.reservas.cantidad("rechazada") + carga.reservas.cantidad("conflicto-version")
+                    + carga.reservas.cantidad("rechazo-base");
+            System.out.printf("Tasa de conflicto en reservas: %.1f%%%n",
+                    100.0 * conflictos / Math.max(1, (long) parametros.alumnos() * parametros.reservasPorAlumno()));
+            System.out.printf("Violaciones: %d pares de sesiones activas solapadas, %d pagos sin sesión confirmada%n",
+                    datos.sesionesSolapadas(jdbc), datos.pagosDeMas(jdbc));
+        }
+    }
+
+    // Cada alumno es una tarea: sus reservas (y pagos) van en secuencia, los alumnos en paralelo.
+    // Todos esperan la misma señal de largada para que la presión empiece de golpe.
+    private double correr(DatosSinteticos datos) throws Exception {
+        ExecutorService hilos = Executors.newFixedThreadPool(parametros.hilos());
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> alumnos = new ArrayList<>();
+        for (int i = 0; i < datos.alumnoEmails().size(); i++) {
+            String email = datos.alumnoEmails().get(i);
+            Random azar = new Random(parametros.semilla() + i);
+            alumnos.add(hilos.submit(() -> {
+                largada.await();
+                flujoDeAlumno(email, azar, datos);
+                return null;
+            }));
+        }
+        long inicio = System.nanoTime();
+        largada.countDown();
+        try {
+            for (Future<?> alumno : alumnos) {
+                alumno.get();
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+        return (System.nanoTime() - inicio) / 1e9;
+    }
+
+    private void flujoDeAlumno(String email, Random azar, DatosSinteticos datos) {
+        for (int n = 0; n < parametros.reservasPorAlumno(); n++) {
+            ReservaTutoriaRequest reserva = new ReservaTutoriaRequest();
+            reserva.setTutorId(datos.tutorIds().get(azar.nextInt(datos.tutorIds().size())));
+            reserva.setFecha(datos.primerDia().plusDays(azar.nextInt(parametros.dias())));
+            int hora = PRIMERA_HORA + azar.nextInt(ULTIMA_HORA - PRIMERA_HORA);
+            reserva.setHoraInicio(LocalTime.of(hora, 0));
+            reserva.setHoraFinal(LocalTime.of(hora + 1, 0));
+            boolean pagar = azar.nextDouble() < parametros.probabilidadPago();
+            MetodoPagoEnum metodo = MetodoPagoEnum.values()[azar.nextInt(MetodoPagoEnum.values().length)];
+            String claveIdempotencia = new UUID(azar.nextLong(), azar.nextLong()).toString();
+
+            Long sesionId = medir(reservas, () -> sesionService.reservarTutoria(email, reserva).getId());
+            if (sesionId != null && pagar) {
+                ConfirmarPagoRequest pago = new ConfirmarPagoRequest();
+                pago.setSesionId(sesionId);
+                pago.setMetodoPago(metodo);
+                medir(pagos, () -> pagoService.procesarPagoYConfirmarSesion(email, pago, claveIdempotencia));
+            }
+        }
+    }
+
+    private <T> T medir(Medicion medicion, Supplier<T> operacion) {
+        long inicio = System.nanoTime();
+        try {
+            T resultado = operacion.get();
+            medicion.registrar(Medicion.OK, System.nanoTime() - inicio);
+            return resultado;
+        } catch (RuntimeException e) {
+            medicion.registrar(desenlace(e), System.nanoTime() - inicio);
+            return null;
+        }
+    }
+
+    private String desenlace(RuntimeException e) {
+        if (e instanceof BadRequestException) {
+            return "rechazada";          // horario ocupado o fuera de la disponibilidad
+        }
+        if (e instanceof ServicioSaturadoException) {
+            return "saturado";           // la cola del carril del tutor no avanzó a tiempo
+        }
+        if (e instanceof OptimisticLockingFailureException) {
+            return "conflicto-version";  // se agotaron los reintentos de ReintentoOptimista
+        }
+        if (e instanceof PessimisticLockingFailureException) {
+            return "bloqueo-base";       // interbloqueo o espera de lock abortada por PostgreSQL
+        }
+        if (e instanceof DataIntegrityViolationException) {
+            return "rechazo-base";       // lo frenó una restricción de PostgreSQL
+        }
+        // Lo inesperado se muestra una vez completo; después solo se cuenta
+        if (errorMostrado.compareAndSet(false, true)) {
+            e.printStackTrace();
+        }
+        return "error " + e.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,215 @@
+package tutorgo.com.carga;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tutorgo.com.model.Disponibilidad;
+import tutorgo.com.model.Sesion;
+import tutorgo.com.model.Tutor;
+import tutorgo.com.repository.DisponibilidadRepository;
+import tutorgo.com.repository.SesionRepository;
+import tutorgo.com.search.AgendaTutorIndex;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Compara la agenda en memoria (AgendaTutorIndex) con las consultas SQL que reemplaza, contra un
+// PostgreSQL de verdad: altas, cambios y bajas al azar de bloques y sesiones, cada una en su
+// transacción y avisándole a la agenda como lo hacen los servicios, intercaladas con consultas que se
+// hacen a los dos lados. Las fechas van de dos semanas atrás a una adelante, así que también pasan por
+// las que la agenda no carga y responde con la base.
+//
+// Las escrituras que rechazan las restricciones de solapamiento, y algunas que se revierten a
+// propósito, no deben dejar rastro en la agenda. Termina con error si hubo alguna diferencia.
+// Se ejecuta con el perfil "carga" del pom y -Dcarga.principal=tutorgo.com.carga.ConsistenciaAgenda.
+public final class ConsistenciaAgenda {
+
+    private static final int TUTORES = 3;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transaccion;
+    private final AgendaTutorIndex agenda;
+    private final DisponibilidadRepository disponibilidadRepository;
+    private final SesionRepository sesionRepository;
+    private final DatosSinteticos datos;
+    private final Long estudianteId;
+    private final LocalDate hoy = LocalDate.now();
+
+    // Lo que quedó guardado: {id, tutorId}
+    private final List<long[]> bloques = new ArrayList<>();
+    private final List<long[]> sesiones = new ArrayList<>();
+    private long consultas;
+    private long rechazadas;
+    private long revertidas;
+    private long diferencias;
+
+    private ConsistenciaAgenda(ConfigurableApplicationContext contexto, DatosSinteticos datos) {
+        this.jdbc = contexto.getBean(JdbcTemplate.class);
+        this.transaccion = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+        this.agenda = contexto.getBean(AgendaTutorIndex.class);
+        this.disponibilidadRepository = contexto.getBean(DisponibilidadRepository.class);
+        this.sesionRepository = contexto.getBean(SesionRepository.class);
+        this.datos = datos;
+        this.estudianteId = jdbc.queryForObject("SELECT e.id FROM estudiantes e JOIN usuarios u ON u.id = e.usuario_id " +
+                "WHERE u.email = ?", Long.class, datos.alumnoEmails().get(0));
+    }
+
+    public static void main(String[] args) throws Exception {
+        long semilla = Long.getLong("carga.semilla", 42L);
+        int pasos = Integer.getInteger("carga.pasos", 3000);
+        String jdbcUrl = System.getProperty("carga.jdbc-url", "");
+
+        try (PostgresLocal base = jdbcUrl.isBlank()
+                ? PostgresLocal.embebido(Path.of(System.getProperty("carga.esquema", "../b2.sql")))
+                : PostgresLocal.externo(jdbcUrl, System.getProperty("carga.jdbc-usuario", "postgres"),
+                System.getProperty("carga.jdbc-clave", "postgres"));
+             ConfigurableApplicationContext contexto = base.arrancarAplicacion(Integer.getInteger("carga.pool", 5))) {
+
+            // Solo tutores y un alumno: los bloques los agrega la corrida
+            DatosSinteticos datos = DatosSinteticos.sembrar(contexto.getBean(JdbcTemplate.class), TUTORES, 1,
+                    LocalDate.now(), 0, LocalTime.MIN, LocalTime.MIN);
+            ConsistenciaAgenda consistencia = new ConsistenciaAgenda(contexto, datos);
+            consistencia.correr(new Random(semilla), pasos);
+
+            System.out.printf("%d pasos, %d consultas comparadas, %d escrituras rechazadas por la base, %d revertidas%n",
+                    pasos, consistencia.consultas, consistencia.rechazadas, consistencia.revertidas);
+            System.out.printf("Diferencias entre la agenda y SQL: %d%n", consistencia.diferencias);
+            if (consistencia.diferencias > 0) {
+                throw new IllegalStateException("La agenda en memoria no coincide con la base");
+            }
+        }
+    }
+
+    private void correr(Random azar, int pasos) {
+        for (int paso = 0; paso < pasos; paso++) {
+            int operacion = azar.nextInt(12);
+            Long tutorId = datos.tutorIds().get(azar.nextInt(TUTORES));
+            LocalDate fecha = hoy.plusDays(azar.nextInt(21) - 14L);
+            LocalDateTime desde = LocalDateTime.of(fecha, LocalTime.MIN).plusMinutes(azar.nextInt(80) * 15L);
+            LocalDateTime hasta = desde.plusMinutes(15 + azar.nextInt(16) * 15L);
+            try {
+                switch (operacion) {
+                    case 0, 1 -> altaDeBloque(tutorId, fecha, desde, hasta, azar.nextInt(10) == 0);
+                    case 2 -> cambioDeBloque(azar, fecha, desde, hasta);
+                    case 3 -> bajaDeBloque(azar);
+                    case 4 -> altaDeSesion(tutorId, fecha, desde, desde.plusMinutes(45));
+                    case 5 -> bajaDeSesion(azar);
+                    case 6 -> agenda.olvidarTutor(tutorId);
+                    default -> comparar(azar, tutorId, fecha, desde, hasta);
+                }
+            } catch (DataIntegrityViolationException e) {
+                rechazadas++;
+            }
+        }
+    }
+
+    private void altaDeBloque(Long tutorId, LocalDate fecha, LocalDateTime desde, LocalDateTime hasta, boolean revertir) {
+        Long id = transaccion.execute(estado -> {
+            Long nuevo = jdbc.queryForObject("INSERT INTO disponibilidades (tutor_id, fecha, hora_inicial, hora_final) " +
+                    "VALUES (?, ?, ?, ?) RETURNING id", Long.class, tutorId, fecha, desde, hasta);
+            agenda.registrarDisponibilidad(bloque(nuevo, tutorId, fecha, desde, hasta));
+            // La restricción es diferida: se fuerza acá para que el rechazo no llegue recién con el commit
+            jdbc.execute("SET CONSTRAINTS ALL IMMEDIATE");
+            if (revertir) {
+                estado.setRollbackOnly();
+            }
+            return nuevo;
+        });
+        if (revertir) {
+            revertidas++;
+        } else {
+            bloques.add(new long[]{id, tutorId});
+        }
+    }
+
+    private void cambioDeBloque(Random azar, LocalDate fecha, LocalDateTime desde, LocalDateTime hasta) {
+        if (bloques.isEmpty()) {
+            return;
+        }
+        long[] bloque = bloques.get(azar.nextInt(bloques.size()));
+        transaccion.executeWithoutResult(estado -> {
+            jdbc.update("UPDATE disponibilidades SET fecha = ?, hora_inicial = ?, hora_final = ? WHERE id = ?",
+                    fecha, desde, hasta, bloque[0]);
+            agenda.registrarDisponibilidad(bloque(bloque[0], bloque[1], fecha, desde, hasta));
+            jdbc.execute("SET CONSTRAINTS ALL IMMEDIATE");
+        });
+    }
+
+    private void bajaDeBloque(Random azar) {
+        if (bloques.isEmpty()) {
+            return;
+        }
+        long[] bloque = bloques.remove(azar.nextInt(bloques.size()));
+        transaccion.executeWithoutResult(estado -> {
+            jdbc.update("DELETE FROM disponibilidades WHERE id = ?", bloque[0]);
+            agenda.quitarDisponibilidad(bloque[1], bloque[0]);
+        });
+    }
+
+    private void altaDeSesion(Long tutorId, LocalDate fecha, LocalDateTime desde, LocalDateTime hasta) {
+        Long id = transaccion.execute(estado -> {
+            Long nueva = jdbc.queryForObject("INSERT INTO sesiones (tutor_id, estudiante_id, fecha, hora_inicial, hora_final, " +
+                    "tipo_estado, version) VALUES (?, ?, ?, ?, ?, 'PENDIENTE'::estado_sesion_enum, 0) RETURNING id",
+                    Long.class, tutorId, estudianteId, fecha, desde, hasta);
+            agenda.registrarSesion(Sesion.builder().id(nueva).tutor(Tutor.builder().id(tutorId).build())
+                    .fecha(fecha).horaInicial(desde).horaFinal(hasta).build());
+            return nueva;
+        });
+        sesiones.add(new long[]{id, tutorId});
+    }
+
+    private void bajaDeSesion(Random azar) {
+        if (sesiones.isEmpty()) {
+            return;
+        }
+        long[] sesion = sesiones.remove(azar.nextInt(sesiones.size()));
+        transaccion.executeWithoutResult(estado -> {
+            jdbc.update("DELETE FROM sesiones WHERE id = ?", sesion[0]);
+            agenda.quitarSesion(sesion[1], sesion[0]);
+        });
+    }
+
+    // Cada pregunta de la agenda contra la consulta JPQL que reemplaza en los servicios
+    private void comparar(Random azar, Long tutorId, LocalDate fecha, LocalDateTime desde, LocalDateTime hasta) {
+        Long excluir = bloques.isEmpty() || azar.nextBoolean() ? null : bloques.get(azar.nextInt(bloques.size()))[0];
+        List<Disponibilidad> solapadas = excluir == null
+                ? disponibilidadRepository.findDisponibilidadesSolapadas(tutorId, fecha, desde, hasta)
+                : disponibilidadRepository.findDisponibilidadesSolapadasExcluyendoActual(tutorId, fecha, desde, hasta, excluir);
+        verificar("disponibilidadesSolapadas", tutorId, fecha,
+                solapadas.stream().map(Disponibilidad::getId).toList(),
+                agenda.disponibilidadesSolapadas(tutorId, fecha, desde, hasta, excluir));
+        verificar("disponibilidadesQueEnvuelven", tutorId, fecha,
+                disponibilidadRepository.findDisponibilidadQueEnvuelveElSlot(tutorId, fecha, desde, hasta).stream()
+                        .map(Disponibilidad::getId).toList(),
+                agenda.disponibilidadesQueEnvuelven(tutorId, fecha, desde, hasta));
+        verificar("sesionesSolapadas", tutorId, fecha,
+                sesionRepository.findSesionesSolapadasParaTutor(tutorId, fecha, desde, hasta).stream()
+                        .map(Sesion::getId).toList(),
+                agenda.sesionesSolapadas(tutorId, fecha, desde, hasta));
+    }
+
+    private void verificar(String consulta, Long tutorId, LocalDate fecha, List<Long> enLaBase, List<Long> enLaAgenda) {
+        consultas++;
+        List<Long> esperados = enLaBase.stream().sorted().toList();
+        List<Long> obtenidos = enLaAgenda.stream().sorted().toList();
+        if (!esperados.equals(obtenidos)) {
+            diferencias++;
+            // Las primeras se muestran completas; después solo se cuentan
+            if (diferencias <= 10) {
+                System.out.printf("%s(tutor %d, %s): SQL %s, agenda %s%n", consulta, tutorId, fecha, esperados, obtenidos);
+            }
+        }
+    }
+
+    private static Disponibilidad bloque(Long id, Long tutorId, LocalDate fecha, LocalDateTime desde, LocalDateTime hasta) {
+        return Disponibilidad.builder().id(id).tutor(Tutor.builder().id(tutorId).build())
+                .fecha(fecha).horaInicial(desde).horaFinal(hasta).build();
+    }
+}
@@ -0,0 +1,67 @@
+package tutorgo.com.carga;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+// Tutores, alumnos y disponibilidad de una corrida. Todo lo sembrado lleva un prefijo propio en el
+// email: contra una base externa, dos corridas no se mezclan y los controles del final solo miran
+// a los tutores de esta.
+record DatosSinteticos(String prefijo, List<Long> tutorIds, List<String> alumnoEmails, LocalDate primerDia) {
+
+    // Se siembra por SQL y no por los servicios: la agenda en memoria de cada tutor se carga la
+    // primera vez que se consulta, así que ya ve estas filas.
+    static DatosSinteticos sembrar(JdbcTemplate jdbc, int tutores, int alumnos, LocalDate primerDia, int dias,
+                                   LocalTime desde, LocalTime hasta) {
+        String prefijo = "carga" + System.currentTimeMillis();
+        jdbc.update("INSERT INTO roles (nombre) SELECT r FROM (VALUES ('TUTOR'), ('ESTUDIANTE')) AS v(r) " +
+                "WHERE NOT EXISTS (SELECT 1 FROM roles WHERE nombre = r)");
+        jdbc.update("INSERT INTO centros_estudio (nombre) SELECT 'Centro de carga' " +
+                "WHERE NOT EXISTS (SELECT 1 FROM centros_estudio)");
+
+        jdbc.update("INSERT INTO usuarios (nombre, email, password_hash, rol_id) " +
+                "SELECT 'Tutor ' || g, ? || '-tutor-' || g || '@tutorgo.test', 'sin-clave', " +
+                "(SELECT id FROM roles WHERE nombre = 'TUTOR') FROM generate_series(1, ?) g", prefijo, tutores);
+        jdbc.update("INSERT INTO tutores (usuario_id, tarifa_hora, rubro, estrellas_promedio) " +
+                "SELECT id, 50, 'Carga', 0 FROM usuarios WHERE email LIKE ? || '-tutor-%'", prefijo);
+        jdbc.update("INSERT INTO usuarios (nombre, email, password_hash, rol_id) " +
+                "SELECT 'Alumno ' || g, ? || '-alumno-' || g || '@tutorgo.test', 'sin-clave', " +
+                "(SELECT id FROM roles WHERE nombre = 'ESTUDIANTE') FROM generate_series(1, ?) g", prefijo, alumnos);
+        jdbc.update("INSERT INTO estudiantes (usuario_id, centro_estudio_id) " +
+                "SELECT id, (SELECT min(id) FROM centros_estudio) FROM usuarios WHERE email LIKE ? || '-alumno-%'", prefijo);
+
+        List<Long> tutorIds = jdbc.queryForList("SELECT t.id FROM tutores t JOIN usuarios u ON u.id = t.usuario_id " +
+                "WHERE u.email LIKE ? || '-tutor-%' ORDER BY t.id", Long.class, prefijo);
+        List<String> alumnoEmails = jdbc.queryForList("SELECT email FROM usuarios WHERE email LIKE ? || '-alumno-%' ORDER BY id",
+                String.class, prefijo);
+
+        // Un bloque por tutor y por día
+        jdbc.update("INSERT INTO disponibilidades (tutor_id, fecha, hora_inicial, hora_final) " +
+                "SELECT t, d::date, d::date + ?::time, d::date + ?::time " +
+                "FROM unnest(?::bigint[]) t, generate_series(?::date, ?::date, interval '1 day') d",
+                desde, hasta, tutorIds.toArray(new Long[0]), primerDia, primerDia.plusDays(dias - 1L));
+        return new DatosSinteticos(prefijo, tutorIds, alumnoEmails, primerDia);
+    }
+
+    // Pares de sesiones PENDIENTE/CONFIRMADO del mismo tutor que se cruzan: tiene que dar 0
+    long sesionesSolapadas(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("SELECT count(*) FROM sesiones a JOIN sesiones b " +
+                "ON a.tutor_id = b.tutor_id AND a.id < b.id " +
+                "AND a.hora_inicial < b.hora_final AND b.hora_inicial < a.hora_final " +
+                "WHERE a.tutor_id = ANY(?::bigint[]) " +
+                "AND a.tipo_estado IN ('PENDIENTE', 'CONFIRMADO') AND b.tipo_estado IN ('PENDIENTE', 'CONFIRMADO')",
+                Long.class, (Object) tutorIds.toArray(new Long[0]));
+    }
+
+    // Pagos sin una sesión CONFIRMADO que les corresponda. Pago no guarda la sesión, así que se
+    // comparan los totales por tutor: un cobro doble o una confirmación perdida lo deja por encima de 0.
+    long pagosDeMas(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("SELECT coalesce(sum(greatest(p.cantidad - coalesce(s.cantidad, 0), 0)), 0) " +
+                "FROM (SELECT tutor_id, count(*) AS cantidad FROM pagos WHERE tutor_id = ANY(?::bigint[]) GROUP BY tutor_id) p " +
+                "LEFT JOIN (SELECT tutor_id, count(*) AS cantidad FROM sesiones WHERE tipo_estado = 'CONFIRMADO' GROUP BY tutor_id) s " +
+                "ON s.tutor_id = p.tutor_id",
+                Long.class, (Object) tutorIds.toArray(new Long[0]));
+    }
+}
@@ -0,0 +1,65 @@
+package tutorgo.com.carga;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latencias y desenlaces de una operación (reserva o pago) sumados desde todos los hilos.
+// Cada intento deja su latencia aunque falle: un rechazo lento también es parte de la línea base.
+final class Medicion {
+
+    static final String OK = "ok";
+
+    private final String operacion;
+    private final Map<String, LongAdder> desenlaces = new ConcurrentHashMap<>();
+    private long[] latenciasNanos = new long[1024];
+    private int intentos;
+
+    Medicion(String operacion) {
+        this.operacion = operacion;
+    }
+
+    void registrar(String desenlace, long nanos) {
+        desenlaces.computeIfAbsent(desenlace, clave -> new LongAdder()).increment();
+        synchronized (this) {
+            if (intentos == latenciasNanos.length) {
+                latenciasNanos = Arrays.copyOf(latenciasNanos, intentos * 2);
+            }
+            latenciasNanos[intentos++] = nanos;
+        }
+    }
+
+    long cantidad(String desenlace) {
+        LongAdder contador = desenlaces.get(desenlace);
+        return contador == null ? 0 : contador.sum();
+    }
+
+    synchronized String resumen(double segundos) {
+        long[] ordenadas = Arrays.copyOf(latenciasNanos, intentos);
+        Arrays.sort(ordenadas);
+        long exitos = cantidad(OK);
+        StringBuilder texto = new StringBuilder();
+        texto.append(String.format("%-8s intentos=%d ok=%d  %.1f intentos/s  %.1f ok/s%n",
+                operacion, intentos, exitos, intentos / segundos, exitos / segundos));
+        texto.append(String.format("         latencia ms: p50=%.2f p90=%.2f p99=%.2f max=%.2f%n",
+                percentil(ordenadas, 0.50), percentil(ordenadas, 0.90), percentil(ordenadas, 0.99), percentil(ordenadas, 1.0)));
+        new TreeMap<>(desenlaces).forEach((desenlace, contador) -> {
+            if (!OK.equals(desenlace)) {
+                texto.append(String.format("         %-20s %6d (%.1f%%)%n", desenlace, contador.sum(),
+                        intentos == 0 ? 0.0 : 100.0 * contador.sum() / intentos));
+            }
+        });
+        return texto.toString();
+    }
+
+    // Nearest-rank sobre las latencias ordenadas, en milisegundos
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int posicion = (int) Math.ceil(p * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, posicion)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,120 @@
+package tutorgo.com.carga;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.postgresql.PGConnection;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tutorgo.com.TutorgoApplication;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+// La base contra la que corre la carga. Sin URL levanta un PostgreSQL embebido en un puerto libre y
+// le carga el volcado del repositorio (tipos enum, tablas y datos de ejemplo); el resto del esquema
+// lo agrega Hibernate al arrancar, como en cualquier entorno. Con URL usa esa base tal cual.
+final class PostgresLocal implements AutoCloseable {
+
+    private final EmbeddedPostgres embebido;
+    private final String url;
+    private final String usuario;
+    private final String clave;
+
+    private PostgresLocal(EmbeddedPostgres embebido, String url, String usuario, String clave) {
+        this.embebido = embebido;
+        this.url = url;
+        this.usuario = usuario;
+        this.clave = clave;
+    }
+
+    static PostgresLocal externo(String url, String usuario, String clave) {
+        return new PostgresLocal(null, url, usuario, clave);
+    }
+
+    static PostgresLocal embebido(Path esquema) throws IOException, SQLException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+        try (Connection conexion = postgres.getPostgresDatabase().getConnection()) {
+            cargarVolcado(conexion, esquema);
+        } catch (IOException | SQLException | RuntimeException e) {
+            postgres.close();
+            throw e;
+        }
+        return new PostgresLocal(postgres, postgres.getJdbcUrl("postgres", "postgres"), "postgres", "postgres");
+    }
+
+    String url() {
+        return url;
+    }
+
+    String usuario() {
+        return usuario;
+    }
+
+    String clave() {
+        return clave;
+    }
+
+    // La aplicación entera contra esta base, sin servidor web a la vista ni logs de SQL
+    ConfigurableApplicationContext arrancarAplicacion(int pool) {
+        // devtools solo mira esta propiedad en el sistema; si reinicia, el contexto nuevo pierde las de abajo
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Map<String, Object> propiedades = new HashMap<>();
+        propiedades.put("spring.datasource.url", url);
+        propiedades.put("spring.datasource.username", usuario);
+        propiedades.put("spring.datasource.password", clave);
+        propiedades.put("spring.datasource.hikari.maximum-pool-size", pool);
+        propiedades.put("server.port", 0);
+        propiedades.put("spring.jpa.show-sql", false);
+        propiedades.put("spring.jpa.properties.hibernate.format_sql", false);
+        propiedades.put("spring.main.banner-mode", "off");
+        propiedades.put("logging.level.root", "WARN");
+        // Como argumentos y no con properties(...): esas son valores por defecto y application.properties les gana
+        String[] argumentos = propiedades.entrySet().stream()
+                .map(propiedad -> "--" + propiedad.getKey() + "=" + propiedad.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(TutorgoApplication.class).run(argumentos);
+    }
+
+    // El volcado es de pg_dump: sentencias SQL más bloques COPY ... FROM stdin, que JDBC no entiende
+    // y se mandan por la API de COPY del driver. Las meta-órdenes de psql (\connect, ...) se saltan.
+    private static void cargarVolcado(Connection conexion, Path esquema) throws IOException, SQLException {
+        String[] lineas = Files.readString(esquema).split("\n");
+        StringBuilder sentencias = new StringBuilder();
+        try (Statement statement = conexion.createStatement()) {
+            for (int i = 0; i < lineas.length; i++) {
+                String linea = lineas[i];
+                if (linea.startsWith("COPY ")) {
+                    if (!sentencias.isEmpty()) {
+                        statement.execute(sentencias.toString());
+                        sentencias.setLength(0);
+                    }
+                    StringBuilder datos = new StringBuilder();
+                    while (!lineas[++i].equals("\\.")) {
+                        datos.append(lineas[i]).append('\n');
+                    }
+                    conexion.unwrap(PGConnection.class).getCopyAPI()
+                            .copyIn(linea.replace(";", ""), new StringReader(datos.toString()));
+                } else if (!linea.startsWith("\\") && !linea.contains("transaction_timeout")) {
+                    // transaction_timeout es de PostgreSQL 17 y el embebido es 16
+                    sentencias.append(linea).append('\n');
+                }
+            }
+            if (!sentencias.isEmpty()) {
+                statement.execute(sentencias.toString());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (embebido != null) {
+            embebido.close();
+        }
+    }
+}
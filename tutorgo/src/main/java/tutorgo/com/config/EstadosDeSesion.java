@@ -0,0 +1,37 @@
+package tutorgo.com.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import tutorgo.com.enums.EstadoSesionEnum;
+
+// sesiones.tipo_estado es el tipo enum estado_sesion_enum de PostgreSQL (ver b2.sql) y ddl-auto=update
+// no le agrega valores. Acá se suman los de EstadoSesionEnum que falten, una sola vez al arrancar.
+// Las consultas de sesiones activas y la restricción de solapamiento nombran PENDIENTE y CONFIRMADO,
+// así que un valor nuevo no ocupa horario.
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class EstadosDeSesion {
+
+    private static final Logger log = LoggerFactory.getLogger(EstadosDeSesion.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void completar() {
+        for (EstadoSesionEnum estado : EstadoSesionEnum.values()) {
+            try {
+                // Fuera de una transacción: el valor nuevo solo se puede usar después de su commit
+                jdbcTemplate.execute("ALTER TYPE estado_sesion_enum ADD VALUE IF NOT EXISTS '" + estado.name() + "'");
+            } catch (DataAccessException e) {
+                log.warn("No se pudo agregar {} a estado_sesion_enum: {}", estado, e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package tutorgo.com.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+// La base garantiza que un tutor no tenga dos sesiones activas ni dos bloques de disponibilidad que
+// se crucen, aunque dos pedidos concurrentes (o dos nodos) pasen a la vez los chequeos de la
+// aplicación. Cada franja es un tsrange [hora_inicial, hora_final) y una restricción EXCLUDE con
+// GiST rechaza dos filas del mismo tutor_id con rangos que se superponen (&&); las sesiones que
+// terminan justo cuando empieza otra no chocan.
+//
+// ddl-auto=update no crea restricciones de exclusión: se agregan acá una sola vez, después de que
+// Hibernate actualizó las tablas. Si no se pueden crear (filas viejas que ya se solapan, o sin
+// permiso para btree_gist) se avisa en el log y quedan solo los chequeos de la aplicación.
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class RestriccionesDeSolapamiento {
+
+    private static final Logger log = LoggerFactory.getLogger(RestriccionesDeSolapamiento.class);
+
+    public static final String SESIONES = "sesiones_tutor_sin_solapamiento";
+    public static final String DISPONIBILIDADES = "disponibilidades_tutor_sin_solapamiento";
+
+    // SQLSTATE exclusion_violation de PostgreSQL
+    private static final String VIOLACION_DE_EXCLUSION = "23P01";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void crear() {
+        try {
+            // tutor_id (bigint) WITH = dentro de un índice GiST necesita btree_gist
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+        } catch (DataAccessException e) {
+            log.warn("No se pudo habilitar btree_gist; los solapamientos solo se validan en la aplicación: {}", e.getMessage());
+            return;
+        }
+        // Solo cuentan las sesiones activas: una cancelada o vencida no ocupa el horario
+        crearSiFalta(SESIONES, "ALTER TABLE sesiones ADD CONSTRAINT " + SESIONES + " EXCLUDE USING gist " +
+                "(tutor_id WITH =, tsrange(hora_inicial, hora_final, '[)') WITH &&) " +
+                "WHERE (tipo_estado IN ('PENDIENTE', 'CONFIRMADO'))");
+        // Diferida al commit: al confirmar un pago el bloque se parte y el resto se inserta antes de que
+        // se guarde el bloque original ya recortado
+        crearSiFalta(DISPONIBILIDADES, "ALTER TABLE disponibilidades ADD CONSTRAINT " + DISPONIBILIDADES + " EXCLUDE USING gist " +
+                "(tutor_id WITH =, tsrange(hora_inicial, hora_final, '[)') WITH &&) DEFERRABLE INITIALLY DEFERRED");
+    }
+
+    private void crearSiFalta(String nombre, String ddl) {
+        Integer existentes = jdbcTemplate.queryForObject("SELECT count(*) FROM pg_constraint WHERE conname = ?", Integer.class, nombre);
+        if (existentes != null && existentes > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute(ddl);
+            log.info("Restricción {} creada", nombre);
+        } catch (DataAccessException e) {
+            log.warn("No se pudo crear la restricción {} (¿hay filas que ya se solapan?): {}", nombre, e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    // Nombre de la restricción de solapamiento que rechazó la escritura, o null si el error es otro.
+    // Recorre las causas porque, según cuándo se detecte (al insertar o al hacer commit), el
+    // SQLException llega envuelto de distinta forma.
+    public static String violada(Throwable error) {
+        for (Throwable causa = error; causa != null; causa = causa.getCause()) {
+            if (causa instanceof SQLException sql && VIOLACION_DE_EXCLUSION.equals(sql.getSQLState()) && sql.getMessage() != null) {
+                if (sql.getMessage().contains(SESIONES)) {
+                    return SESIONES;
+                }
+                if (sql.getMessage().contains(DISPONIBILIDADES)) {
+                    return DISPONIBILIDADES;
+                }
+            }
+            if (causa.getCause() == causa) {
+                break;
+            }
+        }
+        return null;
+    }
+}
@@ -9,8 +9,10 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import tutorgo.com.dto.request.DisponibilidadLoteRequest;
 import tutorgo.com.dto.request.DisponibilidadRequest;
 import tutorgo.com.dto.response.ApiResponse;
+import tutorgo.com.dto.response.DisponibilidadLoteResponse;
 import tutorgo.com.dto.response.DisponibilidadResponse;
 import tutorgo.com.service.DisponibilidadService;
 
@@ -38,6 +40,15 @@ public class DisponibilidadController {
                 .body(new ApiResponse(true, "Disponibilidad agregada correctamente.", response));
     }
 
+    // Carga de muchos bloques a la vez: cada elemento se acepta o rechaza por separado
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse> addDisponibilidadesEnLote(@Valid @RequestBody DisponibilidadLoteRequest request) {
+        String tutorEmail = getAuthenticatedTutorEmail();
+        DisponibilidadLoteResponse response = disponibilidadService.addDisponibilidadesEnLote(tutorEmail, request.getDisponibilidades());
+        return ResponseEntity.ok(new ApiResponse(response.getRechazadas() == 0,
+                response.getCreadas() + " disponibilidades agregadas, " + response.getRechazadas() + " rechazadas.", response));
+    }
+
     @GetMapping
     public ResponseEntity<List<DisponibilidadResponse>> getMisDisponibilidades() {
         String tutorEmail = getAuthenticatedTutorEmail();
@@ -1,57 +1,104 @@
 package tutorgo.com.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tutorgo.com.dto.response.IngresosResponse;
+import tutorgo.com.dto.response.PagedResponse;
 import tutorgo.com.dto.response.PagoResponse;
+import tutorgo.com.enums.FormatoExportacion;
+import tutorgo.com.exception.BadRequestException;
+import tutorgo.com.exception.ForbiddenException;
+import tutorgo.com.exception.ResourceNotFoundException;
 import tutorgo.com.service.PagoService;
-import tutorgo.com.model.User;
-import tutorgo.com.repository.UserRepository;
-import tutorgo.com.model.Estudiante;
-import tutorgo.com.model.Tutor;
-import tutorgo.com.repository.EstudianteRepository;
-import tutorgo.com.repository.TutorRepository;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/pagos")
 @RequiredArgsConstructor
 public class PagoController {
     private final PagoService pagoService;
-    private final UserRepository userRepository;
-    private final EstudianteRepository estudianteRepository;
-    private final TutorRepository tutorRepository;
 
+    private String getAuthenticatedEmail() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
+    // El servicio ya resuelve el usuario y su perfil: acá solo se traducen sus errores a los mensajes de siempre
     @GetMapping("/historial")
     public ResponseEntity<?> getHistorialTransacciones() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String userEmail = authentication.getName();
-        User user = userRepository.findByEmail(userEmail).orElse(null);
-        if (user == null) {
-            return ResponseEntity.status(401).body("No autorizado");
-        }
-        String tipoUsuario = "";
-        if (estudianteRepository.findByUser(user).isPresent()) {
-            tipoUsuario = "estudiante";
-        } else if (tutorRepository.findByUser(user).isPresent()) {
-            tipoUsuario = "tutor";
-        } else {
-            return ResponseEntity.status(403).body("Usuario no tiene rol válido");
-        }
         try {
-            List<PagoResponse> historial = pagoService.obtenerHistorialTransacciones(userEmail);
+            List<PagoResponse> historial = pagoService.obtenerHistorialTransacciones(getAuthenticatedEmail());
             if (historial.isEmpty()) {
                 return ResponseEntity.ok().body("Aún no tienes transacciones registradas");
             }
             return ResponseEntity.ok().body(historial);
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(401).body("No autorizado");
+        } catch (ForbiddenException e) {
+            return ResponseEntity.status(403).body("Usuario no tiene rol válido");
         } catch (Exception e) {
             return ResponseEntity.status(500).body("No se pudo cargar tu historial de pagos. Intenta nuevamente más tarde");
         }
     }
-}
 
+    // El historial de a páginas, del pago más nuevo al más viejo: la siguiente se pide con ?cursor=nextCursor
+    @GetMapping("/historial/pagina")
+    public ResponseEntity<PagedResponse<PagoResponse>> getHistorialPaginado(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(pagoService.obtenerHistorialPaginado(getAuthenticatedEmail(), cursor, size));
+    }
+
+    // Descarga del historial completo en CSV o NDJSON (un JSON por línea)
+    @GetMapping("/historial/exportar")
+    public ResponseEntity<StreamingResponseBody> exportarHistorial(
+            @RequestParam(value = "formato", defaultValue = "csv") String formato) {
+        FormatoExportacion formatoExportacion;
+        try {
+            formatoExportacion = FormatoExportacion.valueOf(formato.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Formato de exportación no soportado: " + formato + ". Usa csv o ndjson.");
+        }
+        StreamingResponseBody cuerpo = pagoService.exportarHistorial(getAuthenticatedEmail(), formatoExportacion);
+        MediaType tipo = formatoExportacion == FormatoExportacion.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON;
+        String archivo = "historial-pagos." + formatoExportacion.name().toLowerCase(Locale.ROOT);
+        return ResponseEntity.ok()
+                .contentType(tipo)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(archivo).build().toString())
+                .body(cuerpo);
+    }
+
+    // Tablero del tutor: lo cobrado por día entre desde y hasta (por defecto, los últimos 30 días)
+    @GetMapping("/ingresos")
+    @PreAuthorize("hasRole('TUTOR')")
+    public ResponseEntity<IngresosResponse> getMisIngresos(
+            @RequestParam(value = "desde", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(value = "hasta", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return ResponseEntity.ok(pagoService.obtenerIngresosDelTutor(getAuthenticatedEmail(), desde, hasta));
+    }
+
+    // Totales de la plataforma (todos los tutores) por día
+    @GetMapping("/ingresos/plataforma")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<IngresosResponse> getIngresosDePlataforma(
+            @RequestParam(value = "desde", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(value = "hasta", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return ResponseEntity.ok(pagoService.obtenerIngresosDePlataforma(desde, hasta));
+    }
+}
@@ -0,0 +1,73 @@
+package tutorgo.com.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import tutorgo.com.dto.request.ReglaDisponibilidadRequest;
+import tutorgo.com.dto.response.ApiResponse;
+import tutorgo.com.dto.response.ReglaDisponibilidadResponse;
+import tutorgo.com.service.ReglaDisponibilidadService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Disponibilidad semanal recurrente: una regla reemplaza a una fila de disponibilidad por fecha
+@RestController
+@RequestMapping("/tutores/me/reglas-disponibilidad")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('TUTOR')")
+public class ReglaDisponibilidadController {
+
+    private final ReglaDisponibilidadService reglaDisponibilidadService;
+
+    private String getAuthenticatedTutorEmail() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return ((UserDetails) authentication.getPrincipal()).getUsername();
+    }
+
+    @PostMapping
+    public ResponseEntity<ApiResponse> crearRegla(@Valid @RequestBody ReglaDisponibilidadRequest request) {
+        ReglaDisponibilidadResponse response = reglaDisponibilidadService.crearRegla(getAuthenticatedTutorEmail(), request);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new ApiResponse(true, "Regla de disponibilidad creada correctamente.", response));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ReglaDisponibilidadResponse>> getMisReglas() {
+        List<ReglaDisponibilidadResponse> reglas = reglaDisponibilidadService.getReglasByTutor(getAuthenticatedTutorEmail());
+        if (reglas.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(reglas);
+    }
+
+    @DeleteMapping("/{reglaId}")
+    public ResponseEntity<ApiResponse> deleteRegla(@PathVariable Long reglaId) {
+        reglaDisponibilidadService.deleteRegla(getAuthenticatedTutorEmail(), reglaId);
+        return ResponseEntity.ok(new ApiResponse(true, "Regla de disponibilidad eliminada correctamente."));
+    }
+
+    // La regla deja de aplicar en esa fecha
+    @PutMapping("/{reglaId}/excepciones/{fecha}")
+    public ResponseEntity<ApiResponse> agregarExcepcion(
+            @PathVariable Long reglaId,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        ReglaDisponibilidadResponse response = reglaDisponibilidadService.agregarExcepcion(getAuthenticatedTutorEmail(), reglaId, fecha);
+        return ResponseEntity.ok(new ApiResponse(true, "Fecha excluida de la regla.", response));
+    }
+
+    @DeleteMapping("/{reglaId}/excepciones/{fecha}")
+    public ResponseEntity<ApiResponse> quitarExcepcion(
+            @PathVariable Long reglaId,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        ReglaDisponibilidadResponse response = reglaDisponibilidadService.quitarExcepcion(getAuthenticatedTutorEmail(), reglaId, fecha);
+        return ResponseEntity.ok(new ApiResponse(true, "La regla vuelve a aplicar en esa fecha.", response));
+    }
+}
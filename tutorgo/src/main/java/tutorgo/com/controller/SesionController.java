@@ -9,6 +9,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import tutorgo.com.dto.request.ReservaPaqueteRequest;
 import tutorgo.com.dto.request.ReservaTutoriaRequest;
 import tutorgo.com.dto.response.ApiResponse;
 import tutorgo.com.dto.response.PagoResponse;
@@ -42,6 +43,19 @@ public class SesionController {
                 .body(new ApiResponse(true, "Tu solicitud ha sido enviada. El tutor la confirmará pronto.", sesionResponse));
     }
 
+    // Varias sesiones con el mismo tutor en un solo pedido (p. ej. una serie semanal): se reservan todas o ninguna
+    @PostMapping("/paquete")
+    @PreAuthorize("hasRole('ESTUDIANTE')")
+    public ResponseEntity<ApiResponse> reservarPaquete(@Valid @RequestBody ReservaPaqueteRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String alumnoEmail = ((UserDetails) authentication.getPrincipal()).getUsername();
+
+        List<SesionResponse> sesiones = sesionService.reservarPaquete(alumnoEmail, request);
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new ApiResponse(true, "Se reservaron " + sesiones.size() + " sesiones. El tutor las confirmará pronto.", sesiones));
+    }
+
     @GetMapping("/mis-solicitudes")
     @PreAuthorize("hasRole('ESTUDIANTE')")
     public ResponseEntity<List<SesionResponse>> getMisSolicitudes() {
@@ -70,6 +84,7 @@ public class SesionController {
     @PreAuthorize("hasRole('ESTUDIANTE')")
     public ResponseEntity<ApiResponse> confirmarPagoYReservar(
             @PathVariable Long sesionId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody ConfirmarPagoRequest pagoDetails) {
 
         if (!sesionId.equals(pagoDetails.getSesionId())) {
@@ -79,7 +94,7 @@ public class SesionController {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String alumnoEmail = ((UserDetails) authentication.getPrincipal()).getUsername();
 
-        PagoResponse pagoResponse = pagoService.procesarPagoYConfirmarSesion(alumnoEmail, pagoDetails);
+        PagoResponse pagoResponse = pagoService.procesarPagoYConfirmarSesion(alumnoEmail, pagoDetails, idempotencyKey);
 
         return ResponseEntity.ok(new ApiResponse(true, "Pago exitoso. Te esperamos en la tutoría.", pagoResponse));
     }
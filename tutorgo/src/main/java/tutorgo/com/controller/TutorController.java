@@ -5,23 +5,29 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 import tutorgo.com.dto.response.ApiResponse;
 import tutorgo.com.dto.response.PagedResponse;
 import tutorgo.com.dto.response.TutorSummaryResponse;
 import tutorgo.com.dto.response.TutorProfileResponse;
 import tutorgo.com.exception.ResourceNotFoundException;
+import tutorgo.com.search.TutorVersiones;
 import tutorgo.com.service.TutorService;
 import tutorgo.com.utils.AppConstants;
 
 import tutorgo.com.dto.response.DisponibilidadResponse;
+import tutorgo.com.dto.response.HorarioLibreResponse;
 import tutorgo.com.service.DisponibilidadService;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/tutores")
@@ -30,6 +36,7 @@ public class TutorController {
 
     private final TutorService tutorService;
     private final DisponibilidadService disponibilidadService;
+    private final TutorVersiones tutorVersiones;
 
     @GetMapping
     public ResponseEntity<?> getAllTutores(
@@ -43,33 +50,90 @@ public class TutorController {
             @RequestParam(value = "fechaInicio", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
             @RequestParam(value = "fechaFin", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
             @RequestParam(value = "horaInicio", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime horaInicio, // <-- Nuevo
-            @RequestParam(value = "horaFin", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime horaFin
+            @RequestParam(value = "horaFin", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime horaFin,
+            @RequestParam(value = "cursor", required = false) String cursor, // nextCursor de la respuesta anterior; reemplaza a page
+            @RequestParam(value = "facetas", defaultValue = "false") boolean facetas // conteos por precio, estrellas y rubro (solo sin cursor)
     ) {
         Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
         PagedResponse<TutorSummaryResponse> response = tutorService.getAllTutores(
-                query, maxPrecio, puntuacion, fechaInicio, fechaFin, horaInicio, horaFin, pageable);
+                query, maxPrecio, puntuacion, fechaInicio, fechaFin, horaInicio, horaFin, pageable, cursor, facetas);
         return ResponseEntity.ok(response);
     }
 
+    // Perfiles de varios tutores en una sola llamada, p. ej. GET /tutores?ids=1,2,3
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<TutorProfileResponse>> getTutorProfiles(@RequestParam("ids") List<Long> ids) {
+        return ResponseEntity.ok(tutorService.getTutorProfiles(ids));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<?> getTutorProfile(@PathVariable Long id) {
+    public ResponseEntity<?> getTutorProfile(@PathVariable Long id, WebRequest webRequest) {
+        // Si el cliente ya tiene esta versión se responde 304 sin armar el perfil
+        Optional<TutorVersiones.Version> version = tutorVersiones.perfil(id);
+        if (version.isPresent()
+                && webRequest.checkNotModified(version.get().etag(), version.get().modificado().toEpochMilli())) {
+            return null;
+        }
         try {
             TutorProfileResponse response = tutorService.getTutorProfile(id);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().headers(cabecerasDeVersion(version.map(TutorVersiones.Version::etag), version))
+                    .body(response);
         } catch (ResourceNotFoundException ex) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "No se pudo cargar el perfil completo del tutor"));
         }
     }
 
+    // from/to por defecto: hoy y las próximas 4 semanas. El historial del tutor no entra en la respuesta.
     @GetMapping("/{tutorId}/disponibilidades")
     @PreAuthorize("isAuthenticated()") // Solo usuarios logueados (estudiantes) pueden verla
-    public ResponseEntity<List<DisponibilidadResponse>> getDisponibilidadesDeTutor(@PathVariable Long tutorId) {
-        List<DisponibilidadResponse> disponibilidades = disponibilidadService.getDisponibilidadesByTutorId(tutorId);
-        if (disponibilidades.isEmpty()) {
-            return ResponseEntity.noContent().build();
+    public ResponseEntity<PagedResponse<DisponibilidadResponse>> getDisponibilidadesDeTutor(
+            @PathVariable Long tutorId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "page", defaultValue = AppConstants.DEFAULT_PAGE_NUMBER) int page,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            WebRequest webRequest) {
+        // Cada ventana y página es un recurso distinto; sin from, "hoy" también forma parte de la versión.
+        // Solo se compara el ETag: Last-Modified es el mismo para todas las páginas.
+        Optional<TutorVersiones.Version> version = tutorVersiones.disponibilidad(tutorId);
+        String ventana = (from != null ? from : "hoy" + LocalDate.now()) + "-" + (to != null ? to : "") + "-" + page + "-" + size;
+        Optional<String> etag = version.map(v -> v.etag(ventana));
+        if (etag.isPresent() && webRequest.checkNotModified(etag.get())) {
+            return null;
+        }
+        PagedResponse<DisponibilidadResponse> disponibilidades =
+                disponibilidadService.getDisponibilidadesByTutorId(tutorId, from, to, page, size);
+        if (disponibilidades.getTotalElements() == 0) {
+            return ResponseEntity.noContent().headers(cabecerasDeVersion(etag, version)).build();
+        }
+        return ResponseEntity.ok().headers(cabecerasDeVersion(etag, version)).body(disponibilidades);
+    }
+
+    // Horarios que se pueden reservar tal cual: disponibilidad menos sesiones pendientes o confirmadas.
+    // from/to por defecto: los próximos 14 días; duracion en minutos.
+    @GetMapping("/{tutorId}/slots")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<HorarioLibreResponse>> getHorariosLibres(
+            @PathVariable Long tutorId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "duracion", defaultValue = "60") int duracion) {
+        return ResponseEntity.ok(disponibilidadService.getHorariosLibres(tutorId, from, to, duracion));
+    }
+
+    // no-cache: el navegador guarda la respuesta pero la revalida siempre con If-None-Match. Sin esto
+    // Spring Security manda no-store y el navegador nunca repite el ETag.
+    // Sin versión (el tutor no existe) la respuesta va sin ETag ni Last-Modified.
+    private static HttpHeaders cabecerasDeVersion(Optional<String> etag, Optional<TutorVersiones.Version> version) {
+        HttpHeaders headers = new HttpHeaders();
+        if (etag.isEmpty() || version.isEmpty()) {
+            return headers;
         }
-        return ResponseEntity.ok(disponibilidades);
+        headers.setETag(etag.get());
+        headers.setLastModified(version.get().modificado());
+        headers.setCacheControl(CacheControl.noCache().cachePrivate());
+        return headers;
     }
 
 }
\ No newline at end of file
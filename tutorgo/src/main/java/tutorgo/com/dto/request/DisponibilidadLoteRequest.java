@@ -0,0 +1,14 @@
+package tutorgo.com.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class DisponibilidadLoteRequest {
+
+    // Sin @Valid a propósito: un elemento inválido se informa en su resultado y no tumba el lote
+    @NotEmpty(message = "El lote debe tener al menos una disponibilidad")
+    private List<DisponibilidadRequest> disponibilidades;
+}
@@ -0,0 +1,40 @@
+package tutorgo.com.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+public class ReglaDisponibilidadRequest {
+
+    @NotEmpty(message = "Debe indicar al menos un día de la semana")
+    private List<DayOfWeek> diasSemana; // MONDAY, TUESDAY, ...
+
+    @NotNull(message = "La hora de inicio es obligatoria")
+    @JsonFormat(pattern = "HH:mm:ss")
+    private LocalTime horaInicio;
+
+    @NotNull(message = "La hora de finalización es obligatoria")
+    @JsonFormat(pattern = "HH:mm:ss")
+    private LocalTime horaFinal;
+
+    @NotNull(message = "La fecha de inicio es obligatoria")
+    @FutureOrPresent(message = "La fecha de inicio no puede ser en el pasado")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate fechaInicio;
+
+    @NotNull(message = "La fecha de fin es obligatoria")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate fechaFin;
+
+    // Opcional: fechas del rango en las que no aplica
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private List<LocalDate> excepciones;
+}
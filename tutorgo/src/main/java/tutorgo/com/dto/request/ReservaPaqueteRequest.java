@@ -0,0 +1,20 @@
+package tutorgo.com.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ReservaPaqueteRequest {
+
+    @NotNull(message = "El ID del tutor es obligatorio")
+    private Long tutorId;
+
+    // Con @Valid: el paquete se reserva entero o no se reserva, así que un horario inválido lo rechaza todo
+    @NotEmpty(message = "El paquete debe tener al menos una sesión")
+    @Valid
+    private List<SesionDelPaqueteRequest> sesiones;
+}
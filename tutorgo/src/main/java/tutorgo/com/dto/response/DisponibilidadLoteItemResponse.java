@@ -0,0 +1,15 @@
+package tutorgo.com.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisponibilidadLoteItemResponse {
+    private int indice;                            // Posición en el pedido, desde 0
+    private boolean exito;
+    private DisponibilidadResponse disponibilidad; // Solo si se creó
+    private String error;                          // Solo si se rechazó
+}
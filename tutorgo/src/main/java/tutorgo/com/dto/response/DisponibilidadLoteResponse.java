@@ -0,0 +1,16 @@
+package tutorgo.com.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisponibilidadLoteResponse {
+    private int creadas;
+    private int rechazadas;
+    private List<DisponibilidadLoteItemResponse> resultados; // Uno por elemento, en el orden del pedido
+}
@@ -10,6 +10,7 @@ import java.time.LocalDateTime;
 public class DisponibilidadResponse {
     private Long id;
     private Long tutorId; // Para confirmar a qué tutor pertenece
+    private Long reglaId; // Solo en las ocurrencias de una regla semanal (esas no tienen id propio)
 
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate fecha;
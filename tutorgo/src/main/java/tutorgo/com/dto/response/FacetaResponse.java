@@ -0,0 +1,18 @@
+package tutorgo.com.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Un valor de una faceta del catálogo y cuántos tutores de la búsqueda actual lo tienen.
+// desde/hasta traen los límites numéricos (precio: desde exclusivo, hasta inclusivo, como maxPrecio;
+// estrellas: solo desde, "desde o más", como puntuacion). En los rubros van null.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetaResponse {
+    private String valor;
+    private Integer desde;
+    private Integer hasta;
+    private long cantidad;
+}
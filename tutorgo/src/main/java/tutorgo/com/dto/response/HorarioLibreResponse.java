@@ -0,0 +1,25 @@
+package tutorgo.com.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Un horario que se puede reservar tal cual con POST /sesiones (mismo formato que DisponibilidadResponse)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HorarioLibreResponse {
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate fecha;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime horaInicial;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime horaFinal;
+}
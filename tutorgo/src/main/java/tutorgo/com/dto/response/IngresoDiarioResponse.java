@@ -0,0 +1,24 @@
+package tutorgo.com.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngresoDiarioResponse {
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate fecha;
+
+    private BigDecimal montoBruto;
+    private BigDecimal comisionPlataforma;
+    // Lo que le queda al tutor: montoBruto - comisionPlataforma
+    private BigDecimal montoNeto;
+    private long cantidadPagos;
+}
@@ -0,0 +1,29 @@
+package tutorgo.com.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+// Totales de un rango de fechas y su detalle por día (solo los días con pagos)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngresosResponse {
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate desde;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate hasta;
+
+    private BigDecimal montoBruto;
+    private BigDecimal comisionPlataforma;
+    private BigDecimal montoNeto;
+    private long cantidadPagos;
+    private List<IngresoDiarioResponse> dias;
+}
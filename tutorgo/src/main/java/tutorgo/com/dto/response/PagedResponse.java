@@ -16,4 +16,7 @@ public class PagedResponse<T> {
     private long totalElements;
     private int totalPages;
     private boolean last;
+    // Cursor opaco para pedir la página siguiente con ?cursor=... (null si no hay más). En las
+    // respuestas por cursor pageNumber vale -1: la posición la da el cursor, no un número de página.
+    private String nextCursor;
 }
\ No newline at end of file
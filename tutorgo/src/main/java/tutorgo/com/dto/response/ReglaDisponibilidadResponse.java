@@ -0,0 +1,31 @@
+package tutorgo.com.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+public class ReglaDisponibilidadResponse {
+    private Long id;
+    private Long tutorId;
+    private List<DayOfWeek> diasSemana;
+
+    @JsonFormat(pattern = "HH:mm:ss")
+    private LocalTime horaInicio;
+
+    @JsonFormat(pattern = "HH:mm:ss")
+    private LocalTime horaFinal;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate fechaInicio;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate fechaFin;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private List<LocalDate> excepciones;
+}
@@ -26,6 +26,10 @@ public class SesionResponse {
     private LocalDateTime horaFinal;
     private EstadoSesionEnum tipoEstado;
 
+    // Solo en sesiones PENDIENTE: después de esta hora el horario se libera si no se pagó
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime reservadaHasta;
+
     private List<EnlaceSesionResponseDTO> enlaces;
     private boolean fueCalificada;
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package tutorgo.com.dto.response;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Página de /tutores con las facetas de la búsqueda (solo cuando se piden con facetas=true)
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class TutorCatalogoResponse extends PagedResponse<TutorSummaryResponse> {
+    private TutorFacetasResponse facetas;
+
+    public TutorCatalogoResponse(List<TutorSummaryResponse> content, int pageNumber, int pageSize, long totalElements,
+                                 int totalPages, boolean last, String nextCursor, TutorFacetasResponse facetas) {
+        super(content, pageNumber, pageSize, totalElements, totalPages, last, nextCursor);
+        this.facetas = facetas;
+    }
+}
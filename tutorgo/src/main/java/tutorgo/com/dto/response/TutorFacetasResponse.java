@@ -0,0 +1,16 @@
+package tutorgo.com.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TutorFacetasResponse {
+    private List<FacetaResponse> precios;
+    private List<FacetaResponse> estrellas;
+    private List<FacetaResponse> rubros;
+}
@@ -2,5 +2,7 @@ package tutorgo.com.enums;
 
 public enum EstadoSesionEnum {
     CONFIRMADO,
-    PENDIENTE
+    PENDIENTE,
+    // Reserva que nadie pagó a tiempo: la fila queda para contestarle al pago tardío, sin ocupar el horario
+    VENCIDO
 }
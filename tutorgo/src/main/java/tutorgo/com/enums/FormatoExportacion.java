@@ -0,0 +1,6 @@
+package tutorgo.com.enums;
+
+public enum FormatoExportacion {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,5 @@
+package tutorgo.com.enums;
+
+public enum TipoEventoSalida {
+    PAGO_CONFIRMADO
+}
@@ -1,6 +1,10 @@
 package tutorgo.com.exception;
 
+import tutorgo.com.config.RestriccionesDeSolapamiento;
 import tutorgo.com.dto.response.ApiResponse;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -66,6 +70,33 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiResponse, HttpStatus.FORBIDDEN);
     }
 
+    // Dos escrituras concurrentes que pasaron los chequeos de la aplicación y la base rechazó la segunda
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiResponse> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
+        String restriccion = RestriccionesDeSolapamiento.violada(ex);
+        if (RestriccionesDeSolapamiento.SESIONES.equals(restriccion)) {
+            return new ResponseEntity<>(new ApiResponse(false, "El horario seleccionado ya no está disponible o está ocupado."), HttpStatus.CONFLICT);
+        }
+        if (RestriccionesDeSolapamiento.DISPONIBILIDADES.equals(restriccion)) {
+            return new ResponseEntity<>(new ApiResponse(false, "La nueva disponibilidad se solapa con una existente."), HttpStatus.CONFLICT);
+        }
+        return handleGlobalException(ex);
+    }
+
+    // Otro cambio sobre la misma fila ganó todos los reintentos (ver service.ReintentoOptimista)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        ApiResponse apiResponse = new ApiResponse(false, "Otro cambio sobre el mismo horario se guardó al mismo tiempo. Intenta de nuevo.");
+        return new ResponseEntity<>(apiResponse, HttpStatus.CONFLICT);
+    }
+
+    // La cola de reservas del tutor está llena o no avanzó a tiempo: se puede reintentar
+    @ExceptionHandler(ServicioSaturadoException.class)
+    public ResponseEntity<ApiResponse> handleServicioSaturadoException(ServicioSaturadoException ex) {
+        ApiResponse apiResponse = new ApiResponse(false, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(apiResponse);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse> handleGlobalException(Exception ex) {
         // Loguear la excepción completa para depuración
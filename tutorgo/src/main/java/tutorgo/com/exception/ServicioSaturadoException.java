@@ -0,0 +1,7 @@
+package tutorgo.com.exception;
+
+public class ServicioSaturadoException extends RuntimeException {
+    public ServicioSaturadoException(String message) {
+        super(message);
+    }
+}
@@ -3,7 +3,10 @@ package tutorgo.com.mapper;
 import org.springframework.stereotype.Component;
 import tutorgo.com.dto.response.DisponibilidadResponse;
 import tutorgo.com.model.Disponibilidad;
+import tutorgo.com.search.ReglaSemanal;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -25,6 +28,23 @@ public class DisponibilidadMapper {
         return response;
     }
 
+    // Ocurrencia de una regla semanal en esa fecha
+    public DisponibilidadResponse toDisponibilidadResponse(ReglaSemanal regla, LocalDate fecha) {
+        return toDisponibilidadResponse(regla, fecha, regla.inicioEn(fecha), regla.finEn(fecha));
+    }
+
+    // Parte de una ocurrencia que no ocupan las sesiones del tutor
+    public DisponibilidadResponse toDisponibilidadResponse(ReglaSemanal regla, LocalDate fecha,
+                                                           LocalDateTime horaInicial, LocalDateTime horaFinal) {
+        DisponibilidadResponse response = new DisponibilidadResponse();
+        response.setReglaId(regla.id());
+        response.setTutorId(regla.tutorId());
+        response.setFecha(fecha);
+        response.setHoraInicial(horaInicial);
+        response.setHoraFinal(horaFinal);
+        return response;
+    }
+
     public List<DisponibilidadResponse> toDisponibilidadResponseList(List<Disponibilidad> disponibilidades) {
         if (disponibilidades == null) {
             return List.of();
@@ -4,6 +4,7 @@ package tutorgo.com.mapper;
 import org.springframework.stereotype.Component;
 import tutorgo.com.dto.response.PagoResponse;
 import tutorgo.com.model.Pago;
+import tutorgo.com.repository.PagoRepository;
 
 @Component
 public class PagoMapper {
@@ -35,4 +36,21 @@ public class PagoMapper {
 
         return response;
     }
-}
\ No newline at end of file
+
+    public PagoResponse toPagoResponse(PagoRepository.FilaHistorial fila) {
+        if (fila == null) {
+            return null;
+        }
+        PagoResponse response = new PagoResponse();
+        response.setId(fila.getId());
+        response.setMonto(fila.getMonto());
+        response.setComisionPlataforma(fila.getComisionPlataforma());
+        response.setMetodoPago(fila.getMetodoPago());
+        response.setTipoEstado(fila.getTipoEstado());
+        response.setTutorId(fila.getTutorId());
+        response.setNombreTutor(fila.getNombreTutor());
+        response.setEstudianteId(fila.getEstudianteId());
+        response.setNombreEstudiante(fila.getNombreEstudiante());
+        return response;
+    }
+}
@@ -0,0 +1,40 @@
+package tutorgo.com.mapper;
+
+import org.springframework.stereotype.Component;
+import tutorgo.com.dto.response.ReglaDisponibilidadResponse;
+import tutorgo.com.model.ReglaDisponibilidad;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+public class ReglaDisponibilidadMapper {
+
+    public ReglaDisponibilidadResponse toReglaDisponibilidadResponse(ReglaDisponibilidad regla) {
+        if (regla == null) {
+            return null;
+        }
+        ReglaDisponibilidadResponse response = new ReglaDisponibilidadResponse();
+        response.setId(regla.getId());
+        if (regla.getTutor() != null) {
+            response.setTutorId(regla.getTutor().getId());
+        }
+        // Ordenados para que la respuesta no dependa del orden del Set
+        response.setDiasSemana(regla.getDiasSemana().stream().sorted().collect(Collectors.toList()));
+        response.setHoraInicio(regla.getHoraInicio());
+        response.setHoraFinal(regla.getHoraFinal());
+        response.setFechaInicio(regla.getFechaInicio());
+        response.setFechaFin(regla.getFechaFin());
+        response.setExcepciones(regla.getExcepciones().stream().sorted().collect(Collectors.toList()));
+        return response;
+    }
+
+    public List<ReglaDisponibilidadResponse> toReglaDisponibilidadResponseList(List<ReglaDisponibilidad> reglas) {
+        if (reglas == null) {
+            return List.of();
+        }
+        return reglas.stream()
+                .map(this::toReglaDisponibilidadResponse)
+                .collect(Collectors.toList());
+    }
+}
@@ -52,6 +52,7 @@ public class SesionMapper {
         response.setHoraInicial(sesion.getHoraInicial());
         response.setHoraFinal(sesion.getHoraFinal());
         response.setTipoEstado(sesion.getTipoEstado());
+        response.setReservadaHasta(sesion.getReservadaHasta());
         response.setFueCalificada(sesion.getResena() != null);
         return response;
     }
@@ -0,0 +1,41 @@
+package tutorgo.com.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Respuesta ya enviada para un Idempotency-Key de pago: los reintentos la devuelven tal cual.
+// La clave es única por usuario; la sesión se guarda para rechazar la misma clave en otro pago.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "claves_idempotencia",
+        uniqueConstraints = @UniqueConstraint(name = "uk_claves_idempotencia_usuario_clave", columnNames = {"usuario_email", "clave"}),
+        indexes = @Index(name = "idx_claves_idempotencia_vence_en", columnList = "vence_en"))
+public class ClaveIdempotencia {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_email", nullable = false)
+    private String usuarioEmail;
+
+    @Column(nullable = false)
+    private String clave;
+
+    @Column(name = "sesion_id", nullable = false)
+    private Long sesionId;
+
+    // PagoResponse en JSON
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String respuesta;
+
+    @Column(name = "vence_en", nullable = false)
+    private LocalDateTime venceEn;
+}
@@ -13,7 +13,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "disponibilidades")
+// Las lecturas por tutor van siempre acotadas por fecha y ordenadas por inicio
+@Table(name = "disponibilidades", indexes = {
+        @Index(name = "idx_disponibilidades_tutor_fecha_hora_inicial", columnList = "tutor_id, fecha, hora_inicial")
+})
 public class Disponibilidad {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -31,5 +34,11 @@ public class Disponibilidad {
 
     @Column(name = "hora_final", nullable = false)
     private LocalDateTime horaFinal;
+
+    // Dos cambios concurrentes sobre el mismo bloque (editarlo y recortarlo al confirmar un pago):
+    // el segundo falla en lugar de pisar al primero. Ver service.ReintentoOptimista.
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
 }
 
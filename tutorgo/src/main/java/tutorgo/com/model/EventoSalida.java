@@ -0,0 +1,48 @@
+package tutorgo.com.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tutorgo.com.enums.TipoEventoSalida;
+
+import java.time.LocalDateTime;
+
+// Un efecto pendiente de algo que ya se guardó (outbox). Se inserta en la misma transacción que el
+// cambio que lo origina, así que existe si y solo si ese cambio hizo commit; DespachadorDeSalida lo
+// procesa después y lo borra.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "eventos_salida",
+        indexes = @Index(name = "idx_eventos_salida_disponible_desde", columnList = "disponible_desde"))
+public class EventoSalida {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private TipoEventoSalida tipo;
+
+    // Los datos del evento en JSON (p. ej. EventoPagoConfirmado)
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String carga;
+
+    @Column(name = "creado_en", nullable = false)
+    private LocalDateTime creadoEn;
+
+    // No se toma antes de esta hora: la usa la espera entre reintentos y el tiempo que un nodo
+    // se reserva el evento mientras lo procesa
+    @Column(name = "disponible_desde", nullable = false)
+    private LocalDateTime disponibleDesde;
+
+    @Column(nullable = false)
+    private int intentos;
+
+    @Column(name = "ultimo_error", columnDefinition = "TEXT")
+    private String ultimoError;
+}
@@ -0,0 +1,45 @@
+package tutorgo.com.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Lo cobrado por un tutor en un día: la suma de sus pagos de esa fecha. Cada pago la actualiza en su
+// misma transacción (IngresoDiarioTutorRepository.sumarPago), así que los tableros leen una fila por
+// día en lugar de recorrer todos los pagos.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "ingresos_diarios_tutor",
+        uniqueConstraints = @UniqueConstraint(name = "uk_ingresos_diarios_tutor_tutor_fecha", columnNames = {"tutor_id", "fecha"}),
+        indexes = @Index(name = "idx_ingresos_diarios_tutor_fecha", columnList = "fecha"))
+public class IngresoDiarioTutor {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "tutor_id", nullable = false)
+    private Tutor tutor;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    // Suma de Pago.monto
+    @Column(name = "monto_bruto", nullable = false)
+    private BigDecimal montoBruto;
+
+    // Suma de Pago.comisionPlataforma
+    @Column(name = "comision_plataforma", nullable = false)
+    private BigDecimal comisionPlataforma;
+
+    @Column(name = "cantidad_pagos", nullable = false)
+    private long cantidadPagos;
+}
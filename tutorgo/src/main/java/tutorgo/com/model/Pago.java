@@ -14,7 +14,12 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "pagos")
+// Los historiales se recorren por (tutor o estudiante, id descendente): con estos índices una página
+// por cursor lee solo sus filas
+@Table(name = "pagos", indexes = {
+        @Index(name = "idx_pagos_tutor_id_id", columnList = "tutor_id, id"),
+        @Index(name = "idx_pagos_estudiante_id_id", columnList = "estudiante_id, id")
+})
 public class Pago {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,59 @@
+package tutorgo.com.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+// Disponibilidad semanal recurrente ("lunes y miércoles de 18:00 a 21:00 entre A y B"). No se
+// guarda una fila por fecha: las ocurrencias se calculan al leer (tutorgo.com.search.ReglaSemanal).
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "reglas_disponibilidad", indexes = {
+        @Index(name = "idx_reglas_disponibilidad_tutor_id", columnList = "tutor_id")
+})
+public class ReglaDisponibilidad {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "tutor_id", nullable = false)
+    private Tutor tutor;
+
+    @ElementCollection
+    @CollectionTable(name = "regla_disponibilidad_dias", joinColumns = @JoinColumn(name = "regla_id"))
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dia_semana", nullable = false)
+    @Builder.Default
+    private Set<DayOfWeek> diasSemana = new HashSet<>();
+
+    @Column(name = "hora_inicio", nullable = false)
+    private LocalTime horaInicio;
+
+    @Column(name = "hora_final", nullable = false)
+    private LocalTime horaFinal;
+
+    @Column(name = "fecha_inicio", nullable = false)
+    private LocalDate fechaInicio;
+
+    @Column(name = "fecha_fin", nullable = false)
+    private LocalDate fechaFin;
+
+    // Fechas dentro del rango en las que la regla no aplica (feriados, viajes...)
+    @ElementCollection
+    @CollectionTable(name = "regla_disponibilidad_excepciones", joinColumns = @JoinColumn(name = "regla_id"))
+    @Column(name = "fecha", nullable = false)
+    @Builder.Default
+    private Set<LocalDate> excepciones = new HashSet<>();
+}
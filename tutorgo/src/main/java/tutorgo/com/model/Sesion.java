@@ -15,7 +15,10 @@ import java.util.List;
 @NoArgsConstructor@AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "sesiones")
+// Las lecturas de la agenda de un tutor van acotadas por fecha (ver search.AgendaTutorIndex)
+@Table(name = "sesiones", indexes = {
+        @Index(name = "idx_sesiones_tutor_fecha", columnList = "tutor_id, fecha")
+})
 public class Sesion {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -42,6 +45,15 @@ public class Sesion {
     @Column(name = "tipo_estado", nullable = false, columnDefinition = "estado_sesion_enum")
     private EstadoSesionEnum tipoEstado;
 
+    // Hasta cuándo se guarda el horario de una sesión PENDIENTE sin pagar; al confirmarla queda en null
+    @Column(name = "reservada_hasta")
+    private LocalDateTime reservadaHasta;
+
+    // Ver Disponibilidad.version
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @OneToMany(mappedBy = "sesion", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<EnlaceSesion> enlaces = new ArrayList<>();
 
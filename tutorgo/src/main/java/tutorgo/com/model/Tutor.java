@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -16,7 +17,12 @@ import java.util.Objects;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "tutores")
+@Table(name = "tutores", indexes = {
+        // Soportan el ORDER BY ... , id LIMIT n del buscador de tutores
+        @Index(name = "idx_tutores_tarifa_hora_id", columnList = "tarifa_hora, id"),
+        @Index(name = "idx_tutores_estrellas_promedio_id", columnList = "estrellas_promedio, id"),
+        @Index(name = "idx_tutores_rubro_id", columnList = "rubro, id")
+})
 public class Tutor {
 
     @Id
@@ -43,6 +49,10 @@ public class Tutor {
     @JsonIgnore
     private List<Disponibilidad> disponibilidades = new ArrayList<>();
 
+    @OneToMany(mappedBy = "tutor", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore
+    private List<ReglaDisponibilidad> reglasDisponibilidad = new ArrayList<>();
+
     @OneToMany(mappedBy = "tutor", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore
     private List<Sesion> sesionesComoTutor = new ArrayList<>();
@@ -55,6 +65,25 @@ public class Tutor {
     @JsonIgnore
     private List<NotificacionTutor> notificacionesTutor = new ArrayList<>();
 
+    // Versiones del perfil y de la disponibilidad para los ETag y Last-Modified (ver search.TutorVersiones).
+    // Solo las cambian los UPDATE de TutorRepository, en la misma transacción que la escritura: acá son de
+    // solo lectura para que guardar el tutor no las pise con una copia vieja.
+    @Column(name = "version_perfil", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint default 0")
+    private Long versionPerfil;
+
+    @Column(name = "perfil_modificado", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "timestamp with time zone default date_trunc('second', now())")
+    private Instant perfilModificado;
+
+    @Column(name = "version_disponibilidad", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint default 0")
+    private Long versionDisponibilidad;
+
+    @Column(name = "disponibilidad_modificada", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "timestamp with time zone default date_trunc('second', now())")
+    private Instant disponibilidadModificada;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,21 @@
+package tutorgo.com.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tutorgo.com.model.ClaveIdempotencia;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ClaveIdempotenciaRepository extends JpaRepository<ClaveIdempotencia, Long> {
+
+    Optional<ClaveIdempotencia> findByUsuarioEmailAndClave(String usuarioEmail, String clave);
+
+    @Modifying
+    @Query("DELETE FROM ClaveIdempotencia c WHERE c.venceEn < :ahora")
+    int deleteVencidas(@Param("ahora") LocalDateTime ahora);
+}
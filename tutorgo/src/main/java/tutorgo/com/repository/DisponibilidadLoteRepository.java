@@ -0,0 +1,13 @@
+package tutorgo.com.repository;
+
+import tutorgo.com.model.Disponibilidad;
+
+import java.util.List;
+
+// Alta masiva de bloques de disponibilidad (ver DisponibilidadLoteRepositoryImpl)
+public interface DisponibilidadLoteRepository {
+
+    // Inserta todos los bloques en un solo lote JDBC y les asigna el id generado, en el mismo orden.
+    // No pasa por el contexto de persistencia: los objetos no quedan gestionados por JPA.
+    void insertarEnLote(List<Disponibilidad> disponibilidades);
+}
@@ -0,0 +1,56 @@
+package tutorgo.com.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import tutorgo.com.model.Disponibilidad;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+// Con @GeneratedValue(IDENTITY) Hibernate no agrupa los INSERT (necesita el id de cada fila antes de
+// seguir), así que saveAll de cientos de bloques serían cientos de viajes a la base. Acá van todos
+// en un executeBatch y los ids vuelven con RETURNING. Usa la conexión de la transacción en curso.
+public class DisponibilidadLoteRepositoryImpl implements DisponibilidadLoteRepository {
+
+    private static final String INSERTAR =
+            "INSERT INTO disponibilidades (tutor_id, fecha, hora_inicial, hora_final) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DisponibilidadLoteRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertarEnLote(List<Disponibilidad> disponibilidades) {
+        if (disponibilidades.isEmpty()) {
+            return;
+        }
+        KeyHolder ids = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERTAR, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Disponibilidad disponibilidad = disponibilidades.get(i);
+                        ps.setLong(1, disponibilidad.getTutor().getId());
+                        ps.setObject(2, disponibilidad.getFecha());
+                        ps.setObject(3, disponibilidad.getHoraInicial());
+                        ps.setObject(4, disponibilidad.getHoraFinal());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return disponibilidades.size();
+                    }
+                }, ids);
+
+        List<Map<String, Object>> generados = ids.getKeyList();
+        for (int i = 0; i < disponibilidades.size(); i++) {
+            disponibilidades.get(i).setId(((Number) generados.get(i).get("id")).longValue());
+        }
+    }
+}
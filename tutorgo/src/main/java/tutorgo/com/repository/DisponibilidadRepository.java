@@ -1,5 +1,9 @@
 package tutorgo.com.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import tutorgo.com.model.Disponibilidad;
@@ -10,13 +14,68 @@ import tutorgo.com.model.Tutor;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface DisponibilidadRepository extends JpaRepository<Disponibilidad, Long> {
+public interface DisponibilidadRepository extends JpaRepository<Disponibilidad, Long>, DisponibilidadLoteRepository {
     List<Disponibilidad> findByTutorAndFecha(Tutor tutor, LocalDate fecha);
 
     List<Disponibilidad> findByTutorOrderByFechaAscHoraInicialAsc(Tutor tutor);
 
+    // Ventana de fechas de un tutor (GET /tutores/{id}/disponibilidades), sobre el índice (tutor_id, fecha, hora_inicial)
+    Page<Disponibilidad> findByTutorIdAndFechaBetween(Long tutorId, LocalDate desde, LocalDate hasta, Pageable pageable);
+
+    List<Disponibilidad> findByTutorIdAndFechaBetweenOrderByFechaAscHoraInicialAsc(Long tutorId, LocalDate desde, LocalDate hasta);
+
+    // Compactación: los bloques de un día del tutor, bloqueados (FOR UPDATE) mientras se unen
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Disponibilidad d WHERE d.tutor.id = :tutorId AND d.fecha = :fecha ORDER BY d.horaInicial, d.id")
+    List<Disponibilidad> findParaCompactar(@Param("tutorId") Long tutorId, @Param("fecha") LocalDate fecha);
+
+    // Pago: el bloque que se recorta, bloqueado antes de insertar el resto. Así dos pagos del mismo
+    // bloque se ordenan en esta fila y no se cruzan esperándose en la restricción de solapamiento.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Disponibilidad d WHERE d.id = :id")
+    Optional<Disponibilidad> findByIdParaAjustar(@Param("id") Long id);
+
+    interface DiaFragmentado {
+        Long getTutorId();
+        LocalDate getFecha();
+    }
+
+    // Días (desde una fecha) en los que un tutor tiene dos bloques que se tocan o se cruzan
+    @Query("SELECT DISTINCT a.tutor.id AS tutorId, a.fecha AS fecha FROM Disponibilidad a, Disponibilidad b " +
+            "WHERE b.tutor.id = a.tutor.id AND b.fecha = a.fecha AND b.id <> a.id " +
+            "AND b.horaInicial <= a.horaFinal AND b.horaFinal >= a.horaInicial AND a.fecha >= :desde " +
+            "ORDER BY a.fecha, a.tutor.id")
+    List<DiaFragmentado> findDiasFragmentados(@Param("desde") LocalDate desde, Pageable pageable);
+
+    // Solo los campos que usa el índice de disponibilidad en memoria (tutorgo.com.search.DisponibilidadBitmapIndex)
+    interface FranjaIndexable {
+        Long getId();
+        Long getTutorId();
+        LocalDate getFecha();
+        LocalDateTime getHoraInicial();
+        LocalDateTime getHoraFinal();
+    }
+
+    @Query("SELECT d.id AS id, d.tutor.id AS tutorId, d.fecha AS fecha, d.horaInicial AS horaInicial, " +
+            "d.horaFinal AS horaFinal FROM Disponibilidad d")
+    List<FranjaIndexable> findAllFranjasIndexables();
+
+    @Query("SELECT d.id AS id, d.tutor.id AS tutorId, d.fecha AS fecha, d.horaInicial AS horaInicial, " +
+            "d.horaFinal AS horaFinal FROM Disponibilidad d WHERE d.tutor.id = :tutorId AND d.fecha >= :desde")
+    List<FranjaIndexable> findFranjasIndexablesByTutorIdDesde(@Param("tutorId") Long tutorId,
+                                                              @Param("desde") LocalDate desde);
+
+    // Los bloques del tutor entre dos fechas, en orden de inicio (validación de un lote de altas)
+    @Query("SELECT d.id AS id, d.tutor.id AS tutorId, d.fecha AS fecha, d.horaInicial AS horaInicial, " +
+            "d.horaFinal AS horaFinal FROM Disponibilidad d WHERE d.tutor.id = :tutorId " +
+            "AND d.fecha BETWEEN :desde AND :hasta ORDER BY d.horaInicial")
+    List<FranjaIndexable> findFranjasIndexablesByTutorIdAndFechaEntre(@Param("tutorId") Long tutorId,
+                                                                      @Param("desde") LocalDate desde,
+                                                                      @Param("hasta") LocalDate hasta);
+
     @Query("SELECT d FROM Disponibilidad d WHERE d.tutor.id = :tutorId AND d.fecha = :fecha " +
             "AND d.horaInicial < :horaFinalNueva AND d.horaFinal > :horaInicialNueva")
     List<Disponibilidad> findDisponibilidadesSolapadas(@Param("tutorId") Long tutorId,
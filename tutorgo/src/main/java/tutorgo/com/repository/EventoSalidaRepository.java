@@ -0,0 +1,23 @@
+package tutorgo.com.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tutorgo.com.model.EventoSalida;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EventoSalidaRepository extends JpaRepository<EventoSalida, Long> {
+
+    // Los que agotaron los intentos no vuelven a salir: quedan en la tabla con su último error.
+    // Los próximos eventos listos, en orden de llegada. SKIP LOCKED: si hay varios nodos despachando,
+    // cada uno se lleva filas distintas en lugar de esperar al otro.
+    @Query(value = "SELECT * FROM eventos_salida WHERE disponible_desde <= :ahora AND intentos < :maxIntentos " +
+            "ORDER BY id LIMIT :lote FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EventoSalida> tomarListos(@Param("ahora") LocalDateTime ahora,
+                                   @Param("maxIntentos") int maxIntentos,
+                                   @Param("lote") int lote);
+}
@@ -0,0 +1,53 @@
+package tutorgo.com.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tutorgo.com.model.IngresoDiarioTutor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface IngresoDiarioTutorRepository extends JpaRepository<IngresoDiarioTutor, Long> {
+
+    // Suma un pago a la fila del tutor y el día, creándola si es el primero. Es una sola sentencia:
+    // dos pagos simultáneos del mismo tutor no pierden ninguna suma, el segundo espera el bloqueo de
+    // la fila hasta que el primero termina.
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO ingresos_diarios_tutor (tutor_id, fecha, monto_bruto, comision_plataforma, cantidad_pagos) " +
+            "VALUES (:tutorId, :fecha, :monto, :comision, 1) " +
+            "ON CONFLICT (tutor_id, fecha) DO UPDATE SET " +
+            "monto_bruto = ingresos_diarios_tutor.monto_bruto + EXCLUDED.monto_bruto, " +
+            "comision_plataforma = ingresos_diarios_tutor.comision_plataforma + EXCLUDED.comision_plataforma, " +
+            "cantidad_pagos = ingresos_diarios_tutor.cantidad_pagos + 1", nativeQuery = true)
+    void sumarPago(@Param("tutorId") Long tutorId,
+                   @Param("fecha") LocalDate fecha,
+                   @Param("monto") BigDecimal monto,
+                   @Param("comision") BigDecimal comision);
+
+    // Totales de un día: de un tutor o de todos. Los días sin pagos no tienen fila.
+    interface IngresoDelDia {
+        LocalDate getFecha();
+        BigDecimal getMontoBruto();
+        BigDecimal getComisionPlataforma();
+        Long getCantidadPagos();
+    }
+
+    @Query("SELECT i.fecha AS fecha, i.montoBruto AS montoBruto, i.comisionPlataforma AS comisionPlataforma, " +
+            "i.cantidadPagos AS cantidadPagos FROM IngresoDiarioTutor i " +
+            "WHERE i.tutor.id = :tutorId AND i.fecha BETWEEN :desde AND :hasta ORDER BY i.fecha")
+    List<IngresoDelDia> findDiasByTutorIdEntre(@Param("tutorId") Long tutorId,
+                                                @Param("desde") LocalDate desde,
+                                                @Param("hasta") LocalDate hasta);
+
+    // Lee una fila por tutor con pagos en cada día del rango (índice por fecha), nunca los pagos
+    @Query("SELECT i.fecha AS fecha, SUM(i.montoBruto) AS montoBruto, SUM(i.comisionPlataforma) AS comisionPlataforma, " +
+            "SUM(i.cantidadPagos) AS cantidadPagos FROM IngresoDiarioTutor i " +
+            "WHERE i.fecha BETWEEN :desde AND :hasta GROUP BY i.fecha ORDER BY i.fecha")
+    List<IngresoDelDia> findDiasDePlataformaEntre(@Param("desde") LocalDate desde,
+                                                  @Param("hasta") LocalDate hasta);
+}
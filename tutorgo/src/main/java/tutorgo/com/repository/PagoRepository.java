@@ -1,14 +1,21 @@
 package tutorgo.com.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import tutorgo.com.enums.EstadoPagoEnum;
+import tutorgo.com.enums.MetodoPagoEnum;
 import tutorgo.com.model.Pago;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PagoRepository extends JpaRepository<Pago, Long> {
@@ -38,4 +45,47 @@ public interface PagoRepository extends JpaRepository<Pago, Long> {
 
     // Busca los pagos donde el ID del tutor coincide
     List<Pago> findByTutorIdOrderByIdDesc(Long tutorId);
-}
\ No newline at end of file
+
+    // Una fila del historial con solo lo que muestra PagoResponse. Sin entidades: nada queda en el
+    // contexto de persistencia, así que recorrer miles de filas no acumula memoria.
+    interface FilaHistorial {
+        Long getId();
+        Long getTutorId();
+        String getNombreTutor();
+        Long getEstudianteId();
+        String getNombreEstudiante();
+        BigDecimal getMonto();
+        BigDecimal getComisionPlataforma();
+        MetodoPagoEnum getMetodoPago();
+        EstadoPagoEnum getTipoEstado();
+    }
+
+    String SELECT_FILA_HISTORIAL = "SELECT p.id AS id, t.id AS tutorId, tu.nombre AS nombreTutor, " +
+            "e.id AS estudianteId, eu.nombre AS nombreEstudiante, p.monto AS monto, " +
+            "p.comisionPlataforma AS comisionPlataforma, p.metodoPago AS metodoPago, p.tipoEstado AS tipoEstado " +
+            "FROM Pago p JOIN p.tutor t JOIN t.user tu JOIN p.estudiante e JOIN e.user eu ";
+
+    // Páginas por cursor: los pagos con id menor que antesDeId, del más nuevo al más viejo. El
+    // Pageable solo pone el LIMIT (siempre página 0, sin consulta de conteo).
+    @Query(SELECT_FILA_HISTORIAL + "WHERE t.id = :tutorId AND p.id < :antesDeId ORDER BY p.id DESC")
+    List<FilaHistorial> findHistorialDelTutor(@Param("tutorId") Long tutorId,
+                                              @Param("antesDeId") Long antesDeId,
+                                              Pageable limite);
+
+    @Query(SELECT_FILA_HISTORIAL + "WHERE e.id = :estudianteId AND p.id < :antesDeId ORDER BY p.id DESC")
+    List<FilaHistorial> findHistorialDelEstudiante(@Param("estudianteId") Long estudianteId,
+                                                   @Param("antesDeId") Long antesDeId,
+                                                   Pageable limite);
+
+    // Para exportar el historial entero: el driver trae las filas de a FETCH_SIZE_EXPORTACION con un
+    // cursor de PostgreSQL. Hay que consumir el Stream dentro de una transacción y cerrarlo.
+    String FETCH_SIZE_EXPORTACION = "500";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE_EXPORTACION))
+    @Query(SELECT_FILA_HISTORIAL + "WHERE t.id = :tutorId ORDER BY p.id DESC")
+    Stream<FilaHistorial> streamHistorialDelTutor(@Param("tutorId") Long tutorId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE_EXPORTACION))
+    @Query(SELECT_FILA_HISTORIAL + "WHERE e.id = :estudianteId ORDER BY p.id DESC")
+    Stream<FilaHistorial> streamHistorialDelEstudiante(@Param("estudianteId") Long estudianteId);
+}
@@ -0,0 +1,39 @@
+package tutorgo.com.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tutorgo.com.model.ReglaDisponibilidad;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+// Todas las lecturas traen los días y las excepciones en la misma consulta: una regla sin ellos
+// no sirve para calcular ocurrencias.
+@Repository
+public interface ReglaDisponibilidadRepository extends JpaRepository<ReglaDisponibilidad, Long> {
+
+    @Query("SELECT DISTINCT r FROM ReglaDisponibilidad r LEFT JOIN FETCH r.diasSemana LEFT JOIN FETCH r.excepciones " +
+            "WHERE r.id = :id")
+    Optional<ReglaDisponibilidad> findConDetalleById(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT r FROM ReglaDisponibilidad r LEFT JOIN FETCH r.diasSemana LEFT JOIN FETCH r.excepciones " +
+            "WHERE r.tutor.id = :tutorId ORDER BY r.fechaInicio, r.horaInicio, r.id")
+    List<ReglaDisponibilidad> findConDetalleByTutorId(@Param("tutorId") Long tutorId);
+
+    // Reglas cuyo rango de fechas se cruza con [desde, hasta]
+    @Query("SELECT DISTINCT r FROM ReglaDisponibilidad r LEFT JOIN FETCH r.diasSemana LEFT JOIN FETCH r.excepciones " +
+            "WHERE r.fechaInicio <= :hasta AND r.fechaFin >= :desde")
+    List<ReglaDisponibilidad> findConDetalleVigentesEntre(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    @Query("SELECT DISTINCT r FROM ReglaDisponibilidad r LEFT JOIN FETCH r.diasSemana LEFT JOIN FETCH r.excepciones " +
+            "WHERE r.tutor.id = :tutorId AND r.fechaInicio <= :hasta AND r.fechaFin >= :desde")
+    List<ReglaDisponibilidad> findConDetalleByTutorIdVigentesEntre(@Param("tutorId") Long tutorId,
+                                                                   @Param("desde") LocalDate desde,
+                                                                   @Param("hasta") LocalDate hasta);
+
+    @Query("SELECT DISTINCT r FROM ReglaDisponibilidad r LEFT JOIN FETCH r.diasSemana LEFT JOIN FETCH r.excepciones")
+    List<ReglaDisponibilidad> findAllConDetalle();
+}
@@ -0,0 +1,13 @@
+package tutorgo.com.repository;
+
+import tutorgo.com.model.Sesion;
+
+import java.util.List;
+
+// Alta de un paquete de sesiones (ver SesionLoteRepositoryImpl)
+public interface SesionLoteRepository {
+
+    // Inserta todas las sesiones en un solo lote JDBC y les asigna el id generado, en el mismo orden.
+    // Como DisponibilidadLoteRepository.insertarEnLote, los objetos no quedan gestionados por JPA.
+    void insertarEnLote(List<Sesion> sesiones);
+}
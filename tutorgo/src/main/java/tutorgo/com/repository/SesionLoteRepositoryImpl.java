@@ -0,0 +1,62 @@
+package tutorgo.com.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import tutorgo.com.model.Sesion;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+// Mismo motivo que DisponibilidadLoteRepositoryImpl: con IDENTITY, saveAll serían N viajes a la base.
+// tipo_estado es un enum de PostgreSQL y el texto se convierte en el INSERT; version toma el valor
+// por defecto de la columna (0), que es el que Hibernate espera para una fila nueva.
+public class SesionLoteRepositoryImpl implements SesionLoteRepository {
+
+    private static final String INSERTAR =
+            "INSERT INTO sesiones (tutor_id, estudiante_id, fecha, hora_inicial, hora_final, tipo_estado, reservada_hasta) " +
+                    "VALUES (?, ?, ?, ?, ?, CAST(? AS estado_sesion_enum), ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SesionLoteRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertarEnLote(List<Sesion> sesiones) {
+        if (sesiones.isEmpty()) {
+            return;
+        }
+        KeyHolder ids = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERTAR, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Sesion sesion = sesiones.get(i);
+                        ps.setLong(1, sesion.getTutor().getId());
+                        ps.setLong(2, sesion.getEstudiante().getId());
+                        ps.setObject(3, sesion.getFecha());
+                        ps.setObject(4, sesion.getHoraInicial());
+                        ps.setObject(5, sesion.getHoraFinal());
+                        ps.setString(6, sesion.getTipoEstado().name());
+                        ps.setObject(7, sesion.getReservadaHasta());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return sesiones.size();
+                    }
+                }, ids);
+
+        List<Map<String, Object>> generados = ids.getKeyList();
+        for (int i = 0; i < sesiones.size(); i++) {
+            Sesion sesion = sesiones.get(i);
+            sesion.setId(((Number) generados.get(i).get("id")).longValue());
+            sesion.setVersion(0L);
+        }
+    }
+}
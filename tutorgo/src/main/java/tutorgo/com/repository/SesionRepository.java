@@ -1,6 +1,9 @@
 package tutorgo.com.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,9 +14,10 @@ import tutorgo.com.model.Sesion;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface SesionRepository extends JpaRepository<Sesion, Long> {
+public interface SesionRepository extends JpaRepository<Sesion, Long>, SesionLoteRepository {
     List<Sesion> findByHoraInicialBetween(LocalDateTime desde, LocalDateTime hasta);
     // Consulta para encontrar sesiones que se solapan para un tutor específico
     @Query("SELECT s FROM Sesion s WHERE s.tutor.id = :tutorId AND s.fecha = :fecha " +
@@ -25,6 +29,29 @@ public interface SesionRepository extends JpaRepository<Sesion, Long> {
                                                 @Param("horaInicialReserva") LocalDateTime horaInicialReserva,
                                                 @Param("horaFinalReserva") LocalDateTime horaFinalReserva);
 
+    // Solo los campos que usa la agenda en memoria (tutorgo.com.search.AgendaTutorIndex)
+    interface FranjaOcupada {
+        Long getId();
+        LocalDate getFecha();
+        LocalDateTime getHoraInicial();
+        LocalDateTime getHoraFinal();
+    }
+
+    @Query("SELECT s.id AS id, s.fecha AS fecha, s.horaInicial AS horaInicial, s.horaFinal AS horaFinal FROM Sesion s " +
+            "WHERE s.tutor.id = :tutorId AND s.fecha >= :desde " +
+            "AND s.tipoEstado IN (tutorgo.com.enums.EstadoSesionEnum.CONFIRMADO, tutorgo.com.enums.EstadoSesionEnum.PENDIENTE)")
+    List<FranjaOcupada> findFranjasActivasByTutorIdDesde(@Param("tutorId") Long tutorId,
+                                                         @Param("desde") LocalDate desde);
+
+    // Las mismas franjas, solo entre dos fechas y en orden de inicio (cálculo de horarios libres)
+    @Query("SELECT s.id AS id, s.fecha AS fecha, s.horaInicial AS horaInicial, s.horaFinal AS horaFinal FROM Sesion s " +
+            "WHERE s.tutor.id = :tutorId AND s.fecha BETWEEN :desde AND :hasta " +
+            "AND s.tipoEstado IN (tutorgo.com.enums.EstadoSesionEnum.CONFIRMADO, tutorgo.com.enums.EstadoSesionEnum.PENDIENTE) " +
+            "ORDER BY s.horaInicial")
+    List<FranjaOcupada> findFranjasActivasByTutorIdAndFechaEntre(@Param("tutorId") Long tutorId,
+                                                                 @Param("desde") LocalDate desde,
+                                                                 @Param("hasta") LocalDate hasta);
+
     // Para "Mis solicitudes" del alumno
     List<Sesion> findByEstudianteIdOrderByFechaAscHoraInicialAsc(Long estudianteId);
 
@@ -60,4 +87,31 @@ public interface SesionRepository extends JpaRepository<Sesion, Long> {
     List<Sesion> findByEstudiante_User_EmailOrderByFechaAscHoraInicialAsc(String email);
 
     List<Sesion> findByTutor_User_EmailOrderByFechaAscHoraInicialAsc(String email);
+
+    // El pago y la liberación de reservas vencidas toman la misma fila: gana el primero que la bloquea
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Sesion s WHERE s.id = :id")
+    Optional<Sesion> findByIdParaConfirmar(@Param("id") Long id);
+
+    // Lo que necesita RetencionesDeHorario para volver a programar los vencimientos al arrancar
+    interface RetencionPendiente {
+        Long getId();
+        LocalDateTime getReservadaHasta();
+    }
+
+    @Query("SELECT s.id AS id, s.reservadaHasta AS reservadaHasta FROM Sesion s " +
+            "WHERE s.tipoEstado = tutorgo.com.enums.EstadoSesionEnum.PENDIENTE AND s.reservadaHasta IS NOT NULL")
+    List<RetencionPendiente> findRetencionesPendientes();
+
+    // Sesiones PENDIENTE de antes de que existiera el vencimiento: reciben uno a partir de ahora
+    @Modifying
+    @Query("UPDATE Sesion s SET s.reservadaHasta = :hasta " +
+            "WHERE s.tipoEstado = tutorgo.com.enums.EstadoSesionEnum.PENDIENTE AND s.reservadaHasta IS NULL")
+    int asignarVencimientoAPendientesSinVencimiento(@Param("hasta") LocalDateTime hasta);
+
+    // De esas sesiones, las que siguen PENDIENTE y ya vencieron. Las que se pagaron entretanto no aparecen.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Sesion s WHERE s.id IN :ids " +
+            "AND s.tipoEstado = tutorgo.com.enums.EstadoSesionEnum.PENDIENTE AND s.reservadaHasta < :ahora")
+    List<Sesion> findReservasVencidasParaLiberar(@Param("ids") List<Long> ids, @Param("ahora") LocalDateTime ahora);
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package tutorgo.com.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import tutorgo.com.model.Tutor;
+
+import java.util.List;
+
+// Conteos para las facetas del catálogo de tutores (ver TutorFacetasRepositoryImpl)
+public interface TutorFacetasRepository {
+
+    // Una fila por rubro entre los tutores que cumplen los filtros: cuántos hay y, de ellos,
+    // cuántos caen en cada tramo de precio (tarifaHora <= limitesPrecio[i] y mayor que el límite
+    // anterior; el último tramo no tiene tope) y cuántos tienen al menos minimosEstrellas[i].
+    List<ConteoPorRubro> contarPorRubro(Specification<Tutor> filtros, int[] limitesPrecio, int[] minimosEstrellas);
+
+    record ConteoPorRubro(String rubro, long total, long[] porPrecio, long[] porEstrellas) {
+    }
+}
@@ -0,0 +1,82 @@
+package tutorgo.com.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.jpa.domain.Specification;
+import tutorgo.com.model.Tutor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Todas las facetas salen de una sola consulta agrupada por rubro, con un SUM(CASE ...) por cada
+// tramo de precio y de estrellas. La suma de los totales por rubro es además el total de la
+// búsqueda, así que esta consulta reemplaza al COUNT de la paginación: la página con facetas
+// sigue costando dos consultas.
+public class TutorFacetasRepositoryImpl implements TutorFacetasRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ConteoPorRubro> contarPorRubro(Specification<Tutor> filtros, int[] limitesPrecio, int[] minimosEstrellas) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Tutor> root = query.from(Tutor.class);
+        Path<String> rubro = root.get("rubro");
+        Path<Integer> tarifa = root.get("tarifaHora");
+        Path<Float> estrellas = root.get("estrellasPromedio");
+
+        List<Selection<?>> columnas = new ArrayList<>();
+        columnas.add(rubro);
+        columnas.add(cb.count(root));
+        for (int i = 0; i <= limitesPrecio.length; i++) {
+            List<Predicate> enTramo = new ArrayList<>(2);
+            if (i > 0) {
+                enTramo.add(cb.greaterThan(tarifa, limitesPrecio[i - 1]));
+            }
+            if (i < limitesPrecio.length) {
+                enTramo.add(cb.lessThanOrEqualTo(tarifa, limitesPrecio[i]));
+            }
+            columnas.add(contarSi(cb, cb.and(enTramo.toArray(new Predicate[0]))));
+        }
+        for (int minimo : minimosEstrellas) {
+            columnas.add(contarSi(cb, cb.greaterThanOrEqualTo(estrellas, (float) minimo)));
+        }
+
+        query.multiselect(columnas).groupBy(rubro);
+        Predicate condicion = (filtros != null) ? filtros.toPredicate(root, query, cb) : null;
+        if (condicion != null) {
+            query.where(condicion);
+        }
+
+        List<ConteoPorRubro> conteos = new ArrayList<>();
+        for (Tuple fila : entityManager.createQuery(query).getResultList()) {
+            long[] porPrecio = new long[limitesPrecio.length + 1];
+            for (int i = 0; i < porPrecio.length; i++) {
+                porPrecio[i] = numero(fila.get(2 + i));
+            }
+            long[] porEstrellas = new long[minimosEstrellas.length];
+            for (int i = 0; i < porEstrellas.length; i++) {
+                porEstrellas[i] = numero(fila.get(2 + porPrecio.length + i));
+            }
+            conteos.add(new ConteoPorRubro(fila.get(0, String.class), numero(fila.get(1)), porPrecio, porEstrellas));
+        }
+        return conteos;
+    }
+
+    private static Expression<Integer> contarSi(CriteriaBuilder cb, Predicate condicion) {
+        return cb.sum(cb.<Integer>selectCase().when(condicion, 1).otherwise(0));
+    }
+
+    private static long numero(Object valor) {
+        return (valor != null) ? ((Number) valor).longValue() : 0;
+    }
+}
@@ -0,0 +1,15 @@
+package tutorgo.com.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import tutorgo.com.model.Tutor;
+
+import java.util.List;
+
+// Lo mínimo para ordenar en memoria los tutores que cumplen los filtros (relevancia, recomendado)
+public interface TutorRankingRepository {
+
+    List<DatosRanking> findDatosRanking(Specification<Tutor> filtros);
+
+    record DatosRanking(Long id, Integer tarifaHora, Float estrellasPromedio) {
+    }
+}
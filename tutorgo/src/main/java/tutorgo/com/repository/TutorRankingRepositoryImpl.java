@@ -0,0 +1,34 @@
+package tutorgo.com.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import tutorgo.com.model.Tutor;
+
+import java.util.List;
+
+// Solo tres columnas por tutor y sin joins (salvo el de usuario si se filtra por nombre), para que
+// traer todos los que cumplen los filtros sea barato aunque sean miles.
+public class TutorRankingRepositoryImpl implements TutorRankingRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<DatosRanking> findDatosRanking(Specification<Tutor> filtros) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DatosRanking> query = cb.createQuery(DatosRanking.class);
+        Root<Tutor> root = query.from(Tutor.class);
+        query.select(cb.construct(DatosRanking.class,
+                root.get("id"), root.get("tarifaHora"), root.get("estrellasPromedio")));
+        Predicate condicion = (filtros != null) ? filtros.toPredicate(root, query, cb) : null;
+        if (condicion != null) {
+            query.where(condicion);
+        }
+        return entityManager.createQuery(query).getResultList();
+    }
+}
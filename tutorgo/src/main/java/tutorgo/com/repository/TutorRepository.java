@@ -2,20 +2,79 @@ package tutorgo.com.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import tutorgo.com.model.Tutor;
 import tutorgo.com.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TutorRepository extends JpaRepository<Tutor, Long> {
+public interface TutorRepository extends JpaRepository<Tutor, Long>, JpaSpecificationExecutor<Tutor>,
+        TutorFacetasRepository, TutorRankingRepository {
     Optional<Tutor> findByUser(User user);
     Optional<Tutor> findByUserId(Long userId);
+    Optional<Tutor> findByUserEmail(String email);
+
+    // Solo los campos que usa el índice de búsqueda en memoria (tutorgo.com.search.TutorSearchIndex)
+    interface TextoBuscable {
+        Long getId();
+        String getNombre();
+        String getRubro();
+    }
+
+    @Query("SELECT t.id AS id, u.nombre AS nombre, t.rubro AS rubro FROM Tutor t JOIN t.user u")
+    List<TextoBuscable> findAllTextoBuscable();
+
+    // Perfiles de varios tutores en una sola consulta (GET /tutores?ids=...). Es una proyección y no
+    // entidades para que Hibernate no cargue, usuario por usuario, el lado inverso de sus @OneToOne.
+    interface PerfilTutor {
+        Long getId();
+        Integer getTarifaHora();
+        String getRubro();
+        String getBio();
+        Float getEstrellasPromedio();
+        String getNombre();
+        String getFotoUrl();
+    }
+
+    @Query("SELECT t.id AS id, t.tarifaHora AS tarifaHora, t.rubro AS rubro, t.bio AS bio, " +
+            "t.estrellasPromedio AS estrellasPromedio, u.nombre AS nombre, u.fotoUrl AS fotoUrl " +
+            "FROM Tutor t JOIN t.user u WHERE t.id IN :ids")
+    List<PerfilTutor> findPerfilesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Versión guardada de un recurso del tutor: la leen los ETag y Last-Modified de search.TutorVersiones
+    interface VersionGuardada {
+        Long getCantidad();
+        Instant getModificado();
+    }
+
+    @Query("SELECT t.versionPerfil AS cantidad, t.perfilModificado AS modificado FROM Tutor t WHERE t.id = :id")
+    Optional<VersionGuardada> findVersionPerfil(@Param("id") Long id);
+
+    @Query("SELECT t.versionDisponibilidad AS cantidad, t.disponibilidadModificada AS modificado FROM Tutor t WHERE t.id = :id")
+    Optional<VersionGuardada> findVersionDisponibilidad(@Param("id") Long id);
+
+    // Dos cambios en el mismo segundo no pueden compartir Last-Modified (tiene precisión de segundos):
+    // un cliente que solo manda If-Modified-Since recibiría 304 con la copia del primero
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE tutores SET version_perfil = version_perfil + 1, " +
+            "perfil_modificado = GREATEST(date_trunc('second', now()), perfil_modificado + INTERVAL '1 second') " +
+            "WHERE id = :id", nativeQuery = true)
+    int incrementarVersionPerfil(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE tutores SET version_disponibilidad = version_disponibilidad + 1, " +
+            "disponibilidad_modificada = GREATEST(date_trunc('second', now()), disponibilidad_modificada + INTERVAL '1 second') " +
+            "WHERE id = :id", nativeQuery = true)
+    int incrementarVersionDisponibilidad(@Param("id") Long id);
 
     // Este se usará cuando la búsqueda esté vacía.
     @Query(value = "SELECT t FROM Tutor t JOIN FETCH t.user u",
@@ -44,14 +103,4 @@ public interface TutorRepository extends JpaRepository<Tutor, Long> {
             "LOWER(u.nombre) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
             "LOWER(t.rubro) LIKE LOWER(CONCAT('%', :query, '%'))")
     Page<Tutor> searchByNameOrRubro(@Param("query") String query, Pageable pageable);
-
-    // ***** CONSULTA MODIFICADA: SIN FILTRO DE TEXTO *****
-    // Esta consulta solo filtra por precio y puntuación, que son numéricos y no dan error.
-    @Query("SELECT t FROM Tutor t JOIN FETCH t.user u WHERE " + // JOIN FETCH para optimizar
-            "(:maxPrecio IS NULL OR t.tarifaHora <= :maxPrecio) " +
-            "AND (:puntuacion IS NULL OR t.estrellasPromedio >= :puntuacion)")
-    List<Tutor> findWithNumericFilters(
-            @Param("maxPrecio") Integer maxPrecio,
-            @Param("puntuacion") Float puntuacion
-    );
 }
\ No newline at end of file
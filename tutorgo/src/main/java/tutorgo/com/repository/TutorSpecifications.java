@@ -0,0 +1,169 @@
+package tutorgo.com.repository;
+
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaExpression;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+import tutorgo.com.model.Disponibilidad;
+import tutorgo.com.model.Tutor;
+import tutorgo.com.model.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Predicados del buscador de tutores (/tutores). Cada método devuelve null cuando el filtro
+// no aplica, así se pueden combinar con Specification.allOf sin condicionales en el servicio.
+public final class TutorSpecifications {
+
+    private static final int MAX_IDS_EN_IN = 500;
+
+    private TutorSpecifications() {
+    }
+
+    // Trae el usuario en la misma consulta. Sin esto cada fila de la página dispara sus propios
+    // SELECT: Tutor.user y User.role son EAGER, y los @OneToOne inversos de User (tutorProfile,
+    // studentProfile) no se pueden cargar de forma perezosa. En las consultas que no devuelven
+    // tutores (el conteo, las facetas) no se puede hacer fetch, ahí no se agrega nada.
+    public static Specification<Tutor> conUsuario() {
+        return (root, query, cb) -> {
+            if (query != null && Tutor.class.equals(query.getResultType())) {
+                Fetch<Tutor, User> user = root.fetch("user", JoinType.INNER);
+                user.fetch("role", JoinType.INNER);
+                user.fetch("tutorProfile", JoinType.LEFT);
+                user.fetch("studentProfile", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+
+    public static Specification<Tutor> nombreORubroContiene(String texto) {
+        if (!StringUtils.hasText(texto)) {
+            return null;
+        }
+        String patron = "%" + escaparLike(texto.trim().toLowerCase()) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(usuario(root).get("nombre")), patron, '\\'),
+                cb.like(cb.lower(root.get("rubro")), patron, '\\')
+        );
+    }
+
+    // Tutores cuyo id está entre los que devolvió el índice de búsqueda. Una lista corta va como
+    // IN normal (usa la clave primaria); una larga viaja como un único parámetro de tipo arreglo
+    // para no chocar con el límite de parámetros del driver. Con tantos ids PostgreSQL recorrería
+    // la tabla de todas formas.
+    public static Specification<Tutor> idEn(Collection<Long> ids) {
+        if (ids == null) {
+            return null;
+        }
+        if (ids.size() <= MAX_IDS_EN_IN) {
+            return (root, query, cb) -> root.get("id").in(ids);
+        }
+        Long[] arreglo = ids.toArray(new Long[0]);
+        return (root, query, cb) -> ((HibernateCriteriaBuilder) cb).arrayContains(arreglo, root.<Long>get("id"));
+    }
+
+    public static Specification<Tutor> tarifaMaxima(Integer maxPrecio) {
+        if (maxPrecio == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("tarifaHora"), maxPrecio);
+    }
+
+    public static Specification<Tutor> puntuacionMinima(Float puntuacion) {
+        if (puntuacion == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("estrellasPromedio"), puntuacion);
+    }
+
+    // Tutores con al menos un bloque de disponibilidad entre fechaInicio y fechaFin que se cruce
+    // con la franja [horaInicio, horaFin) de ese día (una hora nula deja ese extremo abierto).
+    // Se resuelve con un EXISTS correlacionado, sin cargar la colección perezosa Tutor.disponibilidades.
+    public static Specification<Tutor> disponibleEntre(LocalDate fechaInicio, LocalDate fechaFin,
+                                                       LocalTime horaInicio, LocalTime horaFin) {
+        return (root, query, cb) -> {
+            Subquery<Long> sub = query.subquery(Long.class);
+            Root<Disponibilidad> d = sub.from(Disponibilidad.class);
+            List<Predicate> condiciones = new ArrayList<>();
+            condiciones.add(cb.equal(d.get("tutor"), root));
+            condiciones.add(cb.between(d.get("fecha"), fechaInicio, fechaFin));
+            if (horaFin != null) {
+                condiciones.add(cb.lessThan(horaDelDia(d.get("horaInicial")), horaFin));
+            }
+            if (horaInicio != null) {
+                condiciones.add(cb.greaterThan(horaDelDia(d.get("horaFinal")), horaInicio));
+            }
+            sub.select(d.get("id")).where(condiciones.toArray(new Predicate[0]));
+            return cb.exists(sub);
+        };
+    }
+
+    // Paginación por cursor: filas que van después de (valor, id) en el orden dado. Se escribe como
+    // "col >= v AND (col > v OR id > ultimoId)" para que la primera condición sea un rango sobre el
+    // índice (col, id) y la página cueste lo mismo sin importar la profundidad. Las columnas
+    // ordenables son NOT NULL, no hace falta tratar nulos.
+    //
+    // El valor llega como intervalo [desde, hasta]: para las columnas exactas es un solo punto; para
+    // estrellasPromedio (Float en Java, real o double precision según el esquema) son todos los
+    // valores de la base que se leen como ese mismo Float.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Tutor> despuesDe(String propiedad, Sort.Direction direccion,
+                                                 Comparable desde, Comparable hasta, Long ultimoId) {
+        boolean ascendente = direccion.isAscending();
+        return (root, query, cb) -> {
+            Path<Long> id = root.get("id");
+            if ("id".equals(propiedad)) {
+                return ascendente ? cb.greaterThan(id, ultimoId) : cb.lessThan(id, ultimoId);
+            }
+            Expression<Comparable> campo = "user.nombre".equals(propiedad)
+                    ? usuario(root).get("nombre")
+                    : root.get(propiedad);
+            if (desde instanceof Double) {
+                // Sin el cast, Hibernate convierte los límites al tipo del atributo (Float) y se pierden
+                campo = (Expression) campo.as(Double.class);
+            }
+            if (ascendente) {
+                return cb.and(cb.greaterThanOrEqualTo(campo, desde),
+                        cb.or(cb.greaterThan(campo, hasta), cb.greaterThan(id, ultimoId)));
+            }
+            return cb.and(cb.lessThanOrEqualTo(campo, hasta),
+                    cb.or(cb.lessThan(campo, desde), cb.lessThan(id, ultimoId)));
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    static Join<Tutor, User> usuario(Root<Tutor> root) {
+        for (Fetch<Tutor, ?> fetch : root.getFetches()) {
+            if ("user".equals(fetch.getAttribute().getName())) {
+                return (Join<Tutor, User>) fetch;
+            }
+        }
+        for (Join<Tutor, ?> join : root.getJoins()) {
+            if ("user".equals(join.getAttribute().getName())) {
+                return (Join<Tutor, User>) join;
+            }
+        }
+        return root.join("user", JoinType.INNER);
+    }
+
+    private static Expression<LocalTime> horaDelDia(Expression<LocalDateTime> fechaHora) {
+        return ((JpaExpression<LocalDateTime>) fechaHora).cast(LocalTime.class);
+    }
+
+    private static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,84 @@
+package tutorgo.com.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tutorgo.com.repository.DisponibilidadRepository;
+import tutorgo.com.service.DisponibilidadService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Confirmar sesiones parte los bloques de disponibilidad y nada los vuelve a unir: con el tiempo la
+// agenda de un tutor se llena de fragmentos que se tocan. Este job los une por tutor y día, de a
+// lotes y un día por transacción, así que nunca bloquea la agenda de un tutor más que lo que tarda
+// un día. Los días pasados no se tocan: las consultas de solapamiento ya no los leen.
+@Component
+public class CompactacionDisponibilidadScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(CompactacionDisponibilidadScheduler.class);
+
+    private final DisponibilidadRepository disponibilidadRepository;
+    private final DisponibilidadService disponibilidadService;
+    private final int diasPorLote;
+    private final int maxLotesPorEjecucion;
+
+    public CompactacionDisponibilidadScheduler(DisponibilidadRepository disponibilidadRepository,
+                                               DisponibilidadService disponibilidadService,
+                                               @Value("${tutorgo.compactacion.dias-por-lote:100}") int diasPorLote,
+                                               @Value("${tutorgo.compactacion.max-lotes:20}") int maxLotesPorEjecucion) {
+        this.disponibilidadRepository = disponibilidadRepository;
+        this.disponibilidadService = disponibilidadService;
+        this.diasPorLote = diasPorLote;
+        this.maxLotesPorEjecucion = maxLotesPorEjecucion;
+    }
+
+    @Scheduled(initialDelayString = "${tutorgo.compactacion.intervalo-minutos:30}",
+            fixedDelayString = "${tutorgo.compactacion.intervalo-minutos:30}", timeUnit = TimeUnit.MINUTES)
+    public void compactarProgramado() {
+        compactar();
+    }
+
+    // Lo que no entra en esta ejecución (más de maxLotes lotes) queda para la siguiente
+    public Resultado compactar() {
+        long inicio = System.currentTimeMillis();
+        LocalDate hoy = LocalDate.now();
+        int dias = 0;
+        int filasEliminadas = 0;
+        int fallidos = 0;
+        for (int lote = 0; lote < maxLotesPorEjecucion; lote++) {
+            // Un día ya compactado deja de aparecer, así que siempre se pide la primera página. Los que
+            // fallaron siguen apareciendo: se salta esa cantidad para no reintentarlos en la misma ejecución.
+            List<DisponibilidadRepository.DiaFragmentado> pendientes = disponibilidadRepository.findDiasFragmentados(
+                    hoy, PageRequest.of(0, diasPorLote + fallidos));
+            pendientes = pendientes.subList(Math.min(fallidos, pendientes.size()), pendientes.size());
+            if (pendientes.isEmpty()) {
+                break;
+            }
+            for (DisponibilidadRepository.DiaFragmentado dia : pendientes) {
+                try {
+                    filasEliminadas += disponibilidadService.compactarDia(dia.getTutorId(), dia.getFecha());
+                    dias++;
+                } catch (RuntimeException e) {
+                    // Un pago o una edición concurrente sobre ese día: se reintenta en la próxima ejecución
+                    fallidos++;
+                    log.warn("No se pudo compactar la disponibilidad del tutor {} del {}: {}",
+                            dia.getTutorId(), dia.getFecha(), e.getMessage());
+                }
+            }
+        }
+        Resultado resultado = new Resultado(dias, filasEliminadas, fallidos);
+        if (dias > 0 || fallidos > 0) {
+            log.info("Compactación de disponibilidad: {} filas eliminadas en {} días ({} fallidos) en {} ms",
+                    filasEliminadas, dias, fallidos, System.currentTimeMillis() - inicio);
+        }
+        return resultado;
+    }
+
+    public record Resultado(int dias, int filasEliminadas, int fallidos) {
+    }
+}
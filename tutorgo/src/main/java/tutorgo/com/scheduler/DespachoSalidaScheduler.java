@@ -0,0 +1,30 @@
+package tutorgo.com.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tutorgo.com.service.DespachadorDeSalida;
+
+// Vacía la bandeja de salida cada poco tiempo. Lo que se registró con un pago se aplica, en el peor
+// caso, un intervalo después del commit.
+@Component
+public class DespachoSalidaScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(DespachoSalidaScheduler.class);
+
+    private final DespachadorDeSalida despachadorDeSalida;
+
+    public DespachoSalidaScheduler(DespachadorDeSalida despachadorDeSalida) {
+        this.despachadorDeSalida = despachadorDeSalida;
+    }
+
+    @Scheduled(initialDelayString = "${tutorgo.salida.intervalo-ms:1000}",
+            fixedDelayString = "${tutorgo.salida.intervalo-ms:1000}")
+    public void despacharProgramado() {
+        int procesados = despachadorDeSalida.despachar();
+        if (procesados > 0) {
+            log.debug("Eventos de salida procesados: {}", procesados);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package tutorgo.com.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tutorgo.com.service.RetencionesDeHorario;
+import tutorgo.com.service.SesionService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Una sesión PENDIENTE que nadie paga dejaba el horario tomado para siempre. Cada reserva guarda
+// hasta cuándo vale (Sesion.reservadaHasta) y este job libera las vencidas de a lotes, una
+// transacción por lote.
+@Component
+public class LiberacionReservasScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(LiberacionReservasScheduler.class);
+
+    private final SesionService sesionService;
+    private final RetencionesDeHorario retencionesDeHorario;
+    private final int reservasPorLote;
+    private final long intervaloSegundos;
+
+    public LiberacionReservasScheduler(SesionService sesionService,
+                                       RetencionesDeHorario retencionesDeHorario,
+                                       @Value("${tutorgo.reservas.liberacion-lote:200}") int reservasPorLote,
+                                       @Value("${tutorgo.reservas.liberacion-intervalo-segundos:15}") long intervaloSegundos) {
+        this.sesionService = sesionService;
+        this.retencionesDeHorario = retencionesDeHorario;
+        this.reservasPorLote = reservasPorLote;
+        this.intervaloSegundos = intervaloSegundos;
+    }
+
+    // La cola está en memoria: al arrancar se vuelve a llenar con lo que quedó pendiente en la base
+    @EventListener(ApplicationReadyEvent.class)
+    public void programarPendientes() {
+        int programadas = sesionService.programarRetencionesPendientes();
+        if (programadas > 0) {
+            log.info("Reservas pendientes programadas para vencer: {}", programadas);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${tutorgo.reservas.liberacion-intervalo-segundos:15}",
+            fixedDelayString = "${tutorgo.reservas.liberacion-intervalo-segundos:15}", timeUnit = TimeUnit.SECONDS)
+    public void liberarProgramado() {
+        liberar();
+    }
+
+    public int liberar() {
+        int liberadas = 0;
+        List<Long> lote;
+        while (!(lote = retencionesDeHorario.vencidas(reservasPorLote)).isEmpty()) {
+            try {
+                liberadas += sesionService.liberarReservasVencidas(lote);
+            } catch (RuntimeException e) {
+                // Se vuelven a programar para la próxima ejecución en lugar de perderlas
+                log.warn("No se pudo liberar un lote de {} reservas vencidas: {}", lote.size(), e.getMessage());
+                LocalDateTime reintento = LocalDateTime.now().plusSeconds(intervaloSegundos);
+                lote.forEach(sesionId -> retencionesDeHorario.programar(sesionId, reintento));
+            }
+        }
+        if (liberadas > 0) {
+            log.info("Reservas vencidas liberadas: {}", liberadas);
+        }
+        return liberadas;
+    }
+}
@@ -0,0 +1,443 @@
+package tutorgo.com.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tutorgo.com.model.Disponibilidad;
+import tutorgo.com.model.ReglaDisponibilidad;
+import tutorgo.com.model.Sesion;
+import tutorgo.com.repository.DisponibilidadRepository;
+import tutorgo.com.repository.ReglaDisponibilidadRepository;
+import tutorgo.com.repository.SesionRepository;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+// Agenda de cada tutor (bloques de disponibilidad y sesiones activas) en dos árboles de intervalos.
+// Responde las validaciones de solapamiento de altas, cambios y reservas sin ir a la base:
+// las mismas condiciones que findDisponibilidadesSolapadas, findDisponibilidadQueEnvuelveElSlot y
+// findSesionesSolapadasParaTutor.
+//
+// Las reglas semanales del tutor no se expanden: son pocas y cada consulta las recorre preguntando
+// si ocurren en la fecha pedida (ReglaSemanal).
+//
+// La agenda de un tutor se carga la primera vez que se consulta (tres consultas por tutor_id) y se
+// guarda en un LRU acotado. Las escrituras la actualizan después del commit, igual que los otros
+// índices; el vencimiento por tiempo solo cubre cambios hechos por fuera de la aplicación.
+//
+// De los bloques y las sesiones solo se cargan los de los últimos tutorgo.agenda.dias-pasados días en
+// adelante: el historial completo crece sin límite y casi nunca se consulta. Las preguntas por fechas
+// anteriores van directo a la base.
+@Component
+public class AgendaTutorIndex {
+
+    private final DisponibilidadRepository disponibilidadRepository;
+    private final SesionRepository sesionRepository;
+    private final ReglaDisponibilidadRepository reglaDisponibilidadRepository;
+    private final int maxTutores;
+    private final long ttlNanos;
+    private final LongSupplier reloj;
+    private final int diasPasados;
+    private final Clock calendario;
+
+    private final LinkedHashMap<Long, Agenda> agendas;
+    // Sello de la última escritura de cada tutor, tomado de un contador que solo sube. Una agenda
+    // leída mientras otra transacción hacía commit sobre el mismo tutor no se guarda; las escrituras
+    // de los demás tutores no la afectan.
+    private long escrituras;
+    private final LinkedHashMap<Long, Long> ultimaEscritura;
+    // Sello más alto que salió de ultimaEscritura: un tutor que ya no figura se toma como escrito ahí
+    private long piso;
+
+    @Autowired
+    public AgendaTutorIndex(DisponibilidadRepository disponibilidadRepository, SesionRepository sesionRepository,
+                            ReglaDisponibilidadRepository reglaDisponibilidadRepository,
+                            @Value("${tutorgo.agenda.max-tutores:2000}") int maxTutores,
+                            @Value("${tutorgo.agenda.ttl-minutos:10}") long ttlMinutos,
+                            @Value("${tutorgo.agenda.dias-pasados:7}") int diasPasados) {
+        this(disponibilidadRepository, sesionRepository, reglaDisponibilidadRepository, maxTutores,
+                TimeUnit.MINUTES.toNanos(ttlMinutos), System::nanoTime, diasPasados, Clock.systemDefaultZone());
+    }
+
+    AgendaTutorIndex(DisponibilidadRepository disponibilidadRepository, SesionRepository sesionRepository,
+                     ReglaDisponibilidadRepository reglaDisponibilidadRepository,
+                     int maxTutores, long ttlNanos, LongSupplier reloj, int diasPasados, Clock calendario) {
+        this.disponibilidadRepository = disponibilidadRepository;
+        this.sesionRepository = sesionRepository;
+        this.reglaDisponibilidadRepository = reglaDisponibilidadRepository;
+        this.maxTutores = maxTutores;
+        this.ttlNanos = ttlNanos;
+        this.reloj = reloj;
+        this.diasPasados = diasPasados;
+        this.calendario = calendario;
+        this.agendas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Agenda> masAntigua) {
+                return size() > AgendaTutorIndex.this.maxTutores;
+            }
+        };
+        // En orden de inserción y reinsertando en cada escritura: la entrada más antigua es la de sello menor
+        this.ultimaEscritura = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> masAntigua) {
+                if (size() > AgendaTutorIndex.this.maxTutores) {
+                    piso = masAntigua.getValue();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // IDs de los bloques del tutor en esa fecha que se cruzan con [desde, hasta), sin contar excluirId
+    public List<Long> disponibilidadesSolapadas(Long tutorId, LocalDate fecha, LocalDateTime desde, LocalDateTime hasta,
+                                                Long excluirId) {
+        Agenda agenda = agenda(tutorId);
+        if (fecha.isBefore(agenda.primeraFecha)) {
+            return disponibilidadRepository.findDisponibilidadesSolapadas(tutorId, fecha, desde, hasta).stream()
+                    .map(Disponibilidad::getId)
+                    .filter(id -> !id.equals(excluirId))
+                    .toList();
+        }
+        synchronized (agenda) {
+            return agenda.disponibilidades.solapados(desde, hasta).stream()
+                    .filter(franja -> franja.fecha().equals(fecha) && !franja.id().equals(excluirId))
+                    .map(Franja::id)
+                    .toList();
+        }
+    }
+
+    // IDs de los bloques del tutor en esa fecha que cubren todo [desde, hasta)
+    public List<Long> disponibilidadesQueEnvuelven(Long tutorId, LocalDate fecha, LocalDateTime desde, LocalDateTime hasta) {
+        Agenda agenda = agenda(tutorId);
+        if (fecha.isBefore(agenda.primeraFecha)) {
+            return disponibilidadRepository.findDisponibilidadQueEnvuelveElSlot(tutorId, fecha, desde, hasta).stream()
+                    .map(Disponibilidad::getId)
+                    .toList();
+        }
+        synchronized (agenda) {
+            return agenda.disponibilidades.contienen(desde, hasta).stream()
+                    .filter(franja -> franja.fecha().equals(fecha))
+                    .map(Franja::id)
+                    .toList();
+        }
+    }
+
+    // IDs de las sesiones pendientes o confirmadas del tutor en esa fecha que se cruzan con [desde, hasta)
+    public List<Long> sesionesSolapadas(Long tutorId, LocalDate fecha, LocalDateTime desde, LocalDateTime hasta) {
+        Agenda agenda = agenda(tutorId);
+        if (fecha.isBefore(agenda.primeraFecha)) {
+            return sesionRepository.findSesionesSolapadasParaTutor(tutorId, fecha, desde, hasta).stream()
+                    .map(Sesion::getId)
+                    .toList();
+        }
+        synchronized (agenda) {
+            return agenda.sesiones.solapados(desde, hasta).stream()
+                    .filter(franja -> franja.fecha().equals(fecha))
+                    .map(Franja::id)
+                    .toList();
+        }
+    }
+
+    // IDs de las reglas del tutor con una ocurrencia en esa fecha que se cruza con [desde, hasta)
+    public List<Long> reglasSolapadas(Long tutorId, LocalDate fecha, LocalDateTime desde, LocalDateTime hasta,
+                                      Long excluirReglaId) {
+        Agenda agenda = agenda(tutorId);
+        synchronized (agenda) {
+            return agenda.reglas.values().stream()
+                    .filter(regla -> !regla.id().equals(excluirReglaId) && regla.seCruzaCon(fecha, desde, hasta))
+                    .map(ReglaSemanal::id)
+                    .toList();
+        }
+    }
+
+    // IDs de las reglas del tutor cuya ocurrencia en esa fecha cubre todo [desde, hasta)
+    public List<Long> reglasQueEnvuelven(Long tutorId, LocalDate fecha, LocalDateTime desde, LocalDateTime hasta) {
+        Agenda agenda = agenda(tutorId);
+        synchronized (agenda) {
+            return agenda.reglas.values().stream()
+                    .filter(regla -> regla.envuelve(fecha, desde, hasta))
+                    .map(ReglaSemanal::id)
+                    .toList();
+        }
+    }
+
+    // IDs de los bloques del tutor que se cruzan con alguna ocurrencia de la regla
+    public List<Long> disponibilidadesSolapadas(ReglaSemanal regla) {
+        Agenda agenda = agenda(regla.tutorId());
+        List<Long> ids = new ArrayList<>();
+        if (regla.desde().isBefore(agenda.primeraFecha)) {
+            LocalDate ultima = regla.hasta().isBefore(agenda.primeraFecha) ? regla.hasta() : agenda.primeraFecha.minusDays(1);
+            disponibilidadRepository.findFranjasIndexablesByTutorIdAndFechaEntre(regla.tutorId(), regla.desde(), ultima)
+                    .stream()
+                    .filter(franja -> regla.seCruzaCon(franja.getFecha(), franja.getHoraInicial(), franja.getHoraFinal()))
+                    .forEach(franja -> ids.add(franja.getId()));
+        }
+        synchronized (agenda) {
+            agenda.disponibilidades.solapados(regla.desde().atStartOfDay(), regla.hasta().plusDays(1).atStartOfDay())
+                    .stream()
+                    .filter(franja -> regla.seCruzaCon(franja.fecha(), franja.inicio(), franja.fin()))
+                    .forEach(franja -> ids.add(franja.id()));
+        }
+        return ids;
+    }
+
+    // IDs de las otras reglas del tutor que comparten alguna ocurrencia con la regla
+    public List<Long> reglasSolapadas(ReglaSemanal regla) {
+        Agenda agenda = agenda(regla.tutorId());
+        synchronized (agenda) {
+            return agenda.reglas.values().stream()
+                    .filter(otra -> !otra.id().equals(regla.id()) && otra.seCruzaCon(regla))
+                    .map(ReglaSemanal::id)
+                    .toList();
+        }
+    }
+
+    // IDs de las sesiones activas del tutor en las ocurrencias de la regla desde esa fecha
+    public List<Long> sesionesSolapadas(ReglaSemanal regla, LocalDate desde) {
+        LocalDate primera = desde.isAfter(regla.desde()) ? desde : regla.desde();
+        Agenda agenda = agenda(regla.tutorId());
+        List<Long> ids = new ArrayList<>();
+        sesionesAnteriores(agenda, regla.tutorId(), primera, regla.hasta()).stream()
+                .filter(franja -> regla.seCruzaCon(franja.fecha(), franja.inicio(), franja.fin()))
+                .forEach(franja -> ids.add(franja.id()));
+        synchronized (agenda) {
+            agenda.sesiones.solapados(primera.atStartOfDay(), regla.hasta().plusDays(1).atStartOfDay()).stream()
+                    .filter(franja -> regla.seCruzaCon(franja.fecha(), franja.inicio(), franja.fin()))
+                    .forEach(franja -> ids.add(franja.id()));
+        }
+        return ids;
+    }
+
+    // ReglaSemanal.disponibleEntre con las sesiones activas del tutor descontadas: alguna ocurrencia entre
+    // las fechas tiene todavía un hueco que se cruza con [horaDesde, horaHasta). Una ocurrencia no tiene
+    // fila que recortar al reservarla, así que sin esto seguiría apareciendo libre en las búsquedas.
+    public boolean libreEntre(ReglaSemanal regla, LocalDate fechaInicio, LocalDate fechaFin,
+                              LocalTime horaDesde, LocalTime horaHasta) {
+        if (!regla.disponibleEntre(fechaInicio, fechaFin, horaDesde, horaHasta)) {
+            return false;
+        }
+        Agenda agenda = agenda(regla.tutorId());
+        Map<LocalDate, List<Franja>> anteriores = sesionesAnteriores(agenda, regla.tutorId(),
+                fechaInicio.isAfter(regla.desde()) ? fechaInicio : regla.desde(), fechaFin).stream()
+                .collect(Collectors.groupingBy(Franja::fecha));
+        synchronized (agenda) {
+            return regla.fechas(fechaInicio, fechaFin).anyMatch(fecha -> {
+                LocalDateTime desde = horaDesde != null && horaDesde.isAfter(regla.horaInicio())
+                        ? LocalDateTime.of(fecha, horaDesde) : regla.inicioEn(fecha);
+                LocalDateTime hasta = horaHasta != null && horaHasta.isBefore(regla.horaFinal())
+                        ? LocalDateTime.of(fecha, horaHasta) : regla.finEn(fecha);
+                List<Franja> sesiones = fecha.isBefore(agenda.primeraFecha)
+                        ? anteriores.getOrDefault(fecha, List.of())
+                        : agenda.sesiones.solapados(desde, hasta);
+                return !cubierto(sesiones.stream()
+                        .filter(franja -> franja.fecha().equals(fecha)
+                                && franja.inicio().isBefore(hasta) && franja.fin().isAfter(desde))
+                        .sorted(Comparator.comparing(Franja::inicio))
+                        .toList(), desde, hasta);
+            });
+        }
+    }
+
+    // Sesiones activas entre desde y hasta que caen antes de los días cargados en la agenda, leídas
+    // de la base en una sola consulta. Sin lock: la agenda no las tiene.
+    private List<Franja> sesionesAnteriores(Agenda agenda, Long tutorId, LocalDate desde, LocalDate hasta) {
+        if (!desde.isBefore(agenda.primeraFecha)) {
+            return List.of();
+        }
+        LocalDate ultima = hasta.isBefore(agenda.primeraFecha) ? hasta : agenda.primeraFecha.minusDays(1);
+        return sesionRepository.findFranjasActivasByTutorIdAndFechaEntre(tutorId, desde, ultima).stream()
+                .map(franja -> new Franja(franja.getId(), franja.getFecha(), franja.getHoraInicial(), franja.getHoraFinal()))
+                .toList();
+    }
+
+    // Las franjas, ordenadas por inicio, tapan todo [desde, hasta)
+    private static boolean cubierto(List<Franja> franjas, LocalDateTime desde, LocalDateTime hasta) {
+        LocalDateTime libreDesde = desde;
+        for (Franja franja : franjas) {
+            if (franja.inicio().isAfter(libreDesde)) {
+                return false;
+            }
+            if (franja.fin().isAfter(libreDesde)) {
+                libreDesde = franja.fin();
+            }
+        }
+        return !libreDesde.isBefore(hasta);
+    }
+
+    // Alta o cambio de un bloque ya guardado (tiene id)
+    public void registrarDisponibilidad(Disponibilidad disponibilidad) {
+        if (disponibilidad == null || disponibilidad.getId() == null || disponibilidad.getTutor() == null) {
+            return;
+        }
+        Franja franja = new Franja(disponibilidad.getId(), disponibilidad.getFecha(),
+                disponibilidad.getHoraInicial(), disponibilidad.getHoraFinal());
+        escribir(disponibilidad.getTutor().getId(), agenda -> {
+            agenda.quitar(agenda.disponibilidades, agenda.disponibilidadesPorId, franja.id());
+            // Un bloque movido a una fecha anterior a la cargada sale de la agenda y se consulta en la base
+            if (!franja.fecha().isBefore(agenda.primeraFecha)) {
+                agenda.registrar(agenda.disponibilidades, agenda.disponibilidadesPorId, franja);
+            }
+        });
+    }
+
+    public void quitarDisponibilidad(Long tutorId, Long disponibilidadId) {
+        escribir(tutorId, agenda -> agenda.quitar(agenda.disponibilidades, agenda.disponibilidadesPorId, disponibilidadId));
+    }
+
+    // Alta o cambio de una regla ya guardada, con sus días y excepciones
+    public void registrarRegla(ReglaDisponibilidad regla) {
+        if (regla == null || regla.getId() == null || regla.getTutor() == null) {
+            return;
+        }
+        ReglaSemanal semanal = ReglaSemanal.de(regla);
+        escribir(semanal.tutorId(), agenda -> agenda.reglas.put(semanal.id(), semanal));
+    }
+
+    public void quitarRegla(Long tutorId, Long reglaId) {
+        escribir(tutorId, agenda -> agenda.reglas.remove(reglaId));
+    }
+
+    // Sesión nueva. Todos los estados que existen (PENDIENTE y CONFIRMADO) ocupan el horario.
+    public void registrarSesion(Sesion sesion) {
+        if (sesion == null || sesion.getId() == null || sesion.getTutor() == null) {
+            return;
+        }
+        Franja franja = new Franja(sesion.getId(), sesion.getFecha(), sesion.getHoraInicial(), sesion.getHoraFinal());
+        escribir(sesion.getTutor().getId(), agenda -> {
+            // Igual que los bloques: una fecha anterior a la cargada se consulta en la base
+            if (!franja.fecha().isBefore(agenda.primeraFecha)) {
+                agenda.registrar(agenda.sesiones, agenda.sesionesPorId, franja);
+            }
+        });
+    }
+
+    // Reserva vencida que se liberó
+    public void quitarSesion(Long tutorId, Long sesionId) {
+        escribir(tutorId, agenda -> agenda.quitar(agenda.sesiones, agenda.sesionesPorId, sesionId));
+    }
+
+    public void olvidarTutor(Long tutorId) {
+        if (tutorId == null) {
+            return;
+        }
+        DespuesDelCommit.ejecutar(() -> {
+            synchronized (agendas) {
+                sellar(tutorId);
+                agendas.remove(tutorId);
+            }
+        });
+    }
+
+    // Para bajas que arrastran sesiones de varios tutores (la de un estudiante)
+    public void olvidarTodo() {
+        DespuesDelCommit.ejecutar(() -> {
+            synchronized (agendas) {
+                piso = ++escrituras;
+                ultimaEscritura.clear();
+                agendas.clear();
+            }
+        });
+    }
+
+    private void escribir(Long tutorId, Consumer<Agenda> cambio) {
+        if (tutorId == null) {
+            return;
+        }
+        DespuesDelCommit.ejecutar(() -> {
+            Agenda agenda;
+            synchronized (agendas) {
+                sellar(tutorId);
+                // Si no está cargada no hay nada que actualizar: la próxima consulta la lee de la base
+                agenda = agendas.get(tutorId);
+            }
+            if (agenda != null) {
+                synchronized (agenda) {
+                    cambio.accept(agenda);
+                }
+            }
+        });
+    }
+
+    // Con el lock de agendas tomado
+    private void sellar(Long tutorId) {
+        ultimaEscritura.remove(tutorId);
+        ultimaEscritura.put(tutorId, ++escrituras);
+    }
+
+    private Agenda agenda(Long tutorId) {
+        long leidaEn;
+        synchronized (agendas) {
+            Agenda agenda = agendas.get(tutorId);
+            if (agenda != null && agenda.venceEn - reloj.getAsLong() > 0) {
+                return agenda;
+            }
+            leidaEn = escrituras;
+        }
+
+        Agenda cargada = new Agenda(reloj.getAsLong() + ttlNanos, LocalDate.now(calendario).minusDays(diasPasados));
+        disponibilidadRepository.findFranjasIndexablesByTutorIdDesde(tutorId, cargada.primeraFecha).forEach(franja -> cargada.registrar(
+                cargada.disponibilidades, cargada.disponibilidadesPorId,
+                new Franja(franja.getId(), franja.getFecha(), franja.getHoraInicial(), franja.getHoraFinal())));
+        sesionRepository.findFranjasActivasByTutorIdDesde(tutorId, cargada.primeraFecha).forEach(franja -> cargada.registrar(
+                cargada.sesiones, cargada.sesionesPorId,
+                new Franja(franja.getId(), franja.getFecha(), franja.getHoraInicial(), franja.getHoraFinal())));
+        reglaDisponibilidadRepository.findConDetalleByTutorId(tutorId)
+                .forEach(regla -> cargada.reglas.put(regla.getId(), ReglaSemanal.de(regla)));
+
+        // Si se leyó dentro de una transacción que escribe, puede traer cambios que todavía se
+        // pueden revertir: se guarda recién con el commit, y solo si nadie escribió al tutor entretanto
+        DespuesDelCommit.ejecutar(() -> {
+            synchronized (agendas) {
+                if (ultimaEscritura.getOrDefault(tutorId, piso) <= leidaEn) {
+                    agendas.put(tutorId, cargada);
+                }
+            }
+        });
+        return cargada;
+    }
+
+    private record Franja(Long id, LocalDate fecha, LocalDateTime inicio, LocalDateTime fin) {
+    }
+
+    private static final class Agenda {
+        private final long venceEn;
+        // Los bloques y las sesiones anteriores a esta fecha no se cargan
+        private final LocalDate primeraFecha;
+        private final ArbolDeIntervalos<Franja> disponibilidades = new ArbolDeIntervalos<>();
+        private final Map<Long, Franja> disponibilidadesPorId = new HashMap<>();
+        private final ArbolDeIntervalos<Franja> sesiones = new ArbolDeIntervalos<>();
+        private final Map<Long, Franja> sesionesPorId = new HashMap<>();
+        private final Map<Long, ReglaSemanal> reglas = new HashMap<>();
+
+        Agenda(long venceEn, LocalDate primeraFecha) {
+            this.venceEn = venceEn;
+            this.primeraFecha = primeraFecha;
+        }
+
+        void registrar(ArbolDeIntervalos<Franja> arbol, Map<Long, Franja> porId, Franja franja) {
+            quitar(arbol, porId, franja.id());
+            arbol.agregar(franja.id(), franja.inicio(), franja.fin(), franja);
+            porId.put(franja.id(), franja);
+        }
+
+        void quitar(ArbolDeIntervalos<Franja> arbol, Map<Long, Franja> porId, Long id) {
+            Franja anterior = porId.remove(id);
+            if (anterior != null) {
+                arbol.quitar(anterior.id(), anterior.inicio());
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package tutorgo.com.search;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Árbol de intervalos [inicio, fin): un treap ordenado por (inicio, id) donde cada nodo guarda el
+// fin más tardío de su subárbol. Con ese dato se descartan ramas enteras, así que solapados y
+// contienen cuestan O(log n + k) en promedio. No es seguro entre hilos: lo protege AgendaTutorIndex.
+final class ArbolDeIntervalos<T> {
+
+    private Nodo<T> raiz;
+    private int tamano;
+
+    int tamano() {
+        return tamano;
+    }
+
+    void agregar(long id, LocalDateTime inicio, LocalDateTime fin, T valor) {
+        Nodo<T> nuevo = new Nodo<>(id, inicio, fin, valor);
+        Nodo<T>[] partes = dividir(raiz, inicio, id);
+        raiz = unir(unir(partes[0], nuevo), partes[1]);
+        tamano++;
+    }
+
+    // El inicio es parte de la clave: hay que pasar el que tenía el intervalo al agregarlo
+    boolean quitar(long id, LocalDateTime inicio) {
+        int antes = tamano;
+        raiz = quitar(raiz, id, inicio);
+        return tamano < antes;
+    }
+
+    // Intervalos con inicio < hasta y fin > desde
+    List<T> solapados(LocalDateTime desde, LocalDateTime hasta) {
+        List<T> resultado = new ArrayList<>();
+        solapados(raiz, desde, hasta, resultado);
+        return resultado;
+    }
+
+    // Intervalos con inicio <= desde y fin >= hasta
+    List<T> contienen(LocalDateTime desde, LocalDateTime hasta) {
+        List<T> resultado = new ArrayList<>();
+        contienen(raiz, desde, hasta, resultado);
+        return resultado;
+    }
+
+    private static <T> void solapados(Nodo<T> nodo, LocalDateTime desde, LocalDateTime hasta, List<T> resultado) {
+        if (nodo == null || !nodo.finMaximo.isAfter(desde)) {
+            return;
+        }
+        solapados(nodo.izquierdo, desde, hasta, resultado);
+        // A la derecha todos empiezan igual o después que este nodo
+        if (nodo.inicio.isBefore(hasta)) {
+            if (nodo.fin.isAfter(desde)) {
+                resultado.add(nodo.valor);
+            }
+            solapados(nodo.derecho, desde, hasta, resultado);
+        }
+    }
+
+    private static <T> void contienen(Nodo<T> nodo, LocalDateTime desde, LocalDateTime hasta, List<T> resultado) {
+        if (nodo == null || nodo.finMaximo.isBefore(hasta)) {
+            return;
+        }
+        contienen(nodo.izquierdo, desde, hasta, resultado);
+        if (!nodo.inicio.isAfter(desde)) {
+            if (!nodo.fin.isBefore(hasta)) {
+                resultado.add(nodo.valor);
+            }
+            contienen(nodo.derecho, desde, hasta, resultado);
+        }
+    }
+
+    private Nodo<T> quitar(Nodo<T> nodo, long id, LocalDateTime inicio) {
+        if (nodo == null) {
+            return null;
+        }
+        int comparacion = comparar(inicio, id, nodo);
+        if (comparacion == 0) {
+            tamano--;
+            return unir(nodo.izquierdo, nodo.derecho);
+        }
+        if (comparacion < 0) {
+            nodo.izquierdo = quitar(nodo.izquierdo, id, inicio);
+        } else {
+            nodo.derecho = quitar(nodo.derecho, id, inicio);
+        }
+        nodo.actualizar();
+        return nodo;
+    }
+
+    // Parte el árbol en los nodos con clave menor a (inicio, id) y el resto
+    @SuppressWarnings("unchecked")
+    private static <T> Nodo<T>[] dividir(Nodo<T> nodo, LocalDateTime inicio, long id) {
+        if (nodo == null) {
+            return new Nodo[]{null, null};
+        }
+        if (comparar(inicio, id, nodo) > 0) {
+            Nodo<T>[] partes = dividir(nodo.derecho, inicio, id);
+            nodo.derecho = partes[0];
+            nodo.actualizar();
+            partes[0] = nodo;
+            return partes;
+        }
+        Nodo<T>[] partes = dividir(nodo.izquierdo, inicio, id);
+        nodo.izquierdo = partes[1];
+        nodo.actualizar();
+        partes[1] = nodo;
+        return partes;
+    }
+
+    // Une dos árboles donde todas las claves de "menores" van antes que las de "mayores"
+    private static <T> Nodo<T> unir(Nodo<T> menores, Nodo<T> mayores) {
+        if (menores == null) {
+            return mayores;
+        }
+        if (mayores == null) {
+            return menores;
+        }
+        if (menores.prioridad > mayores.prioridad) {
+            menores.derecho = unir(menores.derecho, mayores);
+            menores.actualizar();
+            return menores;
+        }
+        mayores.izquierdo = unir(menores, mayores.izquierdo);
+        mayores.actualizar();
+        return mayores;
+    }
+
+    private static int comparar(LocalDateTime inicio, long id, Nodo<?> nodo) {
+        int comparacion = inicio.compareTo(nodo.inicio);
+        return comparacion != 0 ? comparacion : Long.compare(id, nodo.id);
+    }
+
+    private static final class Nodo<T> {
+        private final long id;
+        private final LocalDateTime inicio;
+        private final LocalDateTime fin;
+        private final T valor;
+        private final int prioridad = ThreadLocalRandom.current().nextInt();
+        private LocalDateTime finMaximo;
+        private Nodo<T> izquierdo;
+        private Nodo<T> derecho;
+
+        Nodo(long id, LocalDateTime inicio, LocalDateTime fin, T valor) {
+            this.id = id;
+            this.inicio = inicio;
+            this.fin = fin;
+            this.valor = valor;
+            this.finMaximo = fin;
+        }
+
+        void actualizar() {
+            finMaximo = fin;
+            if (izquierdo != null && izquierdo.finMaximo.isAfter(finMaximo)) {
+                finMaximo = izquierdo.finMaximo;
+            }
+            if (derecho != null && derecho.finMaximo.isAfter(finMaximo)) {
+                finMaximo = derecho.finMaximo;
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package tutorgo.com.search;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Los índices en memoria se actualizan recién cuando la transacción que cambió los datos hace
+// commit; si se revierte, el índice no se entera. Fuera de una transacción se aplica al instante.
+final class DespuesDelCommit {
+
+    private DespuesDelCommit() {
+    }
+
+    static void ejecutar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
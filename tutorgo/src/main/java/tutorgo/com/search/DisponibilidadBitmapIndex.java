@@ -0,0 +1,316 @@
+package tutorgo.com.search;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import tutorgo.com.model.Disponibilidad;
+import tutorgo.com.model.ReglaDisponibilidad;
+import tutorgo.com.repository.DisponibilidadRepository;
+import tutorgo.com.repository.ReglaDisponibilidadRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Disponibilidad de cada tutor como mapa de bits por día: 96 bits (dos long), uno por cada franja
+// de 15 minutos. "¿Quién está libre entre X e Y en estas fechas?" se responde con un AND de
+// máscaras por día, sin consultar la base de datos.
+//
+// Un bit se marca si el bloque toca esa franja, así que el índice nunca deja fuera a un tutor que
+// sí está libre. Si la ventana pedida o algún bloque no cae en múltiplos de 15 minutos, un tutor
+// puede aparecer sin estar libre de verdad: el resultado lo avisa (exacto = false) para que la
+// consulta SQL lo confirme.
+//
+// Las reglas semanales no pasan por los mapas de bits: son pocas y se evalúan tal cual en cada
+// búsqueda, descontando las sesiones activas del tutor (AgendaTutorIndex.libreEntre), así que el
+// tutor que encuentran es exacto.
+@Component
+@RequiredArgsConstructor
+public class DisponibilidadBitmapIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DisponibilidadBitmapIndex.class);
+
+    private static final int SEGUNDOS_POR_FRANJA = 15 * 60;
+    private static final int FRANJAS_POR_DIA = 96;
+    private static final int SEGUNDOS_POR_DIA = 24 * 60 * 60;
+
+    private final DisponibilidadRepository disponibilidadRepository;
+    private final ReglaDisponibilidadRepository reglaDisponibilidadRepository;
+    private final AgendaTutorIndex agendaTutorIndex;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Bloque> bloques = new HashMap<>();
+    private final Map<Long, TreeMap<LocalDate, Dia>> diasPorTutor = new HashMap<>();
+    private final Map<Long, ReglaSemanal> reglas = new HashMap<>();
+    private volatile boolean listo;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            bloques.clear();
+            diasPorTutor.clear();
+            reglas.clear();
+            for (DisponibilidadRepository.FranjaIndexable franja : disponibilidadRepository.findAllFranjasIndexables()) {
+                agregar(new Bloque(franja.getId(), franja.getTutorId(), franja.getFecha(),
+                        segundoInicial(franja.getHoraInicial()), segundoFinal(franja.getHoraInicial(), franja.getHoraFinal())));
+            }
+            for (ReglaDisponibilidad regla : reglaDisponibilidadRepository.findAllConDetalle()) {
+                reglas.put(regla.getId(), ReglaSemanal.de(regla));
+            }
+            listo = true;
+            log.info("Índice de disponibilidad construido: {} bloques de {} tutores y {} reglas semanales en {} ms",
+                    bloques.size(), diasPorTutor.size(), reglas.size(), System.currentTimeMillis() - inicio);
+        } catch (RuntimeException e) {
+            // Sin índice el filtro de disponibilidad sigue resolviéndose en SQL
+            listo = false;
+            log.error("No se pudo construir el índice de disponibilidad", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isListo() {
+        return listo;
+    }
+
+    // Alta o cambio de un bloque ya guardado (tiene id)
+    public void registrar(Disponibilidad disponibilidad) {
+        if (disponibilidad == null || disponibilidad.getId() == null || disponibilidad.getTutor() == null) {
+            return;
+        }
+        Bloque bloque = new Bloque(disponibilidad.getId(), disponibilidad.getTutor().getId(), disponibilidad.getFecha(),
+                segundoInicial(disponibilidad.getHoraInicial()),
+                segundoFinal(disponibilidad.getHoraInicial(), disponibilidad.getHoraFinal()));
+        DespuesDelCommit.ejecutar(() -> {
+            lock.writeLock().lock();
+            try {
+                quitarBloque(bloque.id());
+                agregar(bloque);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void quitar(Long disponibilidadId) {
+        if (disponibilidadId == null) {
+            return;
+        }
+        DespuesDelCommit.ejecutar(() -> {
+            lock.writeLock().lock();
+            try {
+                quitarBloque(disponibilidadId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Alta o cambio de una regla ya guardada, con sus días y excepciones
+    public void registrarRegla(ReglaDisponibilidad regla) {
+        if (regla == null || regla.getId() == null || regla.getTutor() == null) {
+            return;
+        }
+        ReglaSemanal semanal = ReglaSemanal.de(regla);
+        DespuesDelCommit.ejecutar(() -> {
+            lock.writeLock().lock();
+            try {
+                reglas.put(semanal.id(), semanal);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void quitarRegla(Long reglaId) {
+        if (reglaId == null) {
+            return;
+        }
+        DespuesDelCommit.ejecutar(() -> {
+            lock.writeLock().lock();
+            try {
+                reglas.remove(reglaId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void quitarTutor(Long tutorId) {
+        if (tutorId == null) {
+            return;
+        }
+        DespuesDelCommit.ejecutar(() -> {
+            lock.writeLock().lock();
+            try {
+                reglas.values().removeIf(regla -> tutorId.equals(regla.tutorId()));
+                TreeMap<LocalDate, Dia> dias = diasPorTutor.remove(tutorId);
+                if (dias != null) {
+                    dias.values().forEach(dia -> dia.bloques.forEach(bloque -> bloques.remove(bloque.id())));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Tutores con algún bloque entre fechaInicio y fechaFin que se cruce con [horaInicio, horaFin)
+    // (una hora nula deja ese extremo abierto), igual que TutorSpecifications.disponibleEntre, o con
+    // una regla semanal que ocurra en esas condiciones con un hueco que no tapen sus sesiones.
+    public Resultado buscar(LocalDate fechaInicio, LocalDate fechaFin, LocalTime horaInicio, LocalTime horaFin) {
+        int desde = horaInicio != null ? horaInicio.toSecondOfDay() : 0;
+        int hasta = horaFin != null ? horaFin.toSecondOfDay() : SEGUNDOS_POR_DIA;
+        boolean ventanaAlineada = desde % SEGUNDOS_POR_FRANJA == 0 && hasta % SEGUNDOS_POR_FRANJA == 0 && desde < hasta;
+        long[] mascara = mascara(desde, Math.max(hasta, desde + 1));
+
+        List<ReglaSemanal> candidatas = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (ReglaSemanal regla : reglas.values()) {
+                if (regla.disponibleEntre(fechaInicio, fechaFin, horaInicio, horaFin)) {
+                    candidatas.add(regla);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Fuera del lock: la agenda del tutor puede tener que cargarse de la base
+        Set<Long> porRegla = new HashSet<>();
+        for (ReglaSemanal regla : candidatas) {
+            if (!porRegla.contains(regla.tutorId())
+                    && agendaTutorIndex.libreEntre(regla, fechaInicio, fechaFin, horaInicio, horaFin)) {
+                porRegla.add(regla.tutorId());
+            }
+        }
+
+        Set<Long> tutorIds = new HashSet<>(porRegla);
+        boolean exacto = true;
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<Long, TreeMap<LocalDate, Dia>> entrada : diasPorTutor.entrySet()) {
+                if (porRegla.contains(entrada.getKey())) {
+                    // Ya está confirmado por una regla: sus bloques no cambian el resultado
+                    continue;
+                }
+                NavigableMap<LocalDate, Dia> enRango = entrada.getValue().subMap(fechaInicio, true, fechaFin, true);
+                boolean coincide = false;
+                boolean seguro = false;
+                for (Dia dia : enRango.values()) {
+                    if ((dia.bits[0] & mascara[0]) != 0 || (dia.bits[1] & mascara[1]) != 0) {
+                        coincide = true;
+                        if (ventanaAlineada && dia.bloquesNoAlineados == 0) {
+                            seguro = true;
+                            break;
+                        }
+                    }
+                }
+                if (coincide) {
+                    tutorIds.add(entrada.getKey());
+                    exacto &= seguro;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new Resultado(tutorIds, exacto, porRegla);
+    }
+
+    private void agregar(Bloque bloque) {
+        bloques.put(bloque.id(), bloque);
+        diasPorTutor.computeIfAbsent(bloque.tutorId(), id -> new TreeMap<>())
+                .computeIfAbsent(bloque.fecha(), f -> new Dia())
+                .agregar(bloque);
+    }
+
+    private void quitarBloque(Long disponibilidadId) {
+        Bloque bloque = bloques.remove(disponibilidadId);
+        if (bloque == null) {
+            return;
+        }
+        TreeMap<LocalDate, Dia> dias = diasPorTutor.get(bloque.tutorId());
+        Dia dia = dias.get(bloque.fecha());
+        dia.quitar(bloque);
+        if (dia.bloques.isEmpty()) {
+            dias.remove(bloque.fecha());
+            if (dias.isEmpty()) {
+                diasPorTutor.remove(bloque.tutorId());
+            }
+        }
+    }
+
+    // Bits de las franjas que toca el intervalo [desde, hasta) en segundos del día
+    private static long[] mascara(int desde, int hasta) {
+        long[] bits = new long[2];
+        int primera = desde / SEGUNDOS_POR_FRANJA;
+        int ultima = Math.min((hasta + SEGUNDOS_POR_FRANJA - 1) / SEGUNDOS_POR_FRANJA, FRANJAS_POR_DIA) - 1;
+        for (int franja = primera; franja <= ultima; franja++) {
+            bits[franja >> 6] |= 1L << (franja & 63);
+        }
+        return bits;
+    }
+
+    private static int segundoInicial(LocalDateTime horaInicial) {
+        return horaInicial.toLocalTime().toSecondOfDay();
+    }
+
+    // Como en el SQL, solo cuenta la hora del día. Un bloque que termina a medianoche (00:00 del día
+    // siguiente) cubre hasta el final de su día.
+    private static int segundoFinal(LocalDateTime horaInicial, LocalDateTime horaFinal) {
+        int segundo = horaFinal.toLocalTime().toSecondOfDay();
+        return segundo <= segundoInicial(horaInicial) ? SEGUNDOS_POR_DIA : segundo;
+    }
+
+    private static boolean alineado(Bloque bloque) {
+        return bloque.desde() % SEGUNDOS_POR_FRANJA == 0 && bloque.hasta() % SEGUNDOS_POR_FRANJA == 0;
+    }
+
+    // porRegla: los tutores que están libres por una regla semanal. El SQL que confirma un resultado
+    // no exacto solo ve las filas de disponibilidad, así que a estos hay que dejarlos pasar aparte.
+    public record Resultado(Set<Long> tutorIds, boolean exacto, Set<Long> porRegla) {
+    }
+
+    private record Bloque(Long id, Long tutorId, LocalDate fecha, int desde, int hasta) {
+    }
+
+    // Un día de un tutor: sus bloques (pocos) y el OR de sus máscaras
+    private static final class Dia {
+        private final List<Bloque> bloques = new ArrayList<>(2);
+        private final long[] bits = new long[2];
+        private int bloquesNoAlineados;
+
+        void agregar(Bloque bloque) {
+            bloques.add(bloque);
+            long[] mascara = mascara(bloque.desde(), bloque.hasta());
+            bits[0] |= mascara[0];
+            bits[1] |= mascara[1];
+            if (!alineado(bloque)) {
+                bloquesNoAlineados++;
+            }
+        }
+
+        // Quitar no se puede hacer con un AND NOT: dos bloques desalineados pueden compartir franja
+        void quitar(Bloque bloque) {
+            bloques.remove(bloque);
+            bits[0] = 0;
+            bits[1] = 0;
+            bloquesNoAlineados = 0;
+            List<Bloque> restantes = new ArrayList<>(bloques);
+            bloques.clear();
+            restantes.forEach(this::agregar);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package tutorgo.com.search;
+
+import tutorgo.com.model.ReglaDisponibilidad;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// Copia inmutable de una ReglaDisponibilidad que calcula sus ocurrencias a medida que se piden.
+// La usan los índices y las lecturas en lugar de tener una fila de disponibilidad por fecha.
+//
+// Cada ocurrencia se comporta como un bloque de Disponibilidad de esa fecha: de
+// LocalDateTime.of(fecha, horaInicio) a LocalDateTime.of(fecha, horaFinal).
+public record ReglaSemanal(Long id, Long tutorId, Set<DayOfWeek> dias, LocalTime horaInicio, LocalTime horaFinal,
+                           LocalDate desde, LocalDate hasta, Set<LocalDate> excepciones) {
+
+    public ReglaSemanal {
+        dias = Set.copyOf(dias);
+        excepciones = Set.copyOf(excepciones);
+    }
+
+    public static ReglaSemanal de(ReglaDisponibilidad regla) {
+        return new ReglaSemanal(regla.getId(), regla.getTutor() != null ? regla.getTutor().getId() : null,
+                regla.getDiasSemana(), regla.getHoraInicio(), regla.getHoraFinal(),
+                regla.getFechaInicio(), regla.getFechaFin(), regla.getExcepciones());
+    }
+
+    public boolean ocurreEn(LocalDate fecha) {
+        return !fecha.isBefore(desde) && !fecha.isAfter(hasta)
+                && dias.contains(fecha.getDayOfWeek()) && !excepciones.contains(fecha);
+    }
+
+    // Fechas de las ocurrencias dentro de [desdeFecha, hastaFecha], en orden y sin armar la lista entera
+    public Stream<LocalDate> fechas(LocalDate desdeFecha, LocalDate hastaFecha) {
+        LocalDate primera = desdeFecha.isAfter(desde) ? desdeFecha : desde;
+        LocalDate ultima = hastaFecha.isBefore(hasta) ? hastaFecha : hasta;
+        if (ultima.isBefore(primera)) {
+            return Stream.empty();
+        }
+        return primera.datesUntil(ultima.plusDays(1)).filter(this::ocurreEn);
+    }
+
+    public Stream<LocalDate> fechas() {
+        return fechas(desde, hasta);
+    }
+
+    public LocalDateTime inicioEn(LocalDate fecha) {
+        return LocalDateTime.of(fecha, horaInicio);
+    }
+
+    public LocalDateTime finEn(LocalDate fecha) {
+        return LocalDateTime.of(fecha, horaFinal);
+    }
+
+    // La ocurrencia de esa fecha (si hay) se cruza con [inicio, fin)
+    public boolean seCruzaCon(LocalDate fecha, LocalDateTime inicio, LocalDateTime fin) {
+        return ocurreEn(fecha) && inicioEn(fecha).isBefore(fin) && finEn(fecha).isAfter(inicio);
+    }
+
+    // La ocurrencia de esa fecha (si hay) cubre todo [inicio, fin)
+    public boolean envuelve(LocalDate fecha, LocalDateTime inicio, LocalDateTime fin) {
+        return ocurreEn(fecha) && !inicioEn(fecha).isAfter(inicio) && !finEn(fecha).isBefore(fin);
+    }
+
+    // Alguna fecha en la que ocurren las dos con horarios que se cruzan
+    public boolean seCruzaCon(ReglaSemanal otra) {
+        if (!horaInicio.isBefore(otra.horaFinal) || !horaFinal.isAfter(otra.horaInicio)) {
+            return false;
+        }
+        return fechas(otra.desde, otra.hasta).anyMatch(otra::ocurreEn);
+    }
+
+    // Misma condición que TutorSpecifications.disponibleEntre para un bloque: alguna ocurrencia entre
+    // las fechas que se cruce con [horaDesde, horaHasta) (una hora nula deja ese extremo abierto)
+    public boolean disponibleEntre(LocalDate fechaInicio, LocalDate fechaFin, LocalTime horaDesde, LocalTime horaHasta) {
+        if ((horaHasta != null && !horaInicio.isBefore(horaHasta)) || (horaDesde != null && !horaFinal.isAfter(horaDesde))) {
+            return false;
+        }
+        return fechas(fechaInicio, fechaFin).findAny().isPresent();
+    }
+}
@@ -0,0 +1,77 @@
+package tutorgo.com.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Normalización compartida por el índice y por las consultas: minúsculas, sin tildes ni diéresis,
+// la ñ como n y cualquier signo como separador. Así "Álgebra Lineal" y "algebra  lineal" son iguales.
+final class TextoBusqueda {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    // Palabras que no ayudan a distinguir tutores ("clases de inglés para niños").
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "a", "al", "con", "de", "del", "e", "el", "en", "la", "las", "lo", "los",
+            "o", "para", "por", "que", "u", "un", "una", "unas", "unos", "y"
+    );
+
+    private TextoBusqueda() {
+    }
+
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARADORES.matcher(sinMarcas.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    static List<String> palabras(String texto) {
+        String normalizado = normalizar(texto);
+        if (normalizado.isEmpty()) {
+            return List.of();
+        }
+        return List.of(normalizado.split(" "));
+    }
+
+    // Términos de una consulta sin repetidos y sin palabras vacías. Si la consulta solo tiene
+    // palabras vacías ("de") se buscan tal cual, para no devolver todo el catálogo.
+    static List<Termino> terminosDeConsulta(String consulta) {
+        List<String> palabras = palabras(consulta);
+        Set<String> utiles = new LinkedHashSet<>();
+        for (String palabra : palabras) {
+            if (!PALABRAS_VACIAS.contains(palabra)) {
+                utiles.add(palabra);
+            }
+        }
+        if (utiles.isEmpty()) {
+            utiles.addAll(palabras);
+        }
+        List<Termino> terminos = new ArrayList<>(utiles.size());
+        for (String palabra : utiles) {
+            terminos.add(new Termino(palabra, raiz(palabra)));
+        }
+        return terminos;
+    }
+
+    // Plural simple del español: "clases" -> "clas", "matematicas" -> "matematica". Como el índice
+    // busca subcadenas, la raíz sigue encontrando el singular y el plural.
+    static String raiz(String palabra) {
+        if (palabra.length() > 5 && palabra.endsWith("es")) {
+            return palabra.substring(0, palabra.length() - 2);
+        }
+        if (palabra.length() > 4 && palabra.endsWith("s")) {
+            return palabra.substring(0, palabra.length() - 1);
+        }
+        return palabra;
+    }
+
+    record Termino(String original, String raiz) {
+    }
+}
@@ -0,0 +1,210 @@
+package tutorgo.com.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import tutorgo.com.dto.response.PagedResponse;
+import tutorgo.com.dto.response.TutorSummaryResponse;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Caché de las páginas de /tutores: el catálogo pide una y otra vez las mismas combinaciones de
+// filtros (sin texto, los rubros más comunes, topes de precio) y cada una son dos consultas.
+//
+// Es un LRU acotado con vencimiento por tiempo. Además cada cambio de datos borra solo las páginas
+// que pudo alterar: un bloque de disponibilidad nuevo solo afecta a las búsquedas cuya ventana de
+// fechas lo incluye, una reseña a las que filtran u ordenan por estrellas o muestran a ese tutor.
+// Las invalidaciones corren después del commit, igual que las de los índices.
+@Component
+public class TutorListadoCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TutorListadoCache.class);
+
+    private final int maxEntradas;
+    private final long ttlNanos;
+    private final LongSupplier reloj;
+
+    private final LinkedHashMap<Clave, Entrada> entradas;
+    // Sube con cada invalidación. Una página calculada mientras cambiaban los datos no se guarda:
+    // podría haberse leído antes del commit y quedaría vieja hasta que venza.
+    private long version;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder expulsadas = new LongAdder();
+    private final LongAdder invalidadas = new LongAdder();
+    private long consultasInformadas;
+
+    @Autowired
+    public TutorListadoCache(@Value("${tutorgo.tutores.cache.max-entradas:500}") int maxEntradas,
+                             @Value("${tutorgo.tutores.cache.ttl-segundos:60}") long ttlSegundos) {
+        this(maxEntradas, ttlSegundos, System::nanoTime);
+    }
+
+    TutorListadoCache(int maxEntradas, long ttlSegundos, LongSupplier reloj) {
+        this.maxEntradas = maxEntradas;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSegundos);
+        this.reloj = reloj;
+        // En orden de acceso: la primera entrada es siempre la menos usada
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Clave, Entrada> masAntigua) {
+                if (size() > TutorListadoCache.this.maxEntradas) {
+                    expulsadas.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Devuelve la página guardada o la calcula y la guarda. El cálculo corre fuera del candado.
+    public PagedResponse<TutorSummaryResponse> obtener(Clave clave, Supplier<PagedResponse<TutorSummaryResponse>> calcular) {
+        long versionLeida;
+        synchronized (entradas) {
+            Entrada entrada = entradas.get(clave);
+            if (entrada != null && entrada.venceEn() - reloj.getAsLong() > 0) {
+                aciertos.increment();
+                return entrada.pagina();
+            }
+            if (entrada != null) {
+                entradas.remove(clave);
+                expulsadas.increment();
+            }
+            fallos.increment();
+            versionLeida = version;
+        }
+
+        PagedResponse<TutorSummaryResponse> pagina = calcular.get();
+        if (maxEntradas <= 0) {
+            return pagina;
+        }
+
+        Set<Long> tutorIds = new HashSet<>();
+        pagina.getContent().forEach(tutor -> tutorIds.add(tutor.getTutorId()));
+        synchronized (entradas) {
+            if (version == versionLeida) {
+                entradas.put(clave, new Entrada(pagina, tutorIds, reloj.getAsLong() + ttlNanos));
+            }
+        }
+        return pagina;
+    }
+
+    // Se agregó, movió o quitó un bloque de disponibilidad en esa fecha. El listado no muestra la
+    // disponibilidad: solo cambian las búsquedas con una ventana que incluya la fecha.
+    public void invalidarDisponibilidad(LocalDate fecha) {
+        if (fecha == null) {
+            return;
+        }
+        invalidar(clave -> clave.desde() != null
+                && !fecha.isBefore(clave.desde()) && !fecha.isAfter(clave.hasta()), null);
+    }
+
+    // Cambió una regla semanal: cualquier fecha entre desde y hasta pudo ganar o perder ocurrencias
+    public void invalidarDisponibilidad(LocalDate desde, LocalDate hasta) {
+        if (desde == null || hasta == null) {
+            return;
+        }
+        invalidar(clave -> clave.desde() != null
+                && !hasta.isBefore(clave.desde()) && !desde.isAfter(clave.hasta()), null);
+    }
+
+    // Cambió el promedio de estrellas del tutor
+    public void invalidarPuntuacion(Long tutorId) {
+        invalidar(clave -> clave.puntuacion() != null || clave.ordenadoPor("estrellasPromedio")
+                || clave.ordenadoPor("recomendado") || clave.facetas(), tutorId);
+    }
+
+    // Cambió el nombre, la foto, el rubro o la tarifa del tutor
+    public void invalidarPerfil(Long tutorId) {
+        invalidar(clave -> clave.texto() != null || clave.maxPrecio() != null || clave.facetas()
+                || clave.ordenadoPor("user.nombre") || clave.ordenadoPor("rubro") || clave.ordenadoPor("tarifaHora")
+                || clave.ordenadoPor("recomendado"), tutorId);
+    }
+
+    // Altas y bajas de tutores cambian los totales de casi cualquier búsqueda
+    public void invalidarTodo() {
+        invalidar(clave -> true, null);
+    }
+
+    public Estadisticas estadisticas() {
+        int tamano;
+        synchronized (entradas) {
+            tamano = entradas.size();
+        }
+        return new Estadisticas(aciertos.sum(), fallos.sum(), expulsadas.sum(), invalidadas.sum(), tamano);
+    }
+
+    @Scheduled(fixedDelay = 5, timeUnit = TimeUnit.MINUTES)
+    public void informarEstadisticas() {
+        Estadisticas estadisticas = estadisticas();
+        long consultas = estadisticas.aciertos() + estadisticas.fallos();
+        if (consultas == consultasInformadas) {
+            return;
+        }
+        consultasInformadas = consultas;
+        log.info("Caché de /tutores: {} aciertos, {} fallos ({}% de aciertos), {} expulsadas, {} invalidadas, {} entradas",
+                estadisticas.aciertos(), estadisticas.fallos(), Math.round(estadisticas.tasaDeAciertos() * 100),
+                estadisticas.expulsadas(), estadisticas.invalidadas(), estadisticas.entradas());
+    }
+
+    // Borra las entradas cuya búsqueda depende del dato cambiado o que muestran al tutor
+    private void invalidar(Predicate<Clave> dependeDelCambio, Long tutorId) {
+        DespuesDelCommit.ejecutar(() -> {
+            synchronized (entradas) {
+                version++;
+                entradas.entrySet().removeIf(entrada -> {
+                    boolean afectada = dependeDelCambio.test(entrada.getKey())
+                            || (tutorId != null && entrada.getValue().tutorIds().contains(tutorId));
+                    if (afectada) {
+                        invalidadas.increment();
+                    }
+                    return afectada;
+                });
+            }
+        });
+    }
+
+    // Los filtros ya resueltos por el servicio (la ventana con sus fechas por defecto, el orden
+    // saneado), así dos pedidos que dan la misma consulta comparten la entrada.
+    public record Clave(String texto, Integer maxPrecio, Float puntuacion,
+                        LocalDate desde, LocalDate hasta, LocalTime horaInicio, LocalTime horaFin,
+                        Sort orden, int pagina, int tamano, String cursor, boolean facetas) {
+
+        public Clave {
+            // El texto se compara sin distinguir mayúsculas, tanto en el índice como en el LIKE
+            texto = StringUtils.hasText(texto) ? texto.trim().toLowerCase(Locale.ROOT) : null;
+        }
+
+        boolean ordenadoPor(String propiedad) {
+            return orden != null && orden.getOrderFor(propiedad) != null;
+        }
+    }
+
+    public record Estadisticas(long aciertos, long fallos, long expulsadas, long invalidadas, int entradas) {
+
+        public double tasaDeAciertos() {
+            long total = aciertos + fallos;
+            return total == 0 ? 0 : (double) aciertos / total;
+        }
+    }
+
+    private record Entrada(PagedResponse<TutorSummaryResponse> pagina, Set<Long> tutorIds, long venceEn) {
+    }
+}
@@ -0,0 +1,316 @@
+package tutorgo.com.search;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import tutorgo.com.repository.TutorRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice invertido en memoria sobre el nombre y el rubro de los tutores, para que la búsqueda
+// por texto de /tutores no dependa de un LIKE '%texto%' que recorre la tabla entera.
+//
+// Cada palabra normalizada se parte en trigramas y cada trigrama apunta a los tutores que lo
+// contienen. Las palabras se rellenan con '$' al final para que cada posición empiece un trigrama:
+// así una consulta de una o dos letras también se resuelve con el índice (por prefijo de trigrama).
+// Los candidatos se verifican contra las palabras reales y se ordenan por relevancia.
+@Component
+@RequiredArgsConstructor
+public class TutorSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TutorSearchIndex.class);
+
+    private static final int N = 3;
+    private static final String RELLENO = "$$";
+
+    private static final int PUNTOS_PALABRA_EXACTA = 3;
+    private static final int PUNTOS_PREFIJO = 2;
+    private static final int PUNTOS_SUBCADENA = 1;
+
+    private final TutorRepository tutorRepository;
+
+    // Internamente cada versión indexada de un tutor es un número de documento consecutivo: así las
+    // listas de postings son int[] ordenados que se recorren sin cajas ni hashing. Reindexar un
+    // tutor da un documento nuevo y deja el anterior muerto; se compacta cuando los muertos abundan.
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, ListaDocs> postings = new TreeMap<>();
+    private final Map<Long, Integer> documentoDeTutor = new HashMap<>();
+    private final ArrayList<Documento> documentos = new ArrayList<>();
+    private int muertos;
+    private volatile boolean listo;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            limpiar();
+            for (TutorRepository.TextoBuscable tutor : tutorRepository.findAllTextoBuscable()) {
+                agregar(tutor.getId(), tutor.getNombre(), tutor.getRubro());
+            }
+            listo = true;
+            log.info("Índice de búsqueda de tutores construido: {} tutores, {} trigramas en {} ms",
+                    documentoDeTutor.size(), postings.size(), System.currentTimeMillis() - inicio);
+        } catch (RuntimeException e) {
+            // Sin índice la búsqueda sigue funcionando con LIKE en la base de datos
+            listo = false;
+            log.error("No se pudo construir el índice de búsqueda de tutores", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isListo() {
+        return listo;
+    }
+
+    // Altas y cambios de nombre/rubro
+    public void indexar(Long tutorId, String nombre, String rubro) {
+        if (tutorId == null) {
+            return;
+        }
+        DespuesDelCommit.ejecutar(() -> {
+            lock.writeLock().lock();
+            try {
+                quitar(tutorId);
+                agregar(tutorId, nombre, rubro);
+                compactarSiHaceFalta();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void eliminar(Long tutorId) {
+        if (tutorId == null) {
+            return;
+        }
+        DespuesDelCommit.ejecutar(() -> {
+            lock.writeLock().lock();
+            try {
+                quitar(tutorId);
+                compactarSiHaceFalta();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Ids de los tutores cuyo nombre o rubro contiene todos los términos de la consulta, del más
+    // relevante al menos relevante (a igual puntaje, por id). Lista vacía si nada coincide.
+    public List<Long> buscar(String consulta) {
+        List<Coincidencia> coincidencias = coincidencias(consulta);
+        coincidencias.sort(Comparator.comparingInt(Coincidencia::puntaje).reversed()
+                .thenComparing(Coincidencia::tutorId));
+        List<Long> ids = new ArrayList<>(coincidencias.size());
+        for (Coincidencia coincidencia : coincidencias) {
+            ids.add(coincidencia.tutorId());
+        }
+        return ids;
+    }
+
+    // Las mismas coincidencias que buscar, sin ordenar: id del tutor -> puntaje de relevancia.
+    // Para quien solo necesita el conjunto o va a ordenar (y paginar) por su cuenta.
+    public Map<Long, Integer> puntajes(String consulta) {
+        List<Coincidencia> coincidencias = coincidencias(consulta);
+        Map<Long, Integer> puntajes = new HashMap<>(coincidencias.size() * 2);
+        for (Coincidencia coincidencia : coincidencias) {
+            puntajes.put(coincidencia.tutorId(), coincidencia.puntaje());
+        }
+        return puntajes;
+    }
+
+    private List<Coincidencia> coincidencias(String consulta) {
+        List<TextoBusqueda.Termino> terminos = TextoBusqueda.terminosDeConsulta(consulta);
+        if (terminos.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            int[] candidatos = null;
+            for (TextoBusqueda.Termino termino : terminos) {
+                int[] delTermino = candidatosPara(termino.raiz());
+                candidatos = (candidatos == null) ? delTermino : interseccion(candidatos, delTermino, delTermino.length);
+                if (candidatos.length == 0) {
+                    return new ArrayList<>();
+                }
+            }
+
+            List<Coincidencia> coincidencias = new ArrayList<>();
+            for (int doc : candidatos) {
+                Documento documento = documentos.get(doc);
+                if (documento == null) {
+                    continue;
+                }
+                int puntaje = puntaje(documento, terminos);
+                if (puntaje > 0) {
+                    coincidencias.add(new Coincidencia(documento.tutorId(), puntaje));
+                }
+            }
+            return coincidencias;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Documentos (ordenados) que pueden contener el fragmento
+    private int[] candidatosPara(String fragmento) {
+        if (fragmento.length() < N) {
+            // Todos los trigramas que empiezan con el fragmento (gracias al relleno, cubre cualquier posición)
+            BitSet union = new BitSet(documentos.size());
+            for (ListaDocs lista : postings.subMap(fragmento, true, fragmento + Character.MAX_VALUE, false).values()) {
+                for (int i = 0; i < lista.tamano; i++) {
+                    union.set(lista.docs[i]);
+                }
+            }
+            return union.stream().toArray();
+        }
+
+        List<String> gramas = trigramas(fragmento, false);
+        ListaDocs[] listas = new ListaDocs[gramas.size()];
+        for (int i = 0; i < gramas.size(); i++) {
+            listas[i] = postings.get(gramas.get(i));
+            if (listas[i] == null) {
+                return new int[0];
+            }
+        }
+        Arrays.sort(listas, Comparator.comparingInt(lista -> lista.tamano));
+        int[] resultado = Arrays.copyOf(listas[0].docs, listas[0].tamano);
+        for (int i = 1; i < listas.length && resultado.length > 0; i++) {
+            resultado = interseccion(resultado, listas[i].docs, listas[i].tamano);
+        }
+        return resultado;
+    }
+
+    // Un término suma lo mejor que consiga en el nombre o en el rubro; si no aparece en ninguno,
+    // el tutor se descarta (los trigramas solo garantizan candidatos, no coincidencias).
+    private int puntaje(Documento documento, List<TextoBusqueda.Termino> terminos) {
+        int total = 0;
+        for (TextoBusqueda.Termino termino : terminos) {
+            int mejor = Math.max(puntajeEnPalabras(documento.palabrasNombre(), termino),
+                    puntajeEnPalabras(documento.palabrasRubro(), termino));
+            if (mejor == 0) {
+                return 0;
+            }
+            total += mejor;
+        }
+        return total;
+    }
+
+    private int puntajeEnPalabras(List<String> palabras, TextoBusqueda.Termino termino) {
+        int mejor = 0;
+        for (String palabra : palabras) {
+            if (palabra.equals(termino.original()) || palabra.equals(termino.raiz())) {
+                return PUNTOS_PALABRA_EXACTA;
+            }
+            if (palabra.startsWith(termino.raiz())) {
+                mejor = PUNTOS_PREFIJO;
+            } else if (mejor == 0 && palabra.contains(termino.raiz())) {
+                mejor = PUNTOS_SUBCADENA;
+            }
+        }
+        return mejor;
+    }
+
+    private void agregar(Long tutorId, String nombre, String rubro) {
+        List<String> palabrasNombre = TextoBusqueda.palabras(nombre);
+        List<String> palabrasRubro = TextoBusqueda.palabras(rubro);
+        Set<String> gramas = new HashSet<>();
+        palabrasNombre.forEach(palabra -> gramas.addAll(trigramas(palabra, true)));
+        palabrasRubro.forEach(palabra -> gramas.addAll(trigramas(palabra, true)));
+
+        int doc = documentos.size();
+        documentos.add(new Documento(tutorId, palabrasNombre, palabrasRubro));
+        documentoDeTutor.put(tutorId, doc);
+        // Los documentos nuevos siempre tienen el número más alto: agregar al final mantiene el orden
+        for (String grama : gramas) {
+            postings.computeIfAbsent(grama, g -> new ListaDocs()).agregar(doc);
+        }
+    }
+
+    private void quitar(Long tutorId) {
+        Integer doc = documentoDeTutor.remove(tutorId);
+        if (doc != null) {
+            documentos.set(doc, null);
+            muertos++;
+        }
+    }
+
+    private void compactarSiHaceFalta() {
+        if (muertos > 1000 && muertos > documentoDeTutor.size()) {
+            List<Documento> vivos = documentos.stream().filter(Objects::nonNull).toList();
+            limpiar();
+            for (Documento documento : vivos) {
+                agregar(documento.tutorId(), String.join(" ", documento.palabrasNombre()),
+                        String.join(" ", documento.palabrasRubro()));
+            }
+        }
+    }
+
+    private void limpiar() {
+        postings.clear();
+        documentoDeTutor.clear();
+        documentos.clear();
+        muertos = 0;
+    }
+
+    private static List<String> trigramas(String palabra, boolean rellenar) {
+        String texto = rellenar ? palabra + RELLENO : palabra;
+        List<String> gramas = new ArrayList<>(Math.max(texto.length() - N + 1, 0));
+        for (int i = 0; i + N <= texto.length(); i++) {
+            gramas.add(texto.substring(i, i + N));
+        }
+        return gramas;
+    }
+
+    // Intersección de dos listas ordenadas (de b solo cuentan los primeros tamanoB elementos)
+    private static int[] interseccion(int[] a, int[] b, int tamanoB) {
+        int[] resultado = new int[Math.min(a.length, tamanoB)];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < tamanoB) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                resultado[k++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(resultado, k);
+    }
+
+    private static final class ListaDocs {
+        private int[] docs = new int[4];
+        private int tamano;
+
+        void agregar(int doc) {
+            if (tamano == docs.length) {
+                docs = Arrays.copyOf(docs, tamano * 2);
+            }
+            docs[tamano++] = doc;
+        }
+    }
+
+    private record Documento(Long tutorId, List<String> palabrasNombre, List<String> palabrasRubro) {
+    }
+
+    private record Coincidencia(Long tutorId, int puntaje) {
+    }
+}
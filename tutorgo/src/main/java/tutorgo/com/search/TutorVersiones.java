@@ -0,0 +1,76 @@
+package tutorgo.com.search;
+
+import org.springframework.stereotype.Component;
+import tutorgo.com.repository.TutorRepository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+// Versión del perfil y de la disponibilidad de cada tutor, para responder GET /tutores/{id} y
+// GET /tutores/{id}/disponibilidades con ETag y Last-Modified. Con un If-None-Match vigente el
+// controlador contesta 304 con una sola lectura por clave primaria, sin armar los DTOs.
+//
+// Las versiones se guardan en la fila del tutor y se incrementan en la misma transacción que la
+// escritura, así que todos los nodos dan el mismo ETag y ninguno sigue contestando 304 después de un
+// cambio hecho en otro. El controlador lee la versión antes que los datos: si un cambio se confirma en
+// medio, la respuesta lleva la versión anterior con los datos nuevos y el próximo pedido solo la
+// vuelve a bajar.
+@Component
+public class TutorVersiones {
+
+    private final TutorRepository tutorRepository;
+
+    public TutorVersiones(TutorRepository tutorRepository) {
+        this.tutorRepository = tutorRepository;
+    }
+
+    // Vacío si el tutor no existe
+    public Optional<Version> perfil(Long tutorId) {
+        return tutorRepository.findVersionPerfil(tutorId).map(guardada -> version("p", tutorId, guardada));
+    }
+
+    public Optional<Version> disponibilidad(Long tutorId) {
+        return tutorRepository.findVersionDisponibilidad(tutorId).map(guardada -> version("d", tutorId, guardada));
+    }
+
+    // Cambió algo de lo que muestra el perfil: nombre, foto, bio, tarifa, rubro o estrellas.
+    // Toma el lock de la fila del tutor hasta el commit: los cambios de un mismo tutor se ordenan ahí.
+    public void cambioPerfil(Long tutorId) {
+        if (tutorId != null) {
+            tutorRepository.incrementarVersionPerfil(tutorId);
+        }
+    }
+
+    // Se agregó, movió o quitó un bloque de disponibilidad del tutor
+    public void cambioDisponibilidad(Long tutorId) {
+        if (tutorId != null) {
+            tutorRepository.incrementarVersionDisponibilidad(tutorId);
+        }
+    }
+
+    // El tutor se dio de baja: las copias que tengan los clientes dejan de valer
+    public void cambioTutor(Long tutorId) {
+        cambioPerfil(tutorId);
+        cambioDisponibilidad(tutorId);
+    }
+
+    // La fecha también entra en el valor: si la base se recrea, los contadores vuelven a empezar pero
+    // un ETag emitido antes no coincide con los nuevos
+    private static Version version(String recurso, Long tutorId, TutorRepository.VersionGuardada guardada) {
+        return new Version(recurso + "-" + tutorId + "-" + guardada.getCantidad() + "-"
+                + Long.toString(guardada.getModificado().getEpochSecond(), 36), guardada.getModificado());
+    }
+
+    // valor va sin comillas; los ETag se arman acá, ya entre comillas como los pide la cabecera
+    public record Version(String valor, Instant modificado) {
+
+        public String etag() {
+            return "\"" + valor + "\"";
+        }
+
+        // Para una vista del recurso (ventana de fechas, página): otro ETag con el mismo contador
+        public String etag(String variante) {
+            return "\"" + valor + "-" + variante + "\"";
+        }
+    }
+}
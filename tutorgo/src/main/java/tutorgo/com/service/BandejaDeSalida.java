@@ -0,0 +1,48 @@
+package tutorgo.com.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tutorgo.com.enums.TipoEventoSalida;
+import tutorgo.com.model.EventoSalida;
+import tutorgo.com.repository.EventoSalidaRepository;
+
+import java.time.LocalDateTime;
+
+// Lado de escritura del outbox. El que origina el evento lo anota acá, dentro de su transacción:
+// le cuesta un INSERT, tenga el evento uno o diez efectos (ver DespachadorDeSalida).
+@Component
+@RequiredArgsConstructor
+public class BandejaDeSalida {
+
+    private final EventoSalidaRepository eventoSalidaRepository;
+    private final ObjectMapper objectMapper;
+
+    public void registrar(TipoEventoSalida tipo, Object carga) {
+        // Fuera de una transacción el evento se guardaría aunque el cambio que lo origina se pierda
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Un evento de salida se registra en la transacción del cambio que lo origina.");
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        try {
+            eventoSalidaRepository.save(EventoSalida.builder()
+                    .tipo(tipo)
+                    .carga(objectMapper.writeValueAsString(carga))
+                    .creadoEn(ahora)
+                    .disponibleDesde(ahora)
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento " + tipo, e);
+        }
+    }
+
+    public <T> T leer(EventoSalida evento, Class<T> tipoCarga) {
+        try {
+            return objectMapper.readValue(evento.getCarga(), tipoCarga);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Carga ilegible en el evento de salida " + evento.getId(), e);
+        }
+    }
+}
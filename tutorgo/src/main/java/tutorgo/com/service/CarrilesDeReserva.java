@@ -0,0 +1,98 @@
+package tutorgo.com.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tutorgo.com.exception.ServicioSaturadoException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// Las reservas de un mismo tutor pasan de a una por un "carril": un hilo único elegido por tutorId
+// entre N carriles, con su propia cola. Cada tarea corre en su propia transacción y termina (commit
+// y actualización de la agenda en memoria incluidos) antes de que empiece la siguiente, así que
+// quien llega después ve en la agenda al que ganó y pierde en memoria, sin escribir en la base.
+// Tutores que caen en carriles distintos reservan en paralelo.
+//
+// Es por nodo: entre varios nodos la restricción de solapamiento de la base sigue siendo la que
+// decide (ver config.RestriccionesDeSolapamiento).
+@Component
+public class CarrilesDeReserva {
+
+    private final ThreadPoolExecutor[] carriles;
+    private final TransactionTemplate transactionTemplate;
+    private final long esperaMaximaMillis;
+
+    public CarrilesDeReserva(PlatformTransactionManager transactionManager,
+                             @Value("${tutorgo.reservas.carriles:16}") int cantidadCarriles,
+                             @Value("${tutorgo.reservas.cola-por-carril:256}") int colaPorCarril,
+                             @Value("${tutorgo.reservas.espera-maxima-ms:5000}") long esperaMaximaMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.esperaMaximaMillis = esperaMaximaMillis;
+        this.carriles = new ThreadPoolExecutor[cantidadCarriles];
+        for (int i = 0; i < cantidadCarriles; i++) {
+            String nombre = "carril-reserva-" + i;
+            carriles[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(colaPorCarril),
+                    tarea -> {
+                        Thread hilo = new Thread(tarea, nombre);
+                        hilo.setDaemon(true);
+                        return hilo;
+                    });
+        }
+    }
+
+    // Corre la tarea en el carril del tutor, dentro de una transacción, y devuelve su resultado. Las
+    // excepciones de la tarea (BadRequestException, etc.) llegan tal cual a quien llama.
+    public <T> T ejecutar(Long tutorId, Supplier<T> tarea) {
+        ThreadPoolExecutor carril = carriles[Math.floorMod(Long.hashCode(tutorId), carriles.length)];
+        // La tarea y quien espera compiten por este flag: si quien espera lo toma primero, la tarea no corre
+        AtomicBoolean tomada = new AtomicBoolean();
+        Future<T> futuro;
+        try {
+            futuro = carril.submit(() -> tomada.compareAndSet(false, true)
+                    ? transactionTemplate.execute(estado -> tarea.get())
+                    : null);
+        } catch (RejectedExecutionException e) {
+            throw new ServicioSaturadoException("Hay demasiadas reservas en curso para este tutor. Intenta de nuevo en unos segundos.");
+        }
+        try {
+            try {
+                return futuro.get(esperaMaximaMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Si todavía estaba en la cola no se ejecuta; si ya empezó, se espera su resultado para no
+                // responder error sobre una reserva que sí se guardó
+                if (tomada.compareAndSet(false, true)) {
+                    throw new ServicioSaturadoException("La reserva demoró demasiado en procesarse. Intenta de nuevo.");
+                }
+                return futuro.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reserva interrumpida", e);
+        }
+    }
+
+    @PreDestroy
+    void cerrar() {
+        for (ThreadPoolExecutor carril : carriles) {
+            carril.shutdown();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package tutorgo.com.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tutorgo.com.enums.TipoEventoSalida;
+import tutorgo.com.model.EventoSalida;
+import tutorgo.com.repository.EventoSalidaRepository;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Lado de lectura del outbox: toma los eventos listos de a lotes y les aplica sus manejadores.
+//
+// Tomar un lote es una transacción corta que bloquea las filas (SKIP LOCKED) y les corre
+// disponible_desde un rato (el arriendo): otro nodo no las vuelve a tomar mientras este las
+// procesa, y si este se cae vuelven a estar listas al vencer. Después cada evento va en su
+// propia transacción, con sus manejadores y el borrado de la fila: un evento que falla no
+// arrastra a los demás del lote y vuelve a la cola con una espera creciente.
+@Component
+public class DespachadorDeSalida {
+
+    private static final Logger log = LoggerFactory.getLogger(DespachadorDeSalida.class);
+    private static final int LARGO_MAXIMO_ERROR = 2000;
+
+    private final EventoSalidaRepository eventoSalidaRepository;
+    private final Map<TipoEventoSalida, List<ManejadorEventoSalida>> manejadores;
+    private final TransactionTemplate transaccionPropia;
+    private final int eventosPorLote;
+    private final int maxIntentos;
+    private final long arriendoSegundos;
+    private final long esperaInicialSegundos;
+
+    @Autowired
+    public DespachadorDeSalida(EventoSalidaRepository eventoSalidaRepository,
+                               List<ManejadorEventoSalida> manejadores,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${tutorgo.salida.lote:100}") int eventosPorLote,
+                               @Value("${tutorgo.salida.max-intentos:10}") int maxIntentos,
+                               @Value("${tutorgo.salida.arriendo-segundos:60}") long arriendoSegundos,
+                               @Value("${tutorgo.salida.espera-inicial-segundos:5}") long esperaInicialSegundos) {
+        this.eventoSalidaRepository = eventoSalidaRepository;
+        this.manejadores = manejadores.stream().collect(Collectors.groupingBy(ManejadorEventoSalida::tipo,
+                () -> new EnumMap<>(TipoEventoSalida.class), Collectors.toList()));
+        this.transaccionPropia = new TransactionTemplate(transactionManager);
+        this.transaccionPropia.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventosPorLote = eventosPorLote;
+        this.maxIntentos = maxIntentos;
+        this.arriendoSegundos = arriendoSegundos;
+        this.esperaInicialSegundos = esperaInicialSegundos;
+    }
+
+    // Vacía la cola de a lotes hasta que no queden eventos listos; devuelve cuántos se procesaron
+    public int despachar() {
+        int procesados = 0;
+        List<Long> lote;
+        while (!(lote = tomarLote()).isEmpty()) {
+            for (Long eventoId : lote) {
+                if (procesar(eventoId)) {
+                    procesados++;
+                }
+            }
+            if (lote.size() < eventosPorLote) {
+                break;
+            }
+        }
+        return procesados;
+    }
+
+    private List<Long> tomarLote() {
+        return transaccionPropia.execute(estado -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            List<EventoSalida> listos = eventoSalidaRepository.tomarListos(ahora, maxIntentos, eventosPorLote);
+            listos.forEach(evento -> evento.setDisponibleDesde(ahora.plusSeconds(arriendoSegundos)));
+            return listos.stream().map(EventoSalida::getId).toList();
+        });
+    }
+
+    private boolean procesar(Long eventoId) {
+        try {
+            return Boolean.TRUE.equals(transaccionPropia.execute(estado -> {
+                // Si el arriendo venció y otro nodo ya lo procesó, la fila no está
+                EventoSalida evento = eventoSalidaRepository.findById(eventoId).orElse(null);
+                if (evento == null) {
+                    return false;
+                }
+                for (ManejadorEventoSalida manejador : manejadores.getOrDefault(evento.getTipo(), List.of())) {
+                    manejador.manejar(evento);
+                }
+                eventoSalidaRepository.delete(evento);
+                return true;
+            }));
+        } catch (RuntimeException e) {
+            registrarFallo(eventoId, e);
+            return false;
+        }
+    }
+
+    private void registrarFallo(Long eventoId, RuntimeException error) {
+        transaccionPropia.executeWithoutResult(estado -> eventoSalidaRepository.findById(eventoId).ifPresent(evento -> {
+            int intentos = evento.getIntentos() + 1;
+            evento.setIntentos(intentos);
+            evento.setUltimoError(resumir(error));
+            // 5 s, 10 s, 20 s, ... hasta una hora
+            long espera = Math.min(3600, esperaInicialSegundos << Math.min(intentos - 1, 20));
+            evento.setDisponibleDesde(LocalDateTime.now().plusSeconds(espera));
+            if (intentos >= maxIntentos) {
+                log.error("Evento de salida {} ({}) abandonado tras {} intentos: {}",
+                        evento.getId(), evento.getTipo(), intentos, evento.getUltimoError());
+            } else {
+                log.warn("Evento de salida {} ({}) falló, intento {} de {}: {}",
+                        evento.getId(), evento.getTipo(), intentos, maxIntentos, evento.getUltimoError());
+            }
+        }));
+    }
+
+    private static String resumir(RuntimeException error) {
+        String texto = error.getClass().getSimpleName() + ": " + error.getMessage();
+        return texto.length() > LARGO_MAXIMO_ERROR ? texto.substring(0, LARGO_MAXIMO_ERROR) : texto;
+    }
+}
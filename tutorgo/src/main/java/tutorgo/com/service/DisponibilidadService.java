@@ -1,14 +1,21 @@
 package tutorgo.com.service;
 
 import tutorgo.com.dto.request.DisponibilidadRequest;
+import tutorgo.com.dto.response.DisponibilidadLoteResponse;
 import tutorgo.com.dto.response.DisponibilidadResponse;
+import tutorgo.com.dto.response.HorarioLibreResponse;
+import tutorgo.com.dto.response.PagedResponse;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface DisponibilidadService {
     DisponibilidadResponse addDisponibilidad(String tutorEmail, DisponibilidadRequest request);
+    DisponibilidadLoteResponse addDisponibilidadesEnLote(String tutorEmail, List<DisponibilidadRequest> requests);
     DisponibilidadResponse updateDisponibilidad(String tutorEmail, Long disponibilidadId, DisponibilidadRequest request);
     List<DisponibilidadResponse> getDisponibilidadesByTutor(String tutorEmail);
     void deleteDisponibilidad(String tutorEmail, Long disponibilidadId);
-    List<DisponibilidadResponse> getDisponibilidadesByTutorId(Long tutorId);
+    PagedResponse<DisponibilidadResponse> getDisponibilidadesByTutorId(Long tutorId, LocalDate desde, LocalDate hasta, int page, int size);
+    int compactarDia(Long tutorId, LocalDate fecha);
+    List<HorarioLibreResponse> getHorariosLibres(Long tutorId, LocalDate desde, LocalDate hasta, int duracionMinutos);
 }
\ No newline at end of file
@@ -1,36 +1,76 @@
 package tutorgo.com.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import tutorgo.com.dto.request.DisponibilidadRequest;
+import tutorgo.com.dto.response.DisponibilidadLoteItemResponse;
+import tutorgo.com.dto.response.DisponibilidadLoteResponse;
 import tutorgo.com.dto.response.DisponibilidadResponse;
+import tutorgo.com.dto.response.HorarioLibreResponse;
+import tutorgo.com.dto.response.PagedResponse;
 import tutorgo.com.exception.BadRequestException;
 import tutorgo.com.exception.ForbiddenException; // Nueva excepción para permisos
 import tutorgo.com.exception.ResourceNotFoundException;
 import tutorgo.com.mapper.DisponibilidadMapper;
 import tutorgo.com.model.Disponibilidad;
+import tutorgo.com.model.ReglaDisponibilidad;
 import tutorgo.com.model.Tutor;
 import tutorgo.com.model.User;
 import tutorgo.com.repository.DisponibilidadRepository;
+import tutorgo.com.repository.ReglaDisponibilidadRepository;
+import tutorgo.com.repository.SesionRepository;
 import tutorgo.com.repository.TutorRepository;
 import tutorgo.com.repository.UserRepository;
-import tutorgo.com.repository.SesionRepository; // Para verificar si hay sesiones reservadas
+import tutorgo.com.search.AgendaTutorIndex;
+import tutorgo.com.search.DisponibilidadBitmapIndex;
+import tutorgo.com.search.ReglaSemanal;
+import tutorgo.com.search.TutorListadoCache;
+import tutorgo.com.search.TutorVersiones;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.TreeSet;
 
 @Service
 @RequiredArgsConstructor
 public class DisponibilidadServiceImpl implements DisponibilidadService {
 
+    // Tope de POST /tutores/me/disponibilidades/batch: un semestre de bloques diarios entra de sobra
+    private static final int MAX_DISPONIBILIDADES_POR_LOTE = 500;
+
+    // GET /tutores/{id}/disponibilidades: ventana por defecto y máxima (en días) y tamaño máximo de página
+    private static final int DIAS_DISPONIBILIDADES_POR_DEFECTO = 28;
+    private static final int MAX_DIAS_DISPONIBILIDADES = 84;
+    private static final int MAX_TAMANO_PAGINA_DISPONIBILIDADES = 100;
+
+    // GET /tutores/{id}/slots: ventana por defecto y máxima, y duraciones admitidas (en minutos)
+    private static final int DIAS_HORARIOS_LIBRES_POR_DEFECTO = 14;
+    private static final int MAX_DIAS_HORARIOS_LIBRES = 31;
+    private static final int MIN_DURACION_MINUTOS = 15;
+    private static final int MAX_DURACION_MINUTOS = 8 * 60;
+    // Las horas de inicio van de hora en hora desde el comienzo de cada hueco, como las ofrecía el
+    // selector del front; una sesión más corta que una hora se ofrece pegada a la anterior
+    private static final int PASO_MAXIMO_MINUTOS = 60;
+
     private final UserRepository userRepository;
     private final TutorRepository tutorRepository;
     private final DisponibilidadRepository disponibilidadRepository;
-    private final SesionRepository sesionRepository; // Para validaciones al actualizar/borrar
+    private final ReglaDisponibilidadRepository reglaDisponibilidadRepository;
+    private final SesionRepository sesionRepository;
     private final DisponibilidadMapper disponibilidadMapper;
+    private final DisponibilidadBitmapIndex disponibilidadBitmapIndex;
+    private final AgendaTutorIndex agendaTutorIndex;
+    private final TutorListadoCache tutorListadoCache;
+    private final TutorVersiones tutorVersiones;
+    private final ReintentoOptimista reintentoOptimista;
 
     @Override
     @Transactional
@@ -52,10 +92,12 @@ public class DisponibilidadServiceImpl implements DisponibilidadService {
         //     throw new BadRequestException("La duración mínima de la disponibilidad es de 30 minutos.");
         // }
 
-        // Validación de solapamiento de disponibilidad (opcional pero recomendada)
-        List<Disponibilidad> disponibilidadesSolapadas = disponibilidadRepository
-                .findDisponibilidadesSolapadas(tutor.getId(), request.getFecha(), horaInicialDateTime, horaFinalDateTime);
-        if (!disponibilidadesSolapadas.isEmpty()) {
+        // Validación de solapamiento de disponibilidad (opcional pero recomendada), también contra
+        // las ocurrencias de las reglas semanales del tutor en esa fecha
+        List<Long> disponibilidadesSolapadas = agendaTutorIndex
+                .disponibilidadesSolapadas(tutor.getId(), request.getFecha(), horaInicialDateTime, horaFinalDateTime, null);
+        if (!disponibilidadesSolapadas.isEmpty()
+                || !agendaTutorIndex.reglasSolapadas(tutor.getId(), request.getFecha(), horaInicialDateTime, horaFinalDateTime, null).isEmpty()) {
             throw new BadRequestException("La nueva disponibilidad se solapa con una existente.");
         }
 
@@ -66,11 +108,136 @@ public class DisponibilidadServiceImpl implements DisponibilidadService {
         nuevaDisponibilidad.setHoraFinal(horaFinalDateTime);
 
         Disponibilidad guardada = disponibilidadRepository.save(nuevaDisponibilidad);
+        disponibilidadBitmapIndex.registrar(guardada);
+        agendaTutorIndex.registrarDisponibilidad(guardada);
+        tutorListadoCache.invalidarDisponibilidad(guardada.getFecha());
+        tutorVersiones.cambioDisponibilidad(tutor.getId());
 
         // HU9 Escenario 1: Registro de disponibilidad
         return disponibilidadMapper.toDisponibilidadResponse(guardada);
     }
 
+    @Override
+    @Transactional
+    public DisponibilidadLoteResponse addDisponibilidadesEnLote(String tutorEmail, List<DisponibilidadRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new BadRequestException("El lote debe tener al menos una disponibilidad.");
+        }
+        if (requests.size() > MAX_DISPONIBILIDADES_POR_LOTE) {
+            throw new BadRequestException("Un lote admite como máximo " + MAX_DISPONIBILIDADES_POR_LOTE + " disponibilidades.");
+        }
+        Tutor tutor = tutorRepository.findByUserEmail(tutorEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("Perfil de tutor no encontrado para el usuario: " + tutorEmail));
+
+        // Cada elemento termina con un error o con su bloque; nada de lo que falla corta el lote
+        String[] errores = new String[requests.size()];
+        List<BloqueDelLote> bloques = new ArrayList<>();
+        LocalDate hoy = LocalDate.now();
+        for (int i = 0; i < requests.size(); i++) {
+            DisponibilidadRequest request = requests.get(i);
+            errores[i] = validarElementoDelLote(request, hoy);
+            if (errores[i] == null) {
+                bloques.add(new BloqueDelLote(i, request.getFecha(),
+                        LocalDateTime.of(request.getFecha(), request.getHoraInicio()),
+                        LocalDateTime.of(request.getFecha(), request.getHoraFinal())));
+            }
+        }
+
+        List<Disponibilidad> nuevas = new ArrayList<>();
+        if (!bloques.isEmpty()) {
+            bloques.sort(Comparator.comparing(BloqueDelLote::inicio).thenComparingInt(BloqueDelLote::indice));
+            LocalDate desde = bloques.stream().map(BloqueDelLote::fecha).min(Comparator.naturalOrder()).orElseThrow();
+            LocalDate hasta = bloques.stream().map(BloqueDelLote::fecha).max(Comparator.naturalOrder()).orElseThrow();
+            // Una sola consulta trae todo lo guardado en el rango del lote, ya ordenado por inicio
+            List<DisponibilidadRepository.FranjaIndexable> guardadas =
+                    disponibilidadRepository.findFranjasIndexablesByTutorIdAndFechaEntre(tutor.getId(), desde, hasta);
+            barrerSolapamientos(tutor.getId(), bloques, guardadas, errores);
+
+            bloques.stream()
+                    .filter(bloque -> errores[bloque.indice()] == null)
+                    .sorted(Comparator.comparingInt(BloqueDelLote::indice))
+                    .forEach(bloque -> nuevas.add(Disponibilidad.builder().tutor(tutor).fecha(bloque.fecha())
+                            .horaInicial(bloque.inicio()).horaFinal(bloque.fin()).build()));
+            disponibilidadRepository.insertarEnLote(nuevas);
+        }
+
+        TreeSet<LocalDate> fechasCambiadas = new TreeSet<>();
+        DisponibilidadResponse[] creadas = new DisponibilidadResponse[requests.size()];
+        for (int i = 0, n = 0; i < requests.size(); i++) {
+            if (errores[i] == null) {
+                Disponibilidad guardada = nuevas.get(n++);
+                disponibilidadBitmapIndex.registrar(guardada);
+                agendaTutorIndex.registrarDisponibilidad(guardada);
+                fechasCambiadas.add(guardada.getFecha());
+                creadas[i] = disponibilidadMapper.toDisponibilidadResponse(guardada);
+            }
+        }
+        fechasCambiadas.forEach(tutorListadoCache::invalidarDisponibilidad);
+        if (!nuevas.isEmpty()) {
+            tutorVersiones.cambioDisponibilidad(tutor.getId());
+        }
+
+        List<DisponibilidadLoteItemResponse> resultados = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            resultados.add(new DisponibilidadLoteItemResponse(i, errores[i] == null, creadas[i], errores[i]));
+        }
+        return new DisponibilidadLoteResponse(nuevas.size(), requests.size() - nuevas.size(), resultados);
+    }
+
+    // Las mismas reglas que @Valid y addDisponibilidad, pero devolviendo el mensaje en vez de lanzarlo
+    private static String validarElementoDelLote(DisponibilidadRequest request, LocalDate hoy) {
+        if (request == null || request.getFecha() == null) {
+            return "La fecha es obligatoria";
+        }
+        if (request.getHoraInicio() == null) {
+            return "La hora de inicio es obligatoria";
+        }
+        if (request.getHoraFinal() == null) {
+            return "La hora de finalización es obligatoria";
+        }
+        if (request.getFecha().isBefore(hoy)) {
+            return "La fecha de disponibilidad no puede ser en el pasado";
+        }
+        if (!request.getHoraFinal().isAfter(request.getHoraInicio())) {
+            return "La hora de finalización debe ser posterior a la hora de inicio.";
+        }
+        return null;
+    }
+
+    // Un solo recorrido en orden de inicio sobre los bloques del lote y los guardados (ambos ordenados).
+    // Un bloque del lote se rechaza si se cruza con uno guardado, con una regla semanal, o con otro
+    // del lote que empieza antes (a igual inicio gana el de menor índice).
+    private void barrerSolapamientos(Long tutorId, List<BloqueDelLote> bloques,
+                                     List<DisponibilidadRepository.FranjaIndexable> guardadas, String[] errores) {
+        int siguienteGuardada = 0;
+        LocalDateTime finMaximoGuardadas = LocalDateTime.MIN;  // de las guardadas que empiezan antes que el bloque
+        LocalDateTime finMaximoAceptados = LocalDateTime.MIN;  // de los aceptados del lote (todos empiezan antes)
+        int indiceFinMaximo = -1;
+        for (BloqueDelLote bloque : bloques) {
+            while (siguienteGuardada < guardadas.size()
+                    && !guardadas.get(siguienteGuardada).getHoraInicial().isAfter(bloque.inicio())) {
+                LocalDateTime fin = guardadas.get(siguienteGuardada++).getHoraFinal();
+                if (fin.isAfter(finMaximoGuardadas)) {
+                    finMaximoGuardadas = fin;
+                }
+            }
+            boolean pisaGuardada = finMaximoGuardadas.isAfter(bloque.inicio())
+                    || (siguienteGuardada < guardadas.size()
+                    && guardadas.get(siguienteGuardada).getHoraInicial().isBefore(bloque.fin()));
+            if (pisaGuardada || !agendaTutorIndex.reglasSolapadas(tutorId, bloque.fecha(), bloque.inicio(), bloque.fin(), null).isEmpty()) {
+                errores[bloque.indice()] = "La nueva disponibilidad se solapa con una existente.";
+            } else if (finMaximoAceptados.isAfter(bloque.inicio())) {
+                errores[bloque.indice()] = "La disponibilidad se solapa con el elemento " + indiceFinMaximo + " del mismo lote.";
+            } else {
+                finMaximoAceptados = bloque.fin();
+                indiceFinMaximo = bloque.indice();
+            }
+        }
+    }
+
+    private record BloqueDelLote(int indice, LocalDate fecha, LocalDateTime inicio, LocalDateTime fin) {
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<DisponibilidadResponse> getDisponibilidadesByTutor(String tutorEmail) {
@@ -83,9 +250,14 @@ public class DisponibilidadServiceImpl implements DisponibilidadService {
         return disponibilidadMapper.toDisponibilidadResponseList(disponibilidades);
     }
 
+    // Sin @Transactional: cada intento corre en su propia transacción (ver ReintentoOptimista)
     @Override
-    @Transactional
     public DisponibilidadResponse updateDisponibilidad(String tutorEmail, Long disponibilidadId, DisponibilidadRequest request) {
+        return reintentoOptimista.ejecutar("disponibilidad.actualizar",
+                () -> actualizarDisponibilidad(tutorEmail, disponibilidadId, request));
+    }
+
+    private DisponibilidadResponse actualizarDisponibilidad(String tutorEmail, Long disponibilidadId, DisponibilidadRequest request) {
         User userTutor = userRepository.findByEmail(tutorEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario tutor no encontrado: " + tutorEmail));
         Tutor tutor = tutorRepository.findByUser(userTutor)
@@ -102,12 +274,12 @@ public class DisponibilidadServiceImpl implements DisponibilidadService {
         // No permitir modificar disponibilidades si ya tienen sesiones reservadas/confirmadas en ese rango
         // Esta validación es importante para evitar inconsistencias.
         // Contar sesiones activas dentro del rango ORIGINAL de la disponibilidad
-        long sesionesActivas = sesionRepository.countSesionesActivasEnRango(
+        long sesionesActivas = agendaTutorIndex.sesionesSolapadas(
                 disponibilidad.getTutor().getId(),
                 disponibilidad.getFecha(),
                 disponibilidad.getHoraInicial(),
                 disponibilidad.getHoraFinal()
-        );
+        ).size();
         if (sesionesActivas > 0) {
             throw new BadRequestException("No se puede modificar la disponibilidad porque ya tiene sesiones reservadas o confirmadas en este horario.");
         }
@@ -121,25 +293,40 @@ public class DisponibilidadServiceImpl implements DisponibilidadService {
         }
 
         // Validación de solapamiento, excluyendo la disponibilidad actual que se está modificando
-        List<Disponibilidad> disponibilidadesSolapadas = disponibilidadRepository
-                .findDisponibilidadesSolapadasExcluyendoActual(tutor.getId(), request.getFecha(), nuevaHoraInicial, nuevaHoraFinal, disponibilidadId);
-        if (!disponibilidadesSolapadas.isEmpty()) {
+        List<Long> disponibilidadesSolapadas = agendaTutorIndex
+                .disponibilidadesSolapadas(tutor.getId(), request.getFecha(), nuevaHoraInicial, nuevaHoraFinal, disponibilidadId);
+        if (!disponibilidadesSolapadas.isEmpty()
+                || !agendaTutorIndex.reglasSolapadas(tutor.getId(), request.getFecha(), nuevaHoraInicial, nuevaHoraFinal, null).isEmpty()) {
             throw new BadRequestException("La disponibilidad actualizada se solapa con otra existente.");
         }
 
+        LocalDate fechaAnterior = disponibilidad.getFecha();
         disponibilidad.setFecha(request.getFecha());
         disponibilidad.setHoraInicial(nuevaHoraInicial);
         disponibilidad.setHoraFinal(nuevaHoraFinal);
 
         Disponibilidad actualizada = disponibilidadRepository.save(disponibilidad);
+        disponibilidadBitmapIndex.registrar(actualizada);
+        agendaTutorIndex.registrarDisponibilidad(actualizada);
+        tutorListadoCache.invalidarDisponibilidad(fechaAnterior);
+        if (!Objects.equals(fechaAnterior, actualizada.getFecha())) {
+            tutorListadoCache.invalidarDisponibilidad(actualizada.getFecha());
+        }
+        tutorVersiones.cambioDisponibilidad(tutor.getId());
 
         // HU9 Escenario 2: Actualización de disponibilidad
         return disponibilidadMapper.toDisponibilidadResponse(actualizada);
     }
 
     @Override
-    @Transactional
     public void deleteDisponibilidad(String tutorEmail, Long disponibilidadId) {
+        reintentoOptimista.ejecutar("disponibilidad.eliminar", () -> {
+            eliminarDisponibilidad(tutorEmail, disponibilidadId);
+            return null;
+        });
+    }
+
+    private void eliminarDisponibilidad(String tutorEmail, Long disponibilidadId) {
         User userTutor = userRepository.findByEmail(tutorEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario tutor no encontrado: " + tutorEmail));
         Tutor tutor = tutorRepository.findByUser(userTutor)
@@ -153,32 +340,194 @@ public class DisponibilidadServiceImpl implements DisponibilidadService {
         }
 
         // No permitir eliminar disponibilidades si ya tienen sesiones reservadas/confirmadas
-        long sesionesActivas = sesionRepository.countSesionesActivasEnRango(
+        long sesionesActivas = agendaTutorIndex.sesionesSolapadas(
                 disponibilidad.getTutor().getId(),
                 disponibilidad.getFecha(),
                 disponibilidad.getHoraInicial(),
                 disponibilidad.getHoraFinal()
-        );
+        ).size();
         if (sesionesActivas > 0) {
             throw new BadRequestException("No se puede eliminar la disponibilidad porque ya tiene sesiones reservadas o confirmadas en este horario.");
         }
 
         disponibilidadRepository.delete(disponibilidad);
+        disponibilidadBitmapIndex.quitar(disponibilidad.getId());
+        agendaTutorIndex.quitarDisponibilidad(tutor.getId(), disponibilidad.getId());
+        tutorListadoCache.invalidarDisponibilidad(disponibilidad.getFecha());
+        tutorVersiones.cambioDisponibilidad(tutor.getId());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<DisponibilidadResponse> getDisponibilidadesByTutorId(Long tutorId) {
-        Tutor tutor = tutorRepository.findById(tutorId)
-                .orElseThrow(() -> new ResourceNotFoundException("Tutor no encontrado con ID: " + tutorId));
+    public PagedResponse<DisponibilidadResponse> getDisponibilidadesByTutorId(Long tutorId, LocalDate desde, LocalDate hasta,
+                                                                              int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_TAMANO_PAGINA_DISPONIBILIDADES) {
+            throw new BadRequestException("La página debe ser mayor o igual a 0 y el tamaño estar entre 1 y "
+                    + MAX_TAMANO_PAGINA_DISPONIBILIDADES + ".");
+        }
+        LocalDate primerDia = desde != null ? desde : LocalDate.now();
+        LocalDate ultimoDia = hasta != null ? hasta : primerDia.plusDays(DIAS_DISPONIBILIDADES_POR_DEFECTO - 1);
+        if (ultimoDia.isBefore(primerDia)) {
+            throw new BadRequestException("La fecha final no puede ser anterior a la fecha inicial.");
+        }
+        if (primerDia.plusDays(MAX_DIAS_DISPONIBILIDADES).isBefore(ultimoDia.plusDays(1))) {
+            throw new BadRequestException("Se pueden consultar como máximo " + MAX_DIAS_DISPONIBILIDADES + " días de disponibilidad.");
+        }
+        if (!tutorRepository.existsById(tutorId)) {
+            throw new ResourceNotFoundException("Tutor no encontrado con ID: " + tutorId);
+        }
 
-        List<Disponibilidad> disponibilidades = disponibilidadRepository.findByTutorOrderByFechaAscHoraInicialAsc(tutor);
+        // Las reglas semanales se expanden recién acá: en la base hay una fila por regla, no por fecha
+        List<ReglaDisponibilidad> reglas =
+                reglaDisponibilidadRepository.findConDetalleByTutorIdVigentesEntre(tutorId, primerDia, ultimoDia);
+        if (reglas.isEmpty()) {
+            // Sin reglas la base pagina directamente sobre el índice
+            Page<Disponibilidad> pagina = disponibilidadRepository.findByTutorIdAndFechaBetween(tutorId, primerDia, ultimoDia,
+                    PageRequest.of(page, size, Sort.by("fecha", "horaInicial")));
+            return new PagedResponse<>(disponibilidadMapper.toDisponibilidadResponseList(pagina.getContent()),
+                    pagina.getNumber(), pagina.getSize(), pagina.getTotalElements(), pagina.getTotalPages(), pagina.isLast(), null);
+        }
 
-        // Podrías filtrar aquí las disponibilidades pasadas si lo deseas
-         List<Disponibilidad> disponibilidadesFuturas = disponibilidades.stream()
-                .filter(d -> d.getHoraInicial().isAfter(LocalDateTime.now()))
-                .collect(Collectors.toList());
+        // Con reglas el orden mezcla filas y ocurrencias, así que se arma la ventana (acotada) y se corta la página
+        List<DisponibilidadResponse> ventana = new ArrayList<>(disponibilidadMapper.toDisponibilidadResponseList(
+                disponibilidadRepository.findByTutorIdAndFechaBetweenOrderByFechaAscHoraInicialAsc(tutorId, primerDia, ultimoDia)));
+        // Una ocurrencia no tiene fila que recortar al confirmar una sesión: se muestra sin las sesiones
+        // activas que la ocupan, como quedaría un bloque recortado y como la ve /slots
+        List<SesionRepository.FranjaOcupada> ocupadas =
+                sesionRepository.findFranjasActivasByTutorIdAndFechaEntre(tutorId, primerDia, ultimoDia);
+        for (ReglaSemanal regla : reglas.stream().map(ReglaSemanal::de).toList()) {
+            List<Franja> ocurrencias = regla.fechas(primerDia, ultimoDia)
+                    .map(fecha -> new Franja(fecha, regla.inicioEn(fecha), regla.finEn(fecha)))
+                    .toList();
+            huecosLibres(ocurrencias, ocupadas).forEach(hueco -> ventana.add(
+                    disponibilidadMapper.toDisponibilidadResponse(regla, hueco.fecha(), hueco.inicio(), hueco.fin())));
+        }
+        ventana.sort(Comparator.comparing(DisponibilidadResponse::getHoraInicial));
+
+        int total = ventana.size();
+        int desdeIndice = (int) Math.min((long) page * size, total);
+        int hastaIndice = Math.min(desdeIndice + size, total);
+        int totalPaginas = (total + size - 1) / size;
+        return new PagedResponse<>(new ArrayList<>(ventana.subList(desdeIndice, hastaIndice)),
+                page, size, total, totalPaginas, hastaIndice >= total, null);
+    }
 
-        return disponibilidadMapper.toDisponibilidadResponseList(disponibilidades);
+    // Une los bloques de un día que se tocan o se cruzan (p. ej. los restos de partir un bloque al
+    // confirmar sesiones, o bloques cargados uno a continuación del otro). Devuelve cuántas filas
+    // se borraron. La transacción abarca un solo día de un tutor, así que el bloqueo dura poco.
+    @Override
+    @Transactional
+    public int compactarDia(Long tutorId, LocalDate fecha) {
+        List<Disponibilidad> bloques = disponibilidadRepository.findParaCompactar(tutorId, fecha);
+        List<Disponibilidad> borrados = new ArrayList<>();
+        List<Disponibilidad> extendidos = new ArrayList<>();
+        Disponibilidad actual = null;
+        for (Disponibilidad bloque : bloques) {
+            if (actual != null && !bloque.getHoraInicial().isAfter(actual.getHoraFinal())) {
+                if (bloque.getHoraFinal().isAfter(actual.getHoraFinal())) {
+                    actual.setHoraFinal(bloque.getHoraFinal());
+                    if (!extendidos.contains(actual)) {
+                        extendidos.add(actual);
+                    }
+                }
+                borrados.add(bloque);
+            } else {
+                actual = bloque;
+            }
+        }
+        if (borrados.isEmpty()) {
+            return 0;
+        }
+
+        // La restricción de solapamiento se revisa al hacer commit: el orden del flush no importa
+        disponibilidadRepository.deleteAll(borrados);
+        disponibilidadRepository.saveAll(extendidos);
+        for (Disponibilidad borrado : borrados) {
+            disponibilidadBitmapIndex.quitar(borrado.getId());
+            agendaTutorIndex.quitarDisponibilidad(tutorId, borrado.getId());
+        }
+        for (Disponibilidad extendido : extendidos) {
+            disponibilidadBitmapIndex.registrar(extendido);
+            agendaTutorIndex.registrarDisponibilidad(extendido);
+        }
+        // Las horas libres son las mismas: solo cambian las filas (y sus ids) que ve el cliente
+        tutorVersiones.cambioDisponibilidad(tutorId);
+        return borrados.size();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<HorarioLibreResponse> getHorariosLibres(Long tutorId, LocalDate desde, LocalDate hasta, int duracionMinutos) {
+        if (duracionMinutos < MIN_DURACION_MINUTOS || duracionMinutos > MAX_DURACION_MINUTOS) {
+            throw new BadRequestException("La duración debe estar entre " + MIN_DURACION_MINUTOS + " y "
+                    + MAX_DURACION_MINUTOS + " minutos.");
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDate primerDia = desde != null ? desde : ahora.toLocalDate();
+        LocalDate ultimoDia = hasta != null ? hasta : primerDia.plusDays(DIAS_HORARIOS_LIBRES_POR_DEFECTO - 1);
+        if (ultimoDia.isBefore(primerDia)) {
+            throw new BadRequestException("La fecha final no puede ser anterior a la fecha inicial.");
+        }
+        if (primerDia.plusDays(MAX_DIAS_HORARIOS_LIBRES).isBefore(ultimoDia.plusDays(1))) {
+            throw new BadRequestException("Se pueden consultar como máximo " + MAX_DIAS_HORARIOS_LIBRES + " días de horarios.");
+        }
+        if (!tutorRepository.existsById(tutorId)) {
+            throw new ResourceNotFoundException("Tutor no encontrado con ID: " + tutorId);
+        }
+
+        // Bloques sueltos y ocurrencias de reglas del rango, y sesiones activas del mismo rango
+        List<Franja> bloques = new ArrayList<>();
+        disponibilidadRepository.findFranjasIndexablesByTutorIdAndFechaEntre(tutorId, primerDia, ultimoDia)
+                .forEach(d -> bloques.add(new Franja(d.getFecha(), d.getHoraInicial(), d.getHoraFinal())));
+        reglaDisponibilidadRepository.findConDetalleByTutorIdVigentesEntre(tutorId, primerDia, ultimoDia).stream()
+                .map(ReglaSemanal::de)
+                .forEach(regla -> regla.fechas(primerDia, ultimoDia)
+                        .forEach(fecha -> bloques.add(new Franja(fecha, regla.inicioEn(fecha), regla.finEn(fecha)))));
+        bloques.sort(Comparator.comparing(Franja::inicio));
+        List<SesionRepository.FranjaOcupada> ocupadas =
+                sesionRepository.findFranjasActivasByTutorIdAndFechaEntre(tutorId, primerDia, ultimoDia);
+
+        List<HorarioLibreResponse> horarios = new ArrayList<>();
+        long paso = Math.min(duracionMinutos, PASO_MAXIMO_MINUTOS);
+        for (Franja hueco : huecosLibres(bloques, ocupadas)) {
+            for (LocalDateTime inicio = hueco.inicio(); !inicio.plusMinutes(duracionMinutos).isAfter(hueco.fin());
+                 inicio = inicio.plusMinutes(paso)) {
+                if (!inicio.isBefore(ahora)) {
+                    horarios.add(new HorarioLibreResponse(hueco.fecha(), inicio, inicio.plusMinutes(duracionMinutos)));
+                }
+            }
+        }
+        return horarios;
+    }
+
+    // Barrido en orden de inicio: cada bloque menos las sesiones que lo pisan. Los bloques no se unen
+    // aunque sean contiguos, porque reservarTutoria exige que un solo bloque cubra toda la sesión.
+    static List<Franja> huecosLibres(List<Franja> bloques, List<SesionRepository.FranjaOcupada> ocupadas) {
+        List<Franja> huecos = new ArrayList<>();
+        int primeraOcupada = 0;
+        for (Franja bloque : bloques) {
+            // Los bloques no se solapan entre sí, así que lo que terminó antes de este no vuelve a servir
+            while (primeraOcupada < ocupadas.size()
+                    && !ocupadas.get(primeraOcupada).getHoraFinal().isAfter(bloque.inicio())) {
+                primeraOcupada++;
+            }
+            LocalDateTime libreDesde = bloque.inicio();
+            for (int i = primeraOcupada; i < ocupadas.size() && ocupadas.get(i).getHoraInicial().isBefore(bloque.fin()); i++) {
+                SesionRepository.FranjaOcupada ocupada = ocupadas.get(i);
+                if (ocupada.getHoraInicial().isAfter(libreDesde)) {
+                    huecos.add(new Franja(bloque.fecha(), libreDesde, ocupada.getHoraInicial()));
+                }
+                if (ocupada.getHoraFinal().isAfter(libreDesde)) {
+                    libreDesde = ocupada.getHoraFinal();
+                }
+            }
+            if (libreDesde.isBefore(bloque.fin())) {
+                huecos.add(new Franja(bloque.fecha(), libreDesde, bloque.fin()));
+            }
+        }
+        return huecos;
+    }
+
+    record Franja(LocalDate fecha, LocalDateTime inicio, LocalDateTime fin) {
     }
-}
\ No newline at end of file
+}
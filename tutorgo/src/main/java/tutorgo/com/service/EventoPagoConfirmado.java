@@ -0,0 +1,7 @@
+package tutorgo.com.service;
+
+import java.time.LocalDate;
+
+// Carga de TipoEventoSalida.PAGO_CONFIRMADO: solo ids, cada manejador lee lo que necesita
+public record EventoPagoConfirmado(Long pagoId, Long sesionId, Long tutorId, Long estudianteId, LocalDate fecha) {
+}
@@ -0,0 +1,159 @@
+package tutorgo.com.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tutorgo.com.dto.response.PagoResponse;
+import tutorgo.com.exception.BadRequestException;
+import tutorgo.com.model.ClaveIdempotencia;
+import tutorgo.com.repository.ClaveIdempotenciaRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Respuestas de pago por Idempotency-Key. Un LRU acotado con vencimiento responde los reintentos
+// del mismo nodo sin ir a la base; la tabla claves_idempotencia es la copia que ven todos los nodos
+// y se escribe en la misma transacción que el pago, así que existe si y solo si el pago se hizo.
+@Component
+public class IdempotenciaPagos {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotenciaPagos.class);
+    private static final int LARGO_MAXIMO_CLAVE = 255;
+
+    private final ClaveIdempotenciaRepository claveIdempotenciaRepository;
+    private final ObjectMapper objectMapper;
+    private final long ttlHoras;
+    private final LongSupplier reloj;
+    private final LinkedHashMap<Clave, Guardada> guardadas;
+
+    @Autowired
+    public IdempotenciaPagos(ClaveIdempotenciaRepository claveIdempotenciaRepository, ObjectMapper objectMapper,
+                             @Value("${tutorgo.pagos.idempotencia.max-entradas:10000}") int maxEntradas,
+                             @Value("${tutorgo.pagos.idempotencia.ttl-horas:24}") long ttlHoras) {
+        this(claveIdempotenciaRepository, objectMapper, maxEntradas, ttlHoras, System::nanoTime);
+    }
+
+    IdempotenciaPagos(ClaveIdempotenciaRepository claveIdempotenciaRepository, ObjectMapper objectMapper,
+                      int maxEntradas, long ttlHoras, LongSupplier reloj) {
+        this.claveIdempotenciaRepository = claveIdempotenciaRepository;
+        this.objectMapper = objectMapper;
+        this.ttlHoras = ttlHoras;
+        this.reloj = reloj;
+        // En orden de acceso: la primera entrada es siempre la menos usada
+        this.guardadas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Clave, Guardada> masAntigua) {
+                return size() > maxEntradas;
+            }
+        };
+    }
+
+    public static void validarClave(String clave) {
+        if (clave.isBlank() || clave.length() > LARGO_MAXIMO_CLAVE) {
+            throw new BadRequestException("El encabezado Idempotency-Key debe tener entre 1 y " + LARGO_MAXIMO_CLAVE + " caracteres.");
+        }
+    }
+
+    // La respuesta del pago que ya se hizo con esta clave, si hubo uno. La misma clave para otra
+    // sesión es un error del cliente, no un reintento.
+    public Optional<PagoResponse> buscar(String usuarioEmail, String clave, Long sesionId) {
+        Clave id = new Clave(usuarioEmail, clave);
+        Guardada guardada;
+        synchronized (guardadas) {
+            guardada = guardadas.get(id);
+            if (guardada != null && guardada.venceEn - reloj.getAsLong() <= 0) {
+                guardadas.remove(id);
+                guardada = null;
+            }
+        }
+        if (guardada == null) {
+            Optional<ClaveIdempotencia> fila = claveIdempotenciaRepository.findByUsuarioEmailAndClave(usuarioEmail, clave)
+                    .filter(c -> c.getVenceEn().isAfter(LocalDateTime.now()));
+            if (fila.isEmpty()) {
+                return Optional.empty();
+            }
+            // En memoria vale lo que le queda en la base, no un TTL entero más
+            Duration restante = Duration.between(LocalDateTime.now(), fila.get().getVenceEn());
+            guardada = new Guardada(fila.get().getSesionId(), leer(fila.get().getRespuesta()), reloj.getAsLong() + restante.toNanos());
+            recordar(id, guardada);
+        }
+        if (!Objects.equals(guardada.sesionId, sesionId)) {
+            throw new BadRequestException("La clave de idempotencia ya se usó para pagar otra sesión.");
+        }
+        return Optional.of(guardada.respuesta);
+    }
+
+    // Se llama dentro de la transacción del pago. La memoria se actualiza recién con el commit.
+    public void guardar(String usuarioEmail, String clave, Long sesionId, PagoResponse respuesta) {
+        claveIdempotenciaRepository.save(ClaveIdempotencia.builder()
+                .usuarioEmail(usuarioEmail)
+                .clave(clave)
+                .sesionId(sesionId)
+                .respuesta(escribir(respuesta))
+                .venceEn(LocalDateTime.now().plusHours(ttlHoras))
+                .build());
+        Clave id = new Clave(usuarioEmail, clave);
+        Guardada guardada = new Guardada(sesionId, respuesta, reloj.getAsLong() + TimeUnit.HOURS.toNanos(ttlHoras));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recordar(id, guardada);
+                }
+            });
+        } else {
+            recordar(id, guardada);
+        }
+    }
+
+    @Scheduled(initialDelay = 1, fixedDelay = 1, timeUnit = TimeUnit.HOURS)
+    @Transactional
+    public void purgarVencidas() {
+        int borradas = claveIdempotenciaRepository.deleteVencidas(LocalDateTime.now());
+        if (borradas > 0) {
+            log.info("Claves de idempotencia vencidas borradas: {}", borradas);
+        }
+    }
+
+    private void recordar(Clave id, Guardada guardada) {
+        synchronized (guardadas) {
+            guardadas.put(id, guardada);
+        }
+    }
+
+    private String escribir(PagoResponse respuesta) {
+        try {
+            return objectMapper.writeValueAsString(respuesta);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo guardar la respuesta del pago", e);
+        }
+    }
+
+    private PagoResponse leer(String json) {
+        try {
+            return objectMapper.readValue(json, PagoResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo leer la respuesta guardada del pago", e);
+        }
+    }
+
+    private record Clave(String usuarioEmail, String clave) {
+    }
+
+    private record Guardada(Long sesionId, PagoResponse respuesta, long venceEn) {
+    }
+}
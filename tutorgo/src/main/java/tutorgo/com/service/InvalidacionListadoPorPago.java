@@ -0,0 +1,27 @@
+package tutorgo.com.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import tutorgo.com.enums.TipoEventoSalida;
+import tutorgo.com.model.EventoSalida;
+import tutorgo.com.search.TutorListadoCache;
+
+// Confirmar una sesión recorta la disponibilidad del tutor en esa fecha: las páginas de /tutores
+// filtradas por ese día quedan viejas. Mientras tanto se sirven un intervalo de despacho de más.
+@Component
+@RequiredArgsConstructor
+public class InvalidacionListadoPorPago implements ManejadorEventoSalida {
+
+    private final BandejaDeSalida bandejaDeSalida;
+    private final TutorListadoCache tutorListadoCache;
+
+    @Override
+    public TipoEventoSalida tipo() {
+        return TipoEventoSalida.PAGO_CONFIRMADO;
+    }
+
+    @Override
+    public void manejar(EventoSalida evento) {
+        tutorListadoCache.invalidarDisponibilidad(bandejaDeSalida.leer(evento, EventoPagoConfirmado.class).fecha());
+    }
+}
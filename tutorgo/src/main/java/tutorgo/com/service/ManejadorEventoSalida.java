@@ -0,0 +1,17 @@
+package tutorgo.com.service;
+
+import tutorgo.com.enums.TipoEventoSalida;
+import tutorgo.com.model.EventoSalida;
+
+// Un efecto de un evento de la bandeja de salida (notificar, invalidar una caché, ...). Para sumar
+// un efecto nuevo alcanza con otro @Component que implemente esto: el checkout no cambia.
+//
+// Todos los manejadores de un evento corren en la misma transacción, que también borra el evento.
+// Si uno falla se revierte todo y el evento se vuelve a intentar entero más tarde: lo que no
+// queda en esa transacción (p. ej. una caché en memoria) tiene que tolerar repetirse.
+public interface ManejadorEventoSalida {
+
+    TipoEventoSalida tipo();
+
+    void manejar(EventoSalida evento);
+}
@@ -5,6 +5,7 @@ import tutorgo.com.model.Sesion;
 
 public interface NotificacionSenderService {
     void enviarRecordatorioSesion(Sesion sesion);
+    void enviarConfirmacionPago(Sesion sesion);
     // Aquí podrías añadir más métodos en el futuro, como:
     // void enviarNotificacionReserva(Sesion sesion);
     // void enviarNotificacionPago(Pago pago);
@@ -32,6 +32,40 @@ public class NotificacionSenderServiceImpl implements NotificacionSenderService
         enviarRecordatorioATutor(sesion);
     }
 
+    @Override
+    public void enviarConfirmacionPago(Sesion sesion) {
+        if (sesion == null || sesion.getEstudiante() == null || sesion.getTutor() == null) {
+            return;
+        }
+
+        NotificacionEstudiante alEstudiante = new NotificacionEstudiante();
+        alEstudiante.setEstudiante(sesion.getEstudiante());
+        alEstudiante.setTipo(TipoNotificacionEstEnum.PAGO);
+        alEstudiante.setTitulo("✅ Pago recibido");
+        alEstudiante.setTexto(String.format(
+                "Hola %s, recibimos tu pago. Tu sesión de %s con %s del %s quedó confirmada.",
+                sesion.getEstudiante().getUser().getNombre().split(" ")[0],
+                sesion.getTutor().getRubro(),
+                sesion.getTutor().getUser().getNombre(),
+                sesion.getHoraInicial().format(FORMATTER)
+        ));
+        notificacionEstudianteRepository.save(alEstudiante);
+
+        // El enum de la base para tutores no tiene PAGO: para el tutor es la confirmación de la clase
+        NotificacionTutor alTutor = new NotificacionTutor();
+        alTutor.setTutor(sesion.getTutor());
+        alTutor.setTipo(TipoNotificacionTutorEnum.CONFIRMACION);
+        alTutor.setTitulo("📅 Nueva clase confirmada");
+        alTutor.setTexto(String.format(
+                "Hola %s, %s pagó su clase de %s del %s.",
+                sesion.getTutor().getUser().getNombre().split(" ")[0],
+                sesion.getEstudiante().getUser().getNombre(),
+                sesion.getTutor().getRubro(),
+                sesion.getHoraInicial().format(FORMATTER)
+        ));
+        notificacionTutorRepository.save(alTutor);
+    }
+
     private void enviarRecordatorioAEstudiante(Sesion sesion) {
         Estudiante estudiante = sesion.getEstudiante();
         String titulo = "⏰ Recordatorio de tu tutoría";
@@ -0,0 +1,29 @@
+package tutorgo.com.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import tutorgo.com.enums.TipoEventoSalida;
+import tutorgo.com.model.EventoSalida;
+import tutorgo.com.repository.SesionRepository;
+
+// Avisa al alumno y al tutor que la sesión quedó pagada y confirmada
+@Component
+@RequiredArgsConstructor
+public class NotificacionesDePago implements ManejadorEventoSalida {
+
+    private final BandejaDeSalida bandejaDeSalida;
+    private final SesionRepository sesionRepository;
+    private final NotificacionSenderService notificacionSenderService;
+
+    @Override
+    public TipoEventoSalida tipo() {
+        return TipoEventoSalida.PAGO_CONFIRMADO;
+    }
+
+    @Override
+    public void manejar(EventoSalida evento) {
+        EventoPagoConfirmado pago = bandejaDeSalida.leer(evento, EventoPagoConfirmado.class);
+        // Si la sesión ya no existe no hay a quién avisar; el evento se da por hecho igual
+        sesionRepository.findById(pago.sesionId()).ifPresent(notificacionSenderService::enviarConfirmacionPago);
+    }
+}
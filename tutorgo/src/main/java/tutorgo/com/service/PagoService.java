@@ -1,14 +1,32 @@
 package tutorgo.com.service;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.data.domain.Pageable; // Importar
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import tutorgo.com.dto.request.ConfirmarPagoRequest;
+import tutorgo.com.dto.response.IngresosResponse;
 import tutorgo.com.dto.response.PagedResponse; // Importar
 import tutorgo.com.dto.response.PagoResponse;
+import tutorgo.com.enums.FormatoExportacion;
 
 public interface PagoService {
     PagoResponse procesarPagoYConfirmarSesion(String alumnoEmail, ConfirmarPagoRequest request);
 
+    // Con Idempotency-Key: un reintento con la misma clave devuelve la respuesta del pago ya hecho
+    PagoResponse procesarPagoYConfirmarSesion(String alumnoEmail, ConfirmarPagoRequest request, String idempotencyKey);
+
     List<PagoResponse> obtenerHistorialTransacciones(String userEmail);
+
+    // Del más nuevo al más viejo, de a size pagos; cursor es el nextCursor de la página anterior
+    PagedResponse<PagoResponse> obtenerHistorialPaginado(String userEmail, String cursor, int size);
+
+    // El historial entero, escrito a medida que se lee de la base (memoria constante)
+    StreamingResponseBody exportarHistorial(String userEmail, FormatoExportacion formato);
+
+    // Del libro diario de ingresos: una fila por día, no por pago
+    IngresosResponse obtenerIngresosDelTutor(String tutorEmail, LocalDate desde, LocalDate hasta);
+
+    IngresosResponse obtenerIngresosDePlataforma(LocalDate desde, LocalDate hasta);
 }
\ No newline at end of file
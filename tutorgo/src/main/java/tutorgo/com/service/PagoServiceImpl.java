@@ -1,30 +1,55 @@
 package tutorgo.com.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import tutorgo.com.dto.request.ConfirmarPagoRequest;
+import tutorgo.com.dto.response.IngresoDiarioResponse;
+import tutorgo.com.dto.response.IngresosResponse;
 import tutorgo.com.dto.response.PagedResponse;
 import tutorgo.com.dto.response.PagoResponse;
 import tutorgo.com.enums.EstadoPagoEnum;
 import tutorgo.com.enums.EstadoSesionEnum;
+import tutorgo.com.enums.FormatoExportacion;
 import tutorgo.com.enums.RoleName;
+import tutorgo.com.enums.TipoEventoSalida;
 import tutorgo.com.exception.BadRequestException;
 import tutorgo.com.exception.ForbiddenException;
 import tutorgo.com.exception.ResourceNotFoundException;
 import tutorgo.com.mapper.PagoMapper;
 import tutorgo.com.model.*;
 import tutorgo.com.repository.*;
+import tutorgo.com.search.AgendaTutorIndex;
+import tutorgo.com.search.DisponibilidadBitmapIndex;
+import tutorgo.com.search.TutorVersiones;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 @Service
@@ -38,28 +63,74 @@ public class PagoServiceImpl implements PagoService {
     private final PagoRepository pagoRepository;
     private final DisponibilidadRepository disponibilidadRepository;
     private final PagoMapper pagoMapper;
+    private final DisponibilidadBitmapIndex disponibilidadBitmapIndex;
+    private final AgendaTutorIndex agendaTutorIndex;
+    private final TutorVersiones tutorVersiones;
+    private final IdempotenciaPagos idempotenciaPagos;
+    private final ReintentoOptimista reintentoOptimista;
+    private final BandejaDeSalida bandejaDeSalida;
+    private final IngresoDiarioTutorRepository ingresoDiarioTutorRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
 
     private static final BigDecimal PORCENTAJE_COMISION_PLATAFORMA = new BigDecimal("0.10");
+    private static final String RESERVA_VENCIDA = "La reserva de este horario venció. Vuelve a reservar la tutoría.";
+    private static final int DIAS_INGRESOS_POR_DEFECTO = 30;
+    private static final int MAX_DIAS_INGRESOS = 366;
+    private static final int MAX_TAMANO_PAGINA_HISTORIAL = 100;
+    private static final String CURSOR_HISTORIAL = "p1|";
 
     @Override
-    @Transactional
     public PagoResponse procesarPagoYConfirmarSesion(String alumnoEmail, ConfirmarPagoRequest request) {
+        return procesarPagoYConfirmarSesion(alumnoEmail, request, null);
+    }
+
+    // Sin @Transactional: cada intento corre en su propia transacción. Si el bloque de disponibilidad
+    // cambió mientras se recortaba, el pago entero se revierte y se vuelve a hacer sobre el bloque nuevo.
+    @Override
+    public PagoResponse procesarPagoYConfirmarSesion(String alumnoEmail, ConfirmarPagoRequest request, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return reintentoOptimista.ejecutar("pago.confirmar", () -> procesarPago(alumnoEmail, request, null));
+        }
+        IdempotenciaPagos.validarClave(idempotencyKey);
+        // Un reintento de un pago ya hecho no lee ni escribe sesiones, pagos ni disponibilidades
+        return reintentoOptimista.ejecutar("pago.confirmar", () -> idempotenciaPagos.buscar(alumnoEmail, idempotencyKey, request.getSesionId())
+                .orElseGet(() -> procesarPago(alumnoEmail, request, idempotencyKey)));
+    }
+
+    private PagoResponse procesarPago(String alumnoEmail, ConfirmarPagoRequest request, String idempotencyKey) {
         // ... (implementación existente de procesarPagoYConfirmarSesion)
         User userAlumno = userRepository.findByEmail(alumnoEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario alumno no encontrado: " + alumnoEmail));
         Estudiante alumno = estudianteRepository.findByUser(userAlumno)
                 .orElseThrow(() -> new ResourceNotFoundException("Perfil de estudiante no encontrado para el usuario: " + alumnoEmail));
 
-        Sesion sesion = sesionRepository.findById(request.getSesionId())
+        // Con la fila bloqueada: la liberación de reservas vencidas no puede marcarla VENCIDO a mitad del pago
+        Sesion sesion = sesionRepository.findByIdParaConfirmar(request.getSesionId())
                 .orElseThrow(() -> new ResourceNotFoundException("Sesión no encontrada con ID: " + request.getSesionId()));
 
         if (!Objects.equals(sesion.getEstudiante().getId(), alumno.getId())) {
             throw new ForbiddenException("No tienes permiso para pagar esta sesión.");
         }
 
+        // Ya liberada por LiberacionReservasScheduler; la que venció y todavía no se liberó se ve abajo
+        if (sesion.getTipoEstado() == EstadoSesionEnum.VENCIDO) {
+            throw new BadRequestException(RESERVA_VENCIDA);
+        }
         if (sesion.getTipoEstado() != EstadoSesionEnum.PENDIENTE) {
+            // Un reintento que llegó mientras el pago original todavía no terminaba: esperó el bloqueo
+            // de la sesión y ahora la clave ya está guardada
+            if (idempotencyKey != null) {
+                Optional<PagoResponse> anterior = idempotenciaPagos.buscar(alumnoEmail, idempotencyKey, sesion.getId());
+                if (anterior.isPresent()) {
+                    return anterior.get();
+                }
+            }
             throw new BadRequestException("Esta sesión no está pendiente de pago o ya ha sido procesada.");
         }
+        if (sesion.getReservadaHasta() != null && sesion.getReservadaHasta().isBefore(LocalDateTime.now())) {
+            throw new BadRequestException(RESERVA_VENCIDA);
+        }
 
         Tutor tutor = sesion.getTutor();
         if (tutor == null) {
@@ -84,15 +155,27 @@ public class PagoServiceImpl implements PagoService {
         Pago pagoGuardado = pagoRepository.save(pago);
 
         sesion.setTipoEstado(EstadoSesionEnum.CONFIRMADO);
+        sesion.setReservadaHasta(null);
         sesionRepository.save(sesion);
 
         ajustarDisponibilidadDelTutor(sesion);
 
+        // Al final a propósito: la fila del tutor y el día queda bloqueada hasta el commit y otros
+        // pagos del mismo tutor esperan en ella
+        ingresoDiarioTutorRepository.sumarPago(tutor.getId(), LocalDate.now(), montoTotal, comision);
+
+        // Avisos y cachés se hacen después, desde la bandeja de salida: acá solo cuesta un INSERT
+        bandejaDeSalida.registrar(TipoEventoSalida.PAGO_CONFIRMADO, new EventoPagoConfirmado(
+                pagoGuardado.getId(), sesion.getId(), tutor.getId(), alumno.getId(), sesion.getFecha()));
+
         PagoResponse pagoDto = pagoMapper.toPagoResponse(pagoGuardado);
         // Añadir sesionId al DTO si es necesario
         if (pagoDto != null) { // pagoMapper puede devolver null si pagoGuardado es null
             pagoDto.setSesionId(sesion.getId());
         }
+        if (idempotencyKey != null) {
+            idempotenciaPagos.guardar(alumnoEmail, idempotencyKey, sesion.getId(), pagoDto);
+        }
         return pagoDto;
     }
 
@@ -102,36 +185,61 @@ public class PagoServiceImpl implements PagoService {
         LocalDateTime inicioSesion = sesionConfirmada.getHoraInicial();
         LocalDateTime finSesion = sesionConfirmada.getHoraFinal();
 
-        List<Disponibilidad> disponibilidadesOriginales = disponibilidadRepository
-                .findDisponibilidadQueEnvuelveElSlot(
+        List<Long> disponibilidadesOriginales = agendaTutorIndex
+                .disponibilidadesQueEnvuelven(
                         tutor.getId(),
                         sesionConfirmada.getFecha(),
                         inicioSesion,
                         finSesion);
 
-        if (disponibilidadesOriginales.isEmpty()) {
+        // Bloqueado y leído de nuevo: otro pago del mismo bloque pudo recortarlo desde que se consultó la
+        // agenda. Si ya no envuelve la sesión, el intento se repite (ReintentoOptimista) con la agenda al día.
+        Disponibilidad dispOriginal = null;
+        if (!disponibilidadesOriginales.isEmpty()) {
+            dispOriginal = disponibilidadRepository.findByIdParaAjustar(disponibilidadesOriginales.get(0))
+                    .filter(disp -> !disp.getHoraInicial().isAfter(inicioSesion) && !disp.getHoraFinal().isBefore(finSesion))
+                    .orElseThrow(() -> new OptimisticLockingFailureException(
+                            "El bloque de disponibilidad " + disponibilidadesOriginales.get(0) + " cambió durante el pago"));
+        }
+        if (dispOriginal == null && !agendaTutorIndex.reglasQueEnvuelven(
+                tutor.getId(), sesionConfirmada.getFecha(), inicioSesion, finSesion).isEmpty()) {
+            // La ocurrencia de una regla semanal no tiene fila que recortar: la sesión ya ocupa ese
+            // horario en la agenda del tutor y ya se descuenta de su disponibilidad desde la reserva
+            return;
+        }
+        if (dispOriginal == null) {
             System.err.println("ADVERTENCIA: No se encontró la disponibilidad original para la sesión ID: " + sesionConfirmada.getId() +
                     ". No se pudo ajustar la disponibilidad del tutor.");
             return;
         }
 
-        Disponibilidad dispOriginal = disponibilidadesOriginales.get(0);
+        // El listado de /tutores lo invalida InvalidacionListadoPorPago; la versión del tutor (ETag)
+        // se cambia ya para que el alumno vea su reserva al volver a pedir la agenda
+        tutorVersiones.cambioDisponibilidad(tutor.getId());
 
         if (dispOriginal.getHoraInicial().equals(inicioSesion) && dispOriginal.getHoraFinal().equals(finSesion)) {
             disponibilidadRepository.delete(dispOriginal);
+            disponibilidadBitmapIndex.quitar(dispOriginal.getId());
+            agendaTutorIndex.quitarDisponibilidad(tutor.getId(), dispOriginal.getId());
         }
         else if (dispOriginal.getHoraInicial().equals(inicioSesion) && finSesion.isBefore(dispOriginal.getHoraFinal())) {
             dispOriginal.setHoraInicial(finSesion);
             disponibilidadRepository.save(dispOriginal);
+            disponibilidadBitmapIndex.registrar(dispOriginal);
+            agendaTutorIndex.registrarDisponibilidad(dispOriginal);
         }
         else if (inicioSesion.isAfter(dispOriginal.getHoraInicial()) && dispOriginal.getHoraFinal().equals(finSesion)) {
             dispOriginal.setHoraFinal(inicioSesion);
             disponibilidadRepository.save(dispOriginal);
+            disponibilidadBitmapIndex.registrar(dispOriginal);
+            agendaTutorIndex.registrarDisponibilidad(dispOriginal);
         }
         else if (inicioSesion.isAfter(dispOriginal.getHoraInicial()) && finSesion.isBefore(dispOriginal.getHoraFinal())) {
             LocalDateTime finOriginal = dispOriginal.getHoraFinal();
             dispOriginal.setHoraFinal(inicioSesion);
             disponibilidadRepository.save(dispOriginal);
+            disponibilidadBitmapIndex.registrar(dispOriginal);
+            agendaTutorIndex.registrarDisponibilidad(dispOriginal);
 
             Disponibilidad nuevaDispDespues = new Disponibilidad();
             nuevaDispDespues.setTutor(tutor);
@@ -139,6 +247,8 @@ public class PagoServiceImpl implements PagoService {
             nuevaDispDespues.setHoraInicial(finSesion);
             nuevaDispDespues.setHoraFinal(finOriginal);
             disponibilidadRepository.save(nuevaDispDespues);
+            disponibilidadBitmapIndex.registrar(nuevaDispDespues);
+            agendaTutorIndex.registrarDisponibilidad(nuevaDispDespues);
         } else {
             System.err.println("ADVERTENCIA: Lógica de ajuste de disponibilidad no cubre el caso para sesión ID: " + sesionConfirmada.getId() +
                     " y disponibilidad ID: " + dispOriginal.getId());
@@ -147,16 +257,181 @@ public class PagoServiceImpl implements PagoService {
 
     @Override
     public List<PagoResponse> obtenerHistorialTransacciones(String userEmail) {
-        return userRepository.findByEmail(userEmail).map(u -> {
-            if (u.getStudentProfile() != null) {
-                return pagoRepository.findByEstudianteIdWithDetails(u.getStudentProfile().getId())
-                        .stream().map(pagoMapper::toPagoResponse).collect(Collectors.toList());
-            } else if (u.getTutorProfile() != null) {
-                return pagoRepository.findByTutorIdWithDetails(u.getTutorProfile().getId())
-                        .stream().map(pagoMapper::toPagoResponse).collect(Collectors.toList());
+        TitularHistorial titular = titularDelHistorial(userEmail);
+        List<Pago> pagos = titular.esTutor()
+                ? pagoRepository.findByTutorIdWithDetails(titular.tutorId())
+                : pagoRepository.findByEstudianteIdWithDetails(titular.estudianteId());
+        return pagos.stream().map(pagoMapper::toPagoResponse).collect(Collectors.toList());
+    }
+
+    // Página por keyset sobre id descendente: WHERE id < cursor ORDER BY id DESC LIMIT size + 1, sin
+    // OFFSET. La fila extra solo indica si hay más. No se cuenta el total (totalElements y totalPages
+    // valen -1): contarlo es recorrer todo el historial, justo lo que la página evita.
+    @Override
+    @Transactional(readOnly = true)
+    public PagedResponse<PagoResponse> obtenerHistorialPaginado(String userEmail, String cursor, int size) {
+        if (size < 1 || size > MAX_TAMANO_PAGINA_HISTORIAL) {
+            throw new BadRequestException("El tamaño de página debe estar entre 1 y " + MAX_TAMANO_PAGINA_HISTORIAL + ".");
+        }
+        long antesDeId = StringUtils.hasText(cursor) ? decodificarCursor(cursor) : Long.MAX_VALUE;
+        TitularHistorial titular = titularDelHistorial(userEmail);
+        Pageable limite = PageRequest.of(0, size + 1);
+        List<PagoRepository.FilaHistorial> filas = titular.esTutor()
+                ? pagoRepository.findHistorialDelTutor(titular.tutorId(), antesDeId, limite)
+                : pagoRepository.findHistorialDelEstudiante(titular.estudianteId(), antesDeId, limite);
+
+        boolean hayMas = filas.size() > size;
+        List<PagoRepository.FilaHistorial> contenido = hayMas ? filas.subList(0, size) : filas;
+        String siguiente = hayMas ? codificarCursor(contenido.get(size - 1).getId()) : null;
+        return new PagedResponse<>(contenido.stream().map(pagoMapper::toPagoResponse).toList(),
+                -1, size, -1, -1, !hayMas, siguiente);
+    }
+
+    // El titular se resuelve ya, en el hilo del request: un 403 sale antes de empezar a escribir. Las
+    // filas se leen después, mientras se escribe la respuesta, en una transacción de solo lectura que
+    // dura lo que la descarga.
+    @Override
+    public StreamingResponseBody exportarHistorial(String userEmail, FormatoExportacion formato) {
+        TitularHistorial titular = titularDelHistorial(userEmail);
+        return salida -> {
+            TransactionTemplate lectura = new TransactionTemplate(transactionManager);
+            lectura.setReadOnly(true);
+            lectura.executeWithoutResult(estado -> {
+                try (Stream<PagoRepository.FilaHistorial> filas = titular.esTutor()
+                        ? pagoRepository.streamHistorialDelTutor(titular.tutorId())
+                        : pagoRepository.streamHistorialDelEstudiante(titular.estudianteId())) {
+                    Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+                    if (formato == FormatoExportacion.CSV) {
+                        escribirCsv(filas, escritor);
+                    } else {
+                        escribirNdjson(filas, escritor);
+                    }
+                    escritor.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+    }
+
+    private void escribirCsv(Stream<PagoRepository.FilaHistorial> filas, Writer escritor) throws IOException {
+        escritor.write("id,tutorId,nombreTutor,estudianteId,nombreEstudiante,monto,comisionPlataforma,metodoPago,tipoEstado\n");
+        for (Iterator<PagoRepository.FilaHistorial> it = filas.iterator(); it.hasNext(); ) {
+            PagoRepository.FilaHistorial fila = it.next();
+            escritor.write(String.join(",",
+                    String.valueOf(fila.getId()),
+                    String.valueOf(fila.getTutorId()),
+                    campoCsv(fila.getNombreTutor()),
+                    String.valueOf(fila.getEstudianteId()),
+                    campoCsv(fila.getNombreEstudiante()),
+                    fila.getMonto().toPlainString(),
+                    fila.getComisionPlataforma().toPlainString(),
+                    fila.getMetodoPago().name(),
+                    fila.getTipoEstado().name()));
+            escritor.write('\n');
+        }
+    }
+
+    // Un objeto PagoResponse por línea, el mismo JSON que devuelve /pagos/historial
+    private void escribirNdjson(Stream<PagoRepository.FilaHistorial> filas, Writer escritor) throws IOException {
+        for (Iterator<PagoRepository.FilaHistorial> it = filas.iterator(); it.hasNext(); ) {
+            escritor.write(objectMapper.writeValueAsString(pagoMapper.toPagoResponse(it.next())));
+            escritor.write('\n');
+        }
+    }
+
+    // RFC 4180: entre comillas si trae coma, comillas o salto de línea; las comillas se duplican
+    private static String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    // El historial es del perfil de estudiante o del de tutor del usuario (uno de los dos)
+    private record TitularHistorial(Long tutorId, Long estudianteId) {
+        boolean esTutor() {
+            return tutorId != null;
+        }
+    }
+
+    private TitularHistorial titularDelHistorial(String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado: " + userEmail));
+        if (user.getStudentProfile() != null) {
+            return new TitularHistorial(null, user.getStudentProfile().getId());
+        }
+        if (user.getTutorProfile() != null) {
+            return new TitularHistorial(user.getTutorProfile().getId(), null);
+        }
+        throw new ForbiddenException("Usuario no tiene rol válido");
+    }
+
+    // El cursor es el id del último pago entregado, en Base64 URL para que el cliente no lo arme
+    private static String codificarCursor(Long ultimoId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_HISTORIAL + ultimoId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodificarCursor(String cursor) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!texto.startsWith(CURSOR_HISTORIAL)) {
+                throw new IllegalArgumentException(texto);
             }
-            return List.<PagoResponse>of();
-        }).orElse(List.of());
+            return Long.parseLong(texto.substring(CURSOR_HISTORIAL.length()));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("El cursor de paginación no es válido.");
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public IngresosResponse obtenerIngresosDelTutor(String tutorEmail, LocalDate desde, LocalDate hasta) {
+        Tutor tutor = tutorRepository.findByUserEmail(tutorEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("Perfil de tutor no encontrado para el usuario: " + tutorEmail));
+        LocalDate ultimoDia = hasta != null ? hasta : LocalDate.now();
+        LocalDate primerDia = desde != null ? desde : ultimoDia.minusDays(DIAS_INGRESOS_POR_DEFECTO - 1);
+        validarRangoDeIngresos(primerDia, ultimoDia);
+        return toIngresosResponse(primerDia, ultimoDia,
+                ingresoDiarioTutorRepository.findDiasByTutorIdEntre(tutor.getId(), primerDia, ultimoDia));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public IngresosResponse obtenerIngresosDePlataforma(LocalDate desde, LocalDate hasta) {
+        LocalDate ultimoDia = hasta != null ? hasta : LocalDate.now();
+        LocalDate primerDia = desde != null ? desde : ultimoDia.minusDays(DIAS_INGRESOS_POR_DEFECTO - 1);
+        validarRangoDeIngresos(primerDia, ultimoDia);
+        return toIngresosResponse(primerDia, ultimoDia,
+                ingresoDiarioTutorRepository.findDiasDePlataformaEntre(primerDia, ultimoDia));
     }
 
-}
\ No newline at end of file
+    private void validarRangoDeIngresos(LocalDate primerDia, LocalDate ultimoDia) {
+        if (ultimoDia.isBefore(primerDia)) {
+            throw new BadRequestException("La fecha final no puede ser anterior a la fecha inicial.");
+        }
+        if (primerDia.plusDays(MAX_DIAS_INGRESOS).isBefore(ultimoDia.plusDays(1))) {
+            throw new BadRequestException("Se pueden consultar como máximo " + MAX_DIAS_INGRESOS + " días de ingresos.");
+        }
+    }
+
+    private IngresosResponse toIngresosResponse(LocalDate desde, LocalDate hasta,
+                                                List<IngresoDiarioTutorRepository.IngresoDelDia> filas) {
+        BigDecimal montoBruto = BigDecimal.ZERO;
+        BigDecimal comision = BigDecimal.ZERO;
+        long cantidadPagos = 0;
+        List<IngresoDiarioResponse> dias = new ArrayList<>(filas.size());
+        for (IngresoDiarioTutorRepository.IngresoDelDia fila : filas) {
+            montoBruto = montoBruto.add(fila.getMontoBruto());
+            comision = comision.add(fila.getComisionPlataforma());
+            cantidadPagos += fila.getCantidadPagos();
+            dias.add(new IngresoDiarioResponse(fila.getFecha(), fila.getMontoBruto(), fila.getComisionPlataforma(),
+                    fila.getMontoBruto().subtract(fila.getComisionPlataforma()), fila.getCantidadPagos()));
+        }
+        return new IngresosResponse(desde, hasta, montoBruto, comision, montoBruto.subtract(comision), cantidadPagos, dias);
+    }
+}
@@ -0,0 +1,15 @@
+package tutorgo.com.service;
+
+import tutorgo.com.dto.request.ReglaDisponibilidadRequest;
+import tutorgo.com.dto.response.ReglaDisponibilidadResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ReglaDisponibilidadService {
+    ReglaDisponibilidadResponse crearRegla(String tutorEmail, ReglaDisponibilidadRequest request);
+    List<ReglaDisponibilidadResponse> getReglasByTutor(String tutorEmail);
+    void deleteRegla(String tutorEmail, Long reglaId);
+    ReglaDisponibilidadResponse agregarExcepcion(String tutorEmail, Long reglaId, LocalDate fecha);
+    ReglaDisponibilidadResponse quitarExcepcion(String tutorEmail, Long reglaId, LocalDate fecha);
+}
@@ -0,0 +1,189 @@
+package tutorgo.com.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tutorgo.com.dto.request.ReglaDisponibilidadRequest;
+import tutorgo.com.dto.response.ReglaDisponibilidadResponse;
+import tutorgo.com.exception.BadRequestException;
+import tutorgo.com.exception.ForbiddenException;
+import tutorgo.com.exception.ResourceNotFoundException;
+import tutorgo.com.mapper.ReglaDisponibilidadMapper;
+import tutorgo.com.model.ReglaDisponibilidad;
+import tutorgo.com.model.Tutor;
+import tutorgo.com.model.User;
+import tutorgo.com.repository.ReglaDisponibilidadRepository;
+import tutorgo.com.repository.TutorRepository;
+import tutorgo.com.repository.UserRepository;
+import tutorgo.com.search.AgendaTutorIndex;
+import tutorgo.com.search.DisponibilidadBitmapIndex;
+import tutorgo.com.search.ReglaSemanal;
+import tutorgo.com.search.TutorListadoCache;
+import tutorgo.com.search.TutorVersiones;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ReglaDisponibilidadServiceImpl implements ReglaDisponibilidadService {
+
+    // Las ocurrencias se recorren fecha por fecha al validar y al leer: el rango de una regla se acota
+    private static final int MAX_DIAS_POR_REGLA = 366;
+
+    private final UserRepository userRepository;
+    private final TutorRepository tutorRepository;
+    private final ReglaDisponibilidadRepository reglaDisponibilidadRepository;
+    private final ReglaDisponibilidadMapper reglaDisponibilidadMapper;
+    private final DisponibilidadBitmapIndex disponibilidadBitmapIndex;
+    private final AgendaTutorIndex agendaTutorIndex;
+    private final TutorListadoCache tutorListadoCache;
+    private final TutorVersiones tutorVersiones;
+
+    @Override
+    @Transactional
+    public ReglaDisponibilidadResponse crearRegla(String tutorEmail, ReglaDisponibilidadRequest request) {
+        Tutor tutor = tutorAutenticado(tutorEmail);
+
+        if (!request.getHoraFinal().isAfter(request.getHoraInicio())) {
+            throw new BadRequestException("La hora de finalización debe ser posterior a la hora de inicio.");
+        }
+        if (request.getFechaFin().isBefore(request.getFechaInicio())) {
+            throw new BadRequestException("La fecha de fin no puede ser anterior a la fecha de inicio.");
+        }
+        if (request.getFechaInicio().plusDays(MAX_DIAS_POR_REGLA).isBefore(request.getFechaFin())) {
+            throw new BadRequestException("Una regla puede abarcar como máximo " + MAX_DIAS_POR_REGLA + " días.");
+        }
+
+        ReglaDisponibilidad regla = ReglaDisponibilidad.builder()
+                .tutor(tutor)
+                .diasSemana(new HashSet<>(request.getDiasSemana()))
+                .horaInicio(request.getHoraInicio())
+                .horaFinal(request.getHoraFinal())
+                .fechaInicio(request.getFechaInicio())
+                .fechaFin(request.getFechaFin())
+                .build();
+        if (request.getExcepciones() != null) {
+            // Las fechas fuera del rango no cambian nada: no se guardan
+            regla.setExcepciones(request.getExcepciones().stream()
+                    .filter(fecha -> fecha != null && !fecha.isBefore(regla.getFechaInicio()) && !fecha.isAfter(regla.getFechaFin()))
+                    .collect(Collectors.toCollection(HashSet::new)));
+        }
+
+        ReglaSemanal nueva = ReglaSemanal.de(regla);
+        if (nueva.fechas().findAny().isEmpty()) {
+            throw new BadRequestException("La regla no tiene ninguna fecha dentro del rango indicado.");
+        }
+        // Mismo criterio que un bloque suelto, pero contra todas las ocurrencias a la vez
+        if (!agendaTutorIndex.disponibilidadesSolapadas(nueva).isEmpty() || !agendaTutorIndex.reglasSolapadas(nueva).isEmpty()) {
+            throw new BadRequestException("La regla se solapa con una disponibilidad existente.");
+        }
+
+        ReglaDisponibilidad guardada = reglaDisponibilidadRepository.save(regla);
+        registrarCambio(guardada);
+        tutorListadoCache.invalidarDisponibilidad(guardada.getFechaInicio(), guardada.getFechaFin());
+        return reglaDisponibilidadMapper.toReglaDisponibilidadResponse(guardada);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ReglaDisponibilidadResponse> getReglasByTutor(String tutorEmail) {
+        Tutor tutor = tutorAutenticado(tutorEmail);
+        return reglaDisponibilidadMapper.toReglaDisponibilidadResponseList(
+                reglaDisponibilidadRepository.findConDetalleByTutorId(tutor.getId()));
+    }
+
+    @Override
+    @Transactional
+    public void deleteRegla(String tutorEmail, Long reglaId) {
+        Tutor tutor = tutorAutenticado(tutorEmail);
+        ReglaDisponibilidad regla = reglaDelTutor(tutor, reglaId, "eliminar");
+
+        // Como con los bloques sueltos, no se quita disponibilidad con sesiones encima. Las
+        // ocurrencias que ya pasaron no se miran: si no, una regla con una sola clase dada no se
+        // podría borrar nunca.
+        if (!agendaTutorIndex.sesionesSolapadas(ReglaSemanal.de(regla), LocalDate.now()).isEmpty()) {
+            throw new BadRequestException("No se puede eliminar la regla porque ya tiene sesiones reservadas o confirmadas en sus horarios.");
+        }
+
+        reglaDisponibilidadRepository.delete(regla);
+        disponibilidadBitmapIndex.quitarRegla(regla.getId());
+        agendaTutorIndex.quitarRegla(tutor.getId(), regla.getId());
+        tutorListadoCache.invalidarDisponibilidad(regla.getFechaInicio(), regla.getFechaFin());
+        tutorVersiones.cambioDisponibilidad(tutor.getId());
+    }
+
+    @Override
+    @Transactional
+    public ReglaDisponibilidadResponse agregarExcepcion(String tutorEmail, Long reglaId, LocalDate fecha) {
+        Tutor tutor = tutorAutenticado(tutorEmail);
+        ReglaDisponibilidad regla = reglaDelTutor(tutor, reglaId, "modificar");
+        if (regla.getExcepciones().contains(fecha)) {
+            return reglaDisponibilidadMapper.toReglaDisponibilidadResponse(regla);
+        }
+
+        ReglaSemanal actual = ReglaSemanal.de(regla);
+        if (!actual.ocurreEn(fecha)) {
+            throw new BadRequestException("La regla no tiene disponibilidad en la fecha " + fecha + ".");
+        }
+        if (!agendaTutorIndex.sesionesSolapadas(tutor.getId(), fecha, actual.inicioEn(fecha), actual.finEn(fecha)).isEmpty()) {
+            throw new BadRequestException("No se puede quitar esa fecha porque ya tiene sesiones reservadas o confirmadas en este horario.");
+        }
+
+        regla.getExcepciones().add(fecha);
+        ReglaDisponibilidad guardada = reglaDisponibilidadRepository.save(regla);
+        registrarCambio(guardada);
+        tutorListadoCache.invalidarDisponibilidad(fecha);
+        return reglaDisponibilidadMapper.toReglaDisponibilidadResponse(guardada);
+    }
+
+    @Override
+    @Transactional
+    public ReglaDisponibilidadResponse quitarExcepcion(String tutorEmail, Long reglaId, LocalDate fecha) {
+        Tutor tutor = tutorAutenticado(tutorEmail);
+        ReglaDisponibilidad regla = reglaDelTutor(tutor, reglaId, "modificar");
+        if (!regla.getExcepciones().contains(fecha)) {
+            return reglaDisponibilidadMapper.toReglaDisponibilidadResponse(regla);
+        }
+
+        // La fecha vuelve a tener disponibilidad: no puede pisar lo que el tutor cargó entretanto
+        LocalDateTime inicio = LocalDateTime.of(fecha, regla.getHoraInicio());
+        LocalDateTime fin = LocalDateTime.of(fecha, regla.getHoraFinal());
+        if (!agendaTutorIndex.disponibilidadesSolapadas(tutor.getId(), fecha, inicio, fin, null).isEmpty()
+                || !agendaTutorIndex.reglasSolapadas(tutor.getId(), fecha, inicio, fin, regla.getId()).isEmpty()) {
+            throw new BadRequestException("Esa fecha se solapa con otra disponibilidad existente.");
+        }
+
+        regla.getExcepciones().remove(fecha);
+        ReglaDisponibilidad guardada = reglaDisponibilidadRepository.save(regla);
+        registrarCambio(guardada);
+        tutorListadoCache.invalidarDisponibilidad(fecha);
+        return reglaDisponibilidadMapper.toReglaDisponibilidadResponse(guardada);
+    }
+
+    private void registrarCambio(ReglaDisponibilidad regla) {
+        disponibilidadBitmapIndex.registrarRegla(regla);
+        agendaTutorIndex.registrarRegla(regla);
+        tutorVersiones.cambioDisponibilidad(regla.getTutor().getId());
+    }
+
+    private ReglaDisponibilidad reglaDelTutor(Tutor tutor, Long reglaId, String accion) {
+        ReglaDisponibilidad regla = reglaDisponibilidadRepository.findConDetalleById(reglaId)
+                .orElseThrow(() -> new ResourceNotFoundException("Regla de disponibilidad no encontrada con ID: " + reglaId));
+        if (!Objects.equals(regla.getTutor().getId(), tutor.getId())) {
+            throw new ForbiddenException("No tienes permiso para " + accion + " esta regla de disponibilidad.");
+        }
+        return regla;
+    }
+
+    private Tutor tutorAutenticado(String tutorEmail) {
+        User userTutor = userRepository.findByEmail(tutorEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario tutor no encontrado: " + tutorEmail));
+        return tutorRepository.findByUser(userTutor)
+                .orElseThrow(() -> new ResourceNotFoundException("Perfil de tutor no encontrado para el usuario: " + tutorEmail));
+    }
+}
@@ -0,0 +1,120 @@
+package tutorgo.com.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Sesion y Disponibilidad tienen @Version: dos escrituras sobre la misma fila ya no se pisan, la
+// segunda falla al hacer commit. Acá se reintenta la operación entera en una transacción nueva
+// (vuelve a leer y a validar contra lo que guardó la otra), con esperas crecientes y un tope de
+// intentos. Solo para métodos que se pueden repetir sin efectos de más: todo lo que hacen queda
+// dentro de la transacción que se revierte.
+//
+// También se reintenta cuando PostgreSQL elige a la transacción como víctima de un interbloqueo
+// (40P01) o aborta su espera de un lock (PessimisticLockingFailureException, que incluye
+// CannotAcquireLockException): la otra siguió y la operación repetida ve lo que dejó.
+//
+// Dentro de una transacción ya abierta no se reintenta: lo leído en ella está viejo y la
+// transacción de afuera ya quedó marcada para revertirse.
+@Component
+public class ReintentoOptimista {
+
+    private static final Logger log = LoggerFactory.getLogger(ReintentoOptimista.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxIntentos;
+    private final long esperaInicialMillis;
+    private final long esperaMaximaMillis;
+
+    private final Map<String, Contadores> contadores = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReintentoOptimista(PlatformTransactionManager transactionManager,
+                              @Value("${tutorgo.reintentos.max-intentos:4}") int maxIntentos,
+                              @Value("${tutorgo.reintentos.espera-inicial-ms:10}") long esperaInicialMillis,
+                              @Value("${tutorgo.reintentos.espera-maxima-ms:200}") long esperaMaximaMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxIntentos = maxIntentos;
+        this.esperaInicialMillis = esperaInicialMillis;
+        this.esperaMaximaMillis = esperaMaximaMillis;
+    }
+
+    public <T> T ejecutar(String operacion, Supplier<T> trabajo) {
+        Contadores cuenta = contadores.computeIfAbsent(operacion, clave -> new Contadores());
+        cuenta.ejecuciones.increment();
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return trabajo.get();
+        }
+        for (int intento = 1; ; intento++) {
+            try {
+                return transactionTemplate.execute(estado -> trabajo.get());
+            } catch (OptimisticLockingFailureException | PessimisticLockingFailureException e) {
+                if (intento >= maxIntentos) {
+                    cuenta.agotadas.increment();
+                    log.warn("{}: conflicto de concurrencia tras {} intentos, se abandona ({})", operacion, intento,
+                            e.getClass().getSimpleName());
+                    throw e;
+                }
+                cuenta.reintentos.increment();
+                esperar(intento);
+            }
+        }
+    }
+
+    public Map<String, Estadisticas> estadisticas() {
+        Map<String, Estadisticas> resultado = new TreeMap<>();
+        contadores.forEach((operacion, cuenta) -> resultado.put(operacion,
+                new Estadisticas(cuenta.ejecuciones.sum(), cuenta.reintentos.sum(), cuenta.agotadas.sum())));
+        return resultado;
+    }
+
+    @Scheduled(fixedDelay = 5, timeUnit = TimeUnit.MINUTES)
+    public void informarEstadisticas() {
+        estadisticas().forEach((operacion, estadisticas) -> {
+            if (estadisticas.reintentos() > 0 || estadisticas.agotadas() > 0) {
+                log.info("{}: {} ejecuciones, {} reintentos por conflicto de versión o de lock, {} abandonadas",
+                        operacion, estadisticas.ejecuciones(), estadisticas.reintentos(), estadisticas.agotadas());
+            }
+        });
+    }
+
+    // Espera exponencial con tope y al azar dentro de ese rango, para que dos escrituras que
+    // chocaron no vuelvan a chocar en el mismo instante
+    private void esperar(int intento) {
+        long tope = Math.min(esperaMaximaMillis, esperaInicialMillis << Math.min(intento - 1, 20));
+        if (tope <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(tope / 2, tope + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reintento interrumpido", e);
+        }
+    }
+
+    public record Estadisticas(long ejecuciones, long reintentos, long agotadas) {
+    }
+
+    private static final class Contadores {
+        private final LongAdder ejecuciones = new LongAdder();
+        private final LongAdder reintentos = new LongAdder();
+        private final LongAdder agotadas = new LongAdder();
+    }
+}
@@ -14,6 +14,8 @@ import tutorgo.com.model.Tutor;
 import tutorgo.com.repository.ResenaRepository;
 import tutorgo.com.repository.SesionRepository;
 import tutorgo.com.repository.TutorRepository;
+import tutorgo.com.search.TutorListadoCache;
+import tutorgo.com.search.TutorVersiones;
 
 import java.util.List; // ***** NUEVA IMPORTACIÓN *****
 
@@ -26,6 +28,8 @@ public class ResenaServiceImpl implements ResenaService {
     private final SesionRepository sesionRepository;
     private final TutorRepository tutorRepository;
     private final ResenaMapper resenaMapper;
+    private final TutorListadoCache tutorListadoCache;
+    private final TutorVersiones tutorVersiones;
 
     @Override
     @Transactional
@@ -85,5 +89,7 @@ public class ResenaServiceImpl implements ResenaService {
 
         // Guardamos el tutor con su nuevo promedio de estrellas
         tutorRepository.save(tutor);
+        tutorListadoCache.invalidarPuntuacion(tutor.getId());
+        tutorVersiones.cambioPerfil(tutor.getId());
     }
 }
@@ -0,0 +1,63 @@
+package tutorgo.com.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+// Vencimientos de las reservas PENDIENTE, en una DelayQueue: sacar las vencidas cuesta lo mismo
+// haya muchas o pocas reservas en curso y no hace falta recorrer la tabla de sesiones buscándolas.
+//
+// La cola es del nodo que creó la reserva (y se vuelve a llenar desde la base al arrancar). Lo que
+// decide si una sesión se libera es siempre la base: ver SesionServiceImpl.liberarReservasVencidas.
+@Component
+public class RetencionesDeHorario {
+
+    private final DelayQueue<Retencion> cola = new DelayQueue<>();
+    private final Duration duracion;
+
+    public RetencionesDeHorario(@Value("${tutorgo.reservas.retencion-minutos:15}") long minutos) {
+        this.duracion = Duration.ofMinutes(minutos);
+    }
+
+    public LocalDateTime vencimientoDesde(LocalDateTime momento) {
+        return momento.plus(duracion);
+    }
+
+    public void programar(Long sesionId, LocalDateTime reservadaHasta) {
+        if (sesionId != null && reservadaHasta != null) {
+            cola.add(new Retencion(sesionId, reservadaHasta.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+        }
+    }
+
+    // Hasta "maximo" ids de reservas ya vencidas, que salen de la cola
+    public List<Long> vencidas(int maximo) {
+        List<Retencion> vencidas = new ArrayList<>();
+        cola.drainTo(vencidas, maximo);
+        return vencidas.stream().map(Retencion::sesionId).toList();
+    }
+
+    public int programadas() {
+        return cola.size();
+    }
+
+    private record Retencion(Long sesionId, long venceEnMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(venceEnMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed otra) {
+            return Long.compare(venceEnMillis, ((Retencion) otra).venceEnMillis);
+        }
+    }
+}
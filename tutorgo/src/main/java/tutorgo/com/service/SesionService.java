@@ -1,5 +1,6 @@
 package tutorgo.com.service;
 
+import tutorgo.com.dto.request.ReservaPaqueteRequest;
 import tutorgo.com.dto.request.ReservaTutoriaRequest;
 import tutorgo.com.dto.response.SesionResponse;
 import org.springframework.data.domain.Pageable;
@@ -10,7 +11,13 @@ import java.util.List;
 
 public interface SesionService {
     SesionResponse reservarTutoria(String alumnoEmail, ReservaTutoriaRequest request);
+    // Reserva todos los horarios del paquete o ninguno
+    List<SesionResponse> reservarPaquete(String alumnoEmail, ReservaPaqueteRequest request);
     List<SesionResponse> getSesionesByAlumnoEmail(String alumnoEmail);
     List<SesionResponse> getSesionesByTutorEmail(String tutorEmail);
+    // Pasa a VENCIDO las que siguen PENDIENTE con la reserva vencida y devuelve cuántas
+    int liberarReservasVencidas(List<Long> sesionIds);
+    // Programa en RetencionesDeHorario los vencimientos guardados en la base; devuelve cuántos
+    int programarRetencionesPendientes();
 
 }
\ No newline at end of file
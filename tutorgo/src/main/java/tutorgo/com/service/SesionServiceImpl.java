@@ -3,7 +3,9 @@ package tutorgo.com.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tutorgo.com.dto.request.ReservaPaqueteRequest;
 import tutorgo.com.dto.request.ReservaTutoriaRequest;
+import tutorgo.com.dto.request.SesionDelPaqueteRequest;
 import tutorgo.com.dto.response.SesionResponse;
 import tutorgo.com.enums.EstadoSesionEnum;
 import tutorgo.com.exception.BadRequestException;
@@ -11,23 +13,39 @@ import tutorgo.com.exception.ResourceNotFoundException;
 import tutorgo.com.mapper.SesionMapper;
 import tutorgo.com.model.*; // Importar Estudiante, Tutor, User, Sesion, Disponibilidad
 import tutorgo.com.repository.*; // Importar los repositorios necesarios
+import tutorgo.com.search.AgendaTutorIndex;
+import tutorgo.com.search.TutorListadoCache;
+import tutorgo.com.search.TutorVersiones;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class SesionServiceImpl implements SesionService {
 
+    // Tope de POST /sesiones/paquete: una sesión por semana durante un año
+    private static final int MAX_SESIONES_POR_PAQUETE = 52;
+
     private final UserRepository userRepository;
     private final EstudianteRepository estudianteRepository;
     private final TutorRepository tutorRepository;
     private final SesionRepository sesionRepository;
-    private final DisponibilidadRepository disponibilidadRepository; // Para verificar disponibilidad
+    private final DisponibilidadRepository disponibilidadRepository;
+    private final AgendaTutorIndex agendaTutorIndex; // Para verificar disponibilidad y solapamientos
     private final SesionMapper sesionMapper;
+    private final CarrilesDeReserva carrilesDeReserva;
+    private final RetencionesDeHorario retencionesDeHorario;
+    private final TutorVersiones tutorVersiones;
+    private final TutorListadoCache tutorListadoCache;
 
+    // Sin @Transactional: la escritura corre en el carril del tutor, en su propia transacción
     @Override
-    @Transactional
     public SesionResponse reservarTutoria(String alumnoEmail, ReservaTutoriaRequest request) {
         // ... (obtener alumno y tutor se mantiene igual)
         Estudiante alumno = estudianteRepository.findByUserEmail(alumnoEmail)
@@ -46,41 +64,168 @@ public class SesionServiceImpl implements SesionService {
             throw new BadRequestException("No se pueden reservar tutorías en el pasado.");
         }
 
-        // ***** VALIDACIÓN CLAVE: El horario solicitado debe estar dentro de un bloque de disponibilidad *****
-        List<Disponibilidad> disponibilidadesQueCubren = disponibilidadRepository
-                .findDisponibilidadQueEnvuelveElSlot(
-                        tutor.getId(),
-                        request.getFecha(),
-                        horaInicialDateTime,
-                        horaFinalDateTime
-                );
-
-        if (disponibilidadesQueCubren.isEmpty()) {
-            throw new BadRequestException("El horario solicitado no está dentro de la disponibilidad del tutor.");
+        // Primera pasada contra la agenda, sin hacer cola: lo que ya se sabe ocupado se rechaza acá
+        validarHorarioLibre(tutor.getId(), request.getFecha(), horaInicialDateTime, horaFinalDateTime);
+
+        // Las reservas del mismo tutor se aplican de a una. Dentro del carril se vuelve a mirar la
+        // agenda, que ya incluye a quien ganó antes en la cola: el que pierde no llega a la base.
+        return carrilesDeReserva.ejecutar(tutor.getId(), () -> {
+            validarHorarioLibre(tutor.getId(), request.getFecha(), horaInicialDateTime, horaFinalDateTime);
+
+            // Crear y guardar la nueva sesión
+            Sesion nuevaSesion = new Sesion();
+            nuevaSesion.setEstudiante(alumno);
+            nuevaSesion.setTutor(tutor);
+            nuevaSesion.setFecha(request.getFecha());
+            nuevaSesion.setHoraInicial(horaInicialDateTime);
+            nuevaSesion.setHoraFinal(horaFinalDateTime);
+            nuevaSesion.setTipoEstado(EstadoSesionEnum.PENDIENTE);
+            // El horario queda tomado solo hasta acá si no se paga
+            nuevaSesion.setReservadaHasta(retencionesDeHorario.vencimientoDesde(LocalDateTime.now()));
+
+            Sesion sesionGuardada = sesionRepository.save(nuevaSesion);
+            agendaTutorIndex.registrarSesion(sesionGuardada);
+            retencionesDeHorario.programar(sesionGuardada.getId(), sesionGuardada.getReservadaHasta());
+            avisarCambioEnReglas(tutor.getId(), List.of(sesionGuardada));
+
+            return sesionMapper.toSesionResponse(sesionGuardada);
+        });
+    }
+
+    // Sin @Transactional, como reservarTutoria: todo el paquete se valida y se inserta en una sola
+    // transacción dentro del carril del tutor. Si un horario falla no se guarda ninguno.
+    @Override
+    public List<SesionResponse> reservarPaquete(String alumnoEmail, ReservaPaqueteRequest request) {
+        List<SesionDelPaqueteRequest> horarios = request.getSesiones();
+        if (horarios == null || horarios.isEmpty()) {
+            throw new BadRequestException("El paquete debe tener al menos una sesión.");
+        }
+        if (horarios.size() > MAX_SESIONES_POR_PAQUETE) {
+            throw new BadRequestException("Un paquete admite como máximo " + MAX_SESIONES_POR_PAQUETE + " sesiones.");
         }
-        // Fin de la validación de disponibilidad
+        Estudiante alumno = estudianteRepository.findByUserEmail(alumnoEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("Perfil de estudiante no encontrado"));
+        Tutor tutor = tutorRepository.findById(request.getTutorId())
+                .orElseThrow(() -> new ResourceNotFoundException("Tutor no encontrado con ID: " + request.getTutorId()));
 
-        // ... (Verificar solapamiento con otras sesiones se mantiene igual)
-        List<Sesion> sesionesSolapadas = sesionRepository
-                .findSesionesSolapadasParaTutor(tutor.getId(), request.getFecha(), horaInicialDateTime, horaFinalDateTime);
-        if (!sesionesSolapadas.isEmpty()) {
-            throw new BadRequestException("El horario seleccionado ya no está disponible o está ocupado.");
+        LocalDateTime ahora = LocalDateTime.now();
+        List<HorarioDelPaquete> pedidos = new ArrayList<>(horarios.size());
+        for (int i = 0; i < horarios.size(); i++) {
+            SesionDelPaqueteRequest horario = horarios.get(i);
+            HorarioDelPaquete pedido = new HorarioDelPaquete(i, horario.getFecha(),
+                    LocalDateTime.of(horario.getFecha(), horario.getHoraInicio()),
+                    LocalDateTime.of(horario.getFecha(), horario.getHoraFinal()));
+            if (!pedido.fin().isAfter(pedido.inicio())) {
+                throw new BadRequestException(pedido + ": la hora de finalización debe ser posterior a la hora de inicio.");
+            }
+            if (pedido.inicio().isBefore(ahora)) {
+                throw new BadRequestException(pedido + ": no se pueden reservar tutorías en el pasado.");
+            }
+            pedidos.add(pedido);
+        }
+        pedidos.sort(Comparator.comparing(HorarioDelPaquete::inicio).thenComparingInt(HorarioDelPaquete::indice));
+        LocalDate desde = pedidos.get(0).fecha();
+        LocalDate hasta = pedidos.stream().map(HorarioDelPaquete::fecha).max(Comparator.naturalOrder()).orElseThrow();
+
+        return carrilesDeReserva.ejecutar(tutor.getId(), () -> {
+            // Dos consultas por rango para todo el paquete, ya ordenadas por inicio
+            List<DisponibilidadRepository.FranjaIndexable> bloques =
+                    disponibilidadRepository.findFranjasIndexablesByTutorIdAndFechaEntre(tutor.getId(), desde, hasta);
+            List<SesionRepository.FranjaOcupada> ocupadas =
+                    sesionRepository.findFranjasActivasByTutorIdAndFechaEntre(tutor.getId(), desde, hasta);
+            barrerPaquete(tutor.getId(), pedidos, bloques, ocupadas);
+
+            LocalDateTime reservadaHasta = retencionesDeHorario.vencimientoDesde(LocalDateTime.now());
+            List<Sesion> nuevas = new ArrayList<>(pedidos.size());
+            pedidos.stream()
+                    .sorted(Comparator.comparingInt(HorarioDelPaquete::indice))
+                    .forEach(pedido -> {
+                        Sesion sesion = new Sesion();
+                        sesion.setEstudiante(alumno);
+                        sesion.setTutor(tutor);
+                        sesion.setFecha(pedido.fecha());
+                        sesion.setHoraInicial(pedido.inicio());
+                        sesion.setHoraFinal(pedido.fin());
+                        sesion.setTipoEstado(EstadoSesionEnum.PENDIENTE);
+                        sesion.setReservadaHasta(reservadaHasta);
+                        nuevas.add(sesion);
+                    });
+            sesionRepository.insertarEnLote(nuevas);
+
+            nuevas.forEach(sesion -> {
+                agendaTutorIndex.registrarSesion(sesion);
+                retencionesDeHorario.programar(sesion.getId(), sesion.getReservadaHasta());
+            });
+            avisarCambioEnReglas(tutor.getId(), nuevas);
+            return sesionMapper.toSesionResponseList(nuevas);
+        });
+    }
+
+    // Un solo recorrido en orden de inicio sobre el paquete, los bloques y las sesiones del tutor.
+    // Los bloques de un tutor no se solapan entre sí: el único que puede envolver a un horario es el
+    // último que empieza antes que él. Las reglas semanales se miran en la agenda, sin ir a la base.
+    // Junta todos los horarios que fallan en un solo mensaje para que el alumno los corrija de una vez.
+    private void barrerPaquete(Long tutorId, List<HorarioDelPaquete> pedidos,
+                               List<DisponibilidadRepository.FranjaIndexable> bloques,
+                               List<SesionRepository.FranjaOcupada> ocupadas) {
+        List<String> errores = new ArrayList<>();
+        int siguienteBloque = 0;
+        DisponibilidadRepository.FranjaIndexable candidato = null;
+        int siguienteOcupada = 0;
+        LocalDateTime finMaximoOcupadas = LocalDateTime.MIN;  // de las sesiones que empiezan antes que el horario
+        HorarioDelPaquete anterior = null;                     // el aceptado del paquete que termina más tarde
+        for (HorarioDelPaquete pedido : pedidos) {
+            while (siguienteBloque < bloques.size() && !bloques.get(siguienteBloque).getHoraInicial().isAfter(pedido.inicio())) {
+                candidato = bloques.get(siguienteBloque++);
+            }
+            boolean cubierto = (candidato != null && !candidato.getHoraFinal().isBefore(pedido.fin()))
+                    || !agendaTutorIndex.reglasQueEnvuelven(tutorId, pedido.fecha(), pedido.inicio(), pedido.fin()).isEmpty();
+
+            while (siguienteOcupada < ocupadas.size() && !ocupadas.get(siguienteOcupada).getHoraInicial().isAfter(pedido.inicio())) {
+                LocalDateTime fin = ocupadas.get(siguienteOcupada++).getHoraFinal();
+                if (fin.isAfter(finMaximoOcupadas)) {
+                    finMaximoOcupadas = fin;
+                }
+            }
+            boolean ocupado = finMaximoOcupadas.isAfter(pedido.inicio())
+                    || (siguienteOcupada < ocupadas.size() && ocupadas.get(siguienteOcupada).getHoraInicial().isBefore(pedido.fin()));
+
+            if (!cubierto) {
+                errores.add(pedido + ": no está dentro de la disponibilidad del tutor");
+            } else if (ocupado) {
+                errores.add(pedido + ": ya no está disponible o está ocupado");
+            } else if (anterior != null && anterior.fin().isAfter(pedido.inicio())) {
+                errores.add(pedido + ": se solapa con la sesión " + (anterior.indice() + 1) + " del mismo paquete");
+            } else if (anterior == null || pedido.fin().isAfter(anterior.fin())) {
+                anterior = pedido;
+            }
+        }
+        if (!errores.isEmpty()) {
+            throw new BadRequestException("No se reservó ninguna sesión del paquete. " + String.join("; ", errores) + ".");
         }
+    }
 
-        // ... (Verificar solapamiento para el alumno se mantiene igual)
+    // indice es la posición en el pedido; el mensaje la muestra contando desde 1
+    private record HorarioDelPaquete(int indice, LocalDate fecha, LocalDateTime inicio, LocalDateTime fin) {
+        @Override
+        public String toString() {
+            return "Sesión " + (indice + 1) + " (" + fecha + " " + inicio.toLocalTime() + "-" + fin.toLocalTime() + ")";
+        }
+    }
 
-        // Crear y guardar la nueva sesión
-        Sesion nuevaSesion = new Sesion();
-        nuevaSesion.setEstudiante(alumno);
-        nuevaSesion.setTutor(tutor);
-        nuevaSesion.setFecha(request.getFecha());
-        nuevaSesion.setHoraInicial(horaInicialDateTime);
-        nuevaSesion.setHoraFinal(horaFinalDateTime);
-        nuevaSesion.setTipoEstado(EstadoSesionEnum.PENDIENTE);
+    private void validarHorarioLibre(Long tutorId, LocalDate fecha, LocalDateTime inicio, LocalDateTime fin) {
+        // ***** VALIDACIÓN CLAVE: El horario solicitado debe estar dentro de un bloque de disponibilidad *****
+        List<Long> disponibilidadesQueCubren = agendaTutorIndex.disponibilidadesQueEnvuelven(tutorId, fecha, inicio, fin);
 
-        Sesion sesionGuardada = sesionRepository.save(nuevaSesion);
+        // Si ningún bloque suelto lo cubre, puede cubrirlo la ocurrencia de una regla semanal
+        if (disponibilidadesQueCubren.isEmpty() && agendaTutorIndex.reglasQueEnvuelven(tutorId, fecha, inicio, fin).isEmpty()) {
+            throw new BadRequestException("El horario solicitado no está dentro de la disponibilidad del tutor.");
+        }
 
-        return sesionMapper.toSesionResponse(sesionGuardada);
+        // ... (Verificar solapamiento con otras sesiones se mantiene igual)
+        if (!agendaTutorIndex.sesionesSolapadas(tutorId, fecha, inicio, fin).isEmpty()) {
+            throw new BadRequestException("El horario seleccionado ya no está disponible o está ocupado.");
+        }
     }
 
     @Override
@@ -97,4 +242,48 @@ public class SesionServiceImpl implements SesionService {
         List<Sesion> sesiones = sesionRepository.findByTutor_User_EmailOrderByFechaAscHoraInicialAsc(tutorEmail);
         return sesionMapper.toSesionResponseList(sesiones);
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional
+    public int liberarReservasVencidas(List<Long> sesionIds) {
+        if (sesionIds == null || sesionIds.isEmpty()) {
+            return 0;
+        }
+        // Bloquea las filas: un pago que llegue ahora espera y después la encuentra VENCIDO. No se borran
+        // para que ese pago reciba "la reserva venció" y no un 404; el horario queda libre igual.
+        List<Sesion> vencidas = sesionRepository.findReservasVencidasParaLiberar(sesionIds, LocalDateTime.now());
+        vencidas.forEach(sesion -> sesion.setTipoEstado(EstadoSesionEnum.VENCIDO));
+        sesionRepository.saveAll(vencidas);
+        vencidas.forEach(sesion -> agendaTutorIndex.quitarSesion(sesion.getTutor().getId(), sesion.getId()));
+        vencidas.stream()
+                .collect(Collectors.groupingBy(sesion -> sesion.getTutor().getId()))
+                .forEach(this::avisarCambioEnReglas);
+        return vencidas.size();
+    }
+
+    // La disponibilidad publicada muestra las ocurrencias de reglas semanales sin las sesiones activas
+    // (un bloque suelto recién se recorta al confirmar el pago). Tomar o liberar un horario de una regla
+    // cambia entonces la versión del tutor (ETag) y las búsquedas por horario de esas fechas. Una sola
+    // vez por tutor: cada cambio de versión adelanta un segundo su Last-Modified.
+    private void avisarCambioEnReglas(Long tutorId, List<Sesion> sesiones) {
+        Set<LocalDate> fechas = sesiones.stream()
+                .filter(sesion -> !agendaTutorIndex.reglasQueEnvuelven(tutorId, sesion.getFecha(),
+                        sesion.getHoraInicial(), sesion.getHoraFinal()).isEmpty())
+                .map(Sesion::getFecha)
+                .collect(Collectors.toSet());
+        if (fechas.isEmpty()) {
+            return;
+        }
+        tutorVersiones.cambioDisponibilidad(tutorId);
+        fechas.forEach(tutorListadoCache::invalidarDisponibilidad);
+    }
+
+    @Override
+    @Transactional
+    public int programarRetencionesPendientes() {
+        sesionRepository.asignarVencimientoAPendientesSinVencimiento(retencionesDeHorario.vencimientoDesde(LocalDateTime.now()));
+        List<SesionRepository.RetencionPendiente> pendientes = sesionRepository.findRetencionesPendientes();
+        pendientes.forEach(retencion -> retencionesDeHorario.programar(retencion.getId(), retencion.getReservadaHasta()));
+        return pendientes.size();
+    }
+}
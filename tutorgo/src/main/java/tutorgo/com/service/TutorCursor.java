@@ -0,0 +1,81 @@
+package tutorgo.com.service;
+
+import org.springframework.data.domain.Sort;
+import tutorgo.com.exception.BadRequestException;
+import tutorgo.com.model.Tutor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Posición dentro del listado de tutores para la paginación por cursor: el orden activo y los
+// valores (columna de orden, id) de la última fila entregada. Para el cliente es un texto opaco;
+// por dentro es "v1|propiedad|ASC|id|valor" en Base64 URL.
+record TutorCursor(String propiedad, Sort.Direction direccion, Comparable<?> valor, Long id) {
+
+    private static final String VERSION = "v1";
+
+    static TutorCursor despuesDe(Tutor ultimo, Sort orden) {
+        Sort.Order principal = orden.iterator().next();
+        return new TutorCursor(principal.getProperty(), principal.getDirection(),
+                valorDe(ultimo, principal.getProperty()), ultimo.getId());
+    }
+
+    static TutorCursor decodificar(String cursor) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = texto.split("\\|", 5);
+            if (partes.length != 5 || !VERSION.equals(partes[0])) {
+                throw new IllegalArgumentException(texto);
+            }
+            String propiedad = partes[1];
+            return new TutorCursor(propiedad, Sort.Direction.valueOf(partes[2]),
+                    leerValor(propiedad, partes[4]), Long.valueOf(partes[3]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("El cursor de paginación no es válido.");
+        }
+    }
+
+    String codificar() {
+        String texto = String.join("|", VERSION, propiedad, direccion.name(), id.toString(), String.valueOf(valor));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Un Float leído de una columna double precision es el redondeo de un valor que no se puede
+    // volver a escribir tal cual: se compara contra el intervalo de doubles que redondean a él.
+    Comparable<?> desde() {
+        return (valor instanceof Float f) ? (f.doubleValue() + Math.nextDown(f)) / 2 : valor;
+    }
+
+    Comparable<?> hasta() {
+        return (valor instanceof Float f) ? (f.doubleValue() + Math.nextUp(f)) / 2 : valor;
+    }
+
+    Sort orden() {
+        if ("id".equals(propiedad)) {
+            return Sort.by(direccion, "id");
+        }
+        return Sort.by(new Sort.Order(direccion, propiedad), new Sort.Order(direccion, "id"));
+    }
+
+    // Las columnas ordenables son NOT NULL, así que el valor nunca es nulo
+    private static Comparable<?> valorDe(Tutor tutor, String propiedad) {
+        return switch (propiedad) {
+            case "id" -> tutor.getId();
+            case "tarifaHora" -> tutor.getTarifaHora();
+            case "estrellasPromedio" -> tutor.getEstrellasPromedio();
+            case "rubro" -> tutor.getRubro();
+            case "user.nombre" -> tutor.getUser().getNombre();
+            default -> throw new IllegalArgumentException(propiedad);
+        };
+    }
+
+    private static Comparable<?> leerValor(String propiedad, String valor) {
+        return switch (propiedad) {
+            case "id" -> Long.valueOf(valor);
+            case "tarifaHora" -> Integer.valueOf(valor);
+            case "estrellasPromedio" -> Float.valueOf(valor);
+            case "rubro", "user.nombre" -> valor;
+            default -> throw new IllegalArgumentException(propiedad);
+        };
+    }
+}
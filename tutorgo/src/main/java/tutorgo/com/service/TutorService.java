@@ -6,6 +6,7 @@ import tutorgo.com.dto.response.TutorProfileResponse;
 import tutorgo.com.dto.response.TutorSummaryResponse;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.List;
 
 public interface TutorService {
     PagedResponse<TutorSummaryResponse> getAllTutores(
@@ -16,8 +17,12 @@ public interface TutorService {
             LocalDate fechaFin,
             LocalTime horaInicio, // <-- Nuevo
             LocalTime horaFin,     // <-- Nuevo
-            Pageable pageable
+            Pageable pageable,
+            String cursor,
+            boolean conFacetas
     );
 
     TutorProfileResponse getTutorProfile(Long tutorId);
+
+    List<TutorProfileResponse> getTutorProfiles(List<Long> tutorIds);
 }
\ No newline at end of file
@@ -3,31 +3,88 @@ package tutorgo.com.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
+import tutorgo.com.dto.response.FacetaResponse;
 import tutorgo.com.dto.response.PagedResponse;
+import tutorgo.com.dto.response.TutorCatalogoResponse;
+import tutorgo.com.dto.response.TutorFacetasResponse;
 import tutorgo.com.dto.response.TutorProfileResponse;
 import tutorgo.com.dto.response.TutorSummaryResponse;
+import tutorgo.com.exception.BadRequestException;
 import tutorgo.com.exception.ResourceNotFoundException;
 import tutorgo.com.mapper.TutorMapper;
 import tutorgo.com.model.Tutor;
 import tutorgo.com.model.User;
+import tutorgo.com.repository.ReglaDisponibilidadRepository;
+import tutorgo.com.repository.TutorFacetasRepository;
+import tutorgo.com.repository.TutorRankingRepository;
 import tutorgo.com.repository.TutorRepository;
+import tutorgo.com.repository.TutorSpecifications;
+import tutorgo.com.search.AgendaTutorIndex;
+import tutorgo.com.search.DisponibilidadBitmapIndex;
+import tutorgo.com.search.ReglaSemanal;
+import tutorgo.com.search.TutorListadoCache;
+import tutorgo.com.search.TopK;
+import tutorgo.com.search.TutorSearchIndex;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TutorServiceImpl implements TutorService {
 
+    // Órdenes que no son columnas: se calculan en memoria (ver paginaRankeada)
+    private static final String ORDEN_RELEVANCIA = "relevancia";
+    private static final String ORDEN_RECOMENDADO = "recomendado";
+
+    // Puntaje "recomendado": estrellas, relevancia del texto buscado y precio (más barato, mejor),
+    // cada uno llevado a [0, 1] dentro del resultado
+    private static final double PESO_ESTRELLAS = 0.6;
+    private static final double PESO_RELEVANCIA = 0.25;
+    private static final double PESO_PRECIO = 0.15;
+
+    private static final Map<String, String> CAMPOS_ORDENABLES = Map.of(
+            "id", "id",
+            "tarifaHora", "tarifaHora",
+            "estrellasPromedio", "estrellasPromedio",
+            "rubro", "rubro",
+            "nombre", "user.nombre",
+            "relevancia", ORDEN_RELEVANCIA,
+            "recomendado", ORDEN_RECOMENDADO
+    );
+
+    // Tramos de las facetas: precio hasta 25, 25-50, 50-100 y más de 100; estrellas "4 o más" ... "1 o más"
+    private static final int[] LIMITES_PRECIO = {25, 50, 100};
+    private static final int[] MINIMOS_ESTRELLAS = {4, 3, 2, 1};
+    private static final int MAX_RUBROS_EN_FACETAS = 8;
+    // Tope de GET /tutores?ids=...; una lista de sesiones o pagos rara vez pasa de unas decenas de tutores
+    private static final int MAX_PERFILES_POR_LOTE = 100;
+
     private final TutorRepository tutorRepository;
     private final TutorMapper tutorMapper;
+    private final TutorSearchIndex tutorSearchIndex;
+    private final DisponibilidadBitmapIndex disponibilidadBitmapIndex;
+    private final ReglaDisponibilidadRepository reglaDisponibilidadRepository;
+    private final AgendaTutorIndex agendaTutorIndex;
+    private final TutorListadoCache tutorListadoCache;
 
     @Override
     @Transactional(readOnly = true)
@@ -35,70 +92,294 @@ public class TutorServiceImpl implements TutorService {
             String query, Integer maxPrecio, Float puntuacion,
             LocalDate fechaInicio, LocalDate fechaFin,
             LocalTime horaInicio, LocalTime horaFin,
-            Pageable pageable) {
-
-        List<Tutor> tutoresPrefiltrados = tutorRepository.findWithNumericFilters(maxPrecio, puntuacion);
+            Pageable pageable, String cursor, boolean conFacetas) {
 
-        List<Tutor> tutoresDisponibles = tutoresPrefiltrados.stream().filter(tutor -> {
-            if (fechaInicio == null && fechaFin == null && horaInicio == null && horaFin == null) {
-                return true;
-            }
+        // Con cursor, el orden lo fija el cursor (el de la primera página que lo generó)
+        TutorCursor posicion = StringUtils.hasText(cursor) ? TutorCursor.decodificar(cursor) : null;
+        Sort orden = (posicion != null) ? posicion.orden() : ordenSeguro(pageable.getSort());
+        VentanaDisponibilidad ventana = ventanaDisponibilidad(fechaInicio, fechaFin, horaInicio, horaFin);
 
-            final LocalDate fInicio = (fechaInicio != null) ? fechaInicio : LocalDate.now();
-            final LocalDate fFin = (fechaFin != null) ? fechaFin : fInicio.plusYears(1); // Un rango por defecto amplio si solo se da una fecha
-            final LocalTime hInicio = (horaInicio != null) ? horaInicio : LocalTime.MIN;
-            final LocalTime hFin = (horaFin != null) ? horaFin : LocalTime.MAX;
+        TutorListadoCache.Clave clave = new TutorListadoCache.Clave(query, maxPrecio, puntuacion,
+                ventana != null ? ventana.desde() : null, ventana != null ? ventana.hasta() : null,
+                ventana != null ? ventana.horaInicio() : null, ventana != null ? ventana.horaFin() : null,
+                orden, pageable.getPageNumber(), pageable.getPageSize(), posicion != null ? cursor : null, conFacetas);
+        return tutorListadoCache.obtener(clave,
+                () -> buscarTutores(query, maxPrecio, puntuacion, ventana, pageable, posicion, orden, conFacetas));
+    }
 
-            if (fFin.isBefore(fInicio) || hFin.isBefore(hInicio)) {
-                return true;
+    private PagedResponse<TutorSummaryResponse> buscarTutores(String query, Integer maxPrecio, Float puntuacion,
+                                                            VentanaDisponibilidad ventana, Pageable pageable,
+                                                            TutorCursor posicion, Sort orden, boolean conFacetas) {
+        // Los índices en memoria resuelven el texto (sin tildes, por trigramas) y la disponibilidad
+        // (mapas de bits por día); a la base de datos solo llega la lista de ids candidatos. Mientras
+        // un índice no esté listo, su filtro se resuelve en SQL como siempre.
+        String ranking = ordenEnMemoria(orden);
+        Specification<Tutor> filtroTexto = TutorSpecifications.nombreORubroContiene(query);
+        Collection<Long> candidatos = null;
+        Map<Long, Integer> relevancia = Map.of();
+        if (filtroTexto != null && tutorSearchIndex.isListo()) {
+            if (ranking != null) {
+                relevancia = tutorSearchIndex.puntajes(query);
+                candidatos = relevancia.keySet();
+            } else {
+                candidatos = tutorSearchIndex.buscar(query);
             }
+            filtroTexto = null;
+        }
 
-            return tutor.getDisponibilidades().stream().anyMatch(disp -> {
-                boolean fechaCoincide = !disp.getFecha().isBefore(fInicio) && !disp.getFecha().isAfter(fFin);
-                if (!fechaCoincide) {
-                    return false;
+        Specification<Tutor> filtroHorario = null;
+        if (ventana != null) {
+            boolean exacto = false;
+            Set<Long> libresPorRegla;
+            if (disponibilidadBitmapIndex.isListo()) {
+                DisponibilidadBitmapIndex.Resultado libres = disponibilidadBitmapIndex.buscar(
+                        ventana.desde(), ventana.hasta(), ventana.horaInicio(), ventana.horaFin());
+                candidatos = (candidatos == null)
+                        ? libres.tutorIds()
+                        : candidatos.stream().filter(libres.tutorIds()::contains).toList();
+                exacto = libres.exacto();
+                libresPorRegla = libres.porRegla();
+            } else {
+                libresPorRegla = tutoresLibresPorRegla(ventana);
+            }
+            // Con bloques o ventana fuera de los cuartos de hora, el SQL confirma los candidatos. Las
+            // reglas semanales no tienen filas: los tutores libres por una regla pasan por id.
+            if (!exacto) {
+                filtroHorario = TutorSpecifications.disponibleEntre(ventana.desde(), ventana.hasta(), ventana.horaInicio(), ventana.horaFin());
+                if (!libresPorRegla.isEmpty()) {
+                    filtroHorario = filtroHorario.or(TutorSpecifications.idEn(libresPorRegla));
                 }
+            }
+        }
 
-                LocalTime dispInicio = disp.getHoraInicial().toLocalTime();
-                LocalTime dispFin = disp.getHoraFinal().toLocalTime();
+        if (candidatos != null && candidatos.isEmpty()) {
+            return respuesta(List.of(), posicion != null ? -1 : pageable.getPageNumber(), pageable.getPageSize(),
+                    0, true, orden, conFacetas ? facetas(List.of()) : null);
+        }
 
-                boolean horaCoincide = dispInicio.isBefore(hFin) && dispFin.isAfter(hInicio);
+        // Todos los filtros, el orden y el LIMIT/OFFSET se resuelven en la base de datos:
+        // una consulta para la página y otra para el total (con facetas, la que las cuenta).
+        Specification<Tutor> filtros = Specification.allOf(
+                TutorSpecifications.conUsuario(),
+                filtroTexto,
+                TutorSpecifications.idEn(candidatos),
+                TutorSpecifications.tarifaMaxima(maxPrecio),
+                TutorSpecifications.puntuacionMinima(puntuacion),
+                filtroHorario
+        );
+
+        if (ranking != null) {
+            return paginaRankeada(filtros, ranking, relevancia, pageable, conFacetas);
+        }
+        if (posicion != null) {
+            return paginaDespuesDelCursor(filtros, posicion, orden, pageable.getPageSize());
+        }
 
-                return horaCoincide;
-            });
-        }).collect(Collectors.toList());
+        Pageable paginaOrdenada = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), orden);
+        if (conFacetas) {
+            Slice<Tutor> porcion = tutorRepository.findBy(filtros, q -> q.slice(paginaOrdenada));
+            ConteoConFacetas conteo = contarConFacetas(filtros);
+            return respuesta(porcion.getContent(), porcion.getNumber(), porcion.getSize(),
+                    conteo.total(), !porcion.hasNext(), orden, conteo.facetas());
+        }
 
+        Page<Tutor> pagina = tutorRepository.findAll(filtros, paginaOrdenada);
 
+        List<TutorSummaryResponse> dtos = tutorMapper.tutorsToTutorSummaryResponseList(pagina.getContent());
 
-        List<Tutor> tutoresFiltrados;
-        if (StringUtils.hasText(query)) {
-            String lowerCaseQuery = query.trim().toLowerCase();
-            tutoresFiltrados = tutoresPrefiltrados.stream()
-                    .filter(tutor -> {
-                        boolean nombreCoincide = tutor.getUser() != null && tutor.getUser().getNombre().toLowerCase().contains(lowerCaseQuery);
-                        boolean rubroCoincide = tutor.getRubro().toLowerCase().contains(lowerCaseQuery);
-                        return nombreCoincide || rubroCoincide;
-                    })
-                    .collect(Collectors.toList());
+        return new PagedResponse<>(
+                dtos,
+                pagina.getNumber(),
+                pagina.getSize(),
+                pagina.getTotalElements(),
+                pagina.getTotalPages(),
+                pagina.isLast(),
+                siguienteCursor(pagina.getContent(), !pagina.isLast(), orden)
+        );
+    }
+
+    // Página por keyset: WHERE (col, id) después del cursor ORDER BY col, id LIMIT size + 1, sin
+    // OFFSET. La fila extra solo indica si hay más. No se cuenta (totalElements y totalPages valen -1)
+    // ni se repiten las facetas: con los mismos filtros son las de la primera página, y contarlas en
+    // cada página recorrería todos los que cumplen los filtros.
+    private PagedResponse<TutorSummaryResponse> paginaDespuesDelCursor(Specification<Tutor> filtros, TutorCursor posicion,
+                                                                     Sort orden, int tamanoPagina) {
+        Specification<Tutor> despuesDelCursor = filtros.and(TutorSpecifications.despuesDe(
+                posicion.propiedad(), posicion.direccion(), posicion.desde(), posicion.hasta(), posicion.id()));
+        List<Tutor> filas = tutorRepository.findBy(despuesDelCursor, q -> q.sortBy(orden).limit(tamanoPagina + 1).all());
+
+        boolean hayMas = filas.size() > tamanoPagina;
+        List<Tutor> contenido = hayMas ? filas.subList(0, tamanoPagina) : filas;
+        return respuesta(contenido, -1, tamanoPagina, -1, !hayMas, orden, null);
+    }
+
+    // Orden que la base de datos no puede calcular (la relevancia sale del índice en memoria): se
+    // traen id, tarifa y estrellas de todos los que cumplen los filtros, se eligen los
+    // (page + 1) * size primeros con un heap acotado en lugar de ordenar la lista entera y solo la
+    // página pedida se carga completa. No hay cursor: la posición depende del resultado entero.
+    private PagedResponse<TutorSummaryResponse> paginaRankeada(Specification<Tutor> filtros, String ranking,
+                                                             Map<Long, Integer> relevancia, Pageable pageable,
+                                                             boolean conFacetas) {
+        List<TutorRankingRepository.DatosRanking> filas = tutorRepository.findDatosRanking(filtros);
+        int desde = (int) Math.min(pageable.getOffset(), filas.size());
+        int hasta = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), filas.size());
+        List<TutorRankingRepository.DatosRanking> primeros = TopK.seleccionar(filas, hasta, comparadorDeRanking(ranking, relevancia, filas));
+
+        List<Long> ids = primeros.subList(desde, hasta).stream().map(TutorRankingRepository.DatosRanking::id).toList();
+        List<Tutor> contenido = List.of();
+        if (!ids.isEmpty()) {
+            Map<Long, Tutor> porId = new HashMap<>();
+            tutorRepository.findAll(Specification.allOf(TutorSpecifications.conUsuario(), TutorSpecifications.idEn(ids)))
+                    .forEach(tutor -> porId.put(tutor.getId(), tutor));
+            contenido = ids.stream().map(porId::get).filter(Objects::nonNull).toList();
+        }
+
+        TutorFacetasResponse facetas = conFacetas ? contarConFacetas(filtros).facetas() : null;
+        return respuesta(contenido, pageable.getPageNumber(), pageable.getPageSize(), filas.size(),
+                hasta >= filas.size(), null, facetas);
+    }
+
+    // Siempre del mejor al peor, desempatando por id
+    private Comparator<TutorRankingRepository.DatosRanking> comparadorDeRanking(
+            String ranking, Map<Long, Integer> relevancia, List<TutorRankingRepository.DatosRanking> filas) {
+        ToDoubleFunction<TutorRankingRepository.DatosRanking> puntaje;
+        if (ORDEN_RELEVANCIA.equals(ranking)) {
+            puntaje = fila -> relevancia.getOrDefault(fila.id(), 0);
         } else {
-            tutoresFiltrados = tutoresDisponibles;
+            double maxRelevancia = Math.max(1, relevancia.values().stream().mapToInt(Integer::intValue).max().orElse(0));
+            double maxTarifa = Math.max(1, filas.stream().mapToInt(fila -> valor(fila.tarifaHora())).max().orElse(0));
+            puntaje = fila -> PESO_ESTRELLAS * valor(fila.estrellasPromedio()) / 5
+                    + PESO_RELEVANCIA * relevancia.getOrDefault(fila.id(), 0) / maxRelevancia
+                    + PESO_PRECIO * (1 - valor(fila.tarifaHora()) / maxTarifa);
         }
+        return Comparator.comparingDouble(puntaje).reversed()
+                .thenComparing(TutorRankingRepository.DatosRanking::id);
+    }
 
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), tutoresFiltrados.size());
+    private static int valor(Integer numero) {
+        return (numero != null) ? numero : 0;
+    }
 
-        List<Tutor> paginaDeTutores = (start <= end) ? tutoresFiltrados.subList(start, end) : Collections.emptyList();
+    private static double valor(Float numero) {
+        return (numero != null) ? numero : 0;
+    }
 
-        List<TutorSummaryResponse> dtos = tutorMapper.tutorsToTutorSummaryResponseList(paginaDeTutores);
+    private PagedResponse<TutorSummaryResponse> respuesta(List<Tutor> contenido, int numeroPagina, int tamanoPagina,
+                                                          long total, boolean ultima, Sort orden, TutorFacetasResponse facetas) {
+        List<TutorSummaryResponse> dtos = tutorMapper.tutorsToTutorSummaryResponseList(contenido);
+        // Sin contar (páginas por cursor) las dos quedan en -1
+        int totalPaginas = (total < 0) ? -1 : (int) Math.ceil((double) total / tamanoPagina);
+        String cursor = siguienteCursor(contenido, !ultima, orden);
+        if (facetas != null) {
+            return new TutorCatalogoResponse(dtos, numeroPagina, tamanoPagina, total, totalPaginas, ultima, cursor, facetas);
+        }
+        return new PagedResponse<>(dtos, numeroPagina, tamanoPagina, total, totalPaginas, ultima, cursor);
+    }
 
-        return new PagedResponse<>(
-                dtos,
-                pageable.getPageNumber(),
-                pageable.getPageSize(),
-                tutoresFiltrados.size(),
-                (int) Math.ceil((double) tutoresFiltrados.size() / pageable.getPageSize()),
-                pageable.getPageNumber() >= (int) Math.ceil((double) tutoresFiltrados.size() / pageable.getPageSize()) - 1
-        );
+    // El total de la búsqueda sale de la misma consulta que las facetas (la suma de los rubros)
+    private ConteoConFacetas contarConFacetas(Specification<Tutor> filtros) {
+        List<TutorFacetasRepository.ConteoPorRubro> filas = tutorRepository.contarPorRubro(filtros, LIMITES_PRECIO, MINIMOS_ESTRELLAS);
+        long total = filas.stream().mapToLong(TutorFacetasRepository.ConteoPorRubro::total).sum();
+        return new ConteoConFacetas(total, facetas(filas));
+    }
+
+    private TutorFacetasResponse facetas(List<TutorFacetasRepository.ConteoPorRubro> filas) {
+        long[] porPrecio = new long[LIMITES_PRECIO.length + 1];
+        long[] porEstrellas = new long[MINIMOS_ESTRELLAS.length];
+        for (TutorFacetasRepository.ConteoPorRubro fila : filas) {
+            for (int i = 0; i < porPrecio.length; i++) {
+                porPrecio[i] += fila.porPrecio()[i];
+            }
+            for (int i = 0; i < porEstrellas.length; i++) {
+                porEstrellas[i] += fila.porEstrellas()[i];
+            }
+        }
+
+        List<FacetaResponse> precios = new ArrayList<>(porPrecio.length);
+        for (int i = 0; i < porPrecio.length; i++) {
+            int desde = (i > 0) ? LIMITES_PRECIO[i - 1] : 0;
+            Integer hasta = (i < LIMITES_PRECIO.length) ? LIMITES_PRECIO[i] : null;
+            String valor = (hasta != null) ? desde + "-" + hasta : desde + "+";
+            precios.add(new FacetaResponse(valor, desde, hasta, porPrecio[i]));
+        }
+
+        List<FacetaResponse> estrellas = new ArrayList<>(porEstrellas.length);
+        for (int i = 0; i < porEstrellas.length; i++) {
+            estrellas.add(new FacetaResponse(MINIMOS_ESTRELLAS[i] + "+", MINIMOS_ESTRELLAS[i], null, porEstrellas[i]));
+        }
+
+        List<FacetaResponse> rubros = filas.stream()
+                .sorted(Comparator.comparingLong(TutorFacetasRepository.ConteoPorRubro::total).reversed()
+                        .thenComparing(TutorFacetasRepository.ConteoPorRubro::rubro))
+                .limit(MAX_RUBROS_EN_FACETAS)
+                .map(fila -> new FacetaResponse(fila.rubro(), null, null, fila.total()))
+                .toList();
+
+        return new TutorFacetasResponse(precios, estrellas, rubros);
+    }
+
+    private String siguienteCursor(List<Tutor> contenido, boolean hayMas, Sort orden) {
+        if (!hayMas || contenido.isEmpty() || orden == null) {
+            return null;
+        }
+        return TutorCursor.despuesDe(contenido.get(contenido.size() - 1), orden).codificar();
+    }
+
+    private static String ordenEnMemoria(Sort orden) {
+        for (String ranking : List.of(ORDEN_RELEVANCIA, ORDEN_RECOMENDADO)) {
+            if (orden.getOrderFor(ranking) != null) {
+                return ranking;
+            }
+        }
+        return null;
+    }
+
+    // Sin el índice en memoria, las reglas que se cruzan con la ventana se leen y se evalúan acá:
+    // sus ocurrencias no existen en la base para que las vea disponibleEntre. Las sesiones activas se
+    // descuentan con la agenda, igual que en DisponibilidadBitmapIndex.
+    private Set<Long> tutoresLibresPorRegla(VentanaDisponibilidad ventana) {
+        return reglaDisponibilidadRepository.findConDetalleVigentesEntre(ventana.desde(), ventana.hasta()).stream()
+                .map(ReglaSemanal::de)
+                .filter(regla -> agendaTutorIndex.libreEntre(regla, ventana.desde(), ventana.hasta(), ventana.horaInicio(), ventana.horaFin()))
+                .map(ReglaSemanal::tutorId)
+                .collect(Collectors.toSet());
+    }
+
+    private VentanaDisponibilidad ventanaDisponibilidad(LocalDate fechaInicio, LocalDate fechaFin,
+                                                        LocalTime horaInicio, LocalTime horaFin) {
+        if (fechaInicio == null && fechaFin == null && horaInicio == null && horaFin == null) {
+            return null;
+        }
+
+        final LocalDate fInicio = (fechaInicio != null) ? fechaInicio : LocalDate.now();
+        final LocalDate fFin = (fechaFin != null) ? fechaFin : fInicio.plusYears(1); // Un rango por defecto amplio si solo se da una fecha
+
+        // Rango inválido: se ignora el filtro, igual que antes
+        if (fFin.isBefore(fInicio) || (horaInicio != null && horaFin != null && horaFin.isBefore(horaInicio))) {
+            return null;
+        }
+        return new VentanaDisponibilidad(fInicio, fFin, horaInicio, horaFin);
+    }
+
+    // Solo se permite ordenar por columnas conocidas (un sortBy inválido ya no revienta con 500)
+    // y siempre se desempata por id para que las páginas sean estables.
+    private Sort ordenSeguro(Sort solicitado) {
+        Sort.Order orden = solicitado.stream().findFirst().orElse(Sort.Order.asc("id"));
+        String propiedad = CAMPOS_ORDENABLES.getOrDefault(orden.getProperty(), "id");
+        if (ORDEN_RELEVANCIA.equals(propiedad) || ORDEN_RECOMENDADO.equals(propiedad)) {
+            // Son puntajes: siempre del mejor al peor, sin importar sortDir
+            return Sort.by(Sort.Order.desc(propiedad));
+        }
+        if ("id".equals(propiedad)) {
+            return Sort.by(orden.getDirection(), "id");
+        }
+        return Sort.by(new Sort.Order(orden.getDirection(), propiedad), new Sort.Order(orden.getDirection(), "id"));
+    }
+
+    private record ConteoConFacetas(long total, TutorFacetasResponse facetas) {
+    }
+
+    private record VentanaDisponibilidad(LocalDate desde, LocalDate hasta, LocalTime horaInicio, LocalTime horaFin) {
     }
 
     @Override
@@ -122,4 +403,31 @@ public class TutorServiceImpl implements TutorService {
 
         return response;
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TutorProfileResponse> getTutorProfiles(List<Long> tutorIds) {
+        // Sin nulos ni repetidos, conservando el orden en que se pidieron
+        List<Long> ids = tutorIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.size() > MAX_PERFILES_POR_LOTE) {
+            throw new BadRequestException("No se pueden pedir más de " + MAX_PERFILES_POR_LOTE + " tutores a la vez.");
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, TutorRepository.PerfilTutor> porId = new HashMap<>();
+        tutorRepository.findPerfilesByIdIn(ids).forEach(p -> porId.put(p.getId(), p));
+        // Los IDs que no existen se omiten; el cliente compara contra lo que pidió
+        return ids.stream().map(porId::get).filter(Objects::nonNull).map(p -> {
+            TutorProfileResponse response = new TutorProfileResponse();
+            response.setId(p.getId());
+            response.setTarifaHora(p.getTarifaHora());
+            response.setRubro(p.getRubro());
+            response.setBio(p.getBio());
+            response.setEstrellasPromedio(p.getEstrellasPromedio());
+            response.setNombreUsuario(p.getNombre());
+            response.setFotoUrlUsuario(p.getFotoUrl());
+            return response;
+        }).toList();
+    }
 };
\ No newline at end of file
@@ -24,6 +24,11 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import tutorgo.com.model.CentroEstudio;
 import tutorgo.com.repository.CentroEstudioRepository;
+import tutorgo.com.search.AgendaTutorIndex;
+import tutorgo.com.search.DisponibilidadBitmapIndex;
+import tutorgo.com.search.TutorListadoCache;
+import tutorgo.com.search.TutorVersiones;
+import tutorgo.com.search.TutorSearchIndex;
 
 @Service
 @RequiredArgsConstructor
@@ -35,6 +40,11 @@ public class UserServiceImpl implements UserService {
     private final CentroEstudioRepository centroEstudioRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
+    private final TutorSearchIndex tutorSearchIndex;
+    private final DisponibilidadBitmapIndex disponibilidadBitmapIndex;
+    private final TutorListadoCache tutorListadoCache;
+    private final TutorVersiones tutorVersiones;
+    private final AgendaTutorIndex agendaTutorIndex;
 
 
     @Override
@@ -69,6 +79,8 @@ public class UserServiceImpl implements UserService {
             tutorProfile.setEstrellasPromedio(0.0f);
             Tutor savedTutorProfile = tutorRepository.save(tutorProfile);
             savedUser.setTutorProfile(savedTutorProfile);
+            tutorSearchIndex.indexar(savedTutorProfile.getId(), savedUser.getNombre(), savedTutorProfile.getRubro());
+            tutorListadoCache.invalidarTodo();
         }
         else if (userRole.getNombre() == RoleName.ESTUDIANTE) {
             if (request.getCentroEstudioId() == null) {
@@ -128,6 +140,13 @@ public class UserServiceImpl implements UserService {
 
         User updatedUser = userRepository.save(user);
 
+        Tutor tutorProfile = updatedUser.getTutorProfile();
+        if (tutorProfile != null) {
+            tutorSearchIndex.indexar(tutorProfile.getId(), updatedUser.getNombre(), tutorProfile.getRubro());
+            tutorListadoCache.invalidarPerfil(tutorProfile.getId());
+            tutorVersiones.cambioPerfil(tutorProfile.getId());
+        }
+
         return userMapper.userToUserResponse(updatedUser);
     }
 
@@ -136,6 +155,17 @@ public class UserServiceImpl implements UserService {
     public void deleteUserProfile(String userEmail) {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con email: " + userEmail + ". No se puede eliminar."));
+        if (user.getTutorProfile() != null) {
+            tutorSearchIndex.eliminar(user.getTutorProfile().getId());
+            disponibilidadBitmapIndex.quitarTutor(user.getTutorProfile().getId());
+            tutorListadoCache.invalidarTodo();
+            tutorVersiones.cambioTutor(user.getTutorProfile().getId());
+            agendaTutorIndex.olvidarTutor(user.getTutorProfile().getId());
+        }
+        if (user.getStudentProfile() != null) {
+            // Sus sesiones se borran en cascada y pueden ser de cualquier tutor
+            agendaTutorIndex.olvidarTodo();
+        }
         userRepository.delete(user);
     }
 }
\ No newline at end of file
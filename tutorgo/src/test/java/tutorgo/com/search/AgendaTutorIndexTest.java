@@ -0,0 +1,427 @@
+package tutorgo.com.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tutorgo.com.enums.EstadoSesionEnum;
+import tutorgo.com.model.Disponibilidad;
+import tutorgo.com.model.ReglaDisponibilidad;
+import tutorgo.com.model.Sesion;
+import tutorgo.com.model.Tutor;
+import tutorgo.com.repository.DisponibilidadRepository;
+import tutorgo.com.repository.ReglaDisponibilidadRepository;
+import tutorgo.com.repository.SesionRepository;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas Unitarias para AgendaTutorIndex")
+class AgendaTutorIndexTest {
+
+    private static final LocalDate LUNES = LocalDate.of(2025, 6, 2);
+
+    @Mock
+    private DisponibilidadRepository disponibilidadRepository;
+
+    @Mock
+    private SesionRepository sesionRepository;
+
+    @Mock
+    private ReglaDisponibilidadRepository reglaDisponibilidadRepository;
+
+    private final AtomicLong ahora = new AtomicLong();
+    private AgendaTutorIndex index;
+
+    // Lo que habría en las tablas: el índice se compara contra estas filas
+    private final Map<Long, Disponibilidad> disponibilidades = new HashMap<>();
+    private final Map<Long, Sesion> sesiones = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        index = new AgendaTutorIndex(disponibilidadRepository, sesionRepository, reglaDisponibilidadRepository,
+                100, TimeUnit.MINUTES.toNanos(10), ahora::get, 7,
+                Clock.fixed(LUNES.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC));
+        lenient().when(disponibilidadRepository.findFranjasIndexablesByTutorIdDesde(anyLong(), any())).thenAnswer(invocation -> {
+            Long tutorId = invocation.getArgument(0);
+            LocalDate desde = invocation.getArgument(1);
+            return disponibilidades.values().stream()
+                    .filter(d -> d.getTutor().getId().equals(tutorId) && !d.getFecha().isBefore(desde))
+                    .map(d -> (DisponibilidadRepository.FranjaIndexable) new FilaDisponibilidad(d)).toList();
+        });
+        lenient().when(sesionRepository.findFranjasActivasByTutorIdDesde(anyLong(), any())).thenAnswer(invocation -> {
+            Long tutorId = invocation.getArgument(0);
+            LocalDate desde = invocation.getArgument(1);
+            return sesiones.values().stream()
+                    .filter(s -> s.getTutor().getId().equals(tutorId) && !s.getFecha().isBefore(desde))
+                    .map(s -> (SesionRepository.FranjaOcupada) new FilaSesion(s)).toList();
+        });
+    }
+
+    private static LocalDateTime hora(LocalDate fecha, int minuto) {
+        return LocalDateTime.of(fecha, LocalTime.MIN).plusMinutes(minuto);
+    }
+
+    private Disponibilidad disponibilidad(long id, long tutorId, LocalDate fecha, int desde, int hasta) {
+        return Disponibilidad.builder().id(id).tutor(Tutor.builder().id(tutorId).build())
+                .fecha(fecha).horaInicial(hora(fecha, desde)).horaFinal(hora(fecha, hasta)).build();
+    }
+
+    private static ReglaDisponibilidad regla(long id, long tutorId, Set<DayOfWeek> dias, int desde, int hasta,
+                                             LocalDate fechaInicio, LocalDate fechaFin) {
+        return ReglaDisponibilidad.builder().id(id).tutor(Tutor.builder().id(tutorId).build()).diasSemana(dias)
+                .horaInicio(LocalTime.MIN.plusMinutes(desde)).horaFinal(LocalTime.MIN.plusMinutes(hasta))
+                .fechaInicio(fechaInicio).fechaFin(fechaFin).build();
+    }
+
+    private Sesion sesion(long id, long tutorId, LocalDate fecha, int desde, int hasta) {
+        return Sesion.builder().id(id).tutor(Tutor.builder().id(tutorId).build()).tipoEstado(EstadoSesionEnum.PENDIENTE)
+                .fecha(fecha).horaInicial(hora(fecha, desde)).horaFinal(hora(fecha, hasta)).build();
+    }
+
+    // Las mismas condiciones que las consultas JPQL de los repositorios, fila por fila
+    private static List<Long> idsQueCumplen(Map<Long, ?> tabla, Predicate<Object> condicion) {
+        return tabla.entrySet().stream().filter(e -> condicion.test(e.getValue())).map(Map.Entry::getKey).sorted().toList();
+    }
+
+    private static List<Long> ordenados(List<Long> ids) {
+        return ids.stream().sorted().toList();
+    }
+
+    // Contra las condiciones de las consultas escritas en Java sobre los mocks. La comparación contra
+    // PostgreSQL de verdad es tutorgo.com.carga.ConsistenciaAgenda (perfil "carga" del pom).
+    @Nested
+    @DisplayName("Pruebas de consistencia con las condiciones de las consultas")
+    class ConsistenciaTests {
+
+        @Test
+        @DisplayName("Debe cumplir las mismas condiciones que las consultas de solapamiento y contención tras altas, cambios y bajas")
+        void consultas_shouldMatchSqlPredicatesUnderRandomWrites() {
+            Random random = new Random(42);
+            long siguienteId = 1;
+            for (int i = 0; i < 300; i++) {
+                long tutorId = 1 + random.nextInt(3);
+                LocalDate fecha = LUNES.plusDays(random.nextInt(3));
+                int desde = random.nextInt(48) * 15 + random.nextInt(2) * 7;
+                int hasta = desde + 15 + random.nextInt(16) * 15;
+                long id = siguienteId++;
+                if (random.nextBoolean()) {
+                    disponibilidades.put(id, disponibilidad(id, tutorId, fecha, desde, hasta));
+                } else {
+                    sesiones.put(id, sesion(id, tutorId, fecha, desde, hasta));
+                }
+            }
+
+            for (int paso = 0; paso < 2000; paso++) {
+                int operacion = random.nextInt(10);
+                if (operacion == 0 && !disponibilidades.isEmpty()) {
+                    // Cambio de horario (y a veces de fecha) de un bloque existente
+                    Disponibilidad existente = new ArrayList<>(disponibilidades.values()).get(random.nextInt(disponibilidades.size()));
+                    LocalDate fecha = LUNES.plusDays(random.nextInt(3));
+                    int desde = random.nextInt(60) * 15;
+                    Disponibilidad cambiada = disponibilidad(existente.getId(), existente.getTutor().getId(), fecha, desde, desde + 60);
+                    disponibilidades.put(cambiada.getId(), cambiada);
+                    index.registrarDisponibilidad(cambiada);
+                } else if (operacion == 1 && !disponibilidades.isEmpty()) {
+                    Disponibilidad borrada = new ArrayList<>(disponibilidades.values()).get(random.nextInt(disponibilidades.size()));
+                    disponibilidades.remove(borrada.getId());
+                    index.quitarDisponibilidad(borrada.getTutor().getId(), borrada.getId());
+                } else if (operacion == 2) {
+                    long id = siguienteId++;
+                    Sesion nueva = sesion(id, 1 + random.nextInt(3), LUNES.plusDays(random.nextInt(3)), random.nextInt(90) * 15, 0);
+                    nueva.setHoraFinal(nueva.getHoraInicial().plusMinutes(45));
+                    sesiones.put(id, nueva);
+                    index.registrarSesion(nueva);
+                } else {
+                    compararConsultas(random);
+                }
+            }
+        }
+
+        private void compararConsultas(Random random) {
+            long tutorId = 1 + random.nextInt(3);
+            LocalDate fecha = LUNES.plusDays(random.nextInt(3));
+            LocalDateTime desde = hora(fecha, random.nextInt(96) * 15 + random.nextInt(3) * 5);
+            LocalDateTime hasta = desde.plusMinutes(5 + random.nextInt(24) * 10L);
+            Long excluir = random.nextBoolean() ? null : (long) (1 + random.nextInt(300));
+
+            // findDisponibilidadesSolapadas / ...ExcluyendoActual
+            assertEquals(idsQueCumplen(disponibilidades, fila -> {
+                Disponibilidad d = (Disponibilidad) fila;
+                return d.getTutor().getId().equals(tutorId) && (excluir == null || !d.getId().equals(excluir))
+                        && d.getFecha().equals(fecha)
+                        && d.getHoraInicial().isBefore(hasta) && d.getHoraFinal().isAfter(desde);
+            }), ordenados(index.disponibilidadesSolapadas(tutorId, fecha, desde, hasta, excluir)));
+
+            // findDisponibilidadQueEnvuelveElSlot
+            assertEquals(idsQueCumplen(disponibilidades, fila -> {
+                Disponibilidad d = (Disponibilidad) fila;
+                return d.getTutor().getId().equals(tutorId) && d.getFecha().equals(fecha)
+                        && !d.getHoraInicial().isAfter(desde) && !d.getHoraFinal().isBefore(hasta);
+            }), ordenados(index.disponibilidadesQueEnvuelven(tutorId, fecha, desde, hasta)));
+
+            // findSesionesSolapadasParaTutor / countSesionesActivasEnRango
+            assertEquals(idsQueCumplen(sesiones, fila -> {
+                Sesion s = (Sesion) fila;
+                return s.getTutor().getId().equals(tutorId) && s.getFecha().equals(fecha)
+                        && s.getHoraInicial().isBefore(hasta) && s.getHoraFinal().isAfter(desde);
+            }), ordenados(index.sesionesSolapadas(tutorId, fecha, desde, hasta)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Pruebas de carga y actualización")
+    class CargaTests {
+
+        @Test
+        @DisplayName("Debe cargar la agenda de un tutor una sola vez y aplicar las escrituras sin recargarla")
+        void agenda_shouldLoadOnceAndApplyWrites() {
+            disponibilidades.put(1L, disponibilidad(1L, 7L, LUNES, 9 * 60, 12 * 60));
+
+            assertEquals(List.of(1L), index.disponibilidadesQueEnvuelven(7L, LUNES, hora(LUNES, 10 * 60), hora(LUNES, 11 * 60)));
+            Sesion reservada = sesion(50L, 7L, LUNES, 10 * 60, 11 * 60);
+            index.registrarSesion(reservada);
+
+            assertEquals(List.of(50L), index.sesionesSolapadas(7L, LUNES, hora(LUNES, 10 * 60 + 30), hora(LUNES, 12 * 60)));
+            assertTrue(index.sesionesSolapadas(7L, LUNES, hora(LUNES, 11 * 60), hora(LUNES, 12 * 60)).isEmpty());
+            verify(disponibilidadRepository, times(1)).findFranjasIndexablesByTutorIdDesde(7L, LUNES.minusDays(7));
+            verify(sesionRepository, times(1)).findFranjasActivasByTutorIdDesde(7L, LUNES.minusDays(7));
+        }
+
+        @Test
+        @DisplayName("Debe volver a leer la agenda vencida u olvidada")
+        void agenda_whenExpiredOrForgotten_shouldReload() {
+            index.sesionesSolapadas(7L, LUNES, hora(LUNES, 0), hora(LUNES, 60));
+            ahora.addAndGet(TimeUnit.MINUTES.toNanos(11));
+            index.sesionesSolapadas(7L, LUNES, hora(LUNES, 0), hora(LUNES, 60));
+            index.olvidarTutor(7L);
+            index.sesionesSolapadas(7L, LUNES, hora(LUNES, 0), hora(LUNES, 60));
+
+            verify(sesionRepository, times(3)).findFranjasActivasByTutorIdDesde(7L, LUNES.minusDays(7));
+        }
+
+        @Test
+        @DisplayName("Debe guardar la agenda leída aunque otro tutor haya escrito mientras se cargaba")
+        void agenda_whenOtherTutorWritesDuringLoad_shouldStillCache() {
+            when(sesionRepository.findFranjasActivasByTutorIdDesde(7L, LUNES.minusDays(7))).thenAnswer(invocation -> {
+                index.registrarSesion(sesion(60L, 8L, LUNES, 0, 60));
+                return List.of();
+            });
+
+            index.sesionesSolapadas(7L, LUNES, hora(LUNES, 0), hora(LUNES, 60));
+            index.sesionesSolapadas(7L, LUNES, hora(LUNES, 0), hora(LUNES, 60));
+
+            verify(sesionRepository, times(1)).findFranjasActivasByTutorIdDesde(7L, LUNES.minusDays(7));
+        }
+
+        @Test
+        @DisplayName("No debe guardar la agenda si el mismo tutor escribió mientras se cargaba")
+        void agenda_whenSameTutorWritesDuringLoad_shouldNotCache() {
+            when(sesionRepository.findFranjasActivasByTutorIdDesde(7L, LUNES.minusDays(7))).thenAnswer(invocation -> {
+                index.registrarSesion(sesion(60L, 7L, LUNES, 0, 60));
+                return List.of();
+            });
+
+            index.sesionesSolapadas(7L, LUNES, hora(LUNES, 0), hora(LUNES, 60));
+            index.sesionesSolapadas(7L, LUNES, hora(LUNES, 0), hora(LUNES, 60));
+
+            verify(sesionRepository, times(2)).findFranjasActivasByTutorIdDesde(7L, LUNES.minusDays(7));
+        }
+
+        @Test
+        @DisplayName("Debe consultar en la base los bloques anteriores a los días cargados")
+        void disponibilidades_whenBeforeLoadedDays_shouldQueryDatabase() {
+            LocalDate antigua = LUNES.minusDays(30);
+            Disponibilidad vieja = disponibilidad(1L, 7L, antigua, 9 * 60, 12 * 60);
+            disponibilidades.put(1L, vieja);
+            when(disponibilidadRepository.findDisponibilidadesSolapadas(7L, antigua, hora(antigua, 10 * 60), hora(antigua, 11 * 60)))
+                    .thenReturn(List.of(vieja));
+            when(disponibilidadRepository.findDisponibilidadQueEnvuelveElSlot(7L, antigua, hora(antigua, 10 * 60), hora(antigua, 11 * 60)))
+                    .thenReturn(List.of(vieja));
+
+            assertEquals(List.of(1L), index.disponibilidadesSolapadas(7L, antigua, hora(antigua, 10 * 60), hora(antigua, 11 * 60), null));
+            assertTrue(index.disponibilidadesSolapadas(7L, antigua, hora(antigua, 10 * 60), hora(antigua, 11 * 60), 1L).isEmpty());
+            assertEquals(List.of(1L), index.disponibilidadesQueEnvuelven(7L, antigua, hora(antigua, 10 * 60), hora(antigua, 11 * 60)));
+
+            // Movido al lunes entra a la agenda; devuelto al pasado sale de ella
+            Disponibilidad movida = disponibilidad(1L, 7L, LUNES, 9 * 60, 12 * 60);
+            index.registrarDisponibilidad(movida);
+            assertEquals(List.of(1L), index.disponibilidadesQueEnvuelven(7L, LUNES, hora(LUNES, 10 * 60), hora(LUNES, 11 * 60)));
+            index.registrarDisponibilidad(vieja);
+            assertTrue(index.disponibilidadesQueEnvuelven(7L, LUNES, hora(LUNES, 10 * 60), hora(LUNES, 11 * 60)).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Debe consultar en la base las sesiones anteriores a los días cargados")
+        void sesiones_whenBeforeLoadedDays_shouldQueryDatabase() {
+            LocalDate antigua = LUNES.minusDays(28);
+            Sesion vieja = sesion(1L, 7L, antigua, 18 * 60, 19 * 60);
+            sesiones.put(1L, vieja);
+            when(sesionRepository.findSesionesSolapadasParaTutor(7L, antigua, hora(antigua, 18 * 60 + 30), hora(antigua, 20 * 60)))
+                    .thenReturn(List.of(vieja));
+            when(sesionRepository.findFranjasActivasByTutorIdAndFechaEntre(eq(7L), any(), any())).thenAnswer(invocation -> {
+                LocalDate desde = invocation.getArgument(1);
+                LocalDate hasta = invocation.getArgument(2);
+                // La agenda solo pide a la base los días que no cargó
+                assertTrue(hasta.isBefore(LUNES.minusDays(7)));
+                return sesiones.values().stream()
+                        .filter(s -> !s.getFecha().isBefore(desde) && !s.getFecha().isAfter(hasta))
+                        .map(s -> (SesionRepository.FranjaOcupada) new FilaSesion(s)).toList();
+            });
+
+            assertEquals(List.of(1L), index.sesionesSolapadas(7L, antigua, hora(antigua, 18 * 60 + 30), hora(antigua, 20 * 60)));
+            // La carga no la trae y registrarla tampoco la agrega a la agenda
+            index.registrarSesion(vieja);
+            ReglaSemanal lunes = ReglaSemanal.de(regla(100L, 7L, Set.of(DayOfWeek.MONDAY), 18 * 60, 19 * 60,
+                    antigua, LUNES));
+            assertEquals(List.of(1L), index.sesionesSolapadas(lunes, antigua));
+            assertFalse(index.libreEntre(lunes, antigua, antigua, null, null));
+            assertTrue(index.libreEntre(lunes, antigua, LUNES, null, null));
+        }
+    }
+
+    @Nested
+    @DisplayName("Pruebas de reglas semanales")
+    class ReglasTests {
+
+        // Lunes y miércoles de 18:00 a 21:00 durante cuatro semanas
+        private final ReglaDisponibilidad lunesYMiercoles = regla(100L, 7L, Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY),
+                18 * 60, 21 * 60, LUNES, LUNES.plusWeeks(4).minusDays(1));
+
+        @BeforeEach
+        void setUp() {
+            lunesYMiercoles.getExcepciones().add(LUNES.plusWeeks(1));
+            when(reglaDisponibilidadRepository.findConDetalleByTutorId(7L)).thenReturn(List.of(lunesYMiercoles));
+        }
+
+        @Test
+        @DisplayName("Debe responder solapamiento y contención con las ocurrencias de la regla sin expandirla")
+        void reglas_shouldAnswerOverlapAndContainmentPerOccurrence() {
+            LocalDate miercoles = LUNES.plusDays(2);
+            assertEquals(List.of(100L), index.reglasSolapadas(7L, miercoles, hora(miercoles, 20 * 60), hora(miercoles, 22 * 60), null));
+            assertTrue(index.reglasSolapadas(7L, miercoles, hora(miercoles, 20 * 60), hora(miercoles, 22 * 60), 100L).isEmpty());
+            assertEquals(List.of(100L), index.reglasQueEnvuelven(7L, miercoles, hora(miercoles, 18 * 60), hora(miercoles, 19 * 60)));
+            assertTrue(index.reglasQueEnvuelven(7L, miercoles, hora(miercoles, 20 * 60), hora(miercoles, 22 * 60)).isEmpty());
+
+            // Martes no es día de la regla, el lunes de la semana 2 es excepción y la semana 5 queda fuera
+            LocalDate martes = LUNES.plusDays(1);
+            LocalDate excluido = LUNES.plusWeeks(1);
+            LocalDate fueraDeRango = LUNES.plusWeeks(4);
+            assertTrue(index.reglasSolapadas(7L, martes, hora(martes, 18 * 60), hora(martes, 19 * 60), null).isEmpty());
+            assertTrue(index.reglasSolapadas(7L, excluido, hora(excluido, 18 * 60), hora(excluido, 19 * 60), null).isEmpty());
+            assertTrue(index.reglasSolapadas(7L, fueraDeRango, hora(fueraDeRango, 18 * 60), hora(fueraDeRango, 19 * 60), null).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Debe encontrar los bloques, reglas y sesiones que chocan con alguna ocurrencia de una regla nueva")
+        void reglaNueva_shouldFindConflictsAcrossOccurrences() {
+            LocalDate terceraSemana = LUNES.plusWeeks(2).plusDays(2);
+            disponibilidades.put(1L, disponibilidad(1L, 7L, terceraSemana, 20 * 60, 22 * 60));
+            disponibilidades.put(2L, disponibilidad(2L, 7L, LUNES.plusDays(3), 20 * 60, 22 * 60));
+            sesiones.put(3L, sesion(3L, 7L, LUNES.plusWeeks(3), 18 * 60, 19 * 60));
+
+            // Miércoles de 20:00 a 22:00: choca con el bloque 1 y con la regla existente, no con el jueves
+            ReglaSemanal nueva = ReglaSemanal.de(regla(0L, 7L, Set.of(DayOfWeek.WEDNESDAY), 20 * 60, 22 * 60,
+                    LUNES, LUNES.plusWeeks(4)));
+            assertEquals(List.of(1L), index.disponibilidadesSolapadas(nueva));
+            assertEquals(List.of(100L), index.reglasSolapadas(nueva));
+
+            ReglaSemanal existente = ReglaSemanal.de(lunesYMiercoles);
+            assertEquals(List.of(3L), index.sesionesSolapadas(existente, LUNES));
+            assertTrue(index.sesionesSolapadas(existente, LUNES.plusWeeks(3).plusDays(1)).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Debe aplicar los cambios de una regla sin recargar la agenda")
+        void registrarRegla_shouldUpdateLoadedAgenda() {
+            LocalDate excluido = LUNES.plusWeeks(1);
+            assertTrue(index.reglasSolapadas(7L, excluido, hora(excluido, 18 * 60), hora(excluido, 19 * 60), null).isEmpty());
+
+            lunesYMiercoles.getExcepciones().clear();
+            index.registrarRegla(lunesYMiercoles);
+            assertEquals(List.of(100L), index.reglasSolapadas(7L, excluido, hora(excluido, 18 * 60), hora(excluido, 19 * 60), null));
+
+            index.quitarRegla(7L, 100L);
+            assertTrue(index.reglasSolapadas(7L, excluido, hora(excluido, 18 * 60), hora(excluido, 19 * 60), null).isEmpty());
+            verify(reglaDisponibilidadRepository, times(1)).findConDetalleByTutorId(7L);
+        }
+
+        @Test
+        @DisplayName("Debe dar por ocupada una ocurrencia solo si sus sesiones tapan toda la ventana pedida")
+        void libreEntre_shouldSubtractActiveSessions() {
+            ReglaSemanal regla = ReglaSemanal.de(lunesYMiercoles);
+            LocalDate miercoles = LUNES.plusDays(2);
+            sesiones.put(1L, sesion(1L, 7L, miercoles, 18 * 60, 19 * 60));
+            sesiones.put(2L, sesion(2L, 7L, miercoles, 19 * 60, 20 * 60 + 30));
+
+            assertFalse(index.libreEntre(regla, miercoles, miercoles, LocalTime.of(18, 0), LocalTime.of(20, 30)));
+            // Queda libre de 20:30 a 21:00
+            assertTrue(index.libreEntre(regla, miercoles, miercoles, LocalTime.of(18, 0), null));
+            // El lunes siguiente es excepción, el miércoles de esa semana está libre
+            assertFalse(index.libreEntre(regla, miercoles, LUNES.plusWeeks(1), LocalTime.of(18, 0), LocalTime.of(20, 30)));
+            assertTrue(index.libreEntre(regla, miercoles, LUNES.plusWeeks(1).plusDays(2), LocalTime.of(18, 0), LocalTime.of(20, 30)));
+        }
+    }
+
+    private record FilaDisponibilidad(Disponibilidad d) implements DisponibilidadRepository.FranjaIndexable {
+        public Long getId() {
+            return d.getId();
+        }
+
+        public Long getTutorId() {
+            return d.getTutor().getId();
+        }
+
+        public LocalDate getFecha() {
+            return d.getFecha();
+        }
+
+        public LocalDateTime getHoraInicial() {
+            return d.getHoraInicial();
+        }
+
+        public LocalDateTime getHoraFinal() {
+            return d.getHoraFinal();
+        }
+    }
+
+    private record FilaSesion(Sesion s) implements SesionRepository.FranjaOcupada {
+        public Long getId() {
+            return s.getId();
+        }
+
+        public LocalDate getFecha() {
+            return s.getFecha();
+        }
+
+        public LocalDateTime getHoraInicial() {
+            return s.getHoraInicial();
+        }
+
+        public LocalDateTime getHoraFinal() {
+            return s.getHoraFinal();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package tutorgo.com.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tutorgo.com.model.Disponibilidad;
+import tutorgo.com.model.ReglaDisponibilidad;
+import tutorgo.com.model.Tutor;
+import tutorgo.com.repository.DisponibilidadRepository;
+import tutorgo.com.repository.ReglaDisponibilidadRepository;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas Unitarias para DisponibilidadBitmapIndex")
+class DisponibilidadBitmapIndexTest {
+
+    private static final LocalDate LUNES = LocalDate.of(2025, 6, 2);
+    private static final LocalDate MARTES = LUNES.plusDays(1);
+
+    @Mock
+    private DisponibilidadRepository disponibilidadRepository;
+
+    @Mock
+    private ReglaDisponibilidadRepository reglaDisponibilidadRepository;
+
+    @Mock
+    private AgendaTutorIndex agendaTutorIndex;
+
+    @InjectMocks
+    private DisponibilidadBitmapIndex index;
+
+    private static Disponibilidad bloque(Long id, Long tutorId, LocalDate fecha, LocalTime inicio, LocalTime fin) {
+        return Disponibilidad.builder()
+                .id(id)
+                .tutor(Tutor.builder().id(tutorId).build())
+                .fecha(fecha)
+                .horaInicial(LocalDateTime.of(fecha, inicio))
+                .horaFinal(LocalDateTime.of(fecha, fin))
+                .build();
+    }
+
+    private static DisponibilidadRepository.FranjaIndexable franja(Disponibilidad d) {
+        return new DisponibilidadRepository.FranjaIndexable() {
+            @Override
+            public Long getId() {
+                return d.getId();
+            }
+
+            @Override
+            public Long getTutorId() {
+                return d.getTutor().getId();
+            }
+
+            @Override
+            public LocalDate getFecha() {
+                return d.getFecha();
+            }
+
+            @Override
+            public LocalDateTime getHoraInicial() {
+                return d.getHoraInicial();
+            }
+
+            @Override
+            public LocalDateTime getHoraFinal() {
+                return d.getHoraFinal();
+            }
+        };
+    }
+
+    @Nested
+    @DisplayName("Pruebas para buscar")
+    class BuscarTests {
+
+        @BeforeEach
+        void setUp() {
+            when(disponibilidadRepository.findAllFranjasIndexables()).thenReturn(List.of(
+                    franja(bloque(1L, 10L, LUNES, LocalTime.of(9, 0), LocalTime.of(12, 0))),
+                    franja(bloque(2L, 20L, LUNES, LocalTime.of(14, 0), LocalTime.of(16, 0))),
+                    franja(bloque(3L, 30L, MARTES, LocalTime.of(9, 0), LocalTime.of(10, 0))),
+                    franja(bloque(4L, 40L, LUNES, LocalTime.of(10, 17), LocalTime.of(10, 20)))
+            ));
+            when(reglaDisponibilidadRepository.findAllConDetalle()).thenReturn(List.of());
+            index.reconstruir();
+        }
+
+        @Test
+        @DisplayName("Debe devolver los tutores con un bloque que se cruce con la ventana")
+        void buscar_shouldReturnTutorsOverlappingWindow() {
+            DisponibilidadBitmapIndex.Resultado resultado =
+                    index.buscar(LUNES, LUNES, LocalTime.of(11, 0), LocalTime.of(15, 0));
+
+            assertEquals(Set.of(10L, 20L), resultado.tutorIds());
+            assertTrue(resultado.exacto());
+        }
+
+        @Test
+        @DisplayName("No debe contar bloques que solo tocan el borde de la ventana")
+        void buscar_shouldTreatWindowAsHalfOpen() {
+            assertEquals(Set.of(10L), index.buscar(LUNES, LUNES, LocalTime.of(11, 45), LocalTime.of(14, 0)).tutorIds());
+            assertEquals(Set.of(20L), index.buscar(LUNES, LUNES, LocalTime.of(12, 0), null).tutorIds());
+        }
+
+        @Test
+        @DisplayName("Debe respetar el rango de fechas y dejar abiertos los extremos sin hora")
+        void buscar_shouldRespectDateRangeAndOpenEnds() {
+            assertEquals(Set.of(30L), index.buscar(MARTES, MARTES.plusDays(5), null, null).tutorIds());
+            assertEquals(Set.of(10L, 20L, 30L, 40L), index.buscar(LUNES, MARTES, null, null).tutorIds());
+            assertTrue(index.buscar(MARTES.plusDays(1), MARTES.plusDays(9), null, null).tutorIds().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Debe avisar que el resultado no es exacto si hay bloques fuera de los cuartos de hora")
+        void buscar_whenBlockIsNotAligned_shouldNotBeExact() {
+            DisponibilidadBitmapIndex.Resultado resultado =
+                    index.buscar(LUNES, LUNES, LocalTime.of(10, 0), LocalTime.of(10, 15));
+
+            assertEquals(Set.of(10L), resultado.tutorIds());
+            assertTrue(resultado.exacto());
+
+            resultado = index.buscar(LUNES, LUNES, LocalTime.of(10, 15), LocalTime.of(10, 30));
+            assertEquals(Set.of(10L, 40L), resultado.tutorIds());
+            assertFalse(resultado.exacto());
+        }
+
+        @Test
+        @DisplayName("Debe avisar que el resultado no es exacto si la ventana no cae en cuartos de hora")
+        void buscar_whenWindowIsNotAligned_shouldNotBeExact() {
+            DisponibilidadBitmapIndex.Resultado resultado =
+                    index.buscar(LUNES, LUNES, LocalTime.of(11, 50), LocalTime.of(13, 0));
+
+            assertEquals(Set.of(10L), resultado.tutorIds());
+            assertFalse(resultado.exacto());
+        }
+    }
+
+    @Nested
+    @DisplayName("Pruebas para las actualizaciones incrementales")
+    class ActualizacionTests {
+
+        @Test
+        @DisplayName("Debe mover el bloque al registrar un cambio")
+        void registrar_shouldReplacePreviousBlock() {
+            index.registrar(bloque(1L, 10L, LUNES, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+            index.registrar(bloque(1L, 10L, LUNES, LocalTime.of(15, 0), LocalTime.of(16, 0)));
+
+            assertTrue(index.buscar(LUNES, LUNES, LocalTime.of(9, 0), LocalTime.of(10, 0)).tutorIds().isEmpty());
+            assertEquals(Set.of(10L), index.buscar(LUNES, LUNES, LocalTime.of(15, 30), LocalTime.of(17, 0)).tutorIds());
+        }
+
+        @Test
+        @DisplayName("Debe conservar las franjas de los demás bloques del día al quitar uno")
+        void quitar_shouldKeepOtherBlocksOfTheDay() {
+            index.registrar(bloque(1L, 10L, LUNES, LocalTime.of(9, 0), LocalTime.of(10, 5)));
+            index.registrar(bloque(2L, 10L, LUNES, LocalTime.of(10, 10), LocalTime.of(11, 0)));
+            index.quitar(1L);
+
+            assertEquals(Set.of(10L), index.buscar(LUNES, LUNES, LocalTime.of(10, 0), LocalTime.of(10, 15)).tutorIds());
+            assertTrue(index.buscar(LUNES, LUNES, LocalTime.of(9, 0), LocalTime.of(10, 0)).tutorIds().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Debe quitar todos los bloques de un tutor eliminado")
+        void quitarTutor_shouldRemoveAllBlocks() {
+            index.registrar(bloque(1L, 10L, LUNES, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+            index.registrar(bloque(2L, 10L, MARTES, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+            index.quitarTutor(10L);
+
+            assertTrue(index.buscar(LUNES, MARTES, null, null).tutorIds().isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Pruebas de reglas semanales")
+    class ReglasTests {
+
+        // Miércoles de 18:00 a 21:00 durante junio, salvo el 11
+        private final ReglaDisponibilidad miercoles = ReglaDisponibilidad.builder().id(9L)
+                .tutor(Tutor.builder().id(50L).build())
+                .diasSemana(Set.of(DayOfWeek.WEDNESDAY))
+                .horaInicio(LocalTime.of(18, 0)).horaFinal(LocalTime.of(21, 0))
+                .fechaInicio(LUNES).fechaFin(LUNES.plusDays(28))
+                .excepciones(new HashSet<>(Set.of(LUNES.plusDays(9))))
+                .build();
+
+        // Sin sesiones: la agenda responde lo mismo que la regla sola
+        @BeforeEach
+        void setUp() {
+            lenient().when(agendaTutorIndex.libreEntre(any(), any(), any(), any(), any())).thenAnswer(invocacion ->
+                    invocacion.<ReglaSemanal>getArgument(0).disponibleEntre(invocacion.getArgument(1),
+                            invocacion.getArgument(2), invocacion.getArgument(3), invocacion.getArgument(4)));
+        }
+
+        @Test
+        @DisplayName("Debe encontrar al tutor por una ocurrencia de la regla, de forma exacta")
+        void buscar_whenRuleOccursInWindow_shouldReturnTutorAsExact() {
+            index.registrarRegla(miercoles);
+            // Un bloque desalineado del mismo tutor no le quita exactitud: ya lo confirmó la regla
+            index.registrar(bloque(1L, 50L, LUNES.plusDays(2), LocalTime.of(18, 7), LocalTime.of(18, 20)));
+
+            DisponibilidadBitmapIndex.Resultado resultado = index.buscar(LUNES, LUNES.plusDays(6), LocalTime.of(18, 10), null);
+            assertEquals(Set.of(50L), resultado.tutorIds());
+            assertEquals(Set.of(50L), resultado.porRegla());
+            assertTrue(resultado.exacto());
+
+            assertTrue(index.buscar(LUNES, LUNES.plusDays(6), LocalTime.of(21, 0), null).porRegla().isEmpty());
+            assertTrue(index.buscar(LUNES, LUNES.plusDays(1), null, null).tutorIds().isEmpty());
+        }
+
+        @Test
+        @DisplayName("No debe contar las fechas excluidas ni una regla quitada")
+        void buscar_shouldSkipExceptionsAndRemovedRules() {
+            index.registrarRegla(miercoles);
+            LocalDate excluido = LUNES.plusDays(9);
+            assertTrue(index.buscar(excluido, excluido, null, null).tutorIds().isEmpty());
+            assertEquals(Set.of(50L), index.buscar(excluido, excluido.plusDays(7), null, null).tutorIds());
+
+            index.quitarRegla(9L);
+            assertTrue(index.buscar(LUNES, LUNES.plusDays(28), null, null).tutorIds().isEmpty());
+        }
+
+        @Test
+        @DisplayName("No debe contar una ocurrencia que las sesiones del tutor ocupan, pero sí sus bloques")
+        void buscar_whenSessionsFillRuleOccurrence_shouldOnlyMatchByBlocks() {
+            index.registrarRegla(miercoles);
+            LocalDate miercolesDia = LUNES.plusDays(2);
+            doReturn(false).when(agendaTutorIndex)
+                    .libreEntre(any(), eq(miercolesDia), eq(miercolesDia), eq(LocalTime.of(18, 0)), isNull());
+
+            assertTrue(index.buscar(miercolesDia, miercolesDia, LocalTime.of(18, 0), null).tutorIds().isEmpty());
+
+            index.registrar(bloque(1L, 50L, miercolesDia, LocalTime.of(21, 0), LocalTime.of(22, 0)));
+            DisponibilidadBitmapIndex.Resultado resultado = index.buscar(miercolesDia, miercolesDia, LocalTime.of(18, 0), null);
+            assertEquals(Set.of(50L), resultado.tutorIds());
+            assertTrue(resultado.porRegla().isEmpty());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package tutorgo.com.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Elegir la página k de un ranking en memoria: heap acotado (TopK) contra ordenar todo y cortar.
+// Las filas imitan las de TutorRankingRepository y el comparador es el del orden "recomendado".
+// No corre con "mvn test"; ver el perfil "benchmark" del pom.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopKBenchmark {
+
+    @Param({"10000", "100000"})
+    private int tutores;
+
+    // Página 1 y página 10 de 9 resultados
+    @Param({"9", "90"})
+    private int k;
+
+    private List<Fila> filas;
+    private Comparator<Fila> orden;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        filas = new ArrayList<>(tutores);
+        for (long id = 1; id <= tutores; id++) {
+            filas.add(new Fila(id, 20 + random.nextInt(130), random.nextInt(51) / 10f, random.nextInt(8)));
+        }
+        orden = Comparator.comparingDouble(Fila::puntaje).reversed().thenComparing(Fila::id);
+    }
+
+    @Benchmark
+    public List<Fila> heapAcotado() {
+        return TopK.seleccionar(filas, k, orden);
+    }
+
+    @Benchmark
+    public List<Fila> ordenarTodo() {
+        List<Fila> copia = new ArrayList<>(filas);
+        copia.sort(orden);
+        return copia.subList(0, k);
+    }
+
+    public record Fila(long id, int tarifaHora, float estrellasPromedio, int relevancia) {
+
+        double puntaje() {
+            return 0.6 * estrellasPromedio / 5 + 0.25 * relevancia / 7.0 + 0.15 * (1 - tarifaHora / 150.0);
+        }
+    }
+}
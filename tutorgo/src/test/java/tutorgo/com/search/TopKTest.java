@@ -0,0 +1,43 @@
+package tutorgo.com.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Pruebas Unitarias para TopK")
+class TopKTest {
+
+    @Test
+    @DisplayName("Debe devolver los k primeros ordenados, igual que ordenar la lista entera")
+    void seleccionar_shouldMatchFullSortPrefix() {
+        Random random = new Random(7);
+        List<Integer> numeros = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            numeros.add(random.nextInt(1_000));
+        }
+        Comparator<Integer> mayorPrimero = Comparator.<Integer>naturalOrder().reversed();
+
+        List<Integer> ordenados = new ArrayList<>(numeros);
+        ordenados.sort(mayorPrimero);
+
+        for (int k : new int[]{1, 9, 90, 4_999}) {
+            assertEquals(ordenados.subList(0, k), TopK.seleccionar(numeros, k, mayorPrimero), "k = " + k);
+        }
+    }
+
+    @Test
+    @DisplayName("Debe devolver todos ordenados si k supera el tamaño, y nada si k es cero")
+    void seleccionar_whenKOutOfRange_shouldClamp() {
+        List<Integer> numeros = List.of(3, 1, 2);
+
+        assertEquals(List.of(1, 2, 3), TopK.seleccionar(numeros, 10, Comparator.naturalOrder()));
+        assertTrue(TopK.seleccionar(numeros, 0, Comparator.naturalOrder()).isEmpty());
+        assertTrue(TopK.seleccionar(List.<Integer>of(), 5, Comparator.naturalOrder()).isEmpty());
+    }
+}
@@ -0,0 +1,170 @@
+package tutorgo.com.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import tutorgo.com.dto.response.PagedResponse;
+import tutorgo.com.dto.response.TutorSummaryResponse;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Pruebas Unitarias para TutorListadoCache")
+class TutorListadoCacheTest {
+
+    private static final LocalDate LUNES = LocalDate.of(2025, 6, 2);
+    private static final Sort POR_ID = Sort.by("id");
+
+    private final AtomicLong ahora = new AtomicLong();
+    private final AtomicInteger calculos = new AtomicInteger();
+    private TutorListadoCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TutorListadoCache(3, 60, ahora::get);
+    }
+
+    private static TutorListadoCache.Clave clave(String texto, Float puntuacion, LocalDate desde, LocalDate hasta, Sort orden) {
+        return new TutorListadoCache.Clave(texto, null, puntuacion, desde, hasta, null, null, orden, 0, 9, null, false);
+    }
+
+    private static TutorListadoCache.Clave clave(String texto) {
+        return clave(texto, null, null, null, POR_ID);
+    }
+
+    private PagedResponse<TutorSummaryResponse> obtener(TutorListadoCache.Clave clave, Long... tutorIds) {
+        return cache.obtener(clave, () -> {
+            calculos.incrementAndGet();
+            List<TutorSummaryResponse> contenido = Arrays.stream(tutorIds).map(id -> {
+                TutorSummaryResponse tutor = new TutorSummaryResponse();
+                tutor.setTutorId(id);
+                return tutor;
+            }).toList();
+            return new PagedResponse<>(contenido, 0, 9, contenido.size(), 1, true, null);
+        });
+    }
+
+    @Nested
+    @DisplayName("Pruebas para obtener")
+    class ObtenerTests {
+
+        @Test
+        @DisplayName("Debe calcular una sola vez la misma búsqueda y contar aciertos y fallos")
+        void obtener_whenRepeated_shouldComputeOnce() {
+            obtener(clave("Java"), 1L);
+            obtener(clave(" java "), 1L);
+            obtener(clave("python"), 2L);
+
+            assertEquals(2, calculos.get());
+            TutorListadoCache.Estadisticas estadisticas = cache.estadisticas();
+            assertEquals(1, estadisticas.aciertos());
+            assertEquals(2, estadisticas.fallos());
+            assertEquals(2, estadisticas.entradas());
+        }
+
+        @Test
+        @DisplayName("Debe expulsar la entrada menos usada al superar el tamaño máximo")
+        void obtener_whenFull_shouldEvictLeastRecentlyUsed() {
+            obtener(clave("a"), 1L);
+            obtener(clave("b"), 1L);
+            obtener(clave("c"), 1L);
+            obtener(clave("a"), 1L); // "b" pasa a ser la menos usada
+            obtener(clave("d"), 1L);
+
+            obtener(clave("a"), 1L);
+            obtener(clave("b"), 1L);
+
+            assertEquals(5, calculos.get());
+            assertEquals(3, cache.estadisticas().entradas());
+            assertTrue(cache.estadisticas().expulsadas() >= 1);
+        }
+
+        @Test
+        @DisplayName("Debe volver a calcular una entrada vencida")
+        void obtener_whenExpired_shouldRecompute() {
+            obtener(clave("java"), 1L);
+            ahora.addAndGet(TimeUnit.SECONDS.toNanos(61));
+            obtener(clave("java"), 1L);
+
+            assertEquals(2, calculos.get());
+        }
+
+        @Test
+        @DisplayName("No debe guardar una página calculada mientras se invalidaba la caché")
+        void obtener_whenInvalidatedWhileComputing_shouldNotStore() {
+            cache.obtener(clave("java"), () -> {
+                calculos.incrementAndGet();
+                cache.invalidarTodo();
+                return new PagedResponse<>(List.of(), 0, 9, 0, 0, true, null);
+            });
+            obtener(clave("java"));
+
+            assertEquals(2, calculos.get());
+        }
+    }
+
+    @Nested
+    @DisplayName("Pruebas para la invalidación")
+    class InvalidacionTests {
+
+        @Test
+        @DisplayName("Un cambio de disponibilidad solo debe borrar las búsquedas cuya ventana incluye la fecha")
+        void invalidarDisponibilidad_shouldOnlyAffectWindowsContainingDate() {
+            TutorListadoCache.Clave sinVentana = clave(null);
+            TutorListadoCache.Clave conLunes = clave(null, null, LUNES, LUNES.plusDays(6), POR_ID);
+            TutorListadoCache.Clave otraSemana = clave(null, null, LUNES.plusDays(7), LUNES.plusDays(13), POR_ID);
+            obtener(sinVentana, 1L);
+            obtener(conLunes, 1L);
+            obtener(otraSemana, 1L);
+
+            cache.invalidarDisponibilidad(LUNES.plusDays(2));
+            obtener(sinVentana, 1L);
+            obtener(conLunes, 1L);
+            obtener(otraSemana, 1L);
+
+            assertEquals(4, calculos.get());
+            assertEquals(1, cache.estadisticas().invalidadas());
+        }
+
+        @Test
+        @DisplayName("Un cambio de puntuación debe borrar las búsquedas por estrellas y las que muestran al tutor")
+        void invalidarPuntuacion_shouldAffectStarFiltersSortsAndPagesShowingTutor() {
+            TutorListadoCache.Clave muestraAlTutor = clave("java");
+            TutorListadoCache.Clave otroTutor = clave("python");
+            TutorListadoCache.Clave porEstrellas = clave(null, null, null, null, Sort.by(Sort.Direction.DESC, "estrellasPromedio"));
+            obtener(muestraAlTutor, 7L);
+            obtener(otroTutor, 8L);
+            obtener(porEstrellas, 8L);
+
+            cache.invalidarPuntuacion(7L);
+            obtener(muestraAlTutor, 7L);
+            obtener(otroTutor, 8L);
+            obtener(porEstrellas, 8L);
+
+            assertEquals(5, calculos.get());
+        }
+
+        @Test
+        @DisplayName("Un cambio de perfil debe borrar las búsquedas por texto y conservar las demás")
+        void invalidarPerfil_shouldAffectTextSearches() {
+            TutorListadoCache.Clave porTexto = clave("java");
+            TutorListadoCache.Clave conPuntuacion = clave(null, 4f, null, null, POR_ID);
+            obtener(porTexto, 8L);
+            obtener(conPuntuacion, 8L);
+
+            cache.invalidarPerfil(7L);
+            obtener(porTexto, 8L);
+            obtener(conPuntuacion, 8L);
+
+            assertEquals(3, calculos.get());
+        }
+    }
+}
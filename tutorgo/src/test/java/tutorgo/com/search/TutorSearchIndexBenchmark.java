@@ -0,0 +1,103 @@
+package tutorgo.com.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Índice de trigramas contra lo que hace el LIKE '%texto%' de searchWithFilters: recorrer todas las
+// filas y comparar lower(nombre)/lower(rubro). Ojo: el recorrido es una imitación en memoria del LIKE,
+// no la consulta real, así que no incluye el I/O de la base y en producción la diferencia es mayor.
+//
+// El LIKE no quita tildes ("calculo" no encuentra "Cálculo") y el índice sí, así que los datos se
+// generan ya sin tildes: de otro modo cada lado respondería otra cosa. Al preparar cada caso se
+// verifica que los dos devuelvan los mismos tutores. No corre con "mvn test"; ver el perfil
+// "benchmark" del pom.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TutorSearchIndexBenchmark {
+
+    private static final String[] NOMBRES = {"Ana", "Carlos", "Lucía", "José", "María", "Javier", "Sofía",
+            "Pedro", "Valeria", "Diego", "Camila", "Andrés", "Mariana", "Luis", "Renata", "Íñigo"};
+    private static final String[] APELLIDOS = {"Núñez", "Pérez", "Gómez", "Ruiz", "Díaz", "Torres", "Castañeda",
+            "Rojas", "Vargas", "Quispe", "Mendoza", "Salazar", "Chávez", "Ramírez", "Flores", "Cruz"};
+    private static final String[] MATERIAS = {"Matemática", "Álgebra Lineal", "Cálculo Diferencial", "Física",
+            "Química Orgánica", "Programación Java", "Programación Python", "Inglés", "Historia del Perú",
+            "Estadística", "Economía", "Contabilidad", "Biología", "Redacción", "Francés", "Bases de Datos",
+            "Geometría", "Trigonometría", "Termodinámica", "Microeconomía", "Derecho Civil", "Anatomía",
+            "Farmacología", "Arquitectura de Software", "Redes", "Sistemas Operativos", "Marketing", "Finanzas",
+            "Portugués", "Alemán", "Literatura", "Filosofía"};
+    private static final String[] NIVELES = {"Escolar", "Preuniversitario", "Universitario", "para niños", "Avanzado"};
+
+    @Param({"10000", "100000"})
+    private int tutores;
+
+    @Param({"java", "calculo", "ana", "quimica organica"})
+    private String consulta;
+
+    private TutorSearchIndex index;
+    private List<String[]> filas;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new TutorSearchIndex(null);
+        filas = new ArrayList<>(tutores);
+        for (long id = 1; id <= tutores; id++) {
+            String nombre = sinTildes(NOMBRES[random.nextInt(NOMBRES.length)] + " "
+                    + APELLIDOS[random.nextInt(APELLIDOS.length)]);
+            String rubro = sinTildes(MATERIAS[random.nextInt(MATERIAS.length)] + " "
+                    + NIVELES[random.nextInt(NIVELES.length)]);
+            index.indexar(id, nombre, rubro);
+            filas.add(new String[]{nombre, rubro});
+        }
+
+        // Si los dos lados no calculan lo mismo, comparar sus tiempos no dice nada
+        List<Long> delIndice = indiceTrigramas().stream().sorted().toList();
+        List<Long> delLike = recorridoLike();
+        if (delLike.isEmpty() || !delIndice.equals(delLike)) {
+            throw new IllegalStateException("El índice y el LIKE no coinciden para '" + consulta + "': "
+                    + delIndice.size() + " contra " + delLike.size() + " tutores");
+        }
+    }
+
+    @Benchmark
+    public List<Long> indiceTrigramas() {
+        return index.buscar(consulta);
+    }
+
+    @Benchmark
+    public List<Long> recorridoLike() {
+        String patron = consulta.toLowerCase(Locale.ROOT);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < filas.size(); i++) {
+            String[] fila = filas.get(i);
+            if (fila[0].toLowerCase(Locale.ROOT).contains(patron) || fila[1].toLowerCase(Locale.ROOT).contains(patron)) {
+                ids.add(i + 1L);
+            }
+        }
+        return ids;
+    }
+
+    private static String sinTildes(String texto) {
+        return Normalizer.normalize(texto, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+    }
+}
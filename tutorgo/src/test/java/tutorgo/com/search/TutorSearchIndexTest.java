@@ -0,0 +1,142 @@
+package tutorgo.com.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tutorgo.com.repository.TutorRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas Unitarias para TutorSearchIndex")
+class TutorSearchIndexTest {
+
+    @Mock
+    private TutorRepository tutorRepository;
+
+    @InjectMocks
+    private TutorSearchIndex index;
+
+    private static TutorRepository.TextoBuscable tutor(Long id, String nombre, String rubro) {
+        return new TutorRepository.TextoBuscable() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getNombre() {
+                return nombre;
+            }
+
+            @Override
+            public String getRubro() {
+                return rubro;
+            }
+        };
+    }
+
+    @Nested
+    @DisplayName("Pruebas para buscar")
+    class BuscarTests {
+
+        @BeforeEach
+        void setUp() {
+            when(tutorRepository.findAllTextoBuscable()).thenReturn(List.of(
+                    tutor(1L, "Ana Núñez", "Álgebra Lineal"),
+                    tutor(2L, "Carlos Java", "Programación"),
+                    tutor(3L, "Javier Ruiz", "Matemática"),
+                    tutor(4L, "María Pérez", "Inglés para niños"),
+                    tutor(5L, "Pedro de la Cruz", "Historia"),
+                    tutor(6L, "Mariana López", "Química"),
+                    tutor(8L, "Anabel Soto", "Física")
+            ));
+            index.reconstruir();
+        }
+
+        @Test
+        @DisplayName("Debe ignorar mayúsculas, tildes y la ñ")
+        void buscar_shouldIgnoreCaseAndAccents() {
+            assertEquals(List.of(1L), index.buscar("ALGEBRA"));
+            assertEquals(List.of(1L), index.buscar("nunez"));
+            assertEquals(List.of(2L), index.buscar("programacion"));
+        }
+
+        @Test
+        @DisplayName("Debe encontrar subcadenas en medio de una palabra, incluso de una o dos letras")
+        void buscar_shouldMatchSubstrings() {
+            assertEquals(List.of(1L), index.buscar("ebra"));
+            assertEquals(List.of(4L), index.buscar("ño"));
+            assertTrue(index.buscar("z").containsAll(List.of(1L, 3L, 4L, 5L)));
+        }
+
+        @Test
+        @DisplayName("Debe ordenar por relevancia: palabra exacta, luego prefijo, luego subcadena")
+        void buscar_shouldRankExactMatchesFirst() {
+            assertEquals(List.of(1L, 8L, 6L), index.buscar("ana"));
+        }
+
+        @Test
+        @DisplayName("Debe exigir todos los términos e ignorar las palabras vacías")
+        void buscar_shouldRequireAllTermsAndSkipStopwords() {
+            assertEquals(List.of(4L), index.buscar("inglés para niños"));
+            assertEquals(List.of(), index.buscar("ingles historia"));
+            assertEquals(List.of(5L), index.buscar("de"));
+        }
+
+        @Test
+        @DisplayName("Debe encontrar el singular al buscar en plural")
+        void buscar_shouldMatchSingularForPluralQuery() {
+            assertEquals(List.of(3L), index.buscar("matemáticas"));
+        }
+
+        @Test
+        @DisplayName("Debe devolver una lista vacía si nada coincide o la consulta no tiene texto")
+        void buscar_whenNothingMatches_shouldReturnEmpty() {
+            assertTrue(index.buscar("física cuántica").isEmpty());
+            assertTrue(index.buscar(" ¿? ").isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Pruebas para las actualizaciones incrementales")
+    class ActualizacionTests {
+
+        @Test
+        @DisplayName("No debe estar listo hasta que se construya")
+        void isListo_beforeReconstruir_shouldBeFalse() {
+            assertFalse(index.isListo());
+            when(tutorRepository.findAllTextoBuscable()).thenReturn(List.of());
+            index.reconstruir();
+            assertTrue(index.isListo());
+        }
+
+        @Test
+        @DisplayName("Debe reemplazar el texto anterior al reindexar un tutor")
+        void indexar_shouldReplacePreviousText() {
+            index.indexar(7L, "Lucía Gómez", "Química");
+            assertEquals(List.of(7L), index.buscar("quimica"));
+
+            index.indexar(7L, "Lucía Gómez", "Física");
+            assertTrue(index.buscar("quimica").isEmpty());
+            assertEquals(List.of(7L), index.buscar("fisica"));
+        }
+
+        @Test
+        @DisplayName("Debe quitar del índice al tutor eliminado")
+        void eliminar_shouldRemoveTutor() {
+            index.indexar(7L, "Lucía Gómez", "Química");
+            index.eliminar(7L);
+
+            assertTrue(index.buscar("lucia").isEmpty());
+        }
+    }
+}
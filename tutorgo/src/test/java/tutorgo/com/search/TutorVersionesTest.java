@@ -0,0 +1,103 @@
+package tutorgo.com.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tutorgo.com.repository.TutorRepository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas Unitarias para TutorVersiones")
+class TutorVersionesTest {
+
+    private static final Instant MODIFICADO = Instant.parse("2025-06-02T10:00:00Z");
+
+    @Mock private TutorRepository tutorRepository;
+
+    private static TutorRepository.VersionGuardada guardada(long cantidad, Instant modificado) {
+        return new TutorRepository.VersionGuardada() {
+            @Override
+            public Long getCantidad() {
+                return cantidad;
+            }
+
+            @Override
+            public Instant getModificado() {
+                return modificado;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Dos nodos deben dar el mismo ETag para la misma versión guardada")
+    void version_shouldOnlyDependOnPersistedState() {
+        when(tutorRepository.findVersionDisponibilidad(1L)).thenReturn(Optional.of(guardada(3, MODIFICADO)));
+
+        TutorVersiones.Version nodoA = new TutorVersiones(tutorRepository).disponibilidad(1L).orElseThrow();
+        TutorVersiones.Version nodoB = new TutorVersiones(tutorRepository).disponibilidad(1L).orElseThrow();
+
+        assertEquals(nodoA, nodoB);
+        assertEquals(MODIFICADO, nodoA.modificado());
+    }
+
+    @Test
+    @DisplayName("El ETag debe cambiar con el contador y ser distinto para cada tutor y recurso")
+    void version_shouldDifferByCounterTutorAndResource() {
+        when(tutorRepository.findVersionDisponibilidad(1L))
+                .thenReturn(Optional.of(guardada(3, MODIFICADO)))
+                .thenReturn(Optional.of(guardada(4, MODIFICADO.plusSeconds(1))));
+        when(tutorRepository.findVersionDisponibilidad(2L)).thenReturn(Optional.of(guardada(3, MODIFICADO)));
+        when(tutorRepository.findVersionPerfil(1L)).thenReturn(Optional.of(guardada(3, MODIFICADO)));
+        TutorVersiones versiones = new TutorVersiones(tutorRepository);
+
+        String disponibilidad = versiones.disponibilidad(1L).orElseThrow().etag();
+
+        assertNotEquals(disponibilidad, versiones.disponibilidad(1L).orElseThrow().etag());
+        assertNotEquals(disponibilidad, versiones.disponibilidad(2L).orElseThrow().etag());
+        assertNotEquals(disponibilidad, versiones.perfil(1L).orElseThrow().etag());
+    }
+
+    @Test
+    @DisplayName("Debe armar el ETag de una variante entre comillas y distinto para cada variante")
+    void etag_withVariante_shouldBeQuotedAndDistinct() {
+        when(tutorRepository.findVersionDisponibilidad(1L)).thenReturn(Optional.of(guardada(0, MODIFICADO)));
+        TutorVersiones.Version disponibilidad = new TutorVersiones(tutorRepository).disponibilidad(1L).orElseThrow();
+
+        String ventana = disponibilidad.etag("2025-06-02-2025-06-30-0-20");
+
+        assertTrue(ventana.startsWith("\"d-") && ventana.endsWith("-2025-06-02-2025-06-30-0-20\""));
+        // Sin comillas en el medio: solo la de apertura y la de cierre
+        assertEquals(ventana.length() - 1, ventana.indexOf('"', 1));
+        assertNotEquals(ventana, disponibilidad.etag("2025-06-02-2025-06-30-1-20"));
+        assertNotEquals(disponibilidad.etag(), ventana);
+    }
+
+    @Test
+    @DisplayName("Sin tutor no debe haber versión")
+    void version_whenTutorMissing_shouldBeEmpty() {
+        when(tutorRepository.findVersionPerfil(9L)).thenReturn(Optional.empty());
+
+        assertTrue(new TutorVersiones(tutorRepository).perfil(9L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Un cambio debe incrementar solo la versión guardada del recurso afectado")
+    void cambio_shouldIncrementPersistedVersion() {
+        TutorVersiones versiones = new TutorVersiones(tutorRepository);
+
+        versiones.cambioDisponibilidad(1L);
+        versiones.cambioTutor(2L);
+
+        verify(tutorRepository).incrementarVersionDisponibilidad(1L);
+        verify(tutorRepository).incrementarVersionPerfil(2L);
+        verify(tutorRepository).incrementarVersionDisponibilidad(2L);
+        verifyNoMoreInteractions(tutorRepository);
+    }
+}
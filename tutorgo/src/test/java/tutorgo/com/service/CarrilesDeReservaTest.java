@@ -0,0 +1,95 @@
+package tutorgo.com.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import tutorgo.com.exception.BadRequestException;
+import tutorgo.com.exception.ServicioSaturadoException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("Pruebas Unitarias para CarrilesDeReserva")
+class CarrilesDeReservaTest {
+
+    private CarrilesDeReserva carriles;
+
+    @AfterEach
+    void tearDown() {
+        carriles.cerrar();
+    }
+
+    @Test
+    @DisplayName("Las tareas del mismo tutor nunca corren a la vez")
+    void ejecutar_sameTutor_shouldRunOneAtATime() {
+        carriles = new CarrilesDeReserva(mock(PlatformTransactionManager.class), 4, 64, 5000);
+        AtomicInteger enCurso = new AtomicInteger();
+        AtomicInteger maximo = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> reservas = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int n = i;
+            reservas.add(CompletableFuture.supplyAsync(() -> carriles.ejecutar(7L, () -> {
+                maximo.accumulateAndGet(enCurso.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                enCurso.decrementAndGet();
+                return n;
+            })));
+        }
+
+        for (int i = 0; i < reservas.size(); i++) {
+            assertEquals(i, reservas.get(i).join());
+        }
+        assertEquals(1, maximo.get());
+    }
+
+    @Test
+    @DisplayName("Debe devolver tal cual la excepción de la tarea")
+    void ejecutar_whenTaskFails_shouldRethrowSameException() {
+        carriles = new CarrilesDeReserva(mock(PlatformTransactionManager.class), 2, 8, 5000);
+
+        BadRequestException ex = assertThrows(BadRequestException.class,
+                () -> carriles.ejecutar(7L, () -> { throw new BadRequestException("ocupado"); }));
+        assertEquals("ocupado", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar con ServicioSaturadoException, sin ejecutarla, la tarea que no salió de la cola a tiempo")
+    void ejecutar_whenQueuedTooLong_shouldThrowServicioSaturadoAndSkipTask() throws Exception {
+        carriles = new CarrilesDeReserva(mock(PlatformTransactionManager.class), 1, 8, 50);
+        CountDownLatch empezo = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger ejecutadas = new AtomicInteger();
+
+        // Una tarea ocupa el único carril hasta que la prueba la libera
+        CompletableFuture<Object> ocupando = CompletableFuture.supplyAsync(() -> carriles.ejecutar(1L, () -> {
+            empezo.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        assertTrue(empezo.await(5, TimeUnit.SECONDS));
+
+        assertThrows(ServicioSaturadoException.class, () -> carriles.ejecutar(2L, ejecutadas::incrementAndGet));
+
+        liberar.countDown();
+        ocupando.join();
+        assertEquals(1, carriles.ejecutar(3L, () -> 1));
+        assertEquals(0, ejecutadas.get());
+    }
+}
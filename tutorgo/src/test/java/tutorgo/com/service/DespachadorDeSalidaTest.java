@@ -0,0 +1,85 @@
+package tutorgo.com.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import tutorgo.com.enums.TipoEventoSalida;
+import tutorgo.com.model.EventoSalida;
+import tutorgo.com.repository.EventoSalidaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Pruebas Unitarias para DespachadorDeSalida")
+class DespachadorDeSalidaTest {
+
+    private EventoSalidaRepository eventoSalidaRepository;
+    private ManejadorEventoSalida notificaciones;
+    private ManejadorEventoSalida cache;
+    private DespachadorDeSalida despachador;
+    private EventoSalida evento;
+
+    @BeforeEach
+    void setUp() {
+        eventoSalidaRepository = mock(EventoSalidaRepository.class);
+        notificaciones = mock(ManejadorEventoSalida.class);
+        cache = mock(ManejadorEventoSalida.class);
+        when(notificaciones.tipo()).thenReturn(TipoEventoSalida.PAGO_CONFIRMADO);
+        when(cache.tipo()).thenReturn(TipoEventoSalida.PAGO_CONFIRMADO);
+        // Lotes de 10, 3 intentos, 60 s de arriendo y 5 s de espera inicial
+        despachador = new DespachadorDeSalida(eventoSalidaRepository, List.of(notificaciones, cache),
+                mock(PlatformTransactionManager.class), 10, 3, 60, 5);
+
+        LocalDateTime ahora = LocalDateTime.now();
+        evento = EventoSalida.builder().id(1L).tipo(TipoEventoSalida.PAGO_CONFIRMADO).carga("{}")
+                .creadoEn(ahora).disponibleDesde(ahora).build();
+        // Encadenado y no thenReturn(a, b): con varargs de List<EventoSalida> javac avisa de un array genérico
+        when(eventoSalidaRepository.tomarListos(any(), eq(3), eq(10))).thenReturn(List.of(evento)).thenReturn(List.of());
+        when(eventoSalidaRepository.findById(1L)).thenReturn(Optional.of(evento));
+    }
+
+    @Test
+    @DisplayName("Debe aplicar todos los manejadores del tipo y borrar el evento")
+    void despachar_whenHandlersSucceed_shouldDeleteEvent() {
+        int procesados = despachador.despachar();
+
+        assertEquals(1, procesados);
+        verify(notificaciones).manejar(evento);
+        verify(cache).manejar(evento);
+        verify(eventoSalidaRepository).delete(evento);
+    }
+
+    @Test
+    @DisplayName("Debe dejar el evento con un intento más y una espera si un manejador falla")
+    void despachar_whenHandlerFails_shouldKeepEventWithBackoff() {
+        doThrow(new IllegalStateException("sin conexión")).when(cache).manejar(evento);
+        LocalDateTime antes = LocalDateTime.now();
+
+        int procesados = despachador.despachar();
+
+        assertEquals(0, procesados);
+        verify(eventoSalidaRepository, never()).delete(any(EventoSalida.class));
+        assertEquals(1, evento.getIntentos());
+        assertEquals("IllegalStateException: sin conexión", evento.getUltimoError());
+        assertFalse(evento.getDisponibleDesde().isBefore(antes.plusSeconds(5)));
+        assertTrue(evento.getDisponibleDesde().isBefore(antes.plusSeconds(60)));
+    }
+
+    @Test
+    @DisplayName("No debe hacer nada si otro nodo ya procesó el evento")
+    void despachar_whenEventAlreadyGone_shouldSkipIt() {
+        when(eventoSalidaRepository.findById(1L)).thenReturn(Optional.empty());
+
+        int procesados = despachador.despachar();
+
+        assertEquals(0, procesados);
+        verify(notificaciones, never()).manejar(any());
+        verify(eventoSalidaRepository, never()).delete(any(EventoSalida.class));
+    }
+}
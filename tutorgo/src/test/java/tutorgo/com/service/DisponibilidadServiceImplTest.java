@@ -6,30 +6,50 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import tutorgo.com.dto.request.DisponibilidadRequest;
+import tutorgo.com.dto.response.DisponibilidadLoteResponse;
 import tutorgo.com.dto.response.DisponibilidadResponse;
+import tutorgo.com.dto.response.HorarioLibreResponse;
+import tutorgo.com.dto.response.PagedResponse;
 import tutorgo.com.exception.BadRequestException;
 import tutorgo.com.exception.ForbiddenException;
 import tutorgo.com.exception.ResourceNotFoundException;
 import tutorgo.com.mapper.DisponibilidadMapper;
 import tutorgo.com.model.Disponibilidad;
+import tutorgo.com.model.ReglaDisponibilidad;
 import tutorgo.com.model.Tutor;
 import tutorgo.com.model.User;
 import tutorgo.com.repository.DisponibilidadRepository;
+import tutorgo.com.repository.ReglaDisponibilidadRepository;
 import tutorgo.com.repository.SesionRepository;
 import tutorgo.com.repository.TutorRepository;
 import tutorgo.com.repository.UserRepository;
+import tutorgo.com.search.AgendaTutorIndex;
+import tutorgo.com.search.DisponibilidadBitmapIndex;
+import tutorgo.com.search.ReglaSemanal;
+import tutorgo.com.search.TutorListadoCache;
+import tutorgo.com.search.TutorVersiones;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,8 +58,14 @@ class DisponibilidadServiceImplTest {
     @Mock private UserRepository userRepository;
     @Mock private TutorRepository tutorRepository;
     @Mock private DisponibilidadRepository disponibilidadRepository;
+    @Mock private ReglaDisponibilidadRepository reglaDisponibilidadRepository;
     @Mock private SesionRepository sesionRepository;
+    @Mock private AgendaTutorIndex agendaTutorIndex;
     @Mock private DisponibilidadMapper disponibilidadMapper;
+    @Mock private DisponibilidadBitmapIndex disponibilidadBitmapIndex;
+    @Mock private TutorListadoCache tutorListadoCache;
+    @Mock private TutorVersiones tutorVersiones;
+    @Mock private ReintentoOptimista reintentoOptimista;
 
     @InjectMocks private DisponibilidadServiceImpl disponibilidadService;
 
@@ -57,6 +83,9 @@ class DisponibilidadServiceImplTest {
         disponibilidadRequest.setFecha(LocalDate.now().plusDays(1));
         disponibilidadRequest.setHoraInicio(LocalTime.of(9, 0));
         disponibilidadRequest.setHoraFinal(LocalTime.of(12, 0));
+
+        // Un solo intento, en el mismo hilo
+        lenient().when(reintentoOptimista.ejecutar(anyString(), any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
     }
 
     // HU9 Escenario 1: Registro de disponibilidad
@@ -67,7 +96,7 @@ class DisponibilidadServiceImplTest {
 
         when(userRepository.findByEmail(tutorEmail)).thenReturn(Optional.of(mockUserTutor));
         when(tutorRepository.findByUser(mockUserTutor)).thenReturn(Optional.of(mockTutor));
-        when(disponibilidadRepository.findDisponibilidadesSolapadas(anyLong(), any(LocalDate.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+        when(agendaTutorIndex.disponibilidadesSolapadas(anyLong(), any(LocalDate.class), any(LocalDateTime.class), any(LocalDateTime.class), isNull()))
                 .thenReturn(Collections.emptyList());
         when(disponibilidadRepository.save(any(Disponibilidad.class))).thenReturn(nuevaDisp);
         when(disponibilidadMapper.toDisponibilidadResponse(nuevaDisp)).thenReturn(mockResponse);
@@ -76,6 +105,10 @@ class DisponibilidadServiceImplTest {
 
         assertNotNull(result);
         verify(disponibilidadRepository).save(any(Disponibilidad.class));
+        verify(disponibilidadBitmapIndex).registrar(nuevaDisp);
+        verify(agendaTutorIndex).registrarDisponibilidad(nuevaDisp);
+        verify(tutorListadoCache).invalidarDisponibilidad(nuevaDisp.getFecha());
+        verify(tutorVersiones).cambioDisponibilidad(mockTutor.getId());
     }
 
     // HU9 Escenario 3: Registro fallido - Hora final antes de inicial
@@ -95,17 +128,30 @@ class DisponibilidadServiceImplTest {
     // HU9 Escenario 3: Registro fallido - Solapamiento
     @Test
     void addDisponibilidad_Solapamiento_ThrowsBadRequestException() {
-        Disponibilidad dispExistente = new Disponibilidad(); // Simular una disp que se solapa
+        when(userRepository.findByEmail(tutorEmail)).thenReturn(Optional.of(mockUserTutor));
+        when(tutorRepository.findByUser(mockUserTutor)).thenReturn(Optional.of(mockTutor));
+        when(agendaTutorIndex.disponibilidadesSolapadas(anyLong(), any(LocalDate.class), any(LocalDateTime.class), any(LocalDateTime.class), isNull()))
+                .thenReturn(List.of(2L)); // Simular una disp que se solapa
 
+        BadRequestException ex = assertThrows(BadRequestException.class, () -> {
+            disponibilidadService.addDisponibilidad(tutorEmail, disponibilidadRequest);
+        });
+        assertEquals("La nueva disponibilidad se solapa con una existente.", ex.getMessage());
+    }
+
+    @Test
+    void addDisponibilidad_SolapamientoConRegla_ThrowsBadRequestException() {
         when(userRepository.findByEmail(tutorEmail)).thenReturn(Optional.of(mockUserTutor));
         when(tutorRepository.findByUser(mockUserTutor)).thenReturn(Optional.of(mockTutor));
-        when(disponibilidadRepository.findDisponibilidadesSolapadas(anyLong(), any(LocalDate.class), any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of(dispExistente));
+        // Ningún bloque suelto en ese horario, pero sí la ocurrencia de una regla semanal
+        when(agendaTutorIndex.reglasSolapadas(anyLong(), any(LocalDate.class), any(LocalDateTime.class), any(LocalDateTime.class), isNull()))
+                .thenReturn(List.of(5L));
 
         BadRequestException ex = assertThrows(BadRequestException.class, () -> {
             disponibilidadService.addDisponibilidad(tutorEmail, disponibilidadRequest);
         });
         assertEquals("La nueva disponibilidad se solapa con una existente.", ex.getMessage());
+        verify(disponibilidadRepository, never()).save(any());
     }
 
     // Pruebas para updateDisponibilidad, getDisponibilidadesByTutor, deleteDisponibilidad
@@ -122,8 +168,8 @@ class DisponibilidadServiceImplTest {
         when(userRepository.findByEmail(tutorEmail)).thenReturn(Optional.of(mockUserTutor));
         when(tutorRepository.findByUser(mockUserTutor)).thenReturn(Optional.of(mockTutor));
         when(disponibilidadRepository.findById(disponibilidadId)).thenReturn(Optional.of(existente));
-        when(sesionRepository.countSesionesActivasEnRango(anyLong(), any(), any(), any())).thenReturn(0L); // No hay sesiones
-        when(disponibilidadRepository.findDisponibilidadesSolapadasExcluyendoActual(anyLong(), any(), any(), any(), eq(disponibilidadId)))
+        when(agendaTutorIndex.sesionesSolapadas(anyLong(), any(), any(), any())).thenReturn(List.of()); // No hay sesiones
+        when(agendaTutorIndex.disponibilidadesSolapadas(anyLong(), any(), any(), any(), eq(disponibilidadId)))
                 .thenReturn(Collections.emptyList()); // No hay solapamiento
         when(disponibilidadRepository.save(any(Disponibilidad.class))).thenReturn(existente); // Simula el guardado
         when(disponibilidadMapper.toDisponibilidadResponse(existente)).thenReturn(mockResponse);
@@ -131,6 +177,9 @@ class DisponibilidadServiceImplTest {
         DisponibilidadResponse result = disponibilidadService.updateDisponibilidad(tutorEmail, disponibilidadId, disponibilidadRequest);
         assertNotNull(result);
         verify(disponibilidadRepository).save(existente);
+        verify(disponibilidadBitmapIndex).registrar(existente);
+        verify(tutorListadoCache).invalidarDisponibilidad(disponibilidadRequest.getFecha());
+        verify(tutorVersiones).cambioDisponibilidad(mockTutor.getId());
     }
 
     @Test
@@ -145,7 +194,7 @@ class DisponibilidadServiceImplTest {
         when(userRepository.findByEmail(tutorEmail)).thenReturn(Optional.of(mockUserTutor));
         when(tutorRepository.findByUser(mockUserTutor)).thenReturn(Optional.of(mockTutor));
         when(disponibilidadRepository.findById(disponibilidadId)).thenReturn(Optional.of(existente));
-        when(sesionRepository.countSesionesActivasEnRango(anyLong(), any(), any(), any())).thenReturn(1L); // Hay sesiones
+        when(agendaTutorIndex.sesionesSolapadas(anyLong(), any(), any(), any())).thenReturn(List.of(5L)); // Hay sesiones
 
         BadRequestException ex = assertThrows(BadRequestException.class, () -> {
             disponibilidadService.updateDisponibilidad(tutorEmail, disponibilidadId, disponibilidadRequest);
@@ -162,10 +211,13 @@ class DisponibilidadServiceImplTest {
         when(userRepository.findByEmail(tutorEmail)).thenReturn(Optional.of(mockUserTutor));
         when(tutorRepository.findByUser(mockUserTutor)).thenReturn(Optional.of(mockTutor));
         when(disponibilidadRepository.findById(disponibilidadId)).thenReturn(Optional.of(existente));
-        when(sesionRepository.countSesionesActivasEnRango(anyLong(), any(), any(), any())).thenReturn(0L);
+        when(agendaTutorIndex.sesionesSolapadas(anyLong(), any(), any(), any())).thenReturn(List.of());
 
         assertDoesNotThrow(() -> disponibilidadService.deleteDisponibilidad(tutorEmail, disponibilidadId));
         verify(disponibilidadRepository).delete(existente);
+        verify(disponibilidadBitmapIndex).quitar(disponibilidadId);
+        verify(tutorListadoCache).invalidarDisponibilidad(existente.getFecha());
+        verify(tutorVersiones).cambioDisponibilidad(mockTutor.getId());
     }
 
     @Test
@@ -184,63 +236,336 @@ class DisponibilidadServiceImplTest {
     }
 
     @Test
-    void getDisponibilidadesByTutorId_whenTutorExists_shouldReturnDisponibilidades() {
+    void getDisponibilidadesByTutorId_whenTutorExists_shouldReturnPageOfWindow() {
         // Arrange
         Long tutorId = 1L;
-        Disponibilidad disp1 = new Disponibilidad(1L, mockTutor, LocalDate.now(), LocalDateTime.now(), LocalDateTime.now().plusHours(1));
+        LocalDate hoy = LocalDate.now();
+        Disponibilidad disp1 = new Disponibilidad(1L, mockTutor, hoy, LocalDateTime.now(), LocalDateTime.now().plusHours(1), null);
         List<Disponibilidad> disponibilidades = List.of(disp1);
 
         DisponibilidadResponse resp1 = new DisponibilidadResponse();
         resp1.setId(1L);
 
-        // Configuramos los mocks
-        when(tutorRepository.findById(tutorId)).thenReturn(Optional.of(mockTutor));
-        when(disponibilidadRepository.findByTutorOrderByFechaAscHoraInicialAsc(mockTutor)).thenReturn(disponibilidades);
+        // Configuramos los mocks: sin from/to la ventana va de hoy a las próximas 4 semanas
+        when(tutorRepository.existsById(tutorId)).thenReturn(true);
+        when(disponibilidadRepository.findByTutorIdAndFechaBetween(eq(tutorId), eq(hoy), eq(hoy.plusDays(27)), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(disponibilidades, PageRequest.of(0, 20), 1));
         when(disponibilidadMapper.toDisponibilidadResponseList(disponibilidades)).thenReturn(List.of(resp1));
 
         // Act
-        List<DisponibilidadResponse> result = disponibilidadService.getDisponibilidadesByTutorId(tutorId);
+        PagedResponse<DisponibilidadResponse> result = disponibilidadService.getDisponibilidadesByTutorId(tutorId, null, null, 0, 20);
 
         // Assert
         assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
+        assertEquals(1, result.getContent().size());
+        assertEquals(1, result.getTotalElements());
+        assertTrue(result.isLast());
 
-        // Verificamos que se llamaron a los métodos correctos
-        verify(tutorRepository).findById(tutorId);
-        verify(disponibilidadRepository).findByTutorOrderByFechaAscHoraInicialAsc(mockTutor);
-        verify(disponibilidadMapper).toDisponibilidadResponseList(disponibilidades);
+        // La página se pide a la base, ordenada por fecha y hora, y nunca se carga el historial completo
+        verify(disponibilidadRepository).findByTutorIdAndFechaBetween(eq(tutorId), eq(hoy), eq(hoy.plusDays(27)),
+                argThat(pageable -> pageable.getPageSize() == 20 && pageable.getSort().equals(Sort.by("fecha", "horaInicial"))));
+        verify(disponibilidadRepository, never()).findByTutorOrderByFechaAscHoraInicialAsc(any());
     }
 
     @Test
     void getDisponibilidadesByTutorId_whenTutorDoesNotExist_shouldThrowResourceNotFoundException() {
         // Arrange
         Long tutorId = 99L;
-        when(tutorRepository.findById(tutorId)).thenReturn(Optional.empty());
+        when(tutorRepository.existsById(tutorId)).thenReturn(false);
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> {
-            disponibilidadService.getDisponibilidadesByTutorId(tutorId);
+            disponibilidadService.getDisponibilidadesByTutorId(tutorId, null, null, 0, 20);
         });
 
         // Verificamos que los otros repositorios no fueron llamados
-        verify(disponibilidadRepository, never()).findByTutorOrderByFechaAscHoraInicialAsc(any());
+        verifyNoInteractions(disponibilidadRepository, reglaDisponibilidadRepository);
         verify(disponibilidadMapper, never()).toDisponibilidadResponseList(any());
     }
 
     @Test
-    void getDisponibilidadesByTutorId_whenTutorHasNoDisponibilidades_shouldReturnEmptyList() {
+    void getDisponibilidadesByTutorId_whenTutorHasNoDisponibilidades_shouldReturnEmptyPage() {
         // Arrange
         Long tutorId = 1L;
-        when(tutorRepository.findById(tutorId)).thenReturn(Optional.of(mockTutor));
-        when(disponibilidadRepository.findByTutorOrderByFechaAscHoraInicialAsc(mockTutor)).thenReturn(Collections.emptyList());
+        when(tutorRepository.existsById(tutorId)).thenReturn(true);
+        when(disponibilidadRepository.findByTutorIdAndFechaBetween(eq(tutorId), any(LocalDate.class), any(LocalDate.class), any(Pageable.class)))
+                .thenReturn(Page.empty());
         when(disponibilidadMapper.toDisponibilidadResponseList(Collections.emptyList())).thenReturn(Collections.emptyList());
 
         // Act
-        List<DisponibilidadResponse> result = disponibilidadService.getDisponibilidadesByTutorId(tutorId);
+        PagedResponse<DisponibilidadResponse> result = disponibilidadService.getDisponibilidadesByTutorId(tutorId, null, null, 0, 20);
 
         // Assert
         assertNotNull(result);
-        assertTrue(result.isEmpty());
+        assertTrue(result.getContent().isEmpty());
+        assertEquals(0, result.getTotalElements());
+    }
+
+    @Test
+    void getDisponibilidadesByTutorId_whenWindowOrPageInvalid_shouldThrowBadRequest() {
+        LocalDate hoy = LocalDate.now();
+
+        assertThrows(BadRequestException.class, () -> disponibilidadService.getDisponibilidadesByTutorId(1L, hoy, hoy.plusDays(84), 0, 20));
+        assertThrows(BadRequestException.class, () -> disponibilidadService.getDisponibilidadesByTutorId(1L, hoy, hoy.minusDays(1), 0, 20));
+        assertThrows(BadRequestException.class, () -> disponibilidadService.getDisponibilidadesByTutorId(1L, hoy, hoy, 0, 500));
+        verifyNoInteractions(tutorRepository, disponibilidadRepository);
+    }
+
+    @Test
+    void getDisponibilidadesByTutorId_whenTutorHasRule_shouldExpandOccurrencesInOrderAndPage() {
+        // Arrange: un bloque suelto el martes y una regla de lunes y miércoles durante una semana
+        LocalDate lunes = LocalDate.of(2025, 6, 2);
+        Disponibilidad martes = new Disponibilidad(1L, mockTutor, lunes.plusDays(1),
+                lunes.plusDays(1).atTime(9, 0), lunes.plusDays(1).atTime(10, 0), null);
+        DisponibilidadResponse respMartes = new DisponibilidadResponse();
+        respMartes.setId(1L);
+        respMartes.setHoraInicial(martes.getHoraInicial());
+        ReglaDisponibilidad regla = ReglaDisponibilidad.builder().id(7L).tutor(mockTutor)
+                .diasSemana(Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY))
+                .horaInicio(LocalTime.of(18, 0)).horaFinal(LocalTime.of(21, 0))
+                .fechaInicio(lunes).fechaFin(lunes.plusDays(6)).build();
+        LocalDate domingo = lunes.plusDays(6);
+
+        when(tutorRepository.existsById(1L)).thenReturn(true);
+        when(reglaDisponibilidadRepository.findConDetalleByTutorIdVigentesEntre(1L, lunes, domingo)).thenReturn(List.of(regla));
+        when(disponibilidadRepository.findByTutorIdAndFechaBetweenOrderByFechaAscHoraInicialAsc(1L, lunes, domingo))
+                .thenReturn(List.of(martes));
+        when(disponibilidadMapper.toDisponibilidadResponseList(List.of(martes))).thenReturn(List.of(respMartes));
+        mapearOcurrencias();
+
+        // Act: páginas de 2
+        PagedResponse<DisponibilidadResponse> primera = disponibilidadService.getDisponibilidadesByTutorId(1L, lunes, domingo, 0, 2);
+        PagedResponse<DisponibilidadResponse> segunda = disponibilidadService.getDisponibilidadesByTutorId(1L, lunes, domingo, 1, 2);
+
+        // Assert: lunes (regla), martes (bloque) | miércoles (regla)
+        assertEquals(3, primera.getTotalElements());
+        assertEquals(2, primera.getTotalPages());
+        assertFalse(primera.isLast());
+        assertEquals(lunes.atTime(18, 0), primera.getContent().get(0).getHoraInicial());
+        assertEquals(7L, primera.getContent().get(0).getReglaId());
+        assertEquals(1L, primera.getContent().get(1).getId());
+        assertEquals(1, segunda.getContent().size());
+        assertTrue(segunda.isLast());
+        assertEquals(lunes.plusDays(2).atTime(18, 0), segunda.getContent().get(0).getHoraInicial());
+        verify(disponibilidadRepository, never()).findByTutorIdAndFechaBetween(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void getDisponibilidadesByTutorId_whenSessionConfirmedInsideRule_shouldShowOccurrenceWithoutIt() {
+        // Arrange: regla de los lunes de 18:00 a 21:00 y una sesión confirmada de 19:00 a 20:00 en ella
+        LocalDate lunes = LocalDate.of(2025, 6, 2);
+        LocalDate domingo = lunes.plusDays(6);
+        ReglaDisponibilidad regla = ReglaDisponibilidad.builder().id(7L).tutor(mockTutor)
+                .diasSemana(Set.of(DayOfWeek.MONDAY))
+                .horaInicio(LocalTime.of(18, 0)).horaFinal(LocalTime.of(21, 0))
+                .fechaInicio(lunes).fechaFin(domingo).build();
+        when(tutorRepository.existsById(1L)).thenReturn(true);
+        when(reglaDisponibilidadRepository.findConDetalleByTutorIdVigentesEntre(1L, lunes, domingo)).thenReturn(List.of(regla));
+        SesionRepository.FranjaOcupada confirmada = sesionActiva(lunes.atTime(19, 0), lunes.atTime(20, 0));
+        when(sesionRepository.findFranjasActivasByTutorIdAndFechaEntre(1L, lunes, domingo)).thenReturn(List.of(confirmada));
+        mapearOcurrencias();
+
+        // Act
+        PagedResponse<DisponibilidadResponse> result = disponibilidadService.getDisponibilidadesByTutorId(1L, lunes, domingo, 0, 20);
+
+        // Assert: lo mismo que quedaría de un bloque recortado al confirmar
+        assertEquals(2, result.getTotalElements());
+        assertEquals(lunes.atTime(18, 0), result.getContent().get(0).getHoraInicial());
+        assertEquals(lunes.atTime(19, 0), result.getContent().get(0).getHoraFinal());
+        assertEquals(lunes.atTime(20, 0), result.getContent().get(1).getHoraInicial());
+        assertEquals(lunes.atTime(21, 0), result.getContent().get(1).getHoraFinal());
+        assertEquals(7L, result.getContent().get(1).getReglaId());
+    }
+
+    private void mapearOcurrencias() {
+        when(disponibilidadMapper.toDisponibilidadResponse(any(ReglaSemanal.class), any(LocalDate.class), any(), any()))
+                .thenAnswer(invocation -> {
+                    ReglaSemanal semanal = invocation.getArgument(0);
+                    DisponibilidadResponse response = new DisponibilidadResponse();
+                    response.setReglaId(semanal.id());
+                    response.setFecha(invocation.getArgument(1));
+                    response.setHoraInicial(invocation.getArgument(2));
+                    response.setHoraFinal(invocation.getArgument(3));
+                    return response;
+                });
+    }
+
+    private DisponibilidadRequest elementoDelLote(LocalDate fecha, int horaInicio, int horaFinal) {
+        DisponibilidadRequest request = new DisponibilidadRequest();
+        request.setFecha(fecha);
+        request.setHoraInicio(LocalTime.of(horaInicio, 0));
+        request.setHoraFinal(LocalTime.of(horaFinal, 0));
+        return request;
+    }
+
+    @Test
+    void addDisponibilidadesEnLote_shouldInsertOnlyValidItemsInOneBatchAndReportEachOne() {
+        LocalDate manana = LocalDate.now().plusDays(1);
+        List<DisponibilidadRequest> lote = List.of(
+                elementoDelLote(manana, 10, 12),
+                elementoDelLote(manana, 11, 13),                // pisa al elemento 0
+                elementoDelLote(manana, 8, 9),                  // pisa al bloque guardado de 08:30 a 09:30
+                elementoDelLote(LocalDate.now().minusDays(1), 10, 12),
+                elementoDelLote(manana.plusDays(1), 10, 12));
+        DisponibilidadRepository.FranjaIndexable guardada = mock(DisponibilidadRepository.FranjaIndexable.class);
+        when(guardada.getHoraInicial()).thenReturn(manana.atTime(8, 30));
+        when(guardada.getHoraFinal()).thenReturn(manana.atTime(9, 30));
+
+        when(tutorRepository.findByUserEmail(tutorEmail)).thenReturn(Optional.of(mockTutor));
+        when(disponibilidadRepository.findFranjasIndexablesByTutorIdAndFechaEntre(mockTutor.getId(), manana, manana.plusDays(1)))
+                .thenReturn(List.of(guardada));
+        List<Disponibilidad> insertadas = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<Disponibilidad> nuevas = invocation.getArgument(0);
+            for (Disponibilidad nueva : nuevas) {
+                nueva.setId(100L + insertadas.size());
+                insertadas.add(nueva);
+            }
+            return null;
+        }).when(disponibilidadRepository).insertarEnLote(anyList());
+        when(disponibilidadMapper.toDisponibilidadResponse(any(Disponibilidad.class))).thenReturn(new DisponibilidadResponse());
+
+        DisponibilidadLoteResponse result = disponibilidadService.addDisponibilidadesEnLote(tutorEmail, lote);
+
+        assertEquals(2, result.getCreadas());
+        assertEquals(3, result.getRechazadas());
+        assertTrue(result.getResultados().get(0).isExito());
+        assertEquals("La disponibilidad se solapa con el elemento 0 del mismo lote.", result.getResultados().get(1).getError());
+        assertEquals("La nueva disponibilidad se solapa con una existente.", result.getResultados().get(2).getError());
+        assertEquals("La fecha de disponibilidad no puede ser en el pasado", result.getResultados().get(3).getError());
+        assertTrue(result.getResultados().get(4).isExito());
+
+        // Un solo INSERT por lotes, en el orden del pedido
+        verify(disponibilidadRepository).insertarEnLote(anyList());
+        verify(disponibilidadRepository, never()).save(any(Disponibilidad.class));
+        assertEquals(List.of(manana.atTime(10, 0), manana.plusDays(1).atTime(10, 0)),
+                insertadas.stream().map(Disponibilidad::getHoraInicial).toList());
+        verify(disponibilidadBitmapIndex, times(2)).registrar(any(Disponibilidad.class));
+        verify(tutorListadoCache).invalidarDisponibilidad(manana);
+        verify(tutorListadoCache).invalidarDisponibilidad(manana.plusDays(1));
+        verify(tutorVersiones).cambioDisponibilidad(mockTutor.getId());
+    }
+
+    @Test
+    void addDisponibilidadesEnLote_whenAllItemsInvalid_shouldNotTouchDatabaseOrIndexes() {
+        DisponibilidadRequest sinHoraFinal = elementoDelLote(LocalDate.now().plusDays(1), 9, 10);
+        sinHoraFinal.setHoraFinal(null);
+        when(tutorRepository.findByUserEmail(tutorEmail)).thenReturn(Optional.of(mockTutor));
+
+        DisponibilidadLoteResponse result = disponibilidadService.addDisponibilidadesEnLote(tutorEmail,
+                List.of(sinHoraFinal, elementoDelLote(LocalDate.now().plusDays(1), 12, 11)));
+
+        assertEquals(0, result.getCreadas());
+        assertEquals("La hora de finalización es obligatoria", result.getResultados().get(0).getError());
+        assertEquals("La hora de finalización debe ser posterior a la hora de inicio.", result.getResultados().get(1).getError());
+        verify(disponibilidadRepository, never()).insertarEnLote(anyList());
+        verifyNoInteractions(disponibilidadBitmapIndex, tutorListadoCache, tutorVersiones);
+    }
+
+    @Test
+    void addDisponibilidadesEnLote_whenTooManyItems_shouldThrowBadRequest() {
+        List<DisponibilidadRequest> lote = Collections.nCopies(501, disponibilidadRequest);
+
+        assertThrows(BadRequestException.class, () -> disponibilidadService.addDisponibilidadesEnLote(tutorEmail, lote));
+        verifyNoInteractions(tutorRepository, disponibilidadRepository);
+    }
+
+    private DisponibilidadRepository.FranjaIndexable bloqueGuardado(LocalDate fecha, int horaInicio, int horaFinal) {
+        DisponibilidadRepository.FranjaIndexable bloque = mock(DisponibilidadRepository.FranjaIndexable.class);
+        when(bloque.getFecha()).thenReturn(fecha);
+        when(bloque.getHoraInicial()).thenReturn(fecha.atTime(horaInicio, 0));
+        when(bloque.getHoraFinal()).thenReturn(fecha.atTime(horaFinal, 0));
+        return bloque;
+    }
+
+    private SesionRepository.FranjaOcupada sesionActiva(LocalDateTime inicio, LocalDateTime fin) {
+        SesionRepository.FranjaOcupada sesion = mock(SesionRepository.FranjaOcupada.class);
+        when(sesion.getHoraInicial()).thenReturn(inicio);
+        when(sesion.getHoraFinal()).thenReturn(fin);
+        return sesion;
+    }
+
+    @Test
+    void getHorariosLibres_shouldSubtractActiveSessionsFromBlocksAndRuleOccurrences() {
+        LocalDate manana = LocalDate.now().plusDays(1);
+        DisponibilidadRepository.FranjaIndexable bloque = bloqueGuardado(manana, 9, 13);
+        List<SesionRepository.FranjaOcupada> sesiones = List.of(
+                sesionActiva(manana.atTime(10, 0), manana.atTime(11, 0)),
+                sesionActiva(manana.atTime(18, 30), manana.atTime(19, 0)));
+        // Regla que solo ocurre mañana, de 18:00 a 20:00
+        ReglaDisponibilidad regla = ReglaDisponibilidad.builder().id(5L).tutor(mockTutor)
+                .diasSemana(Set.of(manana.getDayOfWeek())).horaInicio(LocalTime.of(18, 0)).horaFinal(LocalTime.of(20, 0))
+                .fechaInicio(manana).fechaFin(manana).build();
+        when(tutorRepository.existsById(1L)).thenReturn(true);
+        when(disponibilidadRepository.findFranjasIndexablesByTutorIdAndFechaEntre(1L, manana, manana))
+                .thenReturn(List.of(bloque));
+        when(reglaDisponibilidadRepository.findConDetalleByTutorIdVigentesEntre(1L, manana, manana)).thenReturn(List.of(regla));
+        when(sesionRepository.findFranjasActivasByTutorIdAndFechaEntre(1L, manana, manana)).thenReturn(sesiones);
+
+        List<HorarioLibreResponse> result = disponibilidadService.getHorariosLibres(1L, manana, manana, 60);
+
+        assertEquals(List.of(manana.atTime(9, 0), manana.atTime(11, 0), manana.atTime(12, 0), manana.atTime(19, 0)),
+                result.stream().map(HorarioLibreResponse::getHoraInicial).toList());
+        assertTrue(result.stream().allMatch(h -> h.getHoraFinal().equals(h.getHoraInicial().plusHours(1))));
+    }
+
+    @Test
+    void huecosLibres_shouldNotJoinContiguousBlocks() {
+        LocalDate fecha = LocalDate.now().plusDays(2);
+        List<DisponibilidadServiceImpl.Franja> bloques = List.of(
+                new DisponibilidadServiceImpl.Franja(fecha, fecha.atTime(9, 0), fecha.atTime(10, 0)),
+                new DisponibilidadServiceImpl.Franja(fecha, fecha.atTime(10, 0), fecha.atTime(12, 0)));
+        // La sesión cruza el borde entre los dos bloques (p. ej. de antes de que se partiera el bloque)
+        List<SesionRepository.FranjaOcupada> ocupadas = List.of(sesionActiva(fecha.atTime(9, 30), fecha.atTime(10, 30)));
+
+        List<DisponibilidadServiceImpl.Franja> huecos = DisponibilidadServiceImpl.huecosLibres(bloques, ocupadas);
+
+        assertEquals(List.of(
+                new DisponibilidadServiceImpl.Franja(fecha, fecha.atTime(9, 0), fecha.atTime(9, 30)),
+                new DisponibilidadServiceImpl.Franja(fecha, fecha.atTime(10, 30), fecha.atTime(12, 0))), huecos);
+    }
+
+    @Test
+    void getHorariosLibres_whenDurationOrRangeInvalid_shouldThrowBadRequest() {
+        LocalDate manana = LocalDate.now().plusDays(1);
+
+        assertThrows(BadRequestException.class, () -> disponibilidadService.getHorariosLibres(1L, manana, manana, 5));
+        assertThrows(BadRequestException.class, () -> disponibilidadService.getHorariosLibres(1L, manana, manana.minusDays(1), 60));
+        assertThrows(BadRequestException.class, () -> disponibilidadService.getHorariosLibres(1L, manana, manana.plusDays(31), 60));
+        verifyNoInteractions(disponibilidadRepository, sesionRepository);
+    }
+
+    @Test
+    void compactarDia_shouldMergeTouchingFragmentsAndKeepTheRest() {
+        LocalDate fecha = LocalDate.now().plusDays(3);
+        Disponibilidad a = new Disponibilidad(1L, mockTutor, fecha, fecha.atTime(9, 0), fecha.atTime(10, 0), null);
+        Disponibilidad b = new Disponibilidad(2L, mockTutor, fecha, fecha.atTime(10, 0), fecha.atTime(11, 0), null);
+        Disponibilidad c = new Disponibilidad(3L, mockTutor, fecha, fecha.atTime(10, 30), fecha.atTime(12, 0), null);
+        Disponibilidad d = new Disponibilidad(4L, mockTutor, fecha, fecha.atTime(13, 0), fecha.atTime(14, 0), null);
+        when(disponibilidadRepository.findParaCompactar(1L, fecha)).thenReturn(List.of(a, b, c, d));
+
+        int eliminadas = disponibilidadService.compactarDia(1L, fecha);
+
+        assertEquals(2, eliminadas);
+        assertEquals(fecha.atTime(12, 0), a.getHoraFinal());
+        assertEquals(fecha.atTime(14, 0), d.getHoraFinal());
+        verify(disponibilidadRepository).deleteAll(List.of(b, c));
+        verify(disponibilidadRepository).saveAll(List.of(a));
+        verify(disponibilidadBitmapIndex).quitar(2L);
+        verify(disponibilidadBitmapIndex).quitar(3L);
+        verify(agendaTutorIndex).registrarDisponibilidad(a);
+        verify(tutorVersiones).cambioDisponibilidad(1L);
+    }
+
+    @Test
+    void compactarDia_whenNothingTouches_shouldNotWrite() {
+        LocalDate fecha = LocalDate.now().plusDays(3);
+        when(disponibilidadRepository.findParaCompactar(1L, fecha)).thenReturn(List.of(
+                new Disponibilidad(1L, mockTutor, fecha, fecha.atTime(9, 0), fecha.atTime(10, 0), null),
+                new Disponibilidad(2L, mockTutor, fecha, fecha.atTime(11, 0), fecha.atTime(12, 0), null)));
+
+        assertEquals(0, disponibilidadService.compactarDia(1L, fecha));
+        verify(disponibilidadRepository, never()).deleteAll(anyList());
+        verifyNoInteractions(disponibilidadBitmapIndex, tutorVersiones);
     }
-}
\ No newline at end of file
+}
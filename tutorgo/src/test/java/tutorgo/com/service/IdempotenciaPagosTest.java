@@ -0,0 +1,94 @@
+package tutorgo.com.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tutorgo.com.dto.response.PagoResponse;
+import tutorgo.com.exception.BadRequestException;
+import tutorgo.com.model.ClaveIdempotencia;
+import tutorgo.com.repository.ClaveIdempotenciaRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas Unitarias para IdempotenciaPagos")
+class IdempotenciaPagosTest {
+
+    @Mock private ClaveIdempotenciaRepository claveIdempotenciaRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final AtomicLong reloj = new AtomicLong();
+    private IdempotenciaPagos idempotencia;
+    private PagoResponse respuesta;
+
+    @BeforeEach
+    void setUp() {
+        idempotencia = new IdempotenciaPagos(claveIdempotenciaRepository, objectMapper, 2, 24, reloj::get);
+        respuesta = new PagoResponse();
+        respuesta.setId(50L);
+        respuesta.setSesionId(7L);
+        respuesta.setMonto(new BigDecimal("60.00"));
+        respuesta.setFechaPago(LocalDateTime.of(2026, 1, 5, 10, 0));
+    }
+
+    @Test
+    @DisplayName("Lo guardado fuera de una transacción se responde desde memoria, sin ir a la base")
+    void buscar_afterGuardar_shouldAnswerFromMemory() {
+        idempotencia.guardar("a@x.com", "clave-1", 7L, respuesta);
+
+        assertSame(respuesta, idempotencia.buscar("a@x.com", "clave-1", 7L).orElseThrow());
+        verify(claveIdempotenciaRepository).save(argThat(c -> c.getSesionId().equals(7L) && c.getRespuesta().contains("\"id\":50")));
+        verify(claveIdempotenciaRepository, never()).findByUsuarioEmailAndClave(any(), any());
+    }
+
+    @Test
+    @DisplayName("Sin la clave en memoria (otro nodo o vencida allí) la lee de la base")
+    void buscar_whenNotInMemory_shouldReadFromDatabase() throws Exception {
+        ClaveIdempotencia fila = ClaveIdempotencia.builder().usuarioEmail("a@x.com").clave("clave-1").sesionId(7L)
+                .respuesta(objectMapper.writeValueAsString(respuesta)).venceEn(LocalDateTime.now().plusHours(3)).build();
+        when(claveIdempotenciaRepository.findByUsuarioEmailAndClave("a@x.com", "clave-1")).thenReturn(Optional.of(fila));
+
+        PagoResponse leida = idempotencia.buscar("a@x.com", "clave-1", 7L).orElseThrow();
+        assertEquals(respuesta, leida);
+        // La segunda vez ya está en memoria
+        idempotencia.buscar("a@x.com", "clave-1", 7L);
+        verify(claveIdempotenciaRepository, times(1)).findByUsuarioEmailAndClave("a@x.com", "clave-1");
+
+        // En memoria dura lo que le quedaba en la base, no otro TTL entero
+        reloj.addAndGet(TimeUnit.HOURS.toNanos(4));
+        when(claveIdempotenciaRepository.findByUsuarioEmailAndClave("a@x.com", "clave-1")).thenReturn(Optional.empty());
+        assertTrue(idempotencia.buscar("a@x.com", "clave-1", 7L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("La misma clave para otra sesión es un error, y una clave vencida en la base no cuenta")
+    void buscar_whenOtherSessionOrExpired_shouldRejectOrIgnore() {
+        idempotencia.guardar("a@x.com", "clave-1", 7L, respuesta);
+        assertThrows(BadRequestException.class, () -> idempotencia.buscar("a@x.com", "clave-1", 8L));
+
+        ClaveIdempotencia vencida = ClaveIdempotencia.builder().sesionId(7L).respuesta("{}")
+                .venceEn(LocalDateTime.now().minusMinutes(1)).build();
+        when(claveIdempotenciaRepository.findByUsuarioEmailAndClave("b@x.com", "clave-1")).thenReturn(Optional.of(vencida));
+        assertTrue(idempotencia.buscar("b@x.com", "clave-1", 7L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar claves vacías o demasiado largas")
+    void validarClave_whenInvalid_shouldThrowBadRequest() {
+        assertThrows(BadRequestException.class, () -> IdempotenciaPagos.validarClave(" "));
+        assertThrows(BadRequestException.class, () -> IdempotenciaPagos.validarClave("x".repeat(256)));
+        assertDoesNotThrow(() -> IdempotenciaPagos.validarClave("5f0c7a2e-1d3b-4c55-9b1e-1f6f4c3b2a10"));
+    }
+}
@@ -9,26 +9,40 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
 import tutorgo.com.dto.request.ConfirmarPagoRequest;
+import tutorgo.com.dto.response.IngresosResponse;
+import tutorgo.com.dto.response.PagedResponse;
 import tutorgo.com.dto.response.PagoResponse;
 import tutorgo.com.enums.EstadoPagoEnum;
 import tutorgo.com.enums.EstadoSesionEnum;
+import tutorgo.com.enums.FormatoExportacion;
 import tutorgo.com.enums.MetodoPagoEnum;
 import tutorgo.com.enums.RoleName;
+import tutorgo.com.enums.TipoEventoSalida;
 import tutorgo.com.exception.BadRequestException;
 import tutorgo.com.exception.ForbiddenException;
 import tutorgo.com.exception.ResourceNotFoundException;
 import tutorgo.com.mapper.PagoMapper;
 import tutorgo.com.model.*;
 import tutorgo.com.repository.*;
+import tutorgo.com.search.AgendaTutorIndex;
+import tutorgo.com.search.DisponibilidadBitmapIndex;
+import tutorgo.com.search.TutorVersiones;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -45,6 +59,15 @@ class PagoServiceImplTest {
     @Mock private PagoRepository pagoRepository;
     @Mock private DisponibilidadRepository disponibilidadRepository;
     @Mock private PagoMapper pagoMapper;
+    @Mock private DisponibilidadBitmapIndex disponibilidadBitmapIndex;
+    @Mock private AgendaTutorIndex agendaTutorIndex;
+    @Mock private TutorVersiones tutorVersiones;
+    @Mock private IdempotenciaPagos idempotenciaPagos;
+    @Mock private ReintentoOptimista reintentoOptimista;
+    @Mock private BandejaDeSalida bandejaDeSalida;
+    @Mock private TutorRepository tutorRepository;
+    @Mock private IngresoDiarioTutorRepository ingresoDiarioTutorRepository;
+    @Mock private PlatformTransactionManager transactionManager;
     // No necesitas mockear TutorRepository si no lo usas directamente en el servicio
 
     @InjectMocks
@@ -79,6 +102,9 @@ class PagoServiceImplTest {
         confirmarPagoRequest = new ConfirmarPagoRequest();
         confirmarPagoRequest.setSesionId(sesionId);
         confirmarPagoRequest.setMetodoPago(MetodoPagoEnum.TARJETA_CREDITO);
+
+        // Un solo intento, en el mismo hilo
+        lenient().when(reintentoOptimista.ejecutar(anyString(), any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
     }
 
     @Nested
@@ -107,12 +133,14 @@ class PagoServiceImplTest {
             // 3. Configuración de los mocks
             when(userRepository.findByEmail(alumnoEmail)).thenReturn(Optional.of(mockUserAlumno));
             when(estudianteRepository.findByUser(mockUserAlumno)).thenReturn(Optional.of(mockAlumno));
-            when(sesionRepository.findById(sesionId)).thenReturn(Optional.of(mockSesionPendiente));
+            when(sesionRepository.findByIdParaConfirmar(sesionId)).thenReturn(Optional.of(mockSesionPendiente));
             when(pagoRepository.save(any(Pago.class))).thenReturn(mockPagoGuardado);
             when(pagoMapper.toPagoResponse(mockPagoGuardado)).thenReturn(mockPagoResponse);
-            // El repositorio devolverá nuestra disponibilidad original cuando se le pregunte.
-            when(disponibilidadRepository.findDisponibilidadQueEnvuelveElSlot(anyLong(), any(), any(), any()))
-                    .thenReturn(List.of(disponibilidadOriginalParaMock));
+            // La agenda del tutor y el repositorio devolverán nuestra disponibilidad original cuando se les pregunte.
+            when(agendaTutorIndex.disponibilidadesQueEnvuelven(anyLong(), any(), any(), any()))
+                    .thenReturn(List.of(disponibilidadOriginalParaMock.getId()));
+            when(disponibilidadRepository.findByIdParaAjustar(disponibilidadOriginalParaMock.getId()))
+                    .thenReturn(Optional.of(disponibilidadOriginalParaMock));
 
             // --- ACT ---
             pagoService.procesarPagoYConfirmarSesion(alumnoEmail, confirmarPagoRequest);
@@ -122,6 +150,12 @@ class PagoServiceImplTest {
             // 1. Verificar que se guardó un pago y se actualizó la sesión
             verify(pagoRepository).save(any(Pago.class));
             verify(sesionRepository).save(argThat(sesion -> sesion.getTipoEstado() == EstadoSesionEnum.CONFIRMADO));
+            verify(bandejaDeSalida).registrar(eq(TipoEventoSalida.PAGO_CONFIRMADO), argThat(carga ->
+                    carga instanceof EventoPagoConfirmado evento && evento.sesionId().equals(sesionId)
+                            && evento.fecha().equals(mockSesionPendiente.getFecha())));
+            verify(ingresoDiarioTutorRepository).sumarPago(eq(mockTutor.getId()), eq(LocalDate.now()),
+                    argThat(monto -> monto.compareTo(new BigDecimal("60.00")) == 0),
+                    argThat(comision -> comision.compareTo(new BigDecimal("6.00")) == 0));
 
             // 2. Capturar los objetos 'Disponibilidad' que se pasaron al método save()
             ArgumentCaptor<Disponibilidad> disponibilidadCaptor = ArgumentCaptor.forClass(Disponibilidad.class);
@@ -168,13 +202,93 @@ class PagoServiceImplTest {
             mockSesionPendiente.setTipoEstado(EstadoSesionEnum.CONFIRMADO);
             when(userRepository.findByEmail(alumnoEmail)).thenReturn(Optional.of(mockUserAlumno));
             when(estudianteRepository.findByUser(mockUserAlumno)).thenReturn(Optional.of(mockAlumno));
-            when(sesionRepository.findById(sesionId)).thenReturn(Optional.of(mockSesionPendiente));
+            when(sesionRepository.findByIdParaConfirmar(sesionId)).thenReturn(Optional.of(mockSesionPendiente));
 
             assertThrows(BadRequestException.class, () ->
                     pagoService.procesarPagoYConfirmarSesion(alumnoEmail, confirmarPagoRequest)
             );
         }
 
+        @Test
+        @DisplayName("Debe lanzar BadRequestException si la reserva de la sesión ya venció")
+        void procesarPagoYConfirmarSesion_whenReservaVencida_shouldThrowBadRequest() {
+            mockSesionPendiente.setReservadaHasta(LocalDateTime.now().minusMinutes(1));
+            when(userRepository.findByEmail(alumnoEmail)).thenReturn(Optional.of(mockUserAlumno));
+            when(estudianteRepository.findByUser(mockUserAlumno)).thenReturn(Optional.of(mockAlumno));
+            when(sesionRepository.findByIdParaConfirmar(sesionId)).thenReturn(Optional.of(mockSesionPendiente));
+
+            BadRequestException ex = assertThrows(BadRequestException.class, () ->
+                    pagoService.procesarPagoYConfirmarSesion(alumnoEmail, confirmarPagoRequest)
+            );
+            assertEquals("La reserva de este horario venció. Vuelve a reservar la tutoría.", ex.getMessage());
+            verify(pagoRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Debe avisar que la reserva venció si ya se liberó el horario")
+        void procesarPagoYConfirmarSesion_whenReservaLiberada_shouldThrowBadRequest() {
+            mockSesionPendiente.setTipoEstado(EstadoSesionEnum.VENCIDO);
+            mockSesionPendiente.setReservadaHasta(LocalDateTime.now().minusMinutes(5));
+            when(userRepository.findByEmail(alumnoEmail)).thenReturn(Optional.of(mockUserAlumno));
+            when(estudianteRepository.findByUser(mockUserAlumno)).thenReturn(Optional.of(mockAlumno));
+            when(sesionRepository.findByIdParaConfirmar(sesionId)).thenReturn(Optional.of(mockSesionPendiente));
+
+            BadRequestException ex = assertThrows(BadRequestException.class, () ->
+                    pagoService.procesarPagoYConfirmarSesion(alumnoEmail, confirmarPagoRequest)
+            );
+            assertEquals("La reserva de este horario venció. Vuelve a reservar la tutoría.", ex.getMessage());
+            verify(pagoRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Debe abandonar el intento si otro pago recortó el bloque antes de bloquearlo")
+        void procesarPagoYConfirmarSesion_whenBlockChangedBeforeLock_shouldThrowOptimisticLocking() {
+            // La agenda todavía lo ve de 09:00 a 12:00; en la base ya quedó de 09:00 a 10:00
+            Disponibilidad recortada = Disponibilidad.builder().id(12L).tutor(mockTutor).fecha(mockSesionPendiente.getFecha())
+                    .horaInicial(mockSesionPendiente.getHoraInicial().withHour(9))
+                    .horaFinal(mockSesionPendiente.getHoraInicial()).build();
+            when(userRepository.findByEmail(alumnoEmail)).thenReturn(Optional.of(mockUserAlumno));
+            when(estudianteRepository.findByUser(mockUserAlumno)).thenReturn(Optional.of(mockAlumno));
+            when(sesionRepository.findByIdParaConfirmar(sesionId)).thenReturn(Optional.of(mockSesionPendiente));
+            when(agendaTutorIndex.disponibilidadesQueEnvuelven(anyLong(), any(), any(), any())).thenReturn(List.of(12L));
+            when(disponibilidadRepository.findByIdParaAjustar(12L)).thenReturn(Optional.of(recortada));
+
+            assertThrows(OptimisticLockingFailureException.class, () ->
+                    pagoService.procesarPagoYConfirmarSesion(alumnoEmail, confirmarPagoRequest)
+            );
+            verify(disponibilidadRepository, never()).save(any());
+            verify(bandejaDeSalida, never()).registrar(any(), any());
+        }
+
+        @Test
+        @DisplayName("Un reintento con la misma Idempotency-Key devuelve el pago guardado sin tocar sesiones ni pagos")
+        void procesarPagoYConfirmarSesion_whenKeyAlreadyUsed_shouldReplayWithoutTouchingTables() {
+            PagoResponse guardado = new PagoResponse();
+            guardado.setId(50L);
+            when(idempotenciaPagos.buscar(alumnoEmail, "clave-1", sesionId)).thenReturn(Optional.of(guardado));
+
+            assertSame(guardado, pagoService.procesarPagoYConfirmarSesion(alumnoEmail, confirmarPagoRequest, "clave-1"));
+            verifyNoInteractions(sesionRepository, pagoRepository, disponibilidadRepository);
+        }
+
+        @Test
+        @DisplayName("Un reintento que esperó al pago original devuelve su respuesta en lugar de fallar")
+        void procesarPagoYConfirmarSesion_whenOriginalCommittedWhileWaiting_shouldReplay() {
+            PagoResponse guardado = new PagoResponse();
+            // Nada guardado al llegar; cuando obtiene la sesión, el pago original ya la confirmó
+            when(idempotenciaPagos.buscar(alumnoEmail, "clave-1", sesionId))
+                    .thenReturn(Optional.empty())
+                    .thenReturn(Optional.of(guardado));
+            mockSesionPendiente.setTipoEstado(EstadoSesionEnum.CONFIRMADO);
+            when(userRepository.findByEmail(alumnoEmail)).thenReturn(Optional.of(mockUserAlumno));
+            when(estudianteRepository.findByUser(mockUserAlumno)).thenReturn(Optional.of(mockAlumno));
+            when(sesionRepository.findByIdParaConfirmar(sesionId)).thenReturn(Optional.of(mockSesionPendiente));
+
+            assertSame(guardado, pagoService.procesarPagoYConfirmarSesion(alumnoEmail, confirmarPagoRequest, "clave-1"));
+            verify(pagoRepository, never()).save(any());
+            verify(idempotenciaPagos, never()).guardar(any(), any(), any(), any());
+        }
+
         @Test
         @DisplayName("Debe lanzar ForbiddenException si la sesión no pertenece al alumno")
         void procesarPagoYConfirmarSesion_whenSesionBelongsToOther_shouldThrowForbidden() {
@@ -183,7 +297,7 @@ class PagoServiceImplTest {
 
             when(userRepository.findByEmail(alumnoEmail)).thenReturn(Optional.of(mockUserAlumno));
             when(estudianteRepository.findByUser(mockUserAlumno)).thenReturn(Optional.of(mockAlumno));
-            when(sesionRepository.findById(sesionId)).thenReturn(Optional.of(mockSesionPendiente));
+            when(sesionRepository.findByIdParaConfirmar(sesionId)).thenReturn(Optional.of(mockSesionPendiente));
 
             assertThrows(ForbiddenException.class, () ->
                     pagoService.procesarPagoYConfirmarSesion(alumnoEmail, confirmarPagoRequest)
@@ -234,4 +348,152 @@ class PagoServiceImplTest {
             verify(pagoRepository, never()).findByEstudianteIdWithDetails(anyLong());
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Pruebas para los ingresos por día")
+    class IngresosTests {
+
+        private IngresoDiarioTutorRepository.IngresoDelDia dia(LocalDate fecha, String monto, String comision, long pagos) {
+            return new IngresoDiarioTutorRepository.IngresoDelDia() {
+                @Override public LocalDate getFecha() { return fecha; }
+                @Override public BigDecimal getMontoBruto() { return new BigDecimal(monto); }
+                @Override public BigDecimal getComisionPlataforma() { return new BigDecimal(comision); }
+                @Override public Long getCantidadPagos() { return pagos; }
+            };
+        }
+
+        @Test
+        @DisplayName("Debe sumar los días del libro del tutor sin leer pagos")
+        void obtenerIngresosDelTutor_shouldAddUpDailyRows() {
+            LocalDate desde = LocalDate.of(2025, 3, 1);
+            LocalDate hasta = LocalDate.of(2025, 3, 31);
+            List<IngresoDiarioTutorRepository.IngresoDelDia> dias = List.of(
+                    dia(desde.plusDays(2), "120.00", "12.00", 2),
+                    dia(desde.plusDays(9), "45.50", "4.55", 1));
+            when(tutorRepository.findByUserEmail("tutor@example.com")).thenReturn(Optional.of(mockTutor));
+            when(ingresoDiarioTutorRepository.findDiasByTutorIdEntre(mockTutor.getId(), desde, hasta)).thenReturn(dias);
+
+            IngresosResponse ingresos = pagoService.obtenerIngresosDelTutor("tutor@example.com", desde, hasta);
+
+            assertEquals(new BigDecimal("165.50"), ingresos.getMontoBruto());
+            assertEquals(new BigDecimal("16.55"), ingresos.getComisionPlataforma());
+            assertEquals(new BigDecimal("148.95"), ingresos.getMontoNeto());
+            assertEquals(3, ingresos.getCantidadPagos());
+            assertEquals(2, ingresos.getDias().size());
+            assertEquals(new BigDecimal("108.00"), ingresos.getDias().get(0).getMontoNeto());
+            verifyNoInteractions(pagoRepository);
+        }
+
+        @Test
+        @DisplayName("Debe usar los últimos 30 días si no se indica el rango")
+        void obtenerIngresosDePlataforma_withoutRange_shouldDefaultToLast30Days() {
+            LocalDate hoy = LocalDate.now();
+            when(ingresoDiarioTutorRepository.findDiasDePlataformaEntre(hoy.minusDays(29), hoy)).thenReturn(List.of());
+
+            IngresosResponse ingresos = pagoService.obtenerIngresosDePlataforma(null, null);
+
+            assertEquals(hoy.minusDays(29), ingresos.getDesde());
+            assertEquals(BigDecimal.ZERO, ingresos.getMontoBruto());
+            assertEquals(0, ingresos.getCantidadPagos());
+        }
+
+        @Test
+        @DisplayName("Debe lanzar BadRequestException si el rango supera el máximo o está invertido")
+        void obtenerIngresosDePlataforma_whenInvalidRange_shouldThrowBadRequest() {
+            LocalDate desde = LocalDate.of(2025, 1, 1);
+
+            assertThrows(BadRequestException.class, () -> pagoService.obtenerIngresosDePlataforma(desde, desde.plusDays(366)));
+            assertThrows(BadRequestException.class, () -> pagoService.obtenerIngresosDePlataforma(desde, desde.minusDays(1)));
+            verifyNoInteractions(ingresoDiarioTutorRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Pruebas para el historial por cursor y su exportación")
+    class HistorialPaginadoTests {
+
+        private PagoRepository.FilaHistorial fila(long id, String nombreTutor) {
+            return new PagoRepository.FilaHistorial() {
+                @Override public Long getId() { return id; }
+                @Override public Long getTutorId() { return mockTutor.getId(); }
+                @Override public String getNombreTutor() { return nombreTutor; }
+                @Override public Long getEstudianteId() { return mockAlumno.getId(); }
+                @Override public String getNombreEstudiante() { return "Ana"; }
+                @Override public BigDecimal getMonto() { return new BigDecimal("60.00"); }
+                @Override public BigDecimal getComisionPlataforma() { return new BigDecimal("6.00"); }
+                @Override public MetodoPagoEnum getMetodoPago() { return MetodoPagoEnum.PAYPAL; }
+                @Override public EstadoPagoEnum getTipoEstado() { return EstadoPagoEnum.COMPLETADO; }
+            };
+        }
+
+        @Test
+        @DisplayName("Debe pedir size + 1 filas y devolver un cursor que sigue después del último pago")
+        void obtenerHistorialPaginado_whenMoreRows_shouldReturnCursorForNextPage() {
+            List<PagoRepository.FilaHistorial> primera = List.of(fila(30, "T"), fila(20, "T"), fila(10, "T"));
+            List<PagoRepository.FilaHistorial> segunda = List.of(fila(10, "T"));
+            when(userRepository.findByEmail(alumnoEmail)).thenReturn(Optional.of(mockUserAlumno));
+            when(pagoRepository.findHistorialDelEstudiante(eq(mockAlumno.getId()), eq(Long.MAX_VALUE), any(Pageable.class)))
+                    .thenReturn(primera);
+            when(pagoRepository.findHistorialDelEstudiante(eq(mockAlumno.getId()), eq(20L), any(Pageable.class)))
+                    .thenReturn(segunda);
+            when(pagoMapper.toPagoResponse(any(PagoRepository.FilaHistorial.class))).thenAnswer(invocation -> {
+                PagoResponse response = new PagoResponse();
+                response.setId(((PagoRepository.FilaHistorial) invocation.getArgument(0)).getId());
+                return response;
+            });
+
+            PagedResponse<PagoResponse> pagina = pagoService.obtenerHistorialPaginado(alumnoEmail, null, 2);
+
+            assertEquals(List.of(30L, 20L), pagina.getContent().stream().map(PagoResponse::getId).toList());
+            assertFalse(pagina.isLast());
+            assertNotNull(pagina.getNextCursor());
+            verify(pagoRepository).findHistorialDelEstudiante(eq(mockAlumno.getId()), eq(Long.MAX_VALUE),
+                    argThat(limite -> limite.getPageNumber() == 0 && limite.getPageSize() == 3));
+
+            PagedResponse<PagoResponse> siguiente = pagoService.obtenerHistorialPaginado(alumnoEmail, pagina.getNextCursor(), 2);
+
+            assertEquals(List.of(10L), siguiente.getContent().stream().map(PagoResponse::getId).toList());
+            assertTrue(siguiente.isLast());
+            assertNull(siguiente.getNextCursor());
+            verify(pagoRepository, never()).findByEstudianteIdWithDetails(anyLong());
+        }
+
+        @Test
+        @DisplayName("Debe lanzar BadRequestException con un cursor inválido o un tamaño fuera de rango")
+        void obtenerHistorialPaginado_whenInvalidParams_shouldThrowBadRequest() {
+            assertThrows(BadRequestException.class, () -> pagoService.obtenerHistorialPaginado(alumnoEmail, "no-es-un-cursor", 20));
+            assertThrows(BadRequestException.class, () -> pagoService.obtenerHistorialPaginado(alumnoEmail, null, 0));
+            assertThrows(BadRequestException.class, () -> pagoService.obtenerHistorialPaginado(alumnoEmail, null, 101));
+            verifyNoInteractions(pagoRepository);
+        }
+
+        @Test
+        @DisplayName("Debe lanzar ForbiddenException si el usuario no es estudiante ni tutor")
+        void obtenerHistorialPaginado_whenNoProfile_shouldThrowForbidden() {
+            User admin = User.builder().id(9L).email("admin@example.com").role(new Role(1, RoleName.ADMIN)).build();
+            when(userRepository.findByEmail("admin@example.com")).thenReturn(Optional.of(admin));
+
+            assertThrows(ForbiddenException.class, () -> pagoService.obtenerHistorialPaginado("admin@example.com", null, 20));
+        }
+
+        @Test
+        @DisplayName("Debe exportar el historial del tutor en CSV, con los campos de texto escapados")
+        void exportarHistorial_csv_shouldWriteHeaderAndEscapedRows() throws Exception {
+            String emailTutor = "tutor.pago@example.com";
+            User mockUserTutor = User.builder().id(2L).email(emailTutor).role(new Role(2, RoleName.TUTOR)).build();
+            mockUserTutor.setTutorProfile(mockTutor);
+            when(userRepository.findByEmail(emailTutor)).thenReturn(Optional.of(mockUserTutor));
+            when(pagoRepository.streamHistorialDelTutor(mockTutor.getId()))
+                    .thenReturn(Stream.of(fila(2, "Pérez, \"Toto\""), fila(1, "Luz")));
+
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            pagoService.exportarHistorial(emailTutor, FormatoExportacion.CSV).writeTo(salida);
+
+            assertEquals("id,tutorId,nombreTutor,estudianteId,nombreEstudiante,monto,comisionPlataforma,metodoPago,tipoEstado\n"
+                            + "2,1,\"Pérez, \"\"Toto\"\"\",1,Ana,60.00,6.00,PAYPAL,COMPLETADO\n"
+                            + "1,1,Luz,1,Ana,60.00,6.00,PAYPAL,COMPLETADO\n",
+                    salida.toString(StandardCharsets.UTF_8));
+            verify(transactionManager).commit(any());
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package tutorgo.com.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tutorgo.com.dto.request.ReglaDisponibilidadRequest;
+import tutorgo.com.dto.response.ReglaDisponibilidadResponse;
+import tutorgo.com.exception.BadRequestException;
+import tutorgo.com.exception.ForbiddenException;
+import tutorgo.com.mapper.ReglaDisponibilidadMapper;
+import tutorgo.com.model.ReglaDisponibilidad;
+import tutorgo.com.model.Tutor;
+import tutorgo.com.model.User;
+import tutorgo.com.repository.ReglaDisponibilidadRepository;
+import tutorgo.com.repository.TutorRepository;
+import tutorgo.com.repository.UserRepository;
+import tutorgo.com.search.AgendaTutorIndex;
+import tutorgo.com.search.DisponibilidadBitmapIndex;
+import tutorgo.com.search.ReglaSemanal;
+import tutorgo.com.search.TutorListadoCache;
+import tutorgo.com.search.TutorVersiones;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas Unitarias para ReglaDisponibilidadServiceImpl")
+class ReglaDisponibilidadServiceImplTest {
+
+    @Mock private UserRepository userRepository;
+    @Mock private TutorRepository tutorRepository;
+    @Mock private ReglaDisponibilidadRepository reglaDisponibilidadRepository;
+    @Mock private ReglaDisponibilidadMapper reglaDisponibilidadMapper;
+    @Mock private DisponibilidadBitmapIndex disponibilidadBitmapIndex;
+    @Mock private AgendaTutorIndex agendaTutorIndex;
+    @Mock private TutorListadoCache tutorListadoCache;
+    @Mock private TutorVersiones tutorVersiones;
+
+    @InjectMocks
+    private ReglaDisponibilidadServiceImpl reglaDisponibilidadService;
+
+    private final String tutorEmail = "tutor@example.com";
+    private final LocalDate proximoLunes = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+    private User mockUserTutor;
+    private Tutor mockTutor;
+    private ReglaDisponibilidadRequest request;
+
+    @BeforeEach
+    void setUp() {
+        mockUserTutor = User.builder().id(1L).email(tutorEmail).build();
+        mockTutor = Tutor.builder().id(1L).user(mockUserTutor).build();
+        when(userRepository.findByEmail(tutorEmail)).thenReturn(Optional.of(mockUserTutor));
+        when(tutorRepository.findByUser(mockUserTutor)).thenReturn(Optional.of(mockTutor));
+
+        // Lunes y miércoles de 18:00 a 21:00 durante un semestre
+        request = new ReglaDisponibilidadRequest();
+        request.setDiasSemana(List.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY));
+        request.setHoraInicio(LocalTime.of(18, 0));
+        request.setHoraFinal(LocalTime.of(21, 0));
+        request.setFechaInicio(proximoLunes);
+        request.setFechaFin(proximoLunes.plusWeeks(16));
+    }
+
+    private ReglaDisponibilidad reglaGuardada(Tutor tutor) {
+        return ReglaDisponibilidad.builder().id(5L).tutor(tutor)
+                .diasSemana(new HashSet<>(Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY)))
+                .horaInicio(LocalTime.of(18, 0)).horaFinal(LocalTime.of(21, 0))
+                .fechaInicio(proximoLunes).fechaFin(proximoLunes.plusWeeks(16)).build();
+    }
+
+    @Nested
+    @DisplayName("Pruebas para crearRegla")
+    class CrearReglaTests {
+
+        @Test
+        @DisplayName("Debe guardar una sola fila y actualizar los índices y la caché")
+        void crearRegla_whenNoConflicts_shouldSaveOneRowAndUpdateIndexes() {
+            // La excepción fuera del rango se descarta
+            request.setExcepciones(List.of(proximoLunes.plusWeeks(2), proximoLunes.minusWeeks(1)));
+            when(reglaDisponibilidadRepository.save(any(ReglaDisponibilidad.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            when(reglaDisponibilidadMapper.toReglaDisponibilidadResponse(any())).thenReturn(new ReglaDisponibilidadResponse());
+
+            assertNotNull(reglaDisponibilidadService.crearRegla(tutorEmail, request));
+
+            verify(reglaDisponibilidadRepository).save(argThat(regla ->
+                    regla.getExcepciones().equals(Set.of(proximoLunes.plusWeeks(2)))
+                            && regla.getDiasSemana().equals(Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY))));
+            verify(agendaTutorIndex).disponibilidadesSolapadas(any(ReglaSemanal.class));
+            verify(disponibilidadBitmapIndex).registrarRegla(any(ReglaDisponibilidad.class));
+            verify(agendaTutorIndex).registrarRegla(any(ReglaDisponibilidad.class));
+            verify(tutorListadoCache).invalidarDisponibilidad(proximoLunes, proximoLunes.plusWeeks(16));
+            verify(tutorVersiones).cambioDisponibilidad(mockTutor.getId());
+        }
+
+        @Test
+        @DisplayName("Debe rechazar una regla que choca con un bloque suelto en alguna de sus fechas")
+        void crearRegla_whenOccurrenceOverlapsBlock_shouldThrowBadRequest() {
+            when(agendaTutorIndex.disponibilidadesSolapadas(any(ReglaSemanal.class))).thenReturn(List.of(3L));
+
+            BadRequestException ex = assertThrows(BadRequestException.class,
+                    () -> reglaDisponibilidadService.crearRegla(tutorEmail, request));
+            assertEquals("La regla se solapa con una disponibilidad existente.", ex.getMessage());
+            verify(reglaDisponibilidadRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Debe rechazar rangos de más de un año y reglas sin ninguna fecha")
+        void crearRegla_whenRangeIsInvalid_shouldThrowBadRequest() {
+            request.setFechaFin(proximoLunes.plusYears(2));
+            assertThrows(BadRequestException.class, () -> reglaDisponibilidadService.crearRegla(tutorEmail, request));
+
+            // Del lunes al martes, solo los miércoles: no hay ninguna ocurrencia
+            request.setFechaFin(proximoLunes.plusDays(1));
+            request.setDiasSemana(List.of(DayOfWeek.WEDNESDAY));
+            BadRequestException ex = assertThrows(BadRequestException.class,
+                    () -> reglaDisponibilidadService.crearRegla(tutorEmail, request));
+            assertEquals("La regla no tiene ninguna fecha dentro del rango indicado.", ex.getMessage());
+            verify(reglaDisponibilidadRepository, never()).save(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Pruebas para eliminar y excluir fechas")
+    class CambiosTests {
+
+        @Test
+        @DisplayName("No debe eliminar una regla con sesiones activas en sus próximas ocurrencias")
+        void deleteRegla_whenHasActiveSessions_shouldThrowBadRequest() {
+            when(reglaDisponibilidadRepository.findConDetalleById(5L)).thenReturn(Optional.of(reglaGuardada(mockTutor)));
+            when(agendaTutorIndex.sesionesSolapadas(any(ReglaSemanal.class), any(LocalDate.class))).thenReturn(List.of(40L));
+
+            assertThrows(BadRequestException.class, () -> reglaDisponibilidadService.deleteRegla(tutorEmail, 5L));
+            verify(reglaDisponibilidadRepository, never()).delete(any());
+        }
+
+        @Test
+        @DisplayName("No debe permitir modificar la regla de otro tutor")
+        void agregarExcepcion_whenNotOwner_shouldThrowForbidden() {
+            Tutor otro = Tutor.builder().id(2L).build();
+            when(reglaDisponibilidadRepository.findConDetalleById(5L)).thenReturn(Optional.of(reglaGuardada(otro)));
+
+            assertThrows(ForbiddenException.class,
+                    () -> reglaDisponibilidadService.agregarExcepcion(tutorEmail, 5L, proximoLunes));
+        }
+
+        @Test
+        @DisplayName("Debe excluir una fecha sin sesiones y avisar solo a esa fecha en la caché")
+        void agregarExcepcion_whenFree_shouldSaveAndInvalidateThatDate() {
+            ReglaDisponibilidad regla = reglaGuardada(mockTutor);
+            LocalDate miercoles = proximoLunes.plusDays(2);
+            when(reglaDisponibilidadRepository.findConDetalleById(5L)).thenReturn(Optional.of(regla));
+            when(reglaDisponibilidadRepository.save(regla)).thenReturn(regla);
+
+            reglaDisponibilidadService.agregarExcepcion(tutorEmail, 5L, miercoles);
+
+            assertTrue(regla.getExcepciones().contains(miercoles));
+            verify(agendaTutorIndex).sesionesSolapadas(mockTutor.getId(), miercoles,
+                    miercoles.atTime(18, 0), miercoles.atTime(21, 0));
+            verify(agendaTutorIndex).registrarRegla(regla);
+            verify(tutorListadoCache).invalidarDisponibilidad(miercoles);
+        }
+
+        @Test
+        @DisplayName("No debe volver a habilitar una fecha que ahora choca con otro bloque")
+        void quitarExcepcion_whenDateNowOverlaps_shouldThrowBadRequest() {
+            ReglaDisponibilidad regla = reglaGuardada(mockTutor);
+            regla.getExcepciones().add(proximoLunes);
+            when(reglaDisponibilidadRepository.findConDetalleById(5L)).thenReturn(Optional.of(regla));
+            when(agendaTutorIndex.disponibilidadesSolapadas(mockTutor.getId(), proximoLunes,
+                    proximoLunes.atTime(18, 0), proximoLunes.atTime(21, 0), null)).thenReturn(List.of(8L));
+
+            assertThrows(BadRequestException.class,
+                    () -> reglaDisponibilidadService.quitarExcepcion(tutorEmail, 5L, proximoLunes));
+            assertTrue(regla.getExcepciones().contains(proximoLunes));
+            verify(reglaDisponibilidadRepository, never()).save(any());
+        }
+    }
+}
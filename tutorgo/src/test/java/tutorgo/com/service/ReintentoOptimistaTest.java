@@ -0,0 +1,97 @@
+package tutorgo.com.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import tutorgo.com.exception.BadRequestException;
+import tutorgo.com.model.Disponibilidad;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Pruebas Unitarias para ReintentoOptimista")
+class ReintentoOptimistaTest {
+
+    private PlatformTransactionManager transactionManager;
+    private ReintentoOptimista reintento;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        // Sin esperas entre intentos
+        reintento = new ReintentoOptimista(transactionManager, 3, 0, 0);
+    }
+
+    private static ObjectOptimisticLockingFailureException conflicto() {
+        return new ObjectOptimisticLockingFailureException(Disponibilidad.class, 1L);
+    }
+
+    @Test
+    @DisplayName("Debe repetir la operación en una transacción nueva tras un conflicto de versión")
+    void ejecutar_whenConflictThenSuccess_shouldRetryAndCount() {
+        AtomicInteger intentos = new AtomicInteger();
+
+        String resultado = reintento.ejecutar("disponibilidad.actualizar", () -> {
+            if (intentos.incrementAndGet() < 3) {
+                throw conflicto();
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", resultado);
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(2)).rollback(any());
+        ReintentoOptimista.Estadisticas estadisticas = reintento.estadisticas().get("disponibilidad.actualizar");
+        assertEquals(new ReintentoOptimista.Estadisticas(1, 2, 0), estadisticas);
+    }
+
+    @Test
+    @DisplayName("Debe abandonar y propagar el conflicto al agotar los intentos")
+    void ejecutar_whenAlwaysConflicts_shouldGiveUpAfterMaxAttempts() {
+        AtomicInteger intentos = new AtomicInteger();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> reintento.ejecutar("pago.confirmar", () -> {
+            intentos.incrementAndGet();
+            throw conflicto();
+        }));
+
+        assertEquals(3, intentos.get());
+        assertEquals(new ReintentoOptimista.Estadisticas(1, 2, 1), reintento.estadisticas().get("pago.confirmar"));
+    }
+
+    @Test
+    @DisplayName("Debe repetir la operación cuando la base la eligió como víctima de un interbloqueo")
+    void ejecutar_whenDeadlockThenSuccess_shouldRetry() {
+        AtomicInteger intentos = new AtomicInteger();
+
+        String resultado = reintento.ejecutar("pago.confirmar", () -> {
+            if (intentos.incrementAndGet() == 1) {
+                throw new CannotAcquireLockException("ERROR: deadlock detected");
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", resultado);
+        assertEquals(new ReintentoOptimista.Estadisticas(1, 1, 0), reintento.estadisticas().get("pago.confirmar"));
+    }
+
+    @Test
+    @DisplayName("No debe reintentar errores que no son conflictos de versión")
+    void ejecutar_whenOtherException_shouldNotRetry() {
+        AtomicInteger intentos = new AtomicInteger();
+
+        assertThrows(BadRequestException.class, () -> reintento.ejecutar("disponibilidad.eliminar", () -> {
+            intentos.incrementAndGet();
+            throw new BadRequestException("ocupado");
+        }));
+
+        assertEquals(1, intentos.get());
+        assertEquals(0, reintento.estadisticas().get("disponibilidad.eliminar").reintentos());
+    }
+}
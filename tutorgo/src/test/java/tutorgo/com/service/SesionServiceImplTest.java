@@ -8,7 +8,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import tutorgo.com.dto.request.ReservaPaqueteRequest;
 import tutorgo.com.dto.request.ReservaTutoriaRequest;
+import tutorgo.com.dto.request.SesionDelPaqueteRequest;
 import tutorgo.com.dto.response.SesionResponse;
 import tutorgo.com.enums.EstadoSesionEnum;
 import tutorgo.com.exception.BadRequestException;
@@ -16,16 +18,22 @@ import tutorgo.com.exception.ResourceNotFoundException;
 import tutorgo.com.mapper.SesionMapper;
 import tutorgo.com.model.*;
 import tutorgo.com.repository.*;
+import tutorgo.com.search.AgendaTutorIndex;
+import tutorgo.com.search.TutorListadoCache;
+import tutorgo.com.search.TutorVersiones;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -38,7 +46,12 @@ class SesionServiceImplTest {
     @Mock private TutorRepository tutorRepository;
     @Mock private SesionRepository sesionRepository;
     @Mock private DisponibilidadRepository disponibilidadRepository;
+    @Mock private AgendaTutorIndex agendaTutorIndex;
     @Mock private SesionMapper sesionMapper;
+    @Mock private CarrilesDeReserva carrilesDeReserva;
+    @Mock private RetencionesDeHorario retencionesDeHorario;
+    @Mock private TutorVersiones tutorVersiones;
+    @Mock private TutorListadoCache tutorListadoCache;
     // No necesitamos UserRepository si buscamos por perfil directamente
 
     @InjectMocks
@@ -64,6 +77,11 @@ class SesionServiceImplTest {
         reservaRequest.setHoraFinal(LocalTime.of(16, 0));
     }
 
+    // El carril corre la tarea en el mismo hilo de la prueba
+    private void carrilEnElMismoHilo() {
+        when(carrilesDeReserva.ejecutar(anyLong(), any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+    }
+
     @Nested
     @DisplayName("Pruebas para reservarTutoria (HU8)")
     class ReservarTutoriaTests {
@@ -75,21 +93,21 @@ class SesionServiceImplTest {
             LocalDateTime inicioSesion = LocalDateTime.of(reservaRequest.getFecha(), reservaRequest.getHoraInicio());
             LocalDateTime finSesion = LocalDateTime.of(reservaRequest.getFecha(), reservaRequest.getHoraFinal());
 
-            // Simulamos una disponibilidad que "envuelve" la sesión solicitada
-            Disponibilidad disp = new Disponibilidad();
-
             // Simular lo que el servicio va a buscar
             when(estudianteRepository.findByUserEmail(alumnoEmail)).thenReturn(Optional.of(mockAlumno));
             when(tutorRepository.findById(reservaRequest.getTutorId())).thenReturn(Optional.of(mockTutor));
 
-            // Simular que el tutor tiene disponibilidad
-            when(disponibilidadRepository.findDisponibilidadQueEnvuelveElSlot(anyLong(), any(), any(), any())).thenReturn(List.of(disp));
+            // Simular que el tutor tiene un bloque de disponibilidad que "envuelve" la sesión solicitada
+            when(agendaTutorIndex.disponibilidadesQueEnvuelven(anyLong(), any(), any(), any())).thenReturn(List.of(1L));
 
             // Simular que no hay sesiones solapadas para el tutor ni para el alumno
-            when(sesionRepository.findSesionesSolapadasParaTutor(anyLong(), any(), any(), any())).thenReturn(Collections.emptyList());
+            when(agendaTutorIndex.sesionesSolapadas(anyLong(), any(), any(), any())).thenReturn(Collections.emptyList());
             when(sesionRepository.findSesionesSolapadasParaEstudiante(anyLong(), any(), any(), any())).thenReturn(Collections.emptyList());
 
-            // Simular el guardado y el mapeo
+            // Simular el carril, el vencimiento de la reserva, el guardado y el mapeo
+            carrilEnElMismoHilo();
+            LocalDateTime vence = LocalDateTime.now().plusMinutes(15);
+            when(retencionesDeHorario.vencimientoDesde(any(LocalDateTime.class))).thenReturn(vence);
             when(sesionRepository.save(any(Sesion.class))).thenAnswer(invocation -> invocation.getArgument(0));
             when(sesionMapper.toSesionResponse(any(Sesion.class))).thenReturn(new SesionResponse());
 
@@ -105,6 +123,32 @@ class SesionServiceImplTest {
                             sesion.getTutor().getId().equals(mockTutor.getId()) &&
                             sesion.getEstudiante().getId().equals(mockAlumno.getId())
             ));
+            verify(agendaTutorIndex).registrarSesion(any(Sesion.class));
+            verify(carrilesDeReserva).ejecutar(eq(mockTutor.getId()), any());
+            verify(sesionRepository).save(argThat(sesion -> vence.equals(sesion.getReservadaHasta())));
+            verify(retencionesDeHorario).programar(any(), eq(vence));
+        }
+
+        @Test
+        @DisplayName("Debe rechazar en memoria, sin guardar, si otra reserva del carril tomó el horario antes")
+        void reservarTutoria_whenSlotTakenWhileQueued_shouldThrowBadRequestWithoutSaving() {
+            // Arrange
+            when(estudianteRepository.findByUserEmail(alumnoEmail)).thenReturn(Optional.of(mockAlumno));
+            when(tutorRepository.findById(reservaRequest.getTutorId())).thenReturn(Optional.of(mockTutor));
+            when(agendaTutorIndex.disponibilidadesQueEnvuelven(anyLong(), any(), any(), any())).thenReturn(List.of(1L));
+            // Libre al llegar; ocupado cuando le toca el turno en el carril
+            when(agendaTutorIndex.sesionesSolapadas(anyLong(), any(), any(), any()))
+                    .thenReturn(Collections.emptyList())
+                    .thenReturn(List.of(7L));
+            carrilEnElMismoHilo();
+
+            // Act & Assert
+            BadRequestException exception = assertThrows(BadRequestException.class, () -> {
+                sesionService.reservarTutoria(alumnoEmail, reservaRequest);
+            });
+            assertEquals("El horario seleccionado ya no está disponible o está ocupado.", exception.getMessage());
+            verify(sesionRepository, never()).save(any());
+            verify(agendaTutorIndex, never()).registrarSesion(any());
         }
 
         @Test
@@ -114,7 +158,7 @@ class SesionServiceImplTest {
             when(estudianteRepository.findByUserEmail(alumnoEmail)).thenReturn(Optional.of(mockAlumno));
             when(tutorRepository.findById(reservaRequest.getTutorId())).thenReturn(Optional.of(mockTutor));
             // Simulamos que el método que busca disponibilidad devuelve una lista vacía
-            when(disponibilidadRepository.findDisponibilidadQueEnvuelveElSlot(anyLong(), any(), any(), any())).thenReturn(Collections.emptyList());
+            when(agendaTutorIndex.disponibilidadesQueEnvuelven(anyLong(), any(), any(), any())).thenReturn(Collections.emptyList());
 
             // Act & Assert
             BadRequestException exception = assertThrows(BadRequestException.class, () -> {
@@ -129,9 +173,9 @@ class SesionServiceImplTest {
             // Arrange
             when(estudianteRepository.findByUserEmail(alumnoEmail)).thenReturn(Optional.of(mockAlumno));
             when(tutorRepository.findById(reservaRequest.getTutorId())).thenReturn(Optional.of(mockTutor));
-            when(disponibilidadRepository.findDisponibilidadQueEnvuelveElSlot(anyLong(), any(), any(), any())).thenReturn(List.of(new Disponibilidad()));
+            when(agendaTutorIndex.disponibilidadesQueEnvuelven(anyLong(), any(), any(), any())).thenReturn(List.of(1L));
             // Simulamos que ya existe una sesión en ese horario para el tutor
-            when(sesionRepository.findSesionesSolapadasParaTutor(anyLong(), any(), any(), any())).thenReturn(List.of(new Sesion()));
+            when(agendaTutorIndex.sesionesSolapadas(anyLong(), any(), any(), any())).thenReturn(List.of(7L));
 
             // Act & Assert
             BadRequestException exception = assertThrows(BadRequestException.class, () -> {
@@ -168,4 +212,192 @@ class SesionServiceImplTest {
             assertEquals("La hora de finalización debe ser posterior a la hora de inicio.", exception.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Pruebas para liberarReservasVencidas")
+    class LiberarReservasVencidasTests {
+
+        @Test
+        @DisplayName("Debe marcar VENCIDO las reservas vencidas que sigue encontrando y sacarlas de la agenda")
+        void liberarReservasVencidas_shouldMarkExpiredAndUpdateAgenda() {
+            Sesion vencida = Sesion.builder().id(30L).tutor(mockTutor).tipoEstado(EstadoSesionEnum.PENDIENTE).build();
+            // La 31 se pagó entretanto: la consulta ya no la devuelve
+            when(sesionRepository.findReservasVencidasParaLiberar(eq(List.of(30L, 31L)), any(LocalDateTime.class)))
+                    .thenReturn(List.of(vencida));
+
+            assertEquals(1, sesionService.liberarReservasVencidas(List.of(30L, 31L)));
+            // La fila queda: un pago tardío la encuentra y recibe "la reserva venció"
+            assertEquals(EstadoSesionEnum.VENCIDO, vencida.getTipoEstado());
+            verify(sesionRepository).saveAll(List.of(vencida));
+            verify(sesionRepository, never()).deleteAll(any());
+            verify(agendaTutorIndex).quitarSesion(mockTutor.getId(), 30L);
+            verifyNoInteractions(tutorVersiones, tutorListadoCache);
+        }
+
+        @Test
+        @DisplayName("Al liberar un horario de una regla semanal debe cambiar la versión del tutor una sola vez")
+        void liberarReservasVencidas_whenInsideRule_shouldChangeTutorVersionOnce() {
+            LocalDate fecha = LocalDate.now().plusDays(3);
+            Sesion primera = Sesion.builder().id(30L).tutor(mockTutor).fecha(fecha)
+                    .horaInicial(fecha.atTime(18, 0)).horaFinal(fecha.atTime(19, 0)).build();
+            Sesion segunda = Sesion.builder().id(31L).tutor(mockTutor).fecha(fecha)
+                    .horaInicial(fecha.atTime(19, 0)).horaFinal(fecha.atTime(20, 0)).build();
+            when(sesionRepository.findReservasVencidasParaLiberar(eq(List.of(30L, 31L)), any(LocalDateTime.class)))
+                    .thenReturn(List.of(primera, segunda));
+            when(agendaTutorIndex.reglasQueEnvuelven(eq(mockTutor.getId()), eq(fecha), any(), any())).thenReturn(List.of(9L));
+
+            assertEquals(2, sesionService.liberarReservasVencidas(List.of(30L, 31L)));
+            verify(tutorVersiones).cambioDisponibilidad(mockTutor.getId());
+            verify(tutorListadoCache).invalidarDisponibilidad(fecha);
+        }
+
+        @Test
+        @DisplayName("No debe consultar la base con una lista vacía")
+        void liberarReservasVencidas_whenEmpty_shouldDoNothing() {
+            assertEquals(0, sesionService.liberarReservasVencidas(List.of()));
+            verifyNoInteractions(sesionRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Pruebas para reservarPaquete")
+    class ReservarPaqueteTests {
+
+        private final LocalDate primerDia = LocalDate.now().plusDays(2);
+
+        private SesionDelPaqueteRequest horario(LocalDate fecha, int desde, int hasta) {
+            SesionDelPaqueteRequest horario = new SesionDelPaqueteRequest();
+            horario.setFecha(fecha);
+            horario.setHoraInicio(LocalTime.of(desde, 0));
+            horario.setHoraFinal(LocalTime.of(hasta, 0));
+            return horario;
+        }
+
+        private ReservaPaqueteRequest paquete(SesionDelPaqueteRequest... horarios) {
+            ReservaPaqueteRequest request = new ReservaPaqueteRequest();
+            request.setTutorId(mockTutor.getId());
+            request.setSesiones(List.of(horarios));
+            return request;
+        }
+
+        private DisponibilidadRepository.FranjaIndexable bloque(LocalDate fecha, int desde, int hasta) {
+            DisponibilidadRepository.FranjaIndexable bloque = mock(DisponibilidadRepository.FranjaIndexable.class);
+            lenient().when(bloque.getHoraInicial()).thenReturn(fecha.atTime(desde, 0));
+            lenient().when(bloque.getHoraFinal()).thenReturn(fecha.atTime(hasta, 0));
+            return bloque;
+        }
+
+        private SesionRepository.FranjaOcupada ocupada(LocalDate fecha, int desde, int hasta) {
+            SesionRepository.FranjaOcupada ocupada = mock(SesionRepository.FranjaOcupada.class);
+            lenient().when(ocupada.getHoraInicial()).thenReturn(fecha.atTime(desde, 0));
+            lenient().when(ocupada.getHoraFinal()).thenReturn(fecha.atTime(hasta, 0));
+            return ocupada;
+        }
+
+        private void alumnoYTutor() {
+            when(estudianteRepository.findByUserEmail(alumnoEmail)).thenReturn(Optional.of(mockAlumno));
+            when(tutorRepository.findById(mockTutor.getId())).thenReturn(Optional.of(mockTutor));
+        }
+
+        @Test
+        @DisplayName("Debe validar con dos consultas e insertar todas las sesiones en un lote")
+        void reservarPaquete_whenAllSlotsFree_shouldInsertAllInOneBatch() {
+            alumnoYTutor();
+            carrilEnElMismoHilo();
+            LocalDate segunda = primerDia.plusWeeks(1);
+            LocalDate tercera = primerDia.plusWeeks(2);
+            // La tercera semana la cubre una regla semanal, no un bloque
+            // Los mocks de las proyecciones se arman antes: no se puede stubear dentro de otro when
+            List<DisponibilidadRepository.FranjaIndexable> bloques = List.of(bloque(primerDia, 14, 18), bloque(segunda, 15, 17));
+            List<SesionRepository.FranjaOcupada> ocupadas = List.of(ocupada(primerDia, 14, 15), ocupada(segunda, 16, 17));
+            when(disponibilidadRepository.findFranjasIndexablesByTutorIdAndFechaEntre(mockTutor.getId(), primerDia, tercera))
+                    .thenReturn(bloques);
+            when(sesionRepository.findFranjasActivasByTutorIdAndFechaEntre(mockTutor.getId(), primerDia, tercera))
+                    .thenReturn(ocupadas);
+            when(agendaTutorIndex.reglasQueEnvuelven(eq(mockTutor.getId()), eq(tercera), any(), any())).thenReturn(List.of(9L));
+            LocalDateTime vence = LocalDateTime.now().plusMinutes(15);
+            when(retencionesDeHorario.vencimientoDesde(any(LocalDateTime.class))).thenReturn(vence);
+            doAnswer(invocation -> {
+                List<Sesion> sesiones = invocation.getArgument(0);
+                for (int i = 0; i < sesiones.size(); i++) {
+                    sesiones.get(i).setId(100L + i);
+                }
+                return null;
+            }).when(sesionRepository).insertarEnLote(anyList());
+            when(sesionMapper.toSesionResponseList(anyList())).thenAnswer(invocation -> {
+                List<SesionResponse> respuestas = new ArrayList<>();
+                for (Object ignorada : (List<?>) invocation.getArgument(0)) {
+                    respuestas.add(new SesionResponse());
+                }
+                return respuestas;
+            });
+
+            // Pedidos fuera de orden: las sesiones se guardan en el orden del pedido
+            List<SesionResponse> respuesta = sesionService.reservarPaquete(alumnoEmail,
+                    paquete(horario(tercera, 15, 16), horario(primerDia, 15, 16), horario(segunda, 15, 16)));
+
+            assertEquals(3, respuesta.size());
+            verify(sesionRepository).insertarEnLote(argThat(sesiones -> sesiones.size() == 3
+                    && sesiones.get(0).getFecha().equals(tercera)
+                    && sesiones.get(1).getFecha().equals(primerDia)
+                    && sesiones.stream().allMatch(sesion -> sesion.getTipoEstado() == EstadoSesionEnum.PENDIENTE
+                    && vence.equals(sesion.getReservadaHasta()) && sesion.getEstudiante() == mockAlumno)));
+            verify(agendaTutorIndex, times(3)).registrarSesion(any(Sesion.class));
+            verify(retencionesDeHorario).programar(100L, vence);
+            verify(retencionesDeHorario).programar(102L, vence);
+            verify(sesionRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Debe rechazar el paquete entero y nombrar cada horario que falla")
+        void reservarPaquete_whenSomeSlotsFail_shouldRejectAllWithoutSaving() {
+            alumnoYTutor();
+            carrilEnElMismoHilo();
+            LocalDate segunda = primerDia.plusWeeks(1);
+            LocalDate tercera = primerDia.plusWeeks(2);
+            List<DisponibilidadRepository.FranjaIndexable> bloques = List.of(bloque(primerDia, 14, 18), bloque(segunda, 14, 18));
+            List<SesionRepository.FranjaOcupada> ocupadas = List.of(ocupada(segunda, 14, 16));
+            when(disponibilidadRepository.findFranjasIndexablesByTutorIdAndFechaEntre(mockTutor.getId(), primerDia, tercera))
+                    .thenReturn(bloques);
+            when(sesionRepository.findFranjasActivasByTutorIdAndFechaEntre(mockTutor.getId(), primerDia, tercera))
+                    .thenReturn(ocupadas);
+
+            BadRequestException ex = assertThrows(BadRequestException.class, () -> sesionService.reservarPaquete(alumnoEmail,
+                    paquete(horario(primerDia, 15, 16), horario(segunda, 15, 16), horario(tercera, 15, 16))));
+
+            assertFalse(ex.getMessage().contains("Sesión 1 "));
+            assertTrue(ex.getMessage().contains("Sesión 2 (" + segunda + " 15:00-16:00): ya no está disponible o está ocupado"));
+            assertTrue(ex.getMessage().contains("Sesión 3 (" + tercera + " 15:00-16:00): no está dentro de la disponibilidad del tutor"));
+            verify(sesionRepository, never()).insertarEnLote(anyList());
+            verifyNoInteractions(retencionesDeHorario);
+        }
+
+        @Test
+        @DisplayName("Debe rechazar dos horarios del mismo paquete que se solapan")
+        void reservarPaquete_whenSlotsOverlapEachOther_shouldThrowBadRequest() {
+            alumnoYTutor();
+            carrilEnElMismoHilo();
+            List<DisponibilidadRepository.FranjaIndexable> bloques = List.of(bloque(primerDia, 14, 18));
+            when(disponibilidadRepository.findFranjasIndexablesByTutorIdAndFechaEntre(mockTutor.getId(), primerDia, primerDia))
+                    .thenReturn(bloques);
+
+            BadRequestException ex = assertThrows(BadRequestException.class, () -> sesionService.reservarPaquete(alumnoEmail,
+                    paquete(horario(primerDia, 14, 16), horario(primerDia, 15, 17))));
+
+            assertTrue(ex.getMessage().contains("Sesión 2 (" + primerDia + " 15:00-17:00): se solapa con la sesión 1 del mismo paquete"));
+            verify(sesionRepository, never()).insertarEnLote(anyList());
+        }
+
+        @Test
+        @DisplayName("Debe rechazar un horario en el pasado sin entrar al carril")
+        void reservarPaquete_whenSlotInPast_shouldThrowBadRequest() {
+            alumnoYTutor();
+
+            BadRequestException ex = assertThrows(BadRequestException.class, () -> sesionService.reservarPaquete(alumnoEmail,
+                    paquete(horario(primerDia, 15, 16), horario(LocalDate.now().minusDays(1), 15, 16))));
+
+            assertTrue(ex.getMessage().startsWith("Sesión 2 "));
+            verifyNoInteractions(carrilesDeReserva);
+        }
+    }
+}
@@ -1,181 +1,557 @@
-//package tutorgo.com.service;
-//
-//import org.junit.jupiter.api.BeforeEach;
-//import org.junit.jupiter.api.DisplayName;
-//import org.junit.jupiter.api.Nested;
-//import org.junit.jupiter.api.Test;
-//import org.junit.jupiter.api.extension.ExtendWith;
-//import org.mockito.InjectMocks;
-//import org.mockito.Mock;
-//import org.mockito.junit.jupiter.MockitoExtension;
-//import org.springframework.data.domain.Page;
-//import org.springframework.data.domain.PageImpl;
-//import org.springframework.data.domain.PageRequest;
-//import org.springframework.data.domain.Pageable;
-//import tutorgo.com.dto.response.PagedResponse;
-//import tutorgo.com.dto.response.TutorProfileResponse;
-//import tutorgo.com.dto.response.TutorSummaryResponse;
-//import tutorgo.com.exception.ResourceNotFoundException;
-//import tutorgo.com.mapper.TutorMapper;
-//import tutorgo.com.model.Tutor;
-//import tutorgo.com.model.User;
-//import tutorgo.com.repository.TutorRepository;
-//
-//import java.util.Collections;
-//import java.util.List;
-//import java.util.Optional;
-//
-//import static org.junit.jupiter.api.Assertions.*;
-//import static org.mockito.ArgumentMatchers.any;
-//import static org.mockito.ArgumentMatchers.eq;
-//import static org.mockito.Mockito.*;
-//
-//@ExtendWith(MockitoExtension.class)
-//@DisplayName("Pruebas Unitarias para TutorServiceImpl")
-//class TutorServiceImplTest {
-//
-//    @Mock
-//    private TutorRepository tutorRepository;
-//
-//    @Mock
-//    private TutorMapper tutorMapper;
-//
-//    @InjectMocks
-//    private TutorServiceImpl tutorService;
-//
-//    private Pageable pageable;
-//    private Tutor mockTutor;
-//    private User mockUser;
-//
-//    @BeforeEach
-//    void setUp() {
-//        pageable = PageRequest.of(0, 9);
-//        mockUser = User.builder().id(1L).nombre("Profesor de Cálculo").fotoUrl("http://example.com/foto.png").build();
-//        mockTutor = Tutor.builder()
-//                .id(1L)
-//                .user(mockUser)
-//                .rubro("Matemáticas")
-//                .bio("Experto en derivadas e integrales.")
-//                .estrellasPromedio(4.8f)
-//                .tarifaHora(100)
-//                .build();
-//    }
-//
-//    @Nested
-//    @DisplayName("Pruebas para getAllTutores (HU7 con Filtros)")
-//    class GetAllTutoresTests {
-//
-//        @Test
-//        @DisplayName("Debe llamar a searchWithFilters con filtros nulos si no se proveen")
-//        void getAllTutores_whenNoFilters_shouldCallRepositoryWithNulls() {
-//            // Arrange
-//            Page<Tutor> tutorPage = new PageImpl<>(List.of(mockTutor));
-//            // Suponemos que la firma del método en el repositorio acepta 3 filtros
-//            when(tutorRepository.searchWithFilters(null, null, null, pageable)).thenReturn(tutorPage);
-//            when(tutorMapper.tutorsToTutorSummaryResponseList(anyList())).thenReturn(List.of(new TutorSummaryResponse()));
-//
-//            // Act
-//            // Llamamos al servicio pasando null para todos los filtros
-//            tutorService.getAllTutores(null, null, null, pageable);
-//
-//            // Assert
-//            // Verificamos que se llamó al método correcto con todos los filtros nulos
-//            verify(tutorRepository).searchWithFilters(null, null, null, pageable);
-//            verify(tutorMapper).tutorsToTutorSummaryResponseList(anyList());
-//        }
-//
-//        @Test
-//        @DisplayName("Debe llamar a searchWithFilters con todos los parámetros de filtro")
-//        void getAllTutores_withAllFilters_shouldCallRepositoryWithAllParameters() {
-//            // Arrange
-//            String query = "Cálculo";
-//            Integer maxPrecio = 120;
-//            Float puntuacion = 4.5f;
-//            Page<Tutor> tutorPage = new PageImpl<>(List.of(mockTutor));
-//            when(tutorRepository.searchWithFilters(query, maxPrecio, puntuacion, pageable)).thenReturn(tutorPage);
-//            when(tutorMapper.tutorsToTutorSummaryResponseList(anyList())).thenReturn(List.of(new TutorSummaryResponse()));
-//
-//            // Act
-//            tutorService.getAllTutores(query, maxPrecio, puntuacion, pageable);
-//
-//            // Assert
-//            verify(tutorRepository).searchWithFilters(query, maxPrecio, puntuacion, pageable);
-//        }
-//
-//        @Test
-//        @DisplayName("Debe tratar una query en blanco como nula")
-//        void getAllTutores_whenQueryIsBlank_shouldBeTreatedAsNull() {
-//            // Arrange
-//            String blankQuery = "   ";
-//            Page<Tutor> tutorPage = Page.empty(pageable);
-//
-//            // El servicio debe convertir la query en blanco a null antes de pasarla al repositorio
-//            when(tutorRepository.searchWithFilters(eq(null), any(), any(), any(Pageable.class)))
-//                    .thenReturn(tutorPage);
-//
-//            // Act
-//            tutorService.getAllTutores(blankQuery, null, null, pageable);
-//
-//            // Assert
-//            // Verificamos que la lógica StringUtils.hasText() funciona y pasa null al repositorio
-//            verify(tutorRepository).searchWithFilters(null, null, null, pageable);
-//        }
-//
-//        @Test
-//        @DisplayName("Debe devolver una respuesta paginada vacía si la búsqueda no encuentra resultados")
-//        void getAllTutores_whenNoResultsFound_shouldReturnEmptyResponse() {
-//            // Arrange
-//            String query = "Física Cuántica";
-//            Integer maxPrecio = 50;
-//            Float puntuacion = 5.0f;
-//            Page<Tutor> emptyPage = Page.empty(pageable);
-//
-//            // Configuramos el mock para que espere exactamente estos valores
-//            when(tutorRepository.searchWithFilters(eq(query), eq(maxPrecio), eq(puntuacion), any(Pageable.class)))
-//                    .thenReturn(emptyPage);
-//
-//            // Act
-//            PagedResponse<TutorSummaryResponse> result = tutorService.getAllTutores(query, maxPrecio, puntuacion, pageable);
-//
-//            // Assert
-//            assertNotNull(result);
-//            assertTrue(result.getContent().isEmpty(), "El contenido de la respuesta debería estar vacío");
-//            assertEquals(0, result.getTotalElements());
-//
-//            // Verificamos que el mapper no fue llamado porque no había nada que mapear
-//            verify(tutorMapper, never()).tutorsToTutorSummaryResponseList(any());
-//        }
-//    }
-//    @Nested
-//    @DisplayName("Pruebas para getTutorProfile (HU16)")
-//    class GetTutorProfileTests {
-//
-//        @Test
-//        @DisplayName("Debe devolver el perfil completo del tutor si el ID existe")
-//        void getTutorProfile_whenTutorExists_shouldReturnProfile() {
-//            // Arrange
-//            when(tutorRepository.findById(1L)).thenReturn(Optional.of(mockTutor));
-//
-//            // Act
-//            TutorProfileResponse response = tutorService.getTutorProfile(1L);
-//
-//            // Assert
-//            assertNotNull(response);
-//            assertEquals(mockTutor.getId(), response.getId());
-//            assertEquals(mockUser.getNombre(), response.getNombreUsuario());
-//
-//            verify(tutorRepository).findById(1L);
-//        }
-//
-//        @Test
-//        @DisplayName("Debe lanzar ResourceNotFoundException si el tutor no existe")
-//        void getTutorProfile_whenTutorNotFound_shouldThrowResourceNotFoundException() {
-//            // Arrange
-//            Long nonExistentId = 99L;
-//            when(tutorRepository.findById(nonExistentId)).thenReturn(Optional.empty());
-//
-//            // Act & Assert
-//            assertThrows(ResourceNotFoundException.class, () -> tutorService.getTutorProfile(nonExistentId));
-//        }
-//    }
-//}
\ No newline at end of file
+package tutorgo.com.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import tutorgo.com.dto.response.PagedResponse;
+import tutorgo.com.dto.response.TutorCatalogoResponse;
+import tutorgo.com.dto.response.TutorFacetasResponse;
+import tutorgo.com.dto.response.TutorProfileResponse;
+import tutorgo.com.dto.response.TutorSummaryResponse;
+import tutorgo.com.exception.BadRequestException;
+import tutorgo.com.exception.ResourceNotFoundException;
+import tutorgo.com.mapper.TutorMapper;
+import tutorgo.com.model.ReglaDisponibilidad;
+import tutorgo.com.model.Tutor;
+import tutorgo.com.model.User;
+import tutorgo.com.repository.ReglaDisponibilidadRepository;
+import tutorgo.com.repository.TutorFacetasRepository;
+import tutorgo.com.repository.TutorRankingRepository;
+import tutorgo.com.repository.TutorRepository;
+import tutorgo.com.search.AgendaTutorIndex;
+import tutorgo.com.search.DisponibilidadBitmapIndex;
+import tutorgo.com.search.TutorListadoCache;
+import tutorgo.com.search.TutorSearchIndex;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas Unitarias para TutorServiceImpl")
+class TutorServiceImplTest {
+
+    @Mock
+    private TutorRepository tutorRepository;
+
+    @Mock
+    private TutorMapper tutorMapper;
+
+    @Mock
+    private TutorSearchIndex tutorSearchIndex;
+
+    @Mock
+    private DisponibilidadBitmapIndex disponibilidadBitmapIndex;
+
+    @Mock
+    private ReglaDisponibilidadRepository reglaDisponibilidadRepository;
+
+    @Mock
+    private AgendaTutorIndex agendaTutorIndex;
+
+    @Spy
+    private TutorListadoCache tutorListadoCache = new TutorListadoCache(100, 60);
+
+    @InjectMocks
+    private TutorServiceImpl tutorService;
+
+    private Tutor mockTutor;
+    private User mockUser;
+
+    @BeforeEach
+    void setUp() {
+        mockUser = User.builder().id(1L).nombre("Profesor de Cálculo").fotoUrl("http://example.com/foto.png").build();
+        mockTutor = Tutor.builder()
+                .id(1L)
+                .user(mockUser)
+                .rubro("Matemáticas")
+                .bio("Experto en derivadas e integrales.")
+                .estrellasPromedio(4.8f)
+                .tarifaHora(100)
+                .build();
+    }
+
+    @Nested
+    @DisplayName("Pruebas para getAllTutores (HU7 con Filtros)")
+    class GetAllTutoresTests {
+
+        @SuppressWarnings("unchecked")
+        private Pageable paginaEnviadaAlRepositorio() {
+            ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+            verify(tutorRepository).findAll(any(Specification.class), captor.capture());
+            return captor.getValue();
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("Debe delegar filtros, orden y paginación en una sola consulta al repositorio")
+        void getAllTutores_shouldDelegatePagingAndSortingToRepository() {
+            Pageable pageable = PageRequest.of(2, 9, Sort.by(Sort.Direction.DESC, "tarifaHora"));
+            when(tutorRepository.findAll(any(Specification.class), any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of(mockTutor), PageRequest.of(2, 9), 19));
+            when(tutorMapper.tutorsToTutorSummaryResponseList(anyList())).thenReturn(List.of(new TutorSummaryResponse()));
+
+            PagedResponse<TutorSummaryResponse> result = tutorService.getAllTutores(
+                    "cálculo", 120, 4.5f, null, null, null, null, pageable, null, false);
+
+            Pageable enviada = paginaEnviadaAlRepositorio();
+            assertEquals(2, enviada.getPageNumber());
+            assertEquals(9, enviada.getPageSize());
+            assertEquals(Sort.by(Sort.Order.desc("tarifaHora"), Sort.Order.desc("id")), enviada.getSort());
+
+            assertEquals(1, result.getContent().size());
+            assertEquals(19, result.getTotalElements());
+            assertEquals(3, result.getTotalPages());
+            assertTrue(result.isLast());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("Debe ordenar por id si el campo de orden no está permitido")
+        void getAllTutores_whenSortByIsUnknown_shouldFallBackToId() {
+            when(tutorRepository.findAll(any(Specification.class), any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 9), 0));
+
+            tutorService.getAllTutores(null, null, null, null, null, null, null,
+                    PageRequest.of(0, 9, Sort.by("password")), null, false);
+
+            assertEquals(Sort.by(Sort.Order.asc("id")), paginaEnviadaAlRepositorio().getSort());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("Debe traducir el orden por nombre al nombre del usuario")
+        void getAllTutores_whenSortByNombre_shouldSortByUserName() {
+            when(tutorRepository.findAll(any(Specification.class), any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 9), 0));
+
+            tutorService.getAllTutores(null, null, null, null, null, null, null,
+                    PageRequest.of(0, 9, Sort.by("nombre")), null, false);
+
+            assertEquals(Sort.by(Sort.Order.asc("user.nombre"), Sort.Order.asc("id")), paginaEnviadaAlRepositorio().getSort());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("Debe devolver una respuesta paginada vacía si la búsqueda no encuentra resultados")
+        void getAllTutores_whenNoResultsFound_shouldReturnEmptyResponse() {
+            when(tutorRepository.findAll(any(Specification.class), any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 9), 0));
+            when(tutorMapper.tutorsToTutorSummaryResponseList(anyList())).thenReturn(List.of());
+
+            PagedResponse<TutorSummaryResponse> result = tutorService.getAllTutores(
+                    "Física Cuántica", 50, 5.0f, null, null, null, null, PageRequest.of(0, 9), null, false);
+
+            assertNotNull(result);
+            assertTrue(result.getContent().isEmpty(), "El contenido de la respuesta debería estar vacío");
+            assertEquals(0, result.getTotalElements());
+            assertTrue(result.isLast());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("Debe filtrar por los ids del índice de búsqueda cuando está listo")
+        void getAllTutores_whenIndexIsReady_shouldQueryRepositoryWithIndexResults() {
+            when(tutorSearchIndex.isListo()).thenReturn(true);
+            when(tutorSearchIndex.buscar("calculo")).thenReturn(List.of(1L));
+            when(tutorRepository.findAll(any(Specification.class), any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of(mockTutor), PageRequest.of(0, 9), 1));
+            when(tutorMapper.tutorsToTutorSummaryResponseList(anyList())).thenReturn(List.of(new TutorSummaryResponse()));
+
+            PagedResponse<TutorSummaryResponse> result = tutorService.getAllTutores(
+                    "calculo", null, null, null, null, null, null, PageRequest.of(0, 9), null, false);
+
+            verify(tutorSearchIndex).buscar("calculo");
+            assertEquals(1, result.getTotalElements());
+        }
+
+        @Test
+        @DisplayName("No debe consultar la base de datos si el índice no encuentra coincidencias")
+        void getAllTutores_whenIndexFindsNothing_shouldSkipRepository() {
+            when(tutorSearchIndex.isListo()).thenReturn(true);
+            when(tutorSearchIndex.buscar("xyz")).thenReturn(List.of());
+
+            PagedResponse<TutorSummaryResponse> result = tutorService.getAllTutores(
+                    "xyz", null, null, null, null, null, null, PageRequest.of(1, 9), null, false);
+
+            verifyNoInteractions(tutorRepository);
+            assertTrue(result.getContent().isEmpty());
+            assertEquals(1, result.getPageNumber());
+            assertEquals(0, result.getTotalElements());
+            assertTrue(result.isLast());
+        }
+
+        @Test
+        @DisplayName("Debe consultar el índice de disponibilidad con el rango de fechas completado")
+        void getAllTutores_whenAvailabilityIndexIsReady_shouldUseItWithDefaultDateRange() {
+            LocalDate fechaInicio = LocalDate.of(2025, 6, 1);
+            when(disponibilidadBitmapIndex.isListo()).thenReturn(true);
+            when(disponibilidadBitmapIndex.buscar(fechaInicio, fechaInicio.plusYears(1), LocalTime.of(9, 0), null))
+                    .thenReturn(new DisponibilidadBitmapIndex.Resultado(Set.of(), true, Set.of()));
+
+            PagedResponse<TutorSummaryResponse> result = tutorService.getAllTutores(
+                    null, null, null, fechaInicio, null, LocalTime.of(9, 0), null, PageRequest.of(0, 9), null, false);
+
+            verifyNoInteractions(tutorRepository);
+            assertEquals(0, result.getTotalElements());
+        }
+
+        @Test
+        @DisplayName("Debe cruzar los resultados del texto con los de disponibilidad")
+        void getAllTutores_whenBothIndexesAreReady_shouldIntersectCandidates() {
+            LocalDate fecha = LocalDate.of(2025, 6, 2);
+            when(tutorSearchIndex.isListo()).thenReturn(true);
+            when(tutorSearchIndex.buscar("java")).thenReturn(List.of(1L, 2L));
+            when(disponibilidadBitmapIndex.isListo()).thenReturn(true);
+            when(disponibilidadBitmapIndex.buscar(fecha, fecha, null, null))
+                    .thenReturn(new DisponibilidadBitmapIndex.Resultado(Set.of(3L), true, Set.of()));
+
+            PagedResponse<TutorSummaryResponse> result = tutorService.getAllTutores(
+                    "java", null, null, fecha, fecha, null, null, PageRequest.of(0, 9), null, false);
+
+            verifyNoInteractions(tutorRepository);
+            assertTrue(result.getContent().isEmpty());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("Sin índice de disponibilidad, debe evaluar las reglas semanales que se cruzan con la ventana")
+        void getAllTutores_whenAvailabilityIndexIsNotReady_shouldEvaluateWeeklyRules() {
+            LocalDate lunes = LocalDate.of(2025, 6, 2);
+            ReglaDisponibilidad regla = ReglaDisponibilidad.builder().id(9L).tutor(mockTutor)
+                    .diasSemana(Set.of(DayOfWeek.WEDNESDAY)).horaInicio(LocalTime.of(18, 0)).horaFinal(LocalTime.of(21, 0))
+                    .fechaInicio(lunes).fechaFin(lunes.plusDays(27)).build();
+            when(reglaDisponibilidadRepository.findConDetalleVigentesEntre(lunes, lunes.plusDays(6))).thenReturn(List.of(regla));
+            when(agendaTutorIndex.libreEntre(any(), eq(lunes), eq(lunes.plusDays(6)), eq(LocalTime.of(19, 0)), isNull()))
+                    .thenReturn(true);
+            when(tutorRepository.findAll(any(Specification.class), any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of(mockTutor), PageRequest.of(0, 9), 1));
+            when(tutorMapper.tutorsToTutorSummaryResponseList(anyList())).thenReturn(List.of(new TutorSummaryResponse()));
+
+            PagedResponse<TutorSummaryResponse> result = tutorService.getAllTutores(
+                    null, null, null, lunes, lunes.plusDays(6), LocalTime.of(19, 0), null, PageRequest.of(0, 9), null, false);
+
+            verify(reglaDisponibilidadRepository).findConDetalleVigentesEntre(lunes, lunes.plusDays(6));
+            // Las sesiones de la regla se descuentan con la agenda
+            verify(agendaTutorIndex).libreEntre(any(), eq(lunes), eq(lunes.plusDays(6)), eq(LocalTime.of(19, 0)), isNull());
+            verify(disponibilidadBitmapIndex, never()).buscar(any(), any(), any(), any());
+            assertEquals(1, result.getTotalElements());
+        }
+    }
+
+    @Nested
+    @DisplayName("Pruebas para getAllTutores con cursor")
+    class GetAllTutoresCursorTests {
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("Debe devolver un nextCursor cuando quedan más páginas")
+        void getAllTutores_whenNotLastPage_shouldReturnNextCursor() {
+            when(tutorRepository.findAll(any(Specification.class), any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of(mockTutor), PageRequest.of(0, 1), 5));
+            when(tutorMapper.tutorsToTutorSummaryResponseList(anyList())).thenReturn(List.of(new TutorSummaryResponse()));
+
+            PagedResponse<TutorSummaryResponse> result = tutorService.getAllTutores(null, null, null, null, null, null, null,
+                    PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "tarifaHora")), null, false);
+
+            TutorCursor cursor = TutorCursor.decodificar(result.getNextCursor());
+            assertEquals("tarifaHora", cursor.propiedad());
+            assertEquals(Sort.Direction.DESC, cursor.direccion());
+            assertEquals(100, cursor.valor());
+            assertEquals(1L, cursor.id());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("Debe pedir size + 1 filas después del cursor, sin OFFSET, con el orden del cursor")
+        void getAllTutores_withCursor_shouldFetchNextSliceWithoutOffset() {
+            String cursor = new TutorCursor("tarifaHora", Sort.Direction.DESC, 100, 1L).codificar();
+            Tutor siguiente = Tutor.builder().id(2L).user(mockUser).rubro("Física").estrellasPromedio(4f).tarifaHora(90).build();
+            Tutor sobrante = Tutor.builder().id(3L).user(mockUser).rubro("Física").estrellasPromedio(4f).tarifaHora(80).build();
+            doReturn(List.of(siguiente, sobrante)).when(tutorRepository).findBy(any(Specification.class), any());
+            when(tutorMapper.tutorsToTutorSummaryResponseList(List.of(siguiente))).thenReturn(List.of(new TutorSummaryResponse()));
+
+            PagedResponse<TutorSummaryResponse> result = tutorService.getAllTutores(null, null, null, null, null, null, null,
+                    PageRequest.of(0, 1, Sort.by("id")), cursor, false);
+
+            verify(tutorRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+            // Las páginas por cursor no cuentan
+            verify(tutorRepository, never()).count(any(Specification.class));
+            assertEquals(1, result.getContent().size());
+            assertEquals(-1, result.getPageNumber());
+            assertEquals(-1, result.getTotalElements());
+            assertEquals(-1, result.getTotalPages());
+            assertFalse(result.isLast());
+            TutorCursor siguienteCursor = TutorCursor.decodificar(result.getNextCursor());
+            assertEquals(90, siguienteCursor.valor());
+            assertEquals(2L, siguienteCursor.id());
+        }
+
+        @Test
+        @DisplayName("Debe lanzar BadRequestException si el cursor no es válido")
+        void getAllTutores_withInvalidCursor_shouldThrowBadRequest() {
+            assertThrows(BadRequestException.class, () -> tutorService.getAllTutores(
+                    null, null, null, null, null, null, null, PageRequest.of(0, 9), "no-es-un-cursor", false));
+            verifyNoInteractions(tutorRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Pruebas para getAllTutores con facetas")
+    class GetAllTutoresFacetasTests {
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("Debe sumar las facetas de todos los rubros y tomar de ahí el total, sin COUNT aparte")
+        void getAllTutores_withFacetas_shouldAggregateCountsPerRubro() {
+            doReturn(new SliceImpl<>(List.of(mockTutor), PageRequest.of(0, 9), false))
+                    .when(tutorRepository).findBy(any(Specification.class), any());
+            when(tutorRepository.contarPorRubro(any(Specification.class), any(int[].class), any(int[].class))).thenReturn(List.of(
+                    new TutorFacetasRepository.ConteoPorRubro("Física", 2, new long[]{0, 1, 1, 0}, new long[]{1, 2, 2, 2}),
+                    new TutorFacetasRepository.ConteoPorRubro("Matemáticas", 3, new long[]{1, 0, 1, 1}, new long[]{2, 3, 3, 3})));
+            when(tutorMapper.tutorsToTutorSummaryResponseList(anyList())).thenReturn(List.of(new TutorSummaryResponse()));
+
+            PagedResponse<TutorSummaryResponse> result = tutorService.getAllTutores(
+                    null, null, null, null, null, null, null, PageRequest.of(0, 9), null, true);
+
+            verify(tutorRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+            verify(tutorRepository, never()).count(any(Specification.class));
+            assertEquals(5, result.getTotalElements());
+            assertTrue(result.isLast());
+
+            TutorFacetasResponse facetas = assertInstanceOf(TutorCatalogoResponse.class, result).getFacetas();
+            assertEquals(List.of(1L, 1L, 2L, 1L), facetas.getPrecios().stream().map(f -> f.getCantidad()).toList());
+            assertEquals("100+", facetas.getPrecios().get(3).getValor());
+            assertNull(facetas.getPrecios().get(3).getHasta());
+            assertEquals(3, facetas.getEstrellas().get(0).getCantidad());
+            assertEquals(4, facetas.getEstrellas().get(0).getDesde());
+            assertEquals(List.of("Matemáticas", "Física"), facetas.getRubros().stream().map(f -> f.getValor()).toList());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("No debe volver a contar ni a calcular facetas en las páginas por cursor")
+        void getAllTutores_withFacetasAndCursor_shouldSkipCounting() {
+            String cursor = new TutorCursor("tarifaHora", Sort.Direction.DESC, 100, 1L).codificar();
+            doReturn(List.of(mockTutor)).when(tutorRepository).findBy(any(Specification.class), any());
+            when(tutorMapper.tutorsToTutorSummaryResponseList(anyList())).thenReturn(List.of(new TutorSummaryResponse()));
+
+            PagedResponse<TutorSummaryResponse> result = tutorService.getAllTutores(
+                    null, null, null, null, null, null, null, PageRequest.of(0, 9), cursor, true);
+
+            verify(tutorRepository, never()).contarPorRubro(any(Specification.class), any(int[].class), any(int[].class));
+            verify(tutorRepository, never()).count(any(Specification.class));
+            assertEquals(-1, result.getTotalElements());
+            assertEquals(-1, result.getTotalPages());
+            assertTrue(result.isLast());
+            assertFalse(result instanceof TutorCatalogoResponse);
+        }
+
+        @Test
+        @DisplayName("Debe devolver facetas en cero si el índice no encuentra candidatos")
+        void getAllTutores_withFacetasAndNoCandidates_shouldReturnEmptyFacets() {
+            when(tutorSearchIndex.isListo()).thenReturn(true);
+            when(tutorSearchIndex.buscar("zzz")).thenReturn(List.of());
+            when(tutorMapper.tutorsToTutorSummaryResponseList(anyList())).thenReturn(List.of());
+
+            PagedResponse<TutorSummaryResponse> result = tutorService.getAllTutores(
+                    "zzz", null, null, null, null, null, null, PageRequest.of(0, 9), null, true);
+
+            verifyNoInteractions(tutorRepository);
+            TutorFacetasResponse facetas = assertInstanceOf(TutorCatalogoResponse.class, result).getFacetas();
+            assertTrue(facetas.getPrecios().stream().allMatch(f -> f.getCantidad() == 0));
+            assertTrue(facetas.getRubros().isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Pruebas para getAllTutores con orden en memoria")
+    class GetAllTutoresRankingTests {
+
+        private Tutor tutor(Long id) {
+            return Tutor.builder().id(id).user(mockUser).rubro("Matemáticas").estrellasPromedio(4f).tarifaHora(50).build();
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("Debe ordenar por relevancia del índice y cargar solo la página pedida")
+        void getAllTutores_whenSortByRelevancia_shouldRankInMemory() {
+            when(tutorSearchIndex.isListo()).thenReturn(true);
+            when(tutorSearchIndex.puntajes("calculo")).thenReturn(Map.of(1L, 2, 2L, 6, 3L, 3, 4L, 6));
+            when(tutorRepository.findDatosRanking(any(Specification.class))).thenReturn(List.of(
+                    new TutorRankingRepository.DatosRanking(1L, 50, 4f),
+                    new TutorRankingRepository.DatosRanking(2L, 50, 4f),
+                    new TutorRankingRepository.DatosRanking(3L, 50, 4f),
+                    new TutorRankingRepository.DatosRanking(4L, 50, 4f)));
+            // La segunda página de 2: después de 2 y 4 (puntaje 6) vienen 3 y 1
+            when(tutorRepository.findAll(any(Specification.class))).thenReturn(List.of(tutor(1L), tutor(3L)));
+            when(tutorMapper.tutorsToTutorSummaryResponseList(anyList())).thenAnswer(invocation -> {
+                List<Tutor> tutores = invocation.getArgument(0);
+                return tutores.stream().map(t -> {
+                    TutorSummaryResponse dto = new TutorSummaryResponse();
+                    dto.setTutorId(t.getId());
+                    return dto;
+                }).toList();
+            });
+
+            PagedResponse<TutorSummaryResponse> result = tutorService.getAllTutores("calculo", null, null, null, null, null, null,
+                    PageRequest.of(1, 2, Sort.by("relevancia")), null, false);
+
+            verify(tutorSearchIndex, never()).buscar(any());
+            verify(tutorRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+            assertEquals(List.of(3L, 1L), result.getContent().stream().map(TutorSummaryResponse::getTutorId).toList());
+            assertEquals(4, result.getTotalElements());
+            assertTrue(result.isLast());
+            assertNull(result.getNextCursor());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("Debe ordenar por puntaje recomendado combinando estrellas y precio")
+        void getAllTutores_whenSortByRecomendado_shouldPreferStarsThenPrice() {
+            when(tutorRepository.findDatosRanking(any(Specification.class))).thenReturn(List.of(
+                    new TutorRankingRepository.DatosRanking(1L, 100, 3f),
+                    new TutorRankingRepository.DatosRanking(2L, 100, 5f),
+                    new TutorRankingRepository.DatosRanking(3L, 40, 5f)));
+            when(tutorRepository.findAll(any(Specification.class))).thenReturn(List.of(tutor(2L), tutor(3L)));
+            when(tutorMapper.tutorsToTutorSummaryResponseList(anyList())).thenAnswer(invocation -> {
+                List<Tutor> tutores = invocation.getArgument(0);
+                return tutores.stream().map(t -> {
+                    TutorSummaryResponse dto = new TutorSummaryResponse();
+                    dto.setTutorId(t.getId());
+                    return dto;
+                }).toList();
+            });
+
+            PagedResponse<TutorSummaryResponse> result = tutorService.getAllTutores(null, null, null, null, null, null, null,
+                    PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "recomendado")), null, false);
+
+            assertEquals(List.of(3L, 2L), result.getContent().stream().map(TutorSummaryResponse::getTutorId).toList());
+            assertEquals(3, result.getTotalElements());
+            assertFalse(result.isLast());
+        }
+    }
+
+    @Nested
+    @DisplayName("Pruebas para la caché de getAllTutores")
+    class GetAllTutoresCacheTests {
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("Debe responder desde la caché la misma búsqueda repetida")
+        void getAllTutores_whenRepeated_shouldQueryRepositoryOnce() {
+            when(tutorRepository.findAll(any(Specification.class), any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of(mockTutor), PageRequest.of(0, 9), 1));
+            when(tutorMapper.tutorsToTutorSummaryResponseList(anyList())).thenReturn(List.of(new TutorSummaryResponse()));
+
+            PagedResponse<TutorSummaryResponse> primera = tutorService.getAllTutores(
+                    "Cálculo", 120, null, null, null, null, null, PageRequest.of(0, 9), null, false);
+            PagedResponse<TutorSummaryResponse> segunda = tutorService.getAllTutores(
+                    "  cálculo ", 120, null, null, null, null, null, PageRequest.of(0, 9), null, false);
+
+            assertSame(primera, segunda);
+            verify(tutorRepository, times(1)).findAll(any(Specification.class), any(Pageable.class));
+            assertEquals(1, tutorListadoCache.estadisticas().aciertos());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("Debe volver a consultar después de invalidar el perfil del tutor")
+        void getAllTutores_afterProfileInvalidation_shouldQueryAgain() {
+            when(tutorRepository.findAll(any(Specification.class), any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of(mockTutor), PageRequest.of(0, 9), 1));
+            when(tutorMapper.tutorsToTutorSummaryResponseList(anyList())).thenReturn(List.of(new TutorSummaryResponse()));
+
+            tutorService.getAllTutores(null, 120, null, null, null, null, null, PageRequest.of(0, 9), null, false);
+            tutorListadoCache.invalidarPerfil(mockTutor.getId());
+            tutorService.getAllTutores(null, 120, null, null, null, null, null, PageRequest.of(0, 9), null, false);
+
+            verify(tutorRepository, times(2)).findAll(any(Specification.class), any(Pageable.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Pruebas para getTutorProfile (HU16)")
+    class GetTutorProfileTests {
+
+        @Test
+        @DisplayName("Debe devolver el perfil completo del tutor si el ID existe")
+        void getTutorProfile_whenTutorExists_shouldReturnProfile() {
+            when(tutorRepository.findById(1L)).thenReturn(Optional.of(mockTutor));
+
+            TutorProfileResponse response = tutorService.getTutorProfile(1L);
+
+            assertNotNull(response);
+            assertEquals(mockTutor.getId(), response.getId());
+            assertEquals(mockUser.getNombre(), response.getNombreUsuario());
+            verify(tutorRepository).findById(1L);
+        }
+
+        @Test
+        @DisplayName("Debe lanzar ResourceNotFoundException si el tutor no existe")
+        void getTutorProfile_whenTutorNotFound_shouldThrowResourceNotFoundException() {
+            Long nonExistentId = 99L;
+            when(tutorRepository.findById(nonExistentId)).thenReturn(Optional.empty());
+
+            assertThrows(ResourceNotFoundException.class, () -> tutorService.getTutorProfile(nonExistentId));
+        }
+    }
+
+    @Nested
+    @DisplayName("Pruebas para getTutorProfiles")
+    class GetTutorProfilesTests {
+
+        private TutorRepository.PerfilTutor perfil(Long id, String nombre) {
+            TutorRepository.PerfilTutor perfil = mock(TutorRepository.PerfilTutor.class);
+            when(perfil.getId()).thenReturn(id);
+            when(perfil.getNombre()).thenReturn(nombre);
+            return perfil;
+        }
+
+        @Test
+        @DisplayName("Debe resolver todos los perfiles con una sola consulta y en el orden pedido")
+        void getTutorProfiles_shouldUseSingleQueryAndKeepOrder() {
+            List<TutorRepository.PerfilTutor> perfiles = List.of(perfil(1L, "Ana"), perfil(2L, "Luis"));
+            when(tutorRepository.findPerfilesByIdIn(List.of(2L, 1L, 99L))).thenReturn(perfiles);
+
+            List<TutorProfileResponse> result = tutorService.getTutorProfiles(List.of(2L, 1L, 2L, 99L));
+
+            assertEquals(List.of(2L, 1L), result.stream().map(TutorProfileResponse::getId).toList());
+            assertEquals("Ana", result.get(1).getNombreUsuario());
+            verify(tutorRepository, times(1)).findPerfilesByIdIn(anyList());
+            verify(tutorRepository, never()).findById(any());
+        }
+
+        @Test
+        @DisplayName("Debe rechazar un lote con más tutores que el máximo permitido")
+        void getTutorProfiles_whenTooManyIds_shouldThrowBadRequest() {
+            List<Long> ids = LongStream.rangeClosed(1, 101).boxed().toList();
+
+            assertThrows(BadRequestException.class, () -> tutorService.getTutorProfiles(ids));
+            verifyNoInteractions(tutorRepository);
+        }
+    }
+}